@@ -0,0 +1,143 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.data.columnar;
+
+/**
+ * Column-at-a-time aggregations on {@link Column}s.
+ * <p>
+ * The kernels are plain loops over primitive arrays without virtual calls or boxing, so that the JIT can
+ * unroll and vectorize them. Null handling is skipped if a column has no nulls.
+ * </p>
+ */
+public final class ColumnKernels {
+
+    private ColumnKernels() {
+    }
+
+    /**
+     * Adds all non-null values to {@code initial} one by one, failing on overflow of an intermediate result
+     * like adding the values one row at a time would.
+     */
+    public static long sum(LongColumn column, long initial) {
+        long[] values = column.values();
+        long sum = initial;
+        if (column.nullCount() == 0) {
+            for (int i = 0; i < column.size(); i++) {
+                sum = Math.addExact(sum, values[i]);
+            }
+            return sum;
+        }
+        for (int i = 0; i < column.size(); i++) {
+            if (!column.isNull(i)) {
+                sum = Math.addExact(sum, values[i]);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the minimum of {@code initial} and all non-null values
+     */
+    public static long min(LongColumn column, long initial) {
+        long[] values = column.values();
+        long min = initial;
+        if (column.nullCount() == 0) {
+            for (int i = 0; i < column.size(); i++) {
+                min = Math.min(min, values[i]);
+            }
+            return min;
+        }
+        for (int i = 0; i < column.size(); i++) {
+            if (!column.isNull(i)) {
+                min = Math.min(min, values[i]);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @return the maximum of {@code initial} and all non-null values
+     */
+    public static long max(LongColumn column, long initial) {
+        long[] values = column.values();
+        long max = initial;
+        if (column.nullCount() == 0) {
+            for (int i = 0; i < column.size(); i++) {
+                max = Math.max(max, values[i]);
+            }
+            return max;
+        }
+        for (int i = 0; i < column.size(); i++) {
+            if (!column.isNull(i)) {
+                max = Math.max(max, values[i]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the minimum of {@code initial} and all non-null values. NaN values are ignored.
+     */
+    public static double min(DoubleColumn column, double initial) {
+        double[] values = column.values();
+        double min = initial;
+        if (column.nullCount() == 0) {
+            for (int i = 0; i < column.size(); i++) {
+                min = values[i] < min ? values[i] : min;
+            }
+            return min;
+        }
+        for (int i = 0; i < column.size(); i++) {
+            if (!column.isNull(i)) {
+                min = values[i] < min ? values[i] : min;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @return the maximum of {@code initial} and all non-null values. NaN values are ignored.
+     */
+    public static double max(DoubleColumn column, double initial) {
+        double[] values = column.values();
+        double max = initial;
+        if (column.nullCount() == 0) {
+            for (int i = 0; i < column.size(); i++) {
+                max = values[i] > max ? values[i] : max;
+            }
+            return max;
+        }
+        for (int i = 0; i < column.size(); i++) {
+            if (!column.isNull(i)) {
+                max = values[i] > max ? values[i] : max;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the number of non-null values
+     */
+    public static int countNonNull(Column column) {
+        return column.size() - column.nullCount();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.data.columnar;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Column} of {@code double} values with a null bitmap.
+ * <p>
+ * The column is meant to be re-used for consecutive batches via {@link #reset(int)}.
+ * </p>
+ */
+public final class DoubleColumn implements Column {
+
+    private double[] values;
+    private long[] nulls;
+    private int size;
+    private int nullCount;
+
+    public DoubleColumn(int capacity) {
+        this.values = new double[capacity];
+        this.nulls = new long[NullBitmap.numWords(capacity)];
+    }
+
+    /**
+     * Clears the column and sets its size. All positions are non-null after a reset.
+     */
+    public void reset(int size) {
+        if (size > values.length) {
+            values = new double[size];
+            nulls = new long[NullBitmap.numWords(size)];
+        } else if (nullCount > 0) {
+            Arrays.fill(nulls, 0L);
+        }
+        this.size = size;
+        this.nullCount = 0;
+    }
+
+    /**
+     * @return the backing array. Only the first {@link #size()} values are valid, null positions are 0d.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    public double getDouble(int position) {
+        return values[position];
+    }
+
+    public void set(int position, double value) {
+        values[position] = value;
+    }
+
+    /**
+     * Marks the position as null. The value of a null position is set to 0d so that kernels can
+     * process it without special handling and mask the result afterwards.
+     */
+    public void setNull(int position) {
+        values[position] = 0d;
+        if (NullBitmap.set(nulls, position)) {
+            nullCount++;
+        }
+    }
+
+    @Override
+    public boolean isNull(int position) {
+        return nullCount > 0 && NullBitmap.get(nulls, position);
+    }
+
+    @Override
+    public int nullCount() {
+        return nullCount;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.data.columnar;
+
+/**
+ * Helpers for bitmaps stored in a {@code long[]}; a set bit marks a null value.
+ */
+final class NullBitmap {
+
+    private NullBitmap() {
+    }
+
+    static int numWords(int numBits) {
+        return (numBits + Long.SIZE - 1) >>> 6;
+    }
+
+    static boolean get(long[] bitmap, int position) {
+        return (bitmap[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * @return true if the bit was not set before
+     */
+    static boolean set(long[] bitmap, int position) {
+        int word = position >>> 6;
+        long mask = 1L << position;
+        boolean wasUnset = (bitmap[word] & mask) == 0;
+        bitmap[word] |= mask;
+        return wasUnset;
+    }
+}
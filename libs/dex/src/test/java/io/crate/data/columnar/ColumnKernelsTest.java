@@ -0,0 +1,91 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.data.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnKernelsTest {
+
+    private static LongColumn longs(Long... values) {
+        LongColumn column = new LongColumn(values.length);
+        column.reset(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                column.setNull(i);
+            } else {
+                column.set(i, values[i]);
+            }
+        }
+        return column;
+    }
+
+    private static DoubleColumn doubles(Double... values) {
+        DoubleColumn column = new DoubleColumn(values.length);
+        column.reset(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                column.setNull(i);
+            } else {
+                column.set(i, values[i]);
+            }
+        }
+        return column;
+    }
+
+    @Test
+    void test_long_aggregates_skip_nulls() {
+        LongColumn column = longs(4L, null, -2L, 7L);
+        assertThat(ColumnKernels.sum(column, 0L)).isEqualTo(9L);
+        assertThat(ColumnKernels.sum(column, 10L)).isEqualTo(19L);
+        assertThat(ColumnKernels.min(column, Long.MAX_VALUE)).isEqualTo(-2L);
+        assertThat(ColumnKernels.max(column, Long.MIN_VALUE)).isEqualTo(7L);
+        assertThat(ColumnKernels.countNonNull(column)).isEqualTo(3);
+    }
+
+    @Test
+    void test_sum_adds_values_to_initial_value_one_by_one() {
+        LongColumn column = longs(1L, -1L);
+        assertThatThrownBy(() -> ColumnKernels.sum(column, Long.MAX_VALUE))
+            .isExactlyInstanceOf(ArithmeticException.class);
+
+        assertThat(ColumnKernels.sum(longs(-1L, 1L), Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void test_double_min_max_ignore_nan() {
+        DoubleColumn column = doubles(2.0, Double.NaN, -1.0, null);
+        assertThat(ColumnKernels.min(column, Double.MAX_VALUE)).isEqualTo(-1.0);
+        assertThat(ColumnKernels.max(column, -Double.MAX_VALUE)).isEqualTo(2.0);
+    }
+
+    @Test
+    void test_reset_clears_nulls() {
+        LongColumn column = longs(null, null);
+        column.reset(2);
+        assertThat(column.nullCount()).isEqualTo(0);
+        assertThat(column.isNull(0)).isFalse();
+    }
+}
@@ -156,6 +156,15 @@ public final class XContentBuilder implements Closeable, Flushable {
         this.generator = xContent.createGenerator(bos);
     }
 
+    /**
+     * Constructs a new builder using a generator which writes to the provided OutputStream.
+     * Used for formats which don't have a {@link XContent} implementation.
+     */
+    public XContentBuilder(XContentGenerator generator, OutputStream bos) {
+        this.bos = bos;
+        this.generator = generator;
+    }
+
     public XContentType contentType() {
         return generator.contentType();
     }
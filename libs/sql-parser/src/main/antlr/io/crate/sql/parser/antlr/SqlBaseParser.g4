@@ -44,6 +44,7 @@ statement
     | EXPLAIN (ANALYZE | explainOptions*) statement                                  #explain
     | OPTIMIZE TABLE tableWithPartitions withProperties?                             #optimize
     | REFRESH TABLE tableWithPartitions                                              #refreshTable
+    | REFRESH MATERIALIZED VIEW qname                                                #refreshMaterializedView
     | UPDATE aliasedRelation
         SET assignment (COMMA assignment)*
         where?
@@ -585,6 +586,7 @@ createStmt
         AS body=parameterOrString                                                    #createFunction
     | CREATE USER name=ident withProperties?                                         #createUser
     | CREATE ( OR REPLACE )? VIEW name=qname AS queryOptParens                       #createView
+    | CREATE MATERIALIZED VIEW name=qname AS queryOptParens                          #createMaterializedView
     | CREATE PUBLICATION name=ident
         (FOR ALL TABLES | FOR TABLE qname ASTERISK?  (COMMA qname ASTERISK? )*)?     #createPublication
     | CREATE SUBSCRIPTION name=ident CONNECTION conninfo=expr
@@ -108,6 +108,7 @@ import io.crate.sql.tree.CopyTo;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
+import io.crate.sql.tree.CreateMaterializedView;
 import io.crate.sql.tree.CreatePublication;
 import io.crate.sql.tree.CreateRepository;
 import io.crate.sql.tree.CreateSnapshot;
@@ -198,6 +199,7 @@ import io.crate.sql.tree.Query;
 import io.crate.sql.tree.QueryBody;
 import io.crate.sql.tree.QuerySpecification;
 import io.crate.sql.tree.RecordSubscript;
+import io.crate.sql.tree.RefreshMaterializedView;
 import io.crate.sql.tree.RefreshStatement;
 import io.crate.sql.tree.Relation;
 import io.crate.sql.tree.RerouteAllocateReplicaShard;
@@ -491,6 +493,14 @@ class AstBuilder extends SqlBaseParserBaseVisitor<Node> {
         );
     }
 
+    @Override
+    public Node visitCreateMaterializedView(SqlBaseParser.CreateMaterializedViewContext ctx) {
+        return new CreateMaterializedView(
+            getQualifiedName(ctx.qname()),
+            (Query) visit(ctx.queryOptParens())
+        );
+    }
+
     @Override
     public Node visitQueryOptParens(QueryOptParensContext ctx) {
         QueryContext query = ctx.query();
@@ -1000,6 +1010,11 @@ class AstBuilder extends SqlBaseParserBaseVisitor<Node> {
         return new RefreshStatement(visitCollection(context.tableWithPartitions().tableWithPartition(), Table.class));
     }
 
+    @Override
+    public Node visitRefreshMaterializedView(SqlBaseParser.RefreshMaterializedViewContext context) {
+        return new RefreshMaterializedView(getQualifiedName(context.qname()));
+    }
+
     @Override
     public Node visitTableOnly(SqlBaseParser.TableOnlyContext context) {
         return new Table<>(getQualifiedName(context.qname()));
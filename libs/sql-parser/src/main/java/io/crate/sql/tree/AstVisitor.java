@@ -608,6 +608,14 @@ public abstract class AstVisitor<R, C> {
         return visitStatement(dropView, context);
     }
 
+    public R visitCreateMaterializedView(CreateMaterializedView createMaterializedView, C context) {
+        return visitStatement(createMaterializedView, context);
+    }
+
+    public R visitRefreshMaterializedView(RefreshMaterializedView refreshMaterializedView, C context) {
+        return visitStatement(refreshMaterializedView, context);
+    }
+
     public R visitSwapTable(SwapTable<?> swapTable, C context) {
         return visitStatement(swapTable, context);
     }
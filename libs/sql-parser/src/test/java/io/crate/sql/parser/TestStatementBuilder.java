@@ -1871,6 +1871,14 @@ public class TestStatementBuilder {
         printStatement("DROP VIEW IF EXISTS v1, x.v2, y.v3");
     }
 
+    @Test
+    public void test_materialized_view_parsing() {
+        printStatement("CREATE MATERIALIZED VIEW mv AS SELECT x, count(*) FROM foobar GROUP BY x");
+        printStatement("CREATE MATERIALIZED VIEW doc.mv AS ( SELECT x, count(*) FROM foobar GROUP BY x )");
+        printStatement("REFRESH MATERIALIZED VIEW mv");
+        printStatement("REFRESH MATERIALIZED VIEW doc.mv");
+    }
+
     @Test
     public void test_values_as_top_relation_parsing() {
         printStatement("VALUES (1, 2), (2, 3), (3, 4)");
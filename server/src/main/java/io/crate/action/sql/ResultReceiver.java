@@ -21,6 +21,10 @@
 
 package io.crate.action.sql;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.jetbrains.annotations.Nullable;
+
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.Row;
 
@@ -31,6 +35,18 @@ public interface ResultReceiver<T> extends CompletionListenable<T> {
 
     void setNextRow(Row row);
 
+    /**
+     * Called after each row. If the receiver can't take more rows right now, for example because the client
+     * doesn't read the results fast enough, it returns a future which completes once it can take more rows.
+     * The consumer stops to move the source until then.
+     *
+     * @return null if the receiver can take more rows.
+     */
+    @Nullable
+    default CompletableFuture<?> readyForMoreRows() {
+        return null;
+    }
+
     void batchFinished();
 
     /**
@@ -22,6 +22,7 @@
 package io.crate.action.sql;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 import org.jetbrains.annotations.Nullable;
@@ -36,6 +37,7 @@ public class RowConsumerToResultReceiver implements RowConsumer {
     private final CompletableFuture<?> completionFuture = new CompletableFuture<>();
     private ResultReceiver<?> resultReceiver;
     private int maxRows;
+    private final Executor resumeExecutor;
 
     /**
      * Reset per suspend/execute
@@ -43,9 +45,18 @@ public class RowConsumerToResultReceiver implements RowConsumer {
     private int rowCount = 0;
     private BatchIterator<Row> activeIt;
 
-    public RowConsumerToResultReceiver(ResultReceiver<?> resultReceiver, int maxRows, Consumer<Throwable> onCompletion) {
+    /**
+     * @param resumeExecutor executor used to continue consumption once a paused {@link ResultReceiver}
+     *                       is ready for more rows. The readiness future is usually completed on a
+     *                       network thread which must not be used to drive the BatchIterator.
+     */
+    public RowConsumerToResultReceiver(ResultReceiver<?> resultReceiver,
+                                       int maxRows,
+                                       Executor resumeExecutor,
+                                       Consumer<Throwable> onCompletion) {
         this.resultReceiver = resultReceiver;
         this.maxRows = maxRows;
+        this.resumeExecutor = resumeExecutor;
         completionFuture.whenComplete((res, err) -> {
             onCompletion.accept(err);
         });
@@ -81,6 +92,11 @@ public class RowConsumerToResultReceiver implements RowConsumer {
                         resultReceiver.batchFinished();
                         return; // resumed via postgres protocol, close is done later
                     }
+                    CompletableFuture<?> readyForMoreRows = resultReceiver.readyForMoreRows();
+                    if (readyForMoreRows != null) {
+                        readyForMoreRows.whenCompleteAsync((r, f) -> consumeIt(iterator), resumeExecutor);
+                        return;
+                    }
                 }
                 if (iterator.allLoaded()) {
                     completionFuture.complete(null);
@@ -22,6 +22,7 @@
 package io.crate.action.sql;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -38,6 +40,7 @@ import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.jetbrains.annotations.Nullable;
 
 import io.crate.analyze.AnalyzedBegin;
@@ -65,6 +68,7 @@ import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.execution.jobs.kill.KillJobsNodeAction;
 import io.crate.execution.jobs.kill.KillJobsNodeRequest;
+import io.crate.execution.support.ThreadPools;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.CoordinatorTxnCtx;
@@ -75,6 +79,7 @@ import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.metadata.table.TableInfo;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
+import io.crate.planner.PlanCache;
 import io.crate.planner.Planner;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.operators.StatementClassifier;
@@ -134,6 +139,12 @@ public class Session implements AutoCloseable {
     private final DependencyCarrier executor;
     private final CoordinatorSessionSettings sessionSettings;
 
+    /**
+     * Continues result streaming after back-pressure off the network thread which signalled readiness.
+     * Falls back to running inline if the search pool rejects the task, a paused query must not hang.
+     */
+    private final Executor resumeExecutor;
+
     @VisibleForTesting
     final Map<String, PreparedStmt> preparedStatements = new HashMap<>();
     @VisibleForTesting
@@ -159,6 +170,7 @@ public class Session implements AutoCloseable {
     private final boolean isReadOnly;
     private final Runnable onClose;
     private final TableStats tableStats;
+    private final PlanCache planCache;
 
     private TransactionState currentTransactionState = TransactionState.IDLE;
 
@@ -172,6 +184,7 @@ public class Session implements AutoCloseable {
                    DependencyCarrier executor,
                    CoordinatorSessionSettings sessionSettings,
                    TableStats tableStats,
+                   PlanCache planCache,
                    Runnable onClose) {
         this.id = sessionId;
         this.secret = ThreadLocalRandom.current().nextInt();
@@ -181,8 +194,13 @@ public class Session implements AutoCloseable {
         this.jobsLogs = jobsLogs;
         this.isReadOnly = isReadOnly;
         this.executor = executor;
+        this.resumeExecutor = runnable -> ThreadPools.forceExecute(
+            executor.threadPool().executor(ThreadPool.Names.SEARCH),
+            runnable
+        );
         this.sessionSettings = sessionSettings;
         this.tableStats = tableStats;
+        this.planCache = planCache;
         this.onClose = onClose;
     }
 
@@ -207,7 +225,7 @@ public class Session implements AutoCloseable {
             ParamTypeHints.EMPTY,
             cursors
         );
-        RoutingProvider routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
+        RoutingProvider routingProvider = newRoutingProvider();
         mostRecentJobID = UUIDs.dirtyUUID();
         ClusterState clusterState = planner.currentClusterState();
         PlannerContext plannerContext = new PlannerContext(
@@ -224,7 +242,7 @@ public class Session implements AutoCloseable {
         );
         Plan plan;
         try {
-            plan = planner.plan(analyzedStatement, plannerContext);
+            plan = planCache.plan(planner, parsedStmt, List.of(), analyzedStatement, plannerContext);
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(mostRecentJobID, statement, SQLExceptions.messageOf(t), sessionSettings.sessionUser());
             throw t;
@@ -246,14 +264,14 @@ public class Session implements AutoCloseable {
                     newJobId,
                     analyzedStatement,
                     routingProvider,
-                    new RowConsumerToResultReceiver(retryResultReceiver, 0, jobsLogsUpdateListener),
+                    new RowConsumerToResultReceiver(retryResultReceiver, 0, resumeExecutor, jobsLogsUpdateListener),
                     params,
                     txnCtx,
                     nodeCtx
                 )
             );
         }
-        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, jobsLogsUpdateListener);
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, resumeExecutor, jobsLogsUpdateListener);
         plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
     }
 
@@ -280,6 +298,14 @@ public class Session implements AutoCloseable {
         plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
     }
 
+    private RoutingProvider newRoutingProvider() {
+        return new RoutingProvider(
+            Randomness.get().nextInt(),
+            planner.getAwarenessAttributes(),
+            executor.nodeResponseStats()
+        );
+    }
+
     private Portal getSafePortal(String portalName) {
         Portal portal = portals.get(portalName);
         if (portal == null) {
@@ -638,7 +664,7 @@ public class Session implements AutoCloseable {
     private CompletableFuture<?> bulkExec(List<DeferredExecution> toExec) {
         assert toExec.size() >= 1 : "Must have at least 1 deferred execution for bulk exec";
         mostRecentJobID = UUIDs.dirtyUUID();
-        var routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
+        var routingProvider = newRoutingProvider();
         var clusterState = executor.clusterService().state();
         var txnCtx = new CoordinatorTxnCtx(sessionSettings);
         var plannerContext = new PlannerContext(
@@ -724,7 +750,7 @@ public class Session implements AutoCloseable {
         }
 
         mostRecentJobID = UUIDs.dirtyUUID();
-        var routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
+        var routingProvider = newRoutingProvider();
         var clusterState = executor.clusterService().state();
         var txnCtx = new CoordinatorTxnCtx(sessionSettings);
         var nodeCtx = executor.nodeContext();
@@ -750,7 +776,14 @@ public class Session implements AutoCloseable {
         }
         Plan plan;
         try {
-            plan = planner.plan(analyzedStmt, plannerContext);
+            PreparedStmt preparedStmt = portal.preparedStmt();
+            plan = planCache.plan(
+                planner,
+                preparedStmt.parsedStatement(),
+                Arrays.asList(preparedStmt.parameterTypes()),
+                analyzedStmt,
+                plannerContext
+            );
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(mostRecentJobID, rawStatement, SQLExceptions.messageOf(t), sessionSettings.sessionUser());
             throw t;
@@ -769,6 +802,7 @@ public class Session implements AutoCloseable {
                     new RowConsumerToResultReceiver(
                         resultRec,
                         maxRows,
+                        resumeExecutor,
                         new JobsLogsUpdateListener(newJobId, jobsLogs)),
                     params,
                     txnCtx,
@@ -779,7 +813,7 @@ public class Session implements AutoCloseable {
         jobsLogs.logExecutionStart(
             mostRecentJobID, rawStatement, sessionSettings.sessionUser(), StatementClassifier.classify(plan));
         RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(
-            resultReceiver, maxRows, new JobsLogsUpdateListener(mostRecentJobID, jobsLogs));
+            resultReceiver, maxRows, resumeExecutor, new JobsLogsUpdateListener(mostRecentJobID, jobsLogs));
         portal.setActiveConsumer(consumer);
         plan.execute(executor, plannerContext, consumer, params, SubQueryResults.EMPTY);
         CompletableFuture<?> result = resultReceiver.completionFuture();
@@ -47,6 +47,7 @@ import io.crate.execution.jobs.transport.TransportCancelAction;
 import io.crate.metadata.NodeContext;
 import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.planner.DependencyCarrier;
+import io.crate.planner.PlanCache;
 import io.crate.planner.Planner;
 import io.crate.protocols.postgres.KeyData;
 import io.crate.statistics.TableStats;
@@ -84,6 +85,7 @@ public class Sessions {
     private final JobsLogs jobsLogs;
     private final ClusterService clusterService;
     private final TableStats tableStats;
+    private final PlanCache planCache;
     private final boolean isReadOnly;
     private final AtomicInteger nextSessionId = new AtomicInteger();
     private final ConcurrentMap<Integer, Session> sessions = new ConcurrentHashMap<>();
@@ -101,7 +103,8 @@ public class Sessions {
                     JobsLogs jobsLogs,
                     Settings settings,
                     ClusterService clusterService,
-                    TableStats tableStats) {
+                    TableStats tableStats,
+                    PlanCache planCache) {
         this.nodeCtx = nodeCtx;
         this.analyzer = analyzer;
         this.planner = planner;
@@ -109,6 +112,7 @@ public class Sessions {
         this.jobsLogs = jobsLogs;
         this.clusterService = clusterService;
         this.tableStats = tableStats;
+        this.planCache = planCache;
         this.isReadOnly = NODE_READ_ONLY_SETTING.get(settings);
         this.defaultStatementTimeout = STATEMENT_TIMEOUT.get(settings);
         this.memoryLimit = MEMORY_LIMIT.get(settings);
@@ -136,6 +140,7 @@ public class Sessions {
             executorProvider.get(),
             sessionSettings,
             tableStats,
+            planCache,
             () -> sessions.remove(sessionId)
         );
         sessions.put(sessionId, session);
@@ -28,6 +28,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.index.IndexSortConfig;
 
 import io.crate.analyze.AnalyzedAlterTableDropColumn.DropColumn;
 import io.crate.analyze.expressions.ExpressionAnalysisContext;
@@ -105,6 +106,7 @@ public class AlterTableDropColumnAnalyzer {
                 "Dropping columns of a table created before version 5.5 is not supported"
             );
         }
+        List<IndexSortConfig.SortColumn> sortColumns = IndexSortConfig.sortColumns(tableInfo.parameters());
         Set<ColumnIdent> uniqueSet = new HashSet<>(dropColumns.size());
         for (int i = 0 ; i < dropColumns.size(); i++) {
             var refToDrop = dropColumns.get(i).ref();
@@ -138,6 +140,13 @@ public class AlterTableDropColumnAnalyzer {
                 throw new UnsupportedOperationException("Dropping column: " + colToDrop.sqlFqn() + " which " +
                                                         "is part of the 'PARTITIONED BY' columns is not allowed");
             }
+            for (var sortColumn : sortColumns) {
+                ColumnIdent sortColumnIdent = sortColumn.columnIdent();
+                if (sortColumnIdent.equals(colToDrop) || sortColumnIdent.isChildOf(colToDrop)) {
+                    throw new UnsupportedOperationException("Dropping column: " + colToDrop.sqlFqn() + " which " +
+                                                            "is used in 'sort_by' is not allowed");
+                }
+            }
         }
     }
 
@@ -31,6 +31,7 @@ import java.util.function.Function;
 
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexSortConfig;
 
 import io.crate.analyze.TableElementsAnalyzer.RefBuilder;
 import io.crate.common.collections.Lists2;
@@ -142,6 +143,7 @@ public record AnalyzedCreateTable(
         List<Symbol> partitionedByColumns = partitionedBy
             .map(PartitionedBy::columns)
             .orElse(List.of());
+        validateSortBy(tableParameter.settings(), references, Lists2.map(partitionedByColumns, Symbols::pathFromSymbol));
 
         return new BoundCreateTable(
             relationName,
@@ -154,4 +156,24 @@ public record AnalyzedCreateTable(
             partitionedByColumns
         );
     }
+
+    private static void validateSortBy(Settings settings,
+                                       Map<ColumnIdent, Reference> references,
+                                       List<ColumnIdent> partitionedBy) {
+        for (IndexSortConfig.SortColumn sortColumn : IndexSortConfig.sortColumns(settings)) {
+            ColumnIdent column = sortColumn.columnIdent();
+            Reference reference = references.get(column);
+            if (reference == null) {
+                throw new IllegalArgumentException("Column `" + column + "` used in [sort_by] doesn't exist");
+            }
+            if (partitionedBy.contains(column)) {
+                throw new IllegalArgumentException("Partition column `" + column + "` can't be used in [sort_by]");
+            }
+            if (!reference.hasDocValues() || !IndexSortConfig.SUPPORTED_TYPE_IDS.contains(reference.valueType().id())) {
+                throw new IllegalArgumentException(
+                    "Column `" + column + "` of type `" + reference.valueType().getName() + "` can't be used in [sort_by]. " +
+                    "Only primitive columns with a column store can be used");
+            }
+        }
+    }
 }
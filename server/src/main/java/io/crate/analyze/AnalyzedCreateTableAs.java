@@ -24,6 +24,8 @@ package io.crate.analyze;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.expression.symbol.Symbol;
 
+import org.elasticsearch.common.settings.Settings;
+
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -32,13 +34,34 @@ public class AnalyzedCreateTableAs implements AnalyzedStatement {
     private final AnalyzedCreateTable analyzedCreateTable;
     private final Supplier<AnalyzedInsertStatement> postponedInsertAnalysis;
     private final AnalyzedRelation sourceRelation;
+    private final Settings internalSettings;
 
     public AnalyzedCreateTableAs(AnalyzedCreateTable analyzedCreateTable,
                                  AnalyzedRelation sourceRelation,
                                  Supplier<AnalyzedInsertStatement> postponedInsertAnalysis) {
+        this(analyzedCreateTable, sourceRelation, postponedInsertAnalysis, Settings.EMPTY);
+    }
+
+    /**
+     * @param internalSettings settings added to the created table which can't be set by users,
+     *                         e.g. the settings of a materialized view
+     */
+    public AnalyzedCreateTableAs(AnalyzedCreateTable analyzedCreateTable,
+                                 AnalyzedRelation sourceRelation,
+                                 Supplier<AnalyzedInsertStatement> postponedInsertAnalysis,
+                                 Settings internalSettings) {
         this.analyzedCreateTable = analyzedCreateTable;
         this.sourceRelation = sourceRelation;
         this.postponedInsertAnalysis = postponedInsertAnalysis;
+        this.internalSettings = internalSettings;
+    }
+
+    public AnalyzedCreateTableAs withInternalSettings(Settings internalSettings) {
+        return new AnalyzedCreateTableAs(analyzedCreateTable, sourceRelation, postponedInsertAnalysis, internalSettings);
+    }
+
+    public Settings internalSettings() {
+        return internalSettings;
     }
 
     public AnalyzedRelation sourceRelation() {
@@ -95,6 +95,10 @@ public class AnalyzedStatementVisitor<C, R> {
         return visitDDLStatement(analysis, context);
     }
 
+    public R visitRefreshMaterializedView(AnalyzedRefreshMaterializedView analysis, C context) {
+        return visitDDLStatement(analysis, context);
+    }
+
     public R visitAnalyzedAlterTableRename(AnalyzedAlterTableRename analysis, C context) {
         return visitDDLStatement(analysis, context);
     }
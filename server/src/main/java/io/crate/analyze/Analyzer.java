@@ -64,6 +64,7 @@ import io.crate.sql.tree.CreateRepository;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateSubscription;
 import io.crate.sql.tree.CreateTable;
+import io.crate.sql.tree.CreateMaterializedView;
 import io.crate.sql.tree.CreateTableAs;
 import io.crate.sql.tree.CreateUser;
 import io.crate.sql.tree.CreateView;
@@ -93,6 +94,7 @@ import io.crate.sql.tree.Insert;
 import io.crate.sql.tree.KillStatement;
 import io.crate.sql.tree.OptimizeStatement;
 import io.crate.sql.tree.Query;
+import io.crate.sql.tree.RefreshMaterializedView;
 import io.crate.sql.tree.RefreshStatement;
 import io.crate.sql.tree.ResetStatement;
 import io.crate.sql.tree.RestoreSnapshot;
@@ -147,6 +149,7 @@ public class Analyzer {
     private final AlterTableRerouteAnalyzer alterTableRerouteAnalyzer;
     private final UserAnalyzer userAnalyzer;
     private final ViewAnalyzer viewAnalyzer;
+    private final MaterializedViewAnalyzer materializedViewAnalyzer;
     private final SwapTableAnalyzer swapTableAnalyzer;
     private final DecommissionNodeAnalyzer decommissionNodeAnalyzer;
     private final KillAnalyzer killAnalyzer;
@@ -186,6 +189,7 @@ public class Analyzer {
         this.deleteAnalyzer = new DeleteAnalyzer(nodeCtx, relationAnalyzer);
         this.insertAnalyzer = new InsertAnalyzer(nodeCtx, schemas, relationAnalyzer);
         this.createTableAsAnalyzer = new CreateTableAsAnalyzer(createTableStatementAnalyzer, insertAnalyzer, relationAnalyzer);
+        this.materializedViewAnalyzer = new MaterializedViewAnalyzer(createTableAsAnalyzer, relationAnalyzer, schemas);
         this.optimizeTableAnalyzer = new OptimizeTableAnalyzer(schemas, nodeCtx);
         this.createRepositoryAnalyzer = new CreateRepositoryAnalyzer(repositoryService, nodeCtx);
         this.dropRepositoryAnalyzer = new DropRepositoryAnalyzer(repositoryService);
@@ -414,6 +418,11 @@ public class Analyzer {
                 analysis.transactionContext());
         }
 
+        @Override
+        public AnalyzedStatement visitCreateMaterializedView(CreateMaterializedView node, Analysis context) {
+            return materializedViewAnalyzer.analyze(node, context.transactionContext());
+        }
+
         @Override
         public AnalyzedStatement visitCreateUser(CreateUser<?> node, Analysis context) {
             return userAnalyzer.analyze(
@@ -553,6 +562,11 @@ public class Analyzer {
             );
         }
 
+        @Override
+        public AnalyzedStatement visitRefreshMaterializedView(RefreshMaterializedView node, Analysis context) {
+            return materializedViewAnalyzer.analyze(node, context.transactionContext());
+        }
+
         public AnalyzedStatement visitResetStatement(ResetStatement<?> node, Analysis context) {
             return resetStatementAnalyzer.analyze(
                 (ResetStatement<Expression>) node,
@@ -28,6 +28,9 @@ import io.crate.analyze.relations.FieldProvider;
 import io.crate.analyze.relations.NameFieldProvider;
 import io.crate.analyze.relations.TableRelation;
 import io.crate.common.collections.Lists2;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.CoordinatorTxnCtx;
@@ -41,6 +44,7 @@ import io.crate.sql.tree.CopyFrom;
 import io.crate.sql.tree.CopyTo;
 import io.crate.sql.tree.Expression;
 import io.crate.sql.tree.GenericProperties;
+import io.crate.sql.tree.QualifiedNameReference;
 import io.crate.sql.tree.Table;
 
 class CopyAnalyzer {
@@ -56,6 +60,10 @@ class CopyAnalyzer {
     AnalyzedCopyFrom analyzeCopyFrom(CopyFrom<Expression> node,
                                      ParamTypeHints paramTypeHints,
                                      CoordinatorTxnCtx txnCtx) {
+        if (isStdio(node.path(), StdinFileInputFactory.NAME)) {
+            throw new UnsupportedFeatureException(
+                "COPY FROM STDIN is only supported as simple query of the PostgreSQL wire protocol");
+        }
         DocTableInfo tableInfo = (DocTableInfo) schemas.resolveTableInfo(
             node.table().getName(),
             Operation.INSERT,
@@ -100,6 +108,10 @@ class CopyAnalyzer {
     AnalyzedCopyTo analyzeCopyTo(CopyTo<Expression> node,
                                  ParamTypeHints paramTypeHints,
                                  CoordinatorTxnCtx txnCtx) {
+        if (isStdio(node.targetUri(), StdoutFileOutputFactory.NAME)) {
+            throw new UnsupportedFeatureException(
+                "COPY TO STDOUT is only supported as simple query of the PostgreSQL wire protocol");
+        }
         if (!node.directoryUri()) {
             throw new UnsupportedOperationException("Using COPY TO without specifying a DIRECTORY is not supported");
         }
@@ -149,4 +161,12 @@ class CopyAnalyzer {
             columns,
             whereClause);
     }
+
+    /**
+     * {@code STDIN} and {@code STDOUT} are parsed as column references.
+     * The PostgreSQL wire protocol replaces them with the URI of the client stream.
+     */
+    private static boolean isStdio(Expression path, String name) {
+        return path instanceof QualifiedNameReference ref && ref.getName().toString().equals(name);
+    }
 }
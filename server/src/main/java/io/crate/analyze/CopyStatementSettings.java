@@ -42,7 +42,7 @@ public final class CopyStatementSettings {
 
     public static final Setting<String> OUTPUT_FORMAT_SETTING = Setting.simpleString(
         "format",
-        Validators.stringValidator("format", "json_object", "json_array"),
+        Validators.stringValidator("format", "json_object", "json_array", "arrow"),
         Setting.Property.Dynamic);
 
     public static final Setting<String> INPUT_FORMAT_SETTING = new Setting<>(
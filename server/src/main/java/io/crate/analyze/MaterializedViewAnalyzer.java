@@ -0,0 +1,178 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.analyze;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.elasticsearch.common.settings.Settings;
+
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.analyze.relations.RelationAnalyzer;
+import io.crate.exceptions.OperationOnInaccessibleRelationException;
+import io.crate.execution.ddl.views.MaterializedViewSettings;
+import io.crate.expression.symbol.AliasSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.metadata.table.Operation;
+import io.crate.metadata.table.TableInfo;
+import io.crate.sql.SqlFormatter;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.CreateMaterializedView;
+import io.crate.sql.tree.CreateTableAs;
+import io.crate.sql.tree.Query;
+import io.crate.sql.tree.RefreshMaterializedView;
+import io.crate.sql.tree.Table;
+
+/**
+ * A materialized view is a table created using {@code CREATE TABLE AS} which stores its query in internal
+ * settings (see {@link MaterializedViewSettings}), so that it can be re-computed using
+ * {@code REFRESH MATERIALIZED VIEW}.
+ */
+public final class MaterializedViewAnalyzer {
+
+    private final CreateTableAsAnalyzer createTableAsAnalyzer;
+    private final RelationAnalyzer relationAnalyzer;
+    private final Schemas schemas;
+
+    MaterializedViewAnalyzer(CreateTableAsAnalyzer createTableAsAnalyzer,
+                             RelationAnalyzer relationAnalyzer,
+                             Schemas schemas) {
+        this.createTableAsAnalyzer = createTableAsAnalyzer;
+        this.relationAnalyzer = relationAnalyzer;
+        this.schemas = schemas;
+    }
+
+    public AnalyzedCreateTableAs analyze(CreateMaterializedView createMaterializedView, CoordinatorTxnCtx txnCtx) {
+        String formattedQuery;
+        try {
+            formattedQuery = SqlFormatter.formatSql(createMaterializedView.query());
+        } catch (Exception e) {
+            throw new UnsupportedOperationException(
+                "Invalid query used in CREATE MATERIALIZED VIEW. Query: " + createMaterializedView.query());
+        }
+        Query query = (Query) SqlParser.createStatement(formattedQuery);
+        AnalyzedRelation analyzedQuery = relationAnalyzer.analyze(query, txnCtx, ParamTypeHints.EMPTY);
+        if (analyzedQuery.outputs().stream().map(f -> Symbols.pathFromSymbol(f).sqlFqn()).distinct().count()
+            != analyzedQuery.outputs().size()) {
+            throw new IllegalArgumentException("Query in CREATE MATERIALIZED VIEW must not have duplicate column names");
+        }
+
+        AnalyzedCreateTableAs createTableAs = createTableAsAnalyzer.analyze(
+            new CreateTableAs<>(new Table<>(createMaterializedView.name()), query),
+            ParamTypeHints.EMPTY,
+            txnCtx
+        );
+        Settings.Builder settings = Settings.builder()
+            .put(MaterializedViewSettings.QUERY.getKey(), formattedQuery)
+            .put(MaterializedViewSettings.SCHEMA.getKey(), txnCtx.sessionSettings().searchPath().currentSchema());
+        addIncrementalRefreshSettings(analyzedQuery, settings);
+        return createTableAs.withInternalSettings(settings.build());
+    }
+
+    /**
+     * Adds the settings required for incremental refreshes if the query groups the rows of a single table by
+     * columns of the table which are all part of the result. The groups affected by new rows can then be looked
+     * up in the table and in the view.
+     */
+    private static void addIncrementalRefreshSettings(AnalyzedRelation analyzedQuery, Settings.Builder settings) {
+        if (!(analyzedQuery instanceof QueriedSelectRelation select)
+            || select.from().size() != 1
+            || !(select.from().get(0) instanceof DocTableRelation docTableRelation)
+            || select.groupBy().isEmpty()
+            || select.limit() != null
+            || select.offset() != null) {
+            return;
+        }
+        List<String> viewKeys = new ArrayList<>(select.groupBy().size());
+        List<String> sourceKeys = new ArrayList<>(select.groupBy().size());
+        for (Symbol groupKey : select.groupBy()) {
+            if (!(groupKey instanceof Reference ref) || !ref.column().isRoot()) {
+                return;
+            }
+            Symbol output = null;
+            for (Symbol candidate : select.outputs()) {
+                Symbol unaliased = candidate instanceof AliasSymbol alias ? alias.symbol() : candidate;
+                if (unaliased.equals(ref)) {
+                    output = candidate;
+                    break;
+                }
+            }
+            if (output == null) {
+                return;
+            }
+            viewKeys.add(Symbols.pathFromSymbol(output).quotedOutputName());
+            sourceKeys.add(ref.column().quotedOutputName());
+        }
+        DocTableInfo source = docTableRelation.tableInfo();
+        settings
+            .put(MaterializedViewSettings.SOURCE.getKey(), source.ident().indexNameOrAlias())
+            .putList(MaterializedViewSettings.GROUP_BY.getKey(), viewKeys)
+            .putList(MaterializedViewSettings.SOURCE_GROUP_BY.getKey(), sourceKeys);
+    }
+
+    public AnalyzedRefreshMaterializedView analyze(RefreshMaterializedView refreshMaterializedView,
+                                                   CoordinatorTxnCtx txnCtx) {
+        var sessionSettings = txnCtx.sessionSettings();
+        TableInfo tableInfo = schemas.resolveTableInfo(
+            refreshMaterializedView.name(),
+            Operation.INSERT,
+            sessionSettings.sessionUser(),
+            sessionSettings.searchPath()
+        );
+        Settings settings = tableInfo instanceof DocTableInfo docTableInfo ? docTableInfo.parameters() : Settings.EMPTY;
+        if (!MaterializedViewSettings.isMaterializedView(settings)) {
+            throw new OperationOnInaccessibleRelationException(
+                tableInfo.ident(),
+                "Relation \"" + tableInfo.ident().fqn() + "\" is not a materialized view"
+            );
+        }
+        DocTableInfo view = (DocTableInfo) tableInfo;
+
+        // Analyzed like the refresh will execute it, to check the privileges on the tables the view reads from.
+        var viewSessionSettings = new CoordinatorSessionSettings(
+            sessionSettings.authenticatedUser(),
+            sessionSettings.sessionUser(),
+            MaterializedViewSettings.SCHEMA.get(settings)
+        );
+        AnalyzedRelation query = relationAnalyzer.analyze(
+            (Query) SqlParser.createStatement(MaterializedViewSettings.QUERY.get(settings)),
+            new CoordinatorTxnCtx(viewSessionSettings),
+            ParamTypeHints.EMPTY
+        );
+
+        String sourceIndex = MaterializedViewSettings.SOURCE.get(settings);
+        DocTableInfo source = null;
+        if (!sourceIndex.isEmpty()) {
+            source = schemas.getTableInfo(RelationName.fromIndexName(sourceIndex));
+        }
+        return new AnalyzedRefreshMaterializedView(view, query, source);
+    }
+}
@@ -40,6 +40,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.engine.EngineConfig;
 import org.elasticsearch.index.mapper.MapperService;
@@ -94,6 +95,8 @@ public class TableParameters {
             EnableAllocationDecider.INDEX_ROUTING_ALLOCATION_ENABLE_SETTING,
             IndexSettings.INDEX_TRANSLOG_SYNC_INTERVAL_SETTING,
             IndexSettings.INDEX_TRANSLOG_DURABILITY_SETTING,
+            IndexSettings.INDEX_SOURCE_FORMAT_SETTING,
+            IndexSortConfig.INDEX_SORT_BY_SETTING,
             ShardsLimitAllocationDecider.INDEX_TOTAL_SHARDS_PER_NODE_SETTING,
             MapperService.INDEX_MAPPING_TOTAL_FIELDS_LIMIT_SETTING,
             IndexSettings.INDEX_WARMER_ENABLED_SETTING,
@@ -140,7 +143,11 @@ public class TableParameters {
         IndexSettings.INDEX_REFRESH_INTERVAL_SETTING,
 
         IndexSettings.FILE_BASED_RECOVERY_THRESHOLD_SETTING,
-        Store.INDEX_STORE_STATS_REFRESH_INTERVAL_SETTING
+        Store.INDEX_STORE_STATS_REFRESH_INTERVAL_SETTING,
+
+        // Only written if set explicitly, to keep the SHOW CREATE TABLE output of existing tables
+        IndexSettings.INDEX_SOURCE_FORMAT_SETTING,
+        IndexSortConfig.INDEX_SORT_BY_SETTING
     );
 
     private static final Map<String, Setting<?>> SUPPORTED_SETTINGS_DEFAULT
@@ -63,6 +63,7 @@ import io.crate.analyze.AnalyzedInsertStatement;
 import io.crate.analyze.AnalyzedKill;
 import io.crate.analyze.AnalyzedOptimizeTable;
 import io.crate.analyze.AnalyzedPrivileges;
+import io.crate.analyze.AnalyzedRefreshMaterializedView;
 import io.crate.analyze.AnalyzedRefreshTable;
 import io.crate.analyze.AnalyzedRerouteRetryFailed;
 import io.crate.analyze.AnalyzedResetStatement;
@@ -517,6 +518,18 @@ public final class AccessControlImpl implements AccessControl {
             return null;
         }
 
+        @Override
+        public Void visitRefreshMaterializedView(AnalyzedRefreshMaterializedView analysis, User user) {
+            Privileges.ensureUserHasPrivilege(
+                Privilege.Type.DML,
+                Privilege.Clazz.TABLE,
+                analysis.view().ident().fqn(),
+                user,
+                defaultSchema);
+            visitRelation(analysis.query(), user, Privilege.Type.DQL);
+            return null;
+        }
+
         @Override
         public Void visitAnalyzedAlterTableRename(AnalyzedAlterTableRename analysis, User user) {
             Privileges.ensureUserHasPrivilege(
@@ -0,0 +1,293 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.ddl.views;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.action.ActionType;
+import org.elasticsearch.action.support.DefaultShardOperationFailedException;
+import org.elasticsearch.action.support.broadcast.BroadcastRequest;
+import org.elasticsearch.action.support.broadcast.BroadcastResponse;
+import org.elasticsearch.action.support.broadcast.node.TransportBroadcastByNodeAction;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
+import org.elasticsearch.cluster.routing.PlainShardsIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.ShardsIterator;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.index.engine.MissingHistoryOperationsException;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+/**
+ * Captures the global checkpoints of the primary shards of the source of a materialized view and tells whether
+ * the operations since the checkpoints of the previous refresh only appended new rows.
+ *
+ * <p>
+ * All operations up to the global checkpoint have been processed by all in-sync copies of a shard. The statements
+ * of the refresh may read from any copy, so the source must be refreshed after capturing the checkpoints to make
+ * these operations visible on all copies, see {@link RefreshMaterializedViewOperation}.
+ * </p>
+ */
+public class MaterializedViewChangesAction extends ActionType<MaterializedViewChangesAction.Response> {
+
+    public static final String NAME = "internal:crate:sql/materialized_views/changes";
+    public static final MaterializedViewChangesAction INSTANCE = new MaterializedViewChangesAction();
+
+    public MaterializedViewChangesAction() {
+        super(NAME);
+    }
+
+    @Override
+    public Writeable.Reader<Response> getResponseReader() {
+        return Response::new;
+    }
+
+    @Singleton
+    public static class TransportAction extends TransportBroadcastByNodeAction<Request, Response, ShardResult> {
+
+        private static final String SOURCE = "materialized-view-refresh";
+
+        private final IndicesService indicesService;
+
+        @Inject
+        public TransportAction(ClusterService clusterService,
+                               TransportService transportService,
+                               IndicesService indicesService) {
+            super(
+                NAME,
+                clusterService,
+                transportService,
+                Request::new,
+                ThreadPool.Names.REFRESH,
+                true
+            );
+            this.indicesService = indicesService;
+        }
+
+        @Override
+        protected ShardResult shardOperation(Request request, ShardRouting shardRouting) throws IOException {
+            ShardId shardId = shardRouting.shardId();
+            IndexShard indexShard = indicesService.indexServiceSafe(shardId.getIndex()).getShard(shardId.id());
+            String shardKey = MaterializedViewSettings.shardKey(shardId);
+            long checkpoint = indexShard.getLastKnownGlobalCheckpoint();
+            Long previousCheckpoint = request.checkpoints().get(shardKey);
+            boolean appendOnly = previousCheckpoint != null
+                && isAppendOnly(indexShard, previousCheckpoint + 1, checkpoint);
+            return new ShardResult(shardKey, checkpoint, appendOnly);
+        }
+
+        /**
+         * Returns true if all operations in the range only added new documents.
+         * Updates and deletes require to recompute groups which may not contain any new rows.
+         */
+        private static boolean isAppendOnly(IndexShard indexShard, long fromSeqNo, long toSeqNo) throws IOException {
+            if (fromSeqNo > toSeqNo || indexShard.getMaxSeqNoOfUpdatesOrDeletes() < fromSeqNo) {
+                return true;
+            }
+            // The max_seq_no_of_updates is only an upper bound, it's advanced to the max_seq_no on primary
+            // promotion or recovery. Look at the operations to find out if there really were updates or deletes.
+            try (Translog.Snapshot snapshot = indexShard.newChangesSnapshot(SOURCE, fromSeqNo, toSeqNo, true)) {
+                Translog.Operation op;
+                while ((op = snapshot.next()) != null) {
+                    switch (op.opType()) {
+                        case DELETE:
+                            return false;
+                        case INDEX:
+                            if (((Translog.Index) op).version() != 1L) {
+                                return false;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } catch (MissingHistoryOperationsException e) {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        protected ShardResult readShardResult(StreamInput in) throws IOException {
+            return new ShardResult(in);
+        }
+
+        @Override
+        protected Response newResponse(Request request,
+                                       int totalShards,
+                                       int successfulShards,
+                                       int failedShards,
+                                       List<ShardResult> results,
+                                       List<DefaultShardOperationFailedException> shardFailures,
+                                       ClusterState clusterState) {
+            return new Response(totalShards, successfulShards, failedShards, shardFailures, results);
+        }
+
+        @Override
+        protected Request readRequestFrom(StreamInput in) throws IOException {
+            return new Request(in);
+        }
+
+        /**
+         * Only primaries know the global checkpoint and are guaranteed to retain the history since the
+         * previous checkpoint.
+         */
+        @Override
+        protected ShardsIterator shards(ClusterState clusterState, Request request, String[] concreteIndices) {
+            List<ShardRouting> primaries = new ArrayList<>();
+            for (String index : concreteIndices) {
+                for (IndexShardRoutingTable shardRoutingTable : clusterState.routingTable().index(index)) {
+                    primaries.add(shardRoutingTable.primaryShard());
+                }
+            }
+            return new PlainShardsIterator(primaries);
+        }
+
+        @Override
+        protected ClusterBlockException checkGlobalBlock(ClusterState state, Request request) {
+            return state.blocks().globalBlockedException(ClusterBlockLevel.METADATA_READ);
+        }
+
+        @Override
+        protected ClusterBlockException checkRequestBlock(ClusterState state, Request request, String[] concreteIndices) {
+            return state.blocks().indicesBlockedException(ClusterBlockLevel.METADATA_READ, concreteIndices);
+        }
+    }
+
+    public static class Request extends BroadcastRequest<Request> {
+
+        private final Map<String, Long> checkpoints;
+
+        /**
+         * @param checkpoints the checkpoints of the previous refresh by {@link MaterializedViewSettings#shardKey(ShardId)}
+         */
+        public Request(String[] indices, Map<String, Long> checkpoints) {
+            super(indices);
+            this.checkpoints = checkpoints;
+        }
+
+        public Request(StreamInput in) throws IOException {
+            super(in);
+            checkpoints = in.readMap(StreamInput::readString, StreamInput::readLong);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeMap(checkpoints, StreamOutput::writeString, StreamOutput::writeLong);
+        }
+
+        public Map<String, Long> checkpoints() {
+            return checkpoints;
+        }
+    }
+
+    public static class ShardResult implements Writeable {
+
+        private final String shardKey;
+        private final long checkpoint;
+        private final boolean appendOnly;
+
+        public ShardResult(String shardKey, long checkpoint, boolean appendOnly) {
+            this.shardKey = shardKey;
+            this.checkpoint = checkpoint;
+            this.appendOnly = appendOnly;
+        }
+
+        public ShardResult(StreamInput in) throws IOException {
+            shardKey = in.readString();
+            checkpoint = in.readZLong();
+            appendOnly = in.readBoolean();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(shardKey);
+            out.writeZLong(checkpoint);
+            out.writeBoolean(appendOnly);
+        }
+
+        public String shardKey() {
+            return shardKey;
+        }
+
+        /**
+         * @return the global checkpoint of the shard, {@link SequenceNumbers#NO_OPS_PERFORMED} if it is empty
+         */
+        public long checkpoint() {
+            return checkpoint;
+        }
+
+        /**
+         * @return true if the shard had a checkpoint in the request and only new documents were added since
+         */
+        public boolean appendOnly() {
+            return appendOnly;
+        }
+    }
+
+    public static class Response extends BroadcastResponse {
+
+        private final List<ShardResult> results;
+
+        public Response(int totalShards,
+                        int successfulShards,
+                        int failedShards,
+                        List<DefaultShardOperationFailedException> shardFailures,
+                        List<ShardResult> results) {
+            super(totalShards, successfulShards, failedShards, shardFailures);
+            this.results = results;
+        }
+
+        public Response(StreamInput in) throws IOException {
+            super(in);
+            results = in.readList(ShardResult::new);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeList(results);
+        }
+
+        public List<ShardResult> results() {
+            return results;
+        }
+    }
+}
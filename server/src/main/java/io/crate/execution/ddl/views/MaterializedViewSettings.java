@@ -0,0 +1,143 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.ddl.views;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+
+import io.crate.types.DataTypes;
+
+/**
+ * Internal index settings of the tables backing a materialized view.
+ *
+ * <p>
+ * The view definition is stored with the table, so that the table and the view are dropped, renamed and restored
+ * together. The group keys and the source are only set if the view can be refreshed incrementally.
+ * </p>
+ */
+public final class MaterializedViewSettings {
+
+    private MaterializedViewSettings() {
+    }
+
+    /**
+     * The formatted query of the view. Tables without this setting aren't materialized views.
+     */
+    public static final Setting<String> QUERY = Setting.simpleString(
+        "index.materialized_view.query",
+        Property.InternalIndex,
+        Property.IndexScope
+    );
+
+    /**
+     * The schema used to resolve unqualified relation names of the query.
+     */
+    public static final Setting<String> SCHEMA = Setting.simpleString(
+        "index.materialized_view.schema",
+        Property.InternalIndex,
+        Property.IndexScope
+    );
+
+    /**
+     * Index name or alias of the single table the query reads from.
+     */
+    public static final Setting<String> SOURCE = Setting.simpleString(
+        "index.materialized_view.source",
+        Property.InternalIndex,
+        Property.IndexScope
+    );
+
+    /**
+     * The columns of the view which hold the group keys, quoted.
+     */
+    public static final Setting<List<String>> GROUP_BY = Setting.listSetting(
+        "index.materialized_view.group_by",
+        List.of(),
+        Function.identity(),
+        DataTypes.STRING_ARRAY,
+        Property.InternalIndex,
+        Property.IndexScope
+    );
+
+    /**
+     * The columns of the source table the group keys are read from, quoted, in the order of {@link #GROUP_BY}.
+     */
+    public static final Setting<List<String>> SOURCE_GROUP_BY = Setting.listSetting(
+        "index.materialized_view.source_group_by",
+        List.of(),
+        Function.identity(),
+        DataTypes.STRING_ARRAY,
+        Property.InternalIndex,
+        Property.IndexScope
+    );
+
+    /**
+     * The global checkpoints of the primary shards of the source at the time of the last refresh,
+     * as {@code <indexUUID>:<shardId>:<seqNo>} entries.
+     */
+    public static final Setting<List<String>> CHECKPOINTS = Setting.listSetting(
+        "index.materialized_view.checkpoints",
+        List.of(),
+        Function.identity(),
+        DataTypes.STRING_ARRAY,
+        Property.InternalIndex,
+        Property.IndexScope
+    );
+
+    public static boolean isMaterializedView(Settings settings) {
+        return QUERY.get(settings).isEmpty() == false;
+    }
+
+    public static String shardKey(ShardId shardId) {
+        return shardId.getIndex().getUUID() + ":" + shardId.id();
+    }
+
+    /**
+     * @return the checkpoints of the last refresh by {@link #shardKey(ShardId)}
+     */
+    public static Map<String, Long> checkpoints(Settings settings) {
+        List<String> entries = CHECKPOINTS.get(settings);
+        HashMap<String, Long> checkpoints = new HashMap<>(entries.size());
+        for (String entry : entries) {
+            int idx = entry.lastIndexOf(':');
+            checkpoints.put(entry.substring(0, idx), Long.parseLong(entry.substring(idx + 1)));
+        }
+        return checkpoints;
+    }
+
+    public static List<String> checkpointEntries(Map<String, Long> checkpoints) {
+        ArrayList<String> entries = new ArrayList<>(checkpoints.size());
+        for (var entry : checkpoints.entrySet()) {
+            entries.add(entry.getKey() + ":" + entry.getValue());
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.ddl.views;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import org.elasticsearch.action.admin.indices.refresh.RefreshAction;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.action.sql.CollectingResultReceiver;
+import io.crate.action.sql.Session;
+import io.crate.action.sql.Sessions;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.user.User;
+
+/**
+ * Refreshes a materialized view by running the statements which re-compute its rows.
+ *
+ * <p>
+ * A full refresh deletes all rows of the view and runs the query of the view again.
+ * </p>
+ *
+ * <p>
+ * Views which group the rows of a single table by plain columns can be refreshed incrementally if the table only
+ * got new rows since the last refresh. The group keys of the new rows are looked up using the {@code _seq_no} of
+ * the rows and only the groups with these keys are deleted and re-computed:
+ * </p>
+ *
+ * <pre>
+ *     SELECT DISTINCT k FROM source WHERE _seq_no >= ?
+ *     DELETE FROM view WHERE k = ANY(?)
+ *     INSERT INTO view SELECT * FROM (query) AS mv WHERE k = ANY(?)
+ * </pre>
+ *
+ * Sequence numbers are assigned per shard, the smallest checkpoint of all shards is used for the lookup.
+ * This can select keys of rows which aren't new, which only means that some groups are re-computed without
+ * having changed.
+ *
+ * <p>
+ * The statements may read from any shard copy. The checkpoints are global checkpoints, which all in-sync copies
+ * have processed, and the source is refreshed before running the statements, so every copy sees at least the
+ * operations up to the stored checkpoints.
+ * </p>
+ */
+@Singleton
+public class RefreshMaterializedViewOperation {
+
+    private final Sessions sessions;
+    private final NodeClient client;
+
+    @Inject
+    public RefreshMaterializedViewOperation(Sessions sessions, NodeClient client) {
+        this.sessions = sessions;
+        this.client = client;
+    }
+
+    /**
+     * @param source the table the view reads from if the view can be refreshed incrementally, otherwise null.
+     * @return the number of rows written to the view
+     */
+    public CompletableFuture<Long> refresh(DocTableInfo view, @Nullable DocTableInfo source) {
+        Settings settings = view.parameters();
+        if (source == null || source.concreteOpenIndices().length == 0) {
+            return fullRefresh(view, settings);
+        }
+        Map<String, Long> previousCheckpoints = MaterializedViewSettings.checkpoints(settings);
+        var request = new MaterializedViewChangesAction.Request(source.concreteOpenIndices(), previousCheckpoints);
+        return client.execute(MaterializedViewChangesAction.INSTANCE, request).thenCompose(response -> {
+            if (response.getSuccessfulShards() < response.getTotalShards()) {
+                throw new IllegalStateException(String.format(
+                    Locale.ENGLISH,
+                    "Couldn't refresh materialized view `%s`, only %d of %d shards of `%s` are available",
+                    view.ident().fqn(),
+                    response.getSuccessfulShards(),
+                    response.getTotalShards(),
+                    source.ident().fqn()
+                ));
+            }
+            // Make the operations up to the captured checkpoints visible on all copies
+            RefreshRequest refreshSource = new RefreshRequest(source.concreteOpenIndices());
+            refreshSource.indicesOptions(IndicesOptions.lenientExpandOpen());
+            return client.execute(RefreshAction.INSTANCE, refreshSource).thenCompose(refreshResponse -> {
+                if (refreshResponse.getFailedShards() > 0) {
+                    throw new IllegalStateException(String.format(
+                        Locale.ENGLISH,
+                        "Couldn't refresh materialized view `%s`, %d shards of `%s` couldn't be refreshed",
+                        view.ident().fqn(),
+                        refreshResponse.getFailedShards(),
+                        source.ident().fqn()
+                    ));
+                }
+                return refreshFromCheckpoints(view, settings, source, previousCheckpoints, response);
+            });
+        });
+    }
+
+    private CompletableFuture<Long> refreshFromCheckpoints(DocTableInfo view,
+                                                           Settings settings,
+                                                           DocTableInfo source,
+                                                           Map<String, Long> previousCheckpoints,
+                                                           MaterializedViewChangesAction.Response response) {
+        HashMap<String, Long> checkpoints = new HashMap<>();
+        boolean appendOnly = previousCheckpoints.size() == response.results().size();
+        long fromSeqNo = Long.MAX_VALUE;
+        for (var result : response.results()) {
+            checkpoints.put(result.shardKey(), result.checkpoint());
+            appendOnly &= result.appendOnly();
+            Long previousCheckpoint = previousCheckpoints.get(result.shardKey());
+            if (previousCheckpoint != null && result.checkpoint() > previousCheckpoint) {
+                fromSeqNo = Math.min(fromSeqNo, previousCheckpoint + 1);
+            }
+        }
+        CompletableFuture<Long> refreshed;
+        if (appendOnly == false) {
+            refreshed = fullRefresh(view, settings);
+        } else if (fromSeqNo == Long.MAX_VALUE) {
+            refreshed = CompletableFuture.completedFuture(0L);
+        } else {
+            refreshed = incrementalRefresh(view, settings, source, fromSeqNo);
+        }
+        var updateCheckpoints = new UpdateMaterializedViewCheckpointsAction.Request(
+            view.ident(),
+            MaterializedViewSettings.checkpointEntries(checkpoints)
+        );
+        return refreshed.thenCompose(rowCount ->
+            client.execute(UpdateMaterializedViewCheckpointsAction.INSTANCE, updateCheckpoints)
+                .thenApply(ignored -> rowCount));
+    }
+
+    private CompletableFuture<Long> fullRefresh(DocTableInfo view, Settings settings) {
+        String schema = MaterializedViewSettings.SCHEMA.get(settings);
+        String viewName = view.ident().sqlFqn();
+        return execute(schema, "DELETE FROM " + viewName, Row.EMPTY)
+            .thenCompose(ignored -> execute(
+                schema,
+                "INSERT INTO " + viewName + " " + MaterializedViewSettings.QUERY.get(settings),
+                Row.EMPTY))
+            .thenCompose(rowCount -> execute(schema, "REFRESH TABLE " + viewName, Row.EMPTY)
+                .thenApply(ignored -> rowCount));
+    }
+
+    private CompletableFuture<Long> incrementalRefresh(DocTableInfo view,
+                                                       Settings settings,
+                                                       DocTableInfo source,
+                                                       long fromSeqNo) {
+        String schema = MaterializedViewSettings.SCHEMA.get(settings);
+        List<String> viewKeys = MaterializedViewSettings.GROUP_BY.get(settings);
+        List<String> sourceKeys = MaterializedViewSettings.SOURCE_GROUP_BY.get(settings);
+        String keysQuery = "SELECT DISTINCT " + String.join(", ", sourceKeys)
+            + " FROM " + source.ident().sqlFqn()
+            + " WHERE _seq_no >= " + fromSeqNo;
+        var keysReceiver = new CollectingResultReceiver<>(Collectors.mapping(Row::materialize, Collectors.toList()));
+        try (Session session = sessions.newSession(schema, User.CRATE_USER)) {
+            session.quickExec(keysQuery, keysReceiver, Row.EMPTY);
+        } catch (Throwable t) {
+            return CompletableFuture.failedFuture(t);
+        }
+        return keysReceiver.completionFuture().thenCompose(keys -> {
+            if (keys.isEmpty()) {
+                return CompletableFuture.completedFuture(0L);
+            }
+            List<Object> params = new ArrayList<>(viewKeys.size());
+            String filter = keysFilter(viewKeys, keys, params);
+            Row paramsRow = new RowN(params.toArray());
+            String viewName = view.ident().sqlFqn();
+            String query = MaterializedViewSettings.QUERY.get(settings);
+            return execute(schema, "DELETE FROM " + viewName + " WHERE " + filter, paramsRow)
+                .thenCompose(ignored -> execute(
+                    schema,
+                    "INSERT INTO " + viewName + " SELECT * FROM (" + query + ") AS mv WHERE " + filter,
+                    paramsRow))
+                .thenCompose(rowCount -> execute(schema, "REFRESH TABLE " + viewName, Row.EMPTY)
+                    .thenApply(ignored -> rowCount));
+        });
+    }
+
+    /**
+     * Creates a filter which matches all groups with keys contained in the given rows.
+     * Each key is matched on its own, so the filter can also match combinations of keys which didn't occur
+     * together.
+     *
+     * @param params receives the distinct values of each key as array parameter
+     */
+    static String keysFilter(List<String> viewKeys, List<Object[]> keys, List<Object> params) {
+        ArrayList<String> conditions = new ArrayList<>(viewKeys.size());
+        for (int i = 0; i < viewKeys.size(); i++) {
+            LinkedHashSet<Object> values = new LinkedHashSet<>();
+            boolean hasNull = false;
+            for (Object[] row : keys) {
+                if (row[i] == null) {
+                    hasNull = true;
+                } else {
+                    values.add(row[i]);
+                }
+            }
+            String column = viewKeys.get(i);
+            ArrayList<String> matches = new ArrayList<>(2);
+            if (values.isEmpty() == false) {
+                params.add(new ArrayList<>(values));
+                matches.add(column + " = ANY($" + params.size() + ")");
+            }
+            if (hasNull) {
+                matches.add(column + " IS NULL");
+            }
+            conditions.add("(" + String.join(" OR ", matches) + ")");
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    private CompletableFuture<Long> execute(String schema, String statement, Row params) {
+        Collector<Row, ?, Long> sumRowCounts = Collectors.summingLong(row -> (long) row.get(0));
+        var rowCountReceiver = new CollectingResultReceiver<>(sumRowCounts);
+        try (Session session = sessions.newSession(schema, User.CRATE_USER)) {
+            session.quickExec(statement, rowCountReceiver, params);
+        } catch (Throwable t) {
+            return CompletableFuture.failedFuture(t);
+        }
+        return rowCountReceiver.completionFuture();
+    }
+}
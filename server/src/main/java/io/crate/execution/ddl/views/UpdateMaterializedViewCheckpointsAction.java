@@ -0,0 +1,149 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.ddl.views;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.elasticsearch.action.ActionType;
+import org.elasticsearch.action.support.master.AcknowledgedRequest;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateTaskExecutor;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import io.crate.exceptions.RelationUnknown;
+import io.crate.execution.ddl.AbstractDDLTransportAction;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.cluster.DDLClusterStateTaskExecutor;
+
+/**
+ * Stores the checkpoints of a refresh in the {@link MaterializedViewSettings#CHECKPOINTS} setting of the view.
+ */
+public class UpdateMaterializedViewCheckpointsAction extends ActionType<AcknowledgedResponse> {
+
+    public static final String NAME = "internal:crate:sql/materialized_views/checkpoints/update";
+    public static final UpdateMaterializedViewCheckpointsAction INSTANCE = new UpdateMaterializedViewCheckpointsAction();
+
+    public UpdateMaterializedViewCheckpointsAction() {
+        super(NAME);
+    }
+
+    @Override
+    public Writeable.Reader<AcknowledgedResponse> getResponseReader() {
+        return AcknowledgedResponse::new;
+    }
+
+    @Singleton
+    public static class TransportAction extends AbstractDDLTransportAction<Request, AcknowledgedResponse> {
+
+        @Inject
+        public TransportAction(TransportService transportService,
+                               ClusterService clusterService,
+                               ThreadPool threadPool) {
+            super(NAME,
+                transportService,
+                clusterService,
+                threadPool,
+                Request::new,
+                AcknowledgedResponse::new,
+                AcknowledgedResponse::new,
+                "update-materialized-view-checkpoints");
+        }
+
+        @Override
+        public ClusterStateTaskExecutor<Request> clusterStateTaskExecutor(Request request) {
+            return new DDLClusterStateTaskExecutor<>() {
+                @Override
+                protected ClusterState execute(ClusterState currentState, Request request) throws Exception {
+                    IndexMetadata indexMetadata = currentState.metadata().index(request.view().indexNameOrAlias());
+                    if (indexMetadata == null) {
+                        throw new RelationUnknown(request.view());
+                    }
+                    Settings settings = Settings.builder()
+                        .put(indexMetadata.getSettings())
+                        .putList(MaterializedViewSettings.CHECKPOINTS.getKey(), request.checkpoints())
+                        .build();
+                    Metadata.Builder mdBuilder = Metadata.builder(currentState.metadata())
+                        .put(IndexMetadata
+                            .builder(indexMetadata)
+                            .settingsVersion(1 + indexMetadata.getSettingsVersion())
+                            .settings(settings));
+                    return ClusterState.builder(currentState).metadata(mdBuilder).build();
+                }
+            };
+        }
+
+        @Override
+        protected ClusterBlockException checkBlock(Request request, ClusterState state) {
+            return state.blocks().globalBlockedException(ClusterBlockLevel.METADATA_WRITE);
+        }
+    }
+
+    public static class Request extends AcknowledgedRequest<Request> {
+
+        private final RelationName view;
+        private final List<String> checkpoints;
+
+        /**
+         * @param checkpoints entries as created by {@link MaterializedViewSettings#checkpointEntries(java.util.Map)}
+         */
+        public Request(RelationName view, List<String> checkpoints) {
+            this.view = view;
+            this.checkpoints = checkpoints;
+        }
+
+        public Request(StreamInput in) throws IOException {
+            super(in);
+            view = new RelationName(in);
+            checkpoints = in.readList(StreamInput::readString);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            view.writeTo(out);
+            out.writeStringCollection(checkpoints);
+        }
+
+        public RelationName view() {
+            return view;
+        }
+
+        public List<String> checkpoints() {
+            return checkpoints;
+        }
+    }
+}
@@ -50,6 +50,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.SequenceIDFields;
@@ -80,6 +81,7 @@ import io.crate.metadata.TransactionContext;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.planner.operators.SubQueryResults;
+import io.crate.server.xcontent.BinarySource;
 import io.crate.sql.tree.CheckConstraint;
 import io.crate.sql.tree.ColumnPolicy;
 import io.crate.types.ArrayType;
@@ -127,6 +129,7 @@ public class Indexer {
     private final List<Synthetic> undeterministic = new ArrayList<>();
     private final BytesStreamOutput stream;
     private final boolean writeOids;
+    private final boolean writeBinarySource;
 
     /**
      * Function to resolve a field type based on the columns {@link Reference#storageIdent()}.
@@ -424,6 +427,9 @@ public class Indexer {
         this.synthetics = new HashMap<>();
         this.stream = new BytesStreamOutput();
         this.writeOids = table.versionCreated().onOrAfter(Version.V_5_5_0);
+        // Shards of tables created with 5.6 are never allocated to older nodes, which can't read the binary format
+        this.writeBinarySource = table.versionCreated().onOrAfter(Version.V_5_6_0)
+            && "binary".equals(IndexSettings.INDEX_SOURCE_FORMAT_SETTING.get(table.parameters()));
         this.getFieldType = getFieldType;
         Function<ColumnIdent, Reference> getRef = table::getReference;
         PartitionName partitionName = table.isPartitioned()
@@ -746,7 +752,7 @@ public class Indexer {
         for (Synthetic synthetic: synthetics.values()) {
             synthetic.reset();
         }
-        try (XContentBuilder xContentBuilder = XContentFactory.json(stream)) {
+        try (XContentBuilder xContentBuilder = writeBinarySource ? BinarySource.builder(stream) : XContentFactory.json(stream)) {
             xContentBuilder.startObject();
             Object[] values = item.insertValues();
             for (int i = 0; i < values.length; i++) {
@@ -21,6 +21,7 @@
 
 package io.crate.execution.dsl.projection;
 
+import io.crate.expression.symbol.AggregateMode;
 import io.crate.metadata.RowGranularity;
 
 import java.util.ArrayList;
@@ -56,4 +57,31 @@ public class Projections {
         }
         return false;
     }
+
+    /**
+     * @return true if the projections only filter or evaluate rows and end with a partial aggregation.
+     *         Such projections can be applied to any subset of the source rows independently,
+     *         because a following projection merges the partial results.
+     */
+    public static boolean canApplyToSubsets(Collection<? extends Projection> projections) {
+        AggregateMode lastMode = null;
+        for (Projection projection : projections) {
+            if (lastMode != null) {
+                return false;
+            }
+            switch (projection.projectionType()) {
+                case FILTER, EVAL:
+                    break;
+                case AGGREGATION:
+                    lastMode = ((AggregationProjection) projection).mode();
+                    break;
+                case GROUP:
+                    lastMode = ((GroupProjection) projection).mode();
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return lastMode == AggregateMode.ITER_PARTIAL;
+    }
 }
@@ -21,6 +21,7 @@
 
 package io.crate.execution.dsl.projection;
 
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.scalar.FormatFunction;
 import io.crate.expression.symbol.Function;
@@ -78,11 +79,17 @@ public class WriterProjection extends Projection {
     );
 
 
-    public static final Symbol DIRECTORY_TO_FILENAME = new Function(
-        FormatFunction.SIGNATURE,
-        List.of(Literal.of("%s_%s_%s.json"), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF),
-        DataTypes.STRING
-    );
+    public static final Symbol DIRECTORY_TO_FILENAME = fileNameFormat("%s_%s_%s.json");
+
+    public static final Symbol DIRECTORY_TO_ARROW_FILENAME = fileNameFormat("%s_%s_%s.arrow");
+
+    private static Symbol fileNameFormat(String format) {
+        return new Function(
+            FormatFunction.SIGNATURE,
+            List.of(Literal.of(format), TABLE_NAME_REF, SHARD_ID_REF, PARTITION_IDENT_REF),
+            DataTypes.STRING
+        );
+    }
 
     private final Symbol uri;
     private final List<Symbol> inputs;
@@ -102,7 +109,8 @@ public class WriterProjection extends Projection {
 
     public enum OutputFormat {
         JSON_OBJECT,
-        JSON_ARRAY
+        JSON_ARRAY,
+        ARROW
     }
 
     private final CompressionType compressionType;
@@ -156,6 +164,10 @@ public class WriterProjection extends Projection {
 
     @Override
     public RowGranularity requiredGranularity() {
+        // The rows of all shards are written to a single client stream on the handler node
+        if (uri instanceof Literal<?> literal && StdoutFileOutputFactory.isStdout(literal.value())) {
+            return RowGranularity.CLUSTER;
+        }
         return RowGranularity.SHARD;
     }
 
@@ -221,6 +233,10 @@ public class WriterProjection extends Projection {
             Symbols.toStream(entry.getValue(), out);
         }
         out.writeInt(compressionType != null ? compressionType.ordinal() : -1);
+        if (outputFormat == OutputFormat.ARROW && out.getVersion().before(Version.V_5_6_0)) {
+            throw new UnsupportedOperationException(
+                "COPY TO with format 'arrow' is not supported until all nodes are upgraded to 5.6");
+        }
         out.writeInt(outputFormat.ordinal());
         if (out.getVersion().onOrAfter(Version.V_4_8_0)) {
             Settings.writeSettingsToStream(withClauseOptions, out);
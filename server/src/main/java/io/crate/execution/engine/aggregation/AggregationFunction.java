@@ -117,6 +117,16 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
                                                 "not removable cumulative");
     }
 
+    /**
+     * Indicates if {@link #reduce(RamAccounting, Object, Object)} leaves both given states unchanged.
+     * The partial states of such functions can be re-used in multiple reductions. This allows window functions to
+     * compute sliding frames by combining pre-aggregated ranges of a partition as described in
+     * http://www.vldb.org/pvldb/vol8/p1058-leis.pdf, instead of aggregating all rows of each frame.
+     */
+    public boolean isReduceSideEffectFree() {
+        return false;
+    }
+
     @Nullable
     public DocValueAggregator<?> getDocValueAggregator(LuceneReferenceResolver referenceResolver,
                                                        List<Reference> aggregationReferences,
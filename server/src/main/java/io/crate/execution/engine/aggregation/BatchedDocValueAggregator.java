@@ -0,0 +1,41 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.IOException;
+
+import io.crate.data.breaker.RamAccounting;
+
+/**
+ * A {@link DocValueAggregator} which can aggregate the doc values of a batch of documents at once.
+ * <p>
+ * Implementations read the doc values of the batch into a {@link io.crate.data.columnar.Column} using
+ * {@link DocValuesColumns} and aggregate it with {@link io.crate.data.columnar.ColumnKernels}.
+ * </p>
+ */
+public interface BatchedDocValueAggregator<T> extends DocValueAggregator<T> {
+
+    /**
+     * @param docs ascending doc ids of the current leaf. Only the first {@code numDocs} entries are valid.
+     */
+    void apply(RamAccounting ramAccounting, int[] docs, int numDocs, T state) throws IOException;
+}
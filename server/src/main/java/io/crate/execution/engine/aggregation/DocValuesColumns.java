@@ -0,0 +1,70 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.util.NumericUtils;
+
+import io.crate.data.columnar.DoubleColumn;
+import io.crate.data.columnar.LongColumn;
+
+/**
+ * Reads doc values of a batch of documents into {@link io.crate.data.columnar.Column}s.
+ * Documents without a value or with multiple values result in a null entry.
+ */
+public final class DocValuesColumns {
+
+    /**
+     * Number of documents per batch
+     */
+    public static final int BATCH_SIZE = 1024;
+
+    private DocValuesColumns() {
+    }
+
+    public static void readLongs(SortedNumericDocValues values, int[] docs, int numDocs, LongColumn out) throws IOException {
+        out.reset(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            if (values.advanceExact(docs[i]) && values.docValueCount() == 1) {
+                out.set(i, values.nextValue());
+            } else {
+                out.setNull(i);
+            }
+        }
+    }
+
+    /**
+     * Reads double values which are stored as sortable longs, see {@link NumericUtils#doubleToSortableLong(double)}
+     */
+    public static void readDoubles(SortedNumericDocValues values, int[] docs, int numDocs, DoubleColumn out) throws IOException {
+        out.reset(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            if (values.advanceExact(docs[i]) && values.docValueCount() == 1) {
+                out.set(i, NumericUtils.sortableLongToDouble(values.nextValue()));
+            } else {
+                out.setNull(i);
+            }
+        }
+    }
+}
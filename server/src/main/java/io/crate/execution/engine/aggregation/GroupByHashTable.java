@@ -0,0 +1,312 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.io.stream.ByteBufferStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.data.Input;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.memory.MemoryManager;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.CharacterType;
+import io.crate.types.DataType;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.IpType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Open addressing hash table which stores the keys serialized into a flat arena of {@link ByteBuf} pages
+ * allocated via a {@link MemoryManager}.
+ * <p>
+ * The hash slots only contain the index of a group. Groups are numbered by insertion order and their hash,
+ * key address and states are stored in arrays indexed by the group number.
+ * Compared to a {@link java.util.HashMap} with a {@link List} key per group this avoids the key, list and entry
+ * objects per group and allows to account the used memory exactly instead of guessing the per entry overhead.
+ * </p>
+ * <p>
+ * Two keys are considered equal if their serialized representation is equal. This is only valid for types where the
+ * {@link Streamer} produces the same bytes for values that are equal, see {@link #supportsKeyTypes(List)}.
+ * </p>
+ */
+public final class GroupByHashTable implements GroupByTable {
+
+    static final int PAGE_SIZE = 32 * 1024;
+    private static final int INITIAL_NUM_SLOTS = 16;
+    private static final int KEY_LENGTH_BYTES = Integer.BYTES;
+    private static final long BYTES_PER_GROUP =
+        Integer.BYTES                               // hashes
+        + Long.BYTES                                // keyAddresses
+        + RamUsageEstimator.NUM_BYTES_OBJECT_REF;   // states
+
+    private static final Set<Integer> SUPPORTED_KEY_TYPES = Set.of(
+        BooleanType.ID,
+        ByteType.ID,
+        ShortType.ID,
+        IntegerType.ID,
+        LongType.ID,
+        FloatType.ID,
+        DoubleType.ID,
+        TimestampType.ID_WITH_TZ,
+        TimestampType.ID_WITHOUT_TZ,
+        DateType.ID,
+        StringType.ID,
+        CharacterType.ID,
+        IpType.ID
+    );
+
+    private final List<? extends Input<?>> keyInputs;
+    private final Streamer<?>[] keyStreamers;
+    private final RamAccounting ramAccounting;
+    private final MemoryManager memoryManager;
+    private final ByteBuf scratch = Unpooled.buffer(64);
+    private final StreamOutput scratchOut = new OutputStreamStreamOutput(new ByteBufOutputStream(scratch));
+    private final ArrayList<ByteBuf> pages = new ArrayList<>();
+
+    /**
+     * group number + 1 per slot; 0 marks an empty slot
+     */
+    private int[] slots;
+    private int[] hashes;
+    private long[] keyAddresses;
+    private Object[][] states;
+    private int size = 0;
+
+    private int currentHash;
+    private int currentSlot = -1;
+
+    /**
+     * @return true if all key types have a serialized representation that can be used for equality checks
+     */
+    public static boolean supportsKeyTypes(List<? extends DataType<?>> keyTypes) {
+        for (DataType<?> keyType : keyTypes) {
+            if (SUPPORTED_KEY_TYPES.contains(keyType.id()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public GroupByHashTable(List<? extends Input<?>> keyInputs,
+                            List<? extends DataType<?>> keyTypes,
+                            RamAccounting ramAccounting,
+                            MemoryManager memoryManager) {
+        assert keyInputs.size() == keyTypes.size() : "number of key inputs must match number of key types";
+        assert supportsKeyTypes(keyTypes) : "key types must be supported: " + keyTypes;
+        this.keyInputs = keyInputs;
+        this.keyStreamers = new Streamer<?>[keyTypes.size()];
+        for (int i = 0; i < keyStreamers.length; i++) {
+            keyStreamers[i] = keyTypes.get(i).streamer();
+        }
+        this.ramAccounting = ramAccounting;
+        this.memoryManager = memoryManager;
+        ramAccounting.addBytes(INITIAL_NUM_SLOTS * (Integer.BYTES + BYTES_PER_GROUP));
+        this.slots = new int[INITIAL_NUM_SLOTS];
+        this.hashes = new int[INITIAL_NUM_SLOTS];
+        this.keyAddresses = new long[INITIAL_NUM_SLOTS];
+        this.states = new Object[INITIAL_NUM_SLOTS][];
+    }
+
+    @Override
+    @Nullable
+    public Object[] getForCurrentKey() {
+        scratch.clear();
+        try {
+            for (int i = 0; i < keyStreamers.length; i++) {
+                //noinspection unchecked
+                ((Streamer<Object>) keyStreamers[i]).writeValueTo(scratchOut, keyInputs.get(i).value());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int hash = mix(ByteBufUtil.hashCode(scratch));
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int group = slots[slot] - 1;
+            if (group < 0) {
+                currentHash = hash;
+                currentSlot = slot;
+                return null;
+            }
+            if (hashes[group] == hash && keyEquals(group)) {
+                return states[group];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public void putForCurrentKey(Object[] groupStates) {
+        assert currentSlot >= 0 && slots[currentSlot] == 0 : "putForCurrentKey must follow a getForCurrentKey miss";
+        ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) groupStates.length * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+        long keyAddress = appendKey();
+        if (size == hashes.length) {
+            growGroups();
+        }
+        hashes[size] = currentHash;
+        keyAddresses[size] = keyAddress;
+        states[size] = groupStates;
+        slots[currentSlot] = size + 1;
+        currentSlot = -1;
+        size++;
+        if (size * 4L >= slots.length * 3L) {
+            rehash();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Cursor cursor() {
+        return new Cursor() {
+
+            int group = -1;
+
+            @Override
+            public boolean moveNext() {
+                group++;
+                return group < size;
+            }
+
+            @Override
+            public void writeKey(Object[] cells) {
+                long address = keyAddresses[group];
+                ByteBuf page = pages.get(page(address));
+                int offset = offset(address);
+                int length = page.getInt(offset);
+                StreamInput in = new ByteBufferStreamInput(page.nioBuffer(offset + KEY_LENGTH_BYTES, length));
+                try {
+                    for (int i = 0; i < keyStreamers.length; i++) {
+                        cells[i] = keyStreamers[i].readValueFrom(in);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public Object[] states() {
+                return states[group];
+            }
+        };
+    }
+
+    private boolean keyEquals(int group) {
+        long address = keyAddresses[group];
+        ByteBuf page = pages.get(page(address));
+        int offset = offset(address);
+        int length = page.getInt(offset);
+        return length == scratch.readableBytes()
+            && ByteBufUtil.equals(page, offset + KEY_LENGTH_BYTES, scratch, 0, length);
+    }
+
+    /**
+     * Copies the key in {@link #scratch} into the arena
+     * @return the address of the key
+     */
+    private long appendKey() {
+        int length = scratch.readableBytes();
+        int requiredBytes = KEY_LENGTH_BYTES + length;
+        ByteBuf page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+        if (page == null || page.capacity() - page.writerIndex() < requiredBytes) {
+            page = memoryManager.allocate(Math.max(PAGE_SIZE, requiredBytes));
+            pages.add(page);
+        }
+        int offset = page.writerIndex();
+        page.writeInt(length);
+        page.writeBytes(scratch, 0, length);
+        return ((long) (pages.size() - 1) << 32) | offset;
+    }
+
+    private void growGroups() {
+        int newCapacity = ArrayUtil.oversize(size + 1, Long.BYTES);
+        ramAccounting.addBytes((newCapacity - hashes.length) * BYTES_PER_GROUP);
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        keyAddresses = Arrays.copyOf(keyAddresses, newCapacity);
+        states = Arrays.copyOf(states, newCapacity);
+    }
+
+    private void rehash() {
+        int newNumSlots = slots.length << 1;
+        ramAccounting.addBytes((long) (newNumSlots - slots.length) * Integer.BYTES);
+        int[] newSlots = new int[newNumSlots];
+        int mask = newNumSlots - 1;
+        for (int group = 0; group < size; group++) {
+            int slot = hashes[group] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = group + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int page(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    /**
+     * Finalization step of murmur3 to spread the bits of the byte hash over the whole int range
+     */
+    private static int mix(int hash) {
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -62,6 +62,16 @@ public final class GroupByMaps {
         };
     }
 
+    /**
+     * @return true if {@link #mapForType(DataType)} returns a map specialized for primitive keys
+     */
+    public static boolean hasPrimitiveMap(DataType<?> type) {
+        return switch (type.id()) {
+            case ByteType.ID, ShortType.ID, IntegerType.ID, LongType.ID, TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> true;
+            default -> false;
+        };
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     public static <K, V> Supplier<Map<K, V>> mapForType(DataType<K> type) {
         switch (type.id()) {
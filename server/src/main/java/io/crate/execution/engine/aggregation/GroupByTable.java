@@ -0,0 +1,65 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the aggregation states of each group for the {@link GroupingCollector}.
+ * <p>
+ * Lookups are done for the "current key", that is the key described by the key inputs of the
+ * collector once its collect expressions have been set to the current row.
+ * </p>
+ */
+interface GroupByTable {
+
+    /**
+     * @return the states of the group for the current key or null if there is no such group yet.
+     *         In that case {@link #putForCurrentKey(Object[])} must be used to add the states.
+     */
+    @Nullable
+    Object[] getForCurrentKey();
+
+    /**
+     * Adds a group for the key of the last {@link #getForCurrentKey()} call.
+     */
+    void putForCurrentKey(Object[] states);
+
+    int size();
+
+    Cursor cursor();
+
+    /**
+     * Iterates over all groups of a {@link GroupByTable}
+     */
+    interface Cursor {
+
+        boolean moveNext();
+
+        /**
+         * Writes the key values of the current group into the first cells of {@code cells}
+         */
+        void writeKey(Object[] cells);
+
+        Object[] states();
+    }
+}
@@ -21,16 +21,21 @@
 
 package io.crate.execution.engine.aggregation;
 
+import io.crate.Streamer;
+import io.crate.breaker.ChildRamAccounting;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillFile;
 import io.crate.expression.InputCondition;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.memory.MemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
 import io.crate.types.DataType;
 import org.elasticsearch.Version;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,9 +44,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
@@ -49,9 +56,17 @@ import java.util.stream.Collector;
  * Collector implementation which uses {@link AggregateMode}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
  *
- * @param <K> type of the key
+ * <p>
+ * Single keys with a primitive representation are grouped using primitive maps.
+ * Other keys are grouped using a {@link GroupByHashTable} if their types support it, otherwise using a {@link HashMap}.
+ * </p>
+ * <p>
+ * If created with a spill file factory, the groups are held in a {@link SpillingGroupByTable} which writes them to
+ * disk once they exceed the memory budget. Their memory is accounted on a {@link ChildRamAccounting}, so that
+ * spilling only releases the bytes of the groups and not those of other users of the shared {@link RamAccounting}.
+ * </p>
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector implements Collector<Row, GroupByTable, Iterable<Row>> {
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
@@ -60,74 +75,137 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final Input<Boolean>[] filters;
     private final RamAccounting ramAccounting;
     private final MemoryManager memoryManager;
-    private final BiConsumer<K, Object[]> applyKeyToCells;
     private final int numKeyColumns;
-    private final BiConsumer<Map<K, Object[]>, K> accountForNewEntry;
-    private final Function<Row, K> keyExtractor;
     private final Version indexVersionCreated;
-    private final BiConsumer<Map<K, Object[]>, Row> accumulator;
-    private final Supplier<Map<K, Object[]>> supplier;
+    private final BiConsumer<GroupByTable, Row> accumulator;
+    private final Supplier<GroupByTable> supplier;
     private final Version minNodeVersion;
+    private final boolean spills;
 
-    static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
-                                               AggregateMode mode,
-                                               AggregationFunction[] aggregations,
-                                               Input[][] inputs,
-                                               Input<Boolean>[] filters,
-                                               RamAccounting ramAccounting,
-                                               MemoryManager memoryManager,
-                                               Version minNodeVersion,
-                                               Input<?> keyInput,
-                                               DataType keyType,
-                                               Version indexVersionCreated) {
-        return new GroupingCollector<>(
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static GroupingCollector singleKey(CollectExpression<Row, ?>[] expressions,
+                                       AggregateMode mode,
+                                       AggregationFunction[] aggregations,
+                                       Input[][] inputs,
+                                       Input<Boolean>[] filters,
+                                       RamAccounting ramAccounting,
+                                       MemoryManager memoryManager,
+                                       Version minNodeVersion,
+                                       Input<?> keyInput,
+                                       DataType<?> keyType,
+                                       Version indexVersionCreated,
+                                       @Nullable Function<Streamer<?>[], SpillFile> newSpillFile,
+                                       @Nullable LongSupplier memoryBudget) {
+        RamAccounting groupsRamAccounting = newSpillFile == null ? ramAccounting : new ChildRamAccounting(ramAccounting);
+        MemoryManager tableMemoryManager = newSpillFile == null
+            ? memoryManager
+            : spillableMemoryManager(groupsRamAccounting);
+        Function<List<? extends Input<?>>, GroupByTable> newTable;
+        if (GroupByMaps.hasPrimitiveMap(keyType) == false && GroupByHashTable.supportsKeyTypes(List.of(keyType))) {
+            newTable = keys -> new GroupByHashTable(keys, List.of(keyType), groupsRamAccounting, tableMemoryManager);
+        } else {
+            Supplier<Map<Object, Object[]>> mapSupplier = GroupByMaps.mapForType((DataType) keyType);
+            BiConsumer<Map<Object, Object[]>, Object> accountForNewEntry =
+                GroupByMaps.accountForNewEntry(groupsRamAccounting, (DataType) keyType);
+            newTable = keys -> new MapGroupByTable<>(
+                mapSupplier.get(),
+                keys.get(0)::value,
+                accountForNewEntry,
+                (key, cells) -> cells[0] = key
+            );
+        }
+        return new GroupingCollector(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccounting,
-            memoryManager,
+            groupsRamAccounting,
+            tableMemoryManager,
             minNodeVersion,
-            (key, cells) -> cells[0] = key,
-            1,
-            GroupByMaps.accountForNewEntry(ramAccounting, keyType),
-            row -> keyInput.value(),
+            List.of(keyInput),
             indexVersionCreated,
-            GroupByMaps.mapForType(keyType)
+            newTable,
+            newSpillFile == null ? null : spillFiles(newSpillFile, List.of(keyType), aggregations),
+            memoryBudget
         );
     }
 
-    static GroupingCollector<List<Object>> manyKeys(CollectExpression<Row, ?>[] expressions,
-                                                    AggregateMode mode,
-                                                    AggregationFunction[] aggregations,
-                                                    Input[][] inputs,
-                                                    Input<Boolean>[] filters,
-                                                    RamAccounting ramAccountingContext,
-                                                    MemoryManager memoryManager,
-                                                    Version minNodeVersion,
-                                                    List<Input<?>> keyInputs,
-                                                    List<? extends DataType> keyTypes,
-                                                    Version indexVersionCreated) {
-        return new GroupingCollector<>(
+    static GroupingCollector manyKeys(CollectExpression<Row, ?>[] expressions,
+                                      AggregateMode mode,
+                                      AggregationFunction[] aggregations,
+                                      Input[][] inputs,
+                                      Input<Boolean>[] filters,
+                                      RamAccounting ramAccountingContext,
+                                      MemoryManager memoryManager,
+                                      Version minNodeVersion,
+                                      List<Input<?>> keyInputs,
+                                      List<? extends DataType<?>> keyTypes,
+                                      Version indexVersionCreated,
+                                      @Nullable Function<Streamer<?>[], SpillFile> newSpillFile,
+                                      @Nullable LongSupplier memoryBudget) {
+        RamAccounting groupsRamAccounting = newSpillFile == null
+            ? ramAccountingContext
+            : new ChildRamAccounting(ramAccountingContext);
+        MemoryManager tableMemoryManager = newSpillFile == null
+            ? memoryManager
+            : spillableMemoryManager(groupsRamAccounting);
+        Function<List<? extends Input<?>>, GroupByTable> newTable;
+        if (GroupByHashTable.supportsKeyTypes(keyTypes)) {
+            newTable = keys -> new GroupByHashTable(keys, keyTypes, groupsRamAccounting, tableMemoryManager);
+        } else {
+            BiConsumer<Map<List<Object>, Object[]>, List<Object>> accountForNewEntry =
+                GroupByMaps.accountForNewEntry(groupsRamAccounting, keyTypes);
+            newTable = keys -> new MapGroupByTable<>(
+                new HashMap<>(),
+                () -> evalKeyInputs(keys),
+                accountForNewEntry,
+                GroupingCollector::applyKeysToCells
+            );
+        }
+        return new GroupingCollector(
             expressions,
             aggregations,
             mode,
             inputs,
             filters,
-            ramAccountingContext,
-            memoryManager,
+            groupsRamAccounting,
+            tableMemoryManager,
             minNodeVersion,
-            GroupingCollector::applyKeysToCells,
-            keyInputs.size(),
-            GroupByMaps.accountForNewEntry(ramAccountingContext, keyTypes),
-            row -> evalKeyInputs(keyInputs),
+            keyInputs,
             indexVersionCreated,
-            HashMap::new
+            newTable,
+            newSpillFile == null ? null : spillFiles(newSpillFile, keyTypes, aggregations),
+            memoryBudget
         );
     }
 
-    private static List<Object> evalKeyInputs(List<Input<?>> keyInputs) {
+    /**
+     * Spilled groups must release their memory once they're garbage collected.
+     * Buffers of the operation {@link MemoryManager} may live off-heap and are only released once the operation
+     * finishes, so spilling collectors allocate on-heap buffers which are accounted via the {@link RamAccounting}.
+     */
+    private static MemoryManager spillableMemoryManager(RamAccounting ramAccounting) {
+        return new OnHeapMemoryManager(ramAccounting::addBytes);
+    }
+
+    /**
+     * @return a supplier for spill files for rows with the key columns followed by the partial aggregation states
+     */
+    private static Supplier<SpillFile> spillFiles(Function<Streamer<?>[], SpillFile> newSpillFile,
+                                                  List<? extends DataType<?>> keyTypes,
+                                                  AggregationFunction<?, ?>[] aggregations) {
+        Streamer<?>[] streamers = new Streamer<?>[keyTypes.size() + aggregations.length];
+        for (int i = 0; i < keyTypes.size(); i++) {
+            streamers[i] = keyTypes.get(i).streamer();
+        }
+        for (int i = 0; i < aggregations.length; i++) {
+            streamers[keyTypes.size() + i] = aggregations[i].partialType().streamer();
+        }
+        return () -> newSpillFile.apply(streamers);
+    }
+
+    private static List<Object> evalKeyInputs(List<? extends Input<?>> keyInputs) {
         List<Object> key = new ArrayList<>(keyInputs.size());
         for (Input<?> keyInput : keyInputs) {
             key.add(keyInput.value());
@@ -149,12 +227,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               RamAccounting ramAccounting,
                               MemoryManager memoryManager,
                               Version minNodeVersion,
-                              BiConsumer<K, Object[]> applyKeyToCells,
-                              int numKeyColumns,
-                              BiConsumer<Map<K, Object[]>, K> accountForNewEntry,
-                              Function<Row, K> keyExtractor,
+                              List<? extends Input<?>> keyInputs,
                               Version indexVersionCreated,
-                              Supplier<Map<K, Object[]>> supplier) {
+                              Function<List<? extends Input<?>>, GroupByTable> newTable,
+                              @Nullable Supplier<SpillFile> newSpillFile,
+                              @Nullable LongSupplier memoryBudget) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
@@ -162,35 +239,53 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         this.filters = filters;
         this.ramAccounting = ramAccounting;
         this.memoryManager = memoryManager;
-        this.applyKeyToCells = applyKeyToCells;
-        this.numKeyColumns = numKeyColumns;
-        this.accountForNewEntry = accountForNewEntry;
-        this.keyExtractor = keyExtractor;
+        this.numKeyColumns = keyInputs.size();
         this.indexVersionCreated = indexVersionCreated;
         this.accumulator = mode == AggregateMode.PARTIAL_FINAL ? this::reduce : this::iter;
-        this.supplier = supplier;
+        this.spills = newSpillFile != null;
+        if (newSpillFile == null) {
+            this.supplier = () -> newTable.apply(keyInputs);
+        } else {
+            assert memoryBudget != null : "memoryBudget is required if spilling is enabled";
+            this.supplier = () -> new SpillingGroupByTable(
+                newTable,
+                keyInputs,
+                aggregations,
+                ramAccounting,
+                memoryBudget,
+                newSpillFile
+            );
+        }
         this.minNodeVersion = minNodeVersion;
     }
 
+    /**
+     * @return true if the states created by the {@link #supplier()} write groups to disk once they exceed the memory
+     *         budget. These states must be closed to remove the files.
+     */
+    boolean spills() {
+        return spills;
+    }
+
     @Override
-    public Supplier<Map<K, Object[]>> supplier() {
+    public Supplier<GroupByTable> supplier() {
         return supplier;
     }
 
     @Override
-    public BiConsumer<Map<K, Object[]>, Row> accumulator() {
+    public BiConsumer<GroupByTable, Row> accumulator() {
         return accumulator;
     }
 
     @Override
-    public BinaryOperator<Map<K, Object[]>> combiner() {
+    public BinaryOperator<GroupByTable> combiner() {
         return (state1, state2) -> {
             throw new UnsupportedOperationException("combine not supported");
         };
     }
 
     @Override
-    public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
+    public Function<GroupByTable, Iterable<Row>> finisher() {
         return this::mapToRows;
     }
 
@@ -199,18 +294,17 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         return Collections.emptySet();
     }
 
-    private void reduce(Map<K, Object[]> statesByKey, Row row) {
+    private void reduce(GroupByTable statesByKey, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
         }
-        K key = keyExtractor.apply(row);
-        Object[] states = statesByKey.get(key);
+        Object[] states = statesByKey.getForCurrentKey();
         if (states == null) {
             states = new Object[aggregations.length];
             for (int i = 0; i < aggregations.length; i++) {
                 states[i] = inputs[i][0].value();
             }
-            addWithAccounting(statesByKey, key, states);
+            statesByKey.putForCurrentKey(states);
         } else {
             for (int i = 0; i < aggregations.length; i++) {
                 states[i] = aggregations[i].reduce(ramAccounting, states[i], inputs[i][0].value());
@@ -218,19 +312,13 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         }
     }
 
-    private void addWithAccounting(Map<K, Object[]> statesByKey, K key, Object[] states) {
-        accountForNewEntry.accept(statesByKey, key);
-        statesByKey.put(key, states);
-    }
-
-    private void iter(Map<K, Object[]> statesByKey, Row row) {
+    private void iter(GroupByTable statesByKey, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
         }
-        K key = keyExtractor.apply(row);
-        Object[] states = statesByKey.get(key);
+        Object[] states = statesByKey.getForCurrentKey();
         if (states == null) {
-            addNewEntry(statesByKey, key);
+            addNewEntry(statesByKey);
         } else {
             for (int i = 0; i < aggregations.length; i++) {
                 if (InputCondition.matches(filters[i])) {
@@ -241,7 +329,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         }
     }
 
-    private void addNewEntry(Map<K, Object[]> statesByKey, K key) {
+    private void addNewEntry(GroupByTable statesByKey) {
         Object[] states;
         states = new Object[aggregations.length];
         for (int i = 0; i < aggregations.length; i++) {
@@ -255,15 +343,16 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                 states[i] = newState;
             }
         }
-        addWithAccounting(statesByKey, key, states);
+        statesByKey.putForCurrentKey(states);
     }
 
-    private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
+    private Iterable<Row> mapToRows(GroupByTable statesByKey) {
 
         return () -> new Iterator<>() {
-            final Iterator<Map.Entry<K, Object[]>> iterator = statesByKey.entrySet().iterator();
+            final GroupByTable.Cursor cursor = statesByKey.cursor();
             final RowN row = new RowN(numKeyColumns + aggregations.length);
             final Object[] cells = new Object[row.numColumns()];
+            boolean hasNext = cursor.moveNext();
 
             {
                 row.cells(cells);
@@ -271,20 +360,22 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
 
             @Override
             public boolean hasNext() {
-                return iterator.hasNext();
+                return hasNext;
             }
 
             @Override
             public Row next() {
-                Map.Entry<K, Object[]> input = iterator.next();
-                assert input != null : "input must not be null";
-                applyKeyToCells.accept(input.getKey(), cells);
+                if (!hasNext) {
+                    throw new NoSuchElementException("GroupByTable has no more groups");
+                }
+                cursor.writeKey(cells);
                 int c = numKeyColumns;
-                Object[] states = input.getValue();
+                Object[] states = cursor.states();
                 for (int i = 0; i < states.length; i++) {
                     cells[c] = mode.finishCollect(ramAccounting, aggregations[i], states[i]);
                     c++;
                 }
+                hasNext = cursor.moveNext();
                 return row;
             }
         };
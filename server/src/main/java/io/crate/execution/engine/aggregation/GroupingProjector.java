@@ -21,6 +21,7 @@
 
 package io.crate.execution.engine.aggregation;
 
+import io.crate.Streamer;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
@@ -28,21 +29,29 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillFile;
 import io.crate.expression.symbol.AggregateMode;
 import io.crate.expression.symbol.Symbol;
 import io.crate.memory.MemoryManager;
 import org.elasticsearch.Version;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collector;
 
 import static io.crate.expression.symbol.Symbols.typeView;
 
 public class GroupingProjector implements Projector {
 
-    private final Collector<Row, ?, Iterable<Row>> collector;
+    private final GroupingCollector collector;
 
 
+    /**
+     * @param newSpillFile if not null, groups are written to spill files created with this function once they
+     *                     exceed the {@code memoryBudget}.
+     */
     public GroupingProjector(List<? extends Symbol> keys,
                              List<Input<?>> keyInputs,
                              CollectExpression<Row, ?>[] collectExpressions,
@@ -51,7 +60,9 @@ public class GroupingProjector implements Projector {
                              RamAccounting ramAccounting,
                              MemoryManager memoryManager,
                              Version minNodeVersion,
-                             Version indexVersionCreated) {
+                             Version indexVersionCreated,
+                             @Nullable Function<Streamer<?>[], SpillFile> newSpillFile,
+                             @Nullable LongSupplier memoryBudget) {
         assert keys.size() == keyInputs.size() : "number of key types must match with number of key inputs";
 
         AggregationFunction[] functions = new AggregationFunction[aggregations.length];
@@ -76,11 +87,12 @@ public class GroupingProjector implements Projector {
                 minNodeVersion,
                 keyInputs.get(0),
                 key.valueType(),
-                indexVersionCreated
+                indexVersionCreated,
+                newSpillFile,
+                memoryBudget
             );
         } else {
-            //noinspection unchecked
-            collector = (GroupingCollector<Object>) (GroupingCollector) GroupingCollector.manyKeys(
+            collector = GroupingCollector.manyKeys(
                 collectExpressions,
                 mode,
                 functions,
@@ -91,14 +103,37 @@ public class GroupingProjector implements Projector {
                 minNodeVersion,
                 keyInputs,
                 typeView(keys),
-                indexVersionCreated
+                indexVersionCreated,
+                newSpillFile,
+                memoryBudget
             );
         }
     }
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        if (collector.spills() == false) {
+            return CollectingBatchIterator.newInstance(batchIterator, collector);
+        }
+        GroupByTable table = collector.supplier().get();
+        Collector<Row, GroupByTable, Iterable<Row>> spillingCollector = Collector.of(
+            () -> table,
+            collector.accumulator(),
+            collector.combiner(),
+            collector.finisher()
+        );
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                try {
+                    batchIterator.close();
+                } finally {
+                    ((SpillingGroupByTable) table).close();
+                }
+            },
+            batchIterator::kill,
+            () -> batchIterator.collect(spillingCollector),
+            true
+        );
     }
 
     public Collector<Row, ?, Iterable<Row>> getCollector() {
@@ -0,0 +1,101 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link GroupByTable} backed by a {@link Map} with the key values as keys.
+ *
+ * @param <K> type of the key
+ */
+final class MapGroupByTable<K> implements GroupByTable {
+
+    private final Map<K, Object[]> statesByKey;
+    private final Supplier<K> currentKey;
+    private final BiConsumer<Map<K, Object[]>, K> accountForNewEntry;
+    private final BiConsumer<K, Object[]> applyKeyToCells;
+
+    private K key;
+
+    MapGroupByTable(Map<K, Object[]> statesByKey,
+                    Supplier<K> currentKey,
+                    BiConsumer<Map<K, Object[]>, K> accountForNewEntry,
+                    BiConsumer<K, Object[]> applyKeyToCells) {
+        this.statesByKey = statesByKey;
+        this.currentKey = currentKey;
+        this.accountForNewEntry = accountForNewEntry;
+        this.applyKeyToCells = applyKeyToCells;
+    }
+
+    @Override
+    @Nullable
+    public Object[] getForCurrentKey() {
+        key = currentKey.get();
+        return statesByKey.get(key);
+    }
+
+    @Override
+    public void putForCurrentKey(Object[] states) {
+        accountForNewEntry.accept(statesByKey, key);
+        statesByKey.put(key, states);
+    }
+
+    @Override
+    public int size() {
+        return statesByKey.size();
+    }
+
+    @Override
+    public Cursor cursor() {
+        return new Cursor() {
+
+            final Iterator<Map.Entry<K, Object[]>> it = statesByKey.entrySet().iterator();
+            Map.Entry<K, Object[]> current;
+
+            @Override
+            public boolean moveNext() {
+                if (it.hasNext()) {
+                    current = it.next();
+                    return true;
+                }
+                current = null;
+                return false;
+            }
+
+            @Override
+            public void writeKey(Object[] cells) {
+                applyKeyToCells.accept(current.getKey(), cells);
+            }
+
+            @Override
+            public Object[] states() {
+                return current.getValue();
+            }
+        };
+    }
+}
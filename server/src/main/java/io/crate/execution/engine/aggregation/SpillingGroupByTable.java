@@ -0,0 +1,287 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.CloseableIterator;
+import io.crate.data.Input;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.spill.SpillFile;
+
+/**
+ * {@link GroupByTable} which writes its groups to disk once they exceed the memory budget.
+ * <p>
+ * Groups are kept in an in-memory table until the memory accounted since the table was created exceeds the
+ * budget. The groups are then written with their keys and partial aggregation states into
+ * {@link #NUM_PARTITIONS} {@link SpillFile}s, partitioned by the hash of the key, and the in-memory table is
+ * replaced by an empty one. The same key can end up in a partition multiple times.
+ * </p>
+ * <p>
+ * The {@link #cursor()} merges the partitions one after another, reducing the states of equal keys.
+ * So only the groups of one partition need to fit into memory at the same time.
+ * </p>
+ * The table must only contain states which don't hold on to memory that isn't released when the table is
+ * garbage collected, see {@link GroupingCollector}.
+ * This class is not thread-safe.
+ */
+final class SpillingGroupByTable implements GroupByTable, Closeable {
+
+    static final int NUM_PARTITIONS = 32;
+
+    private final Function<List<? extends Input<?>>, GroupByTable> newTable;
+    private final List<? extends Input<?>> keyInputs;
+    private final int numKeyColumns;
+    private final AggregationFunction[] aggregations;
+    private final RamAccounting ramAccounting;
+    private final LongSupplier memoryBudget;
+    private final Supplier<SpillFile> newSpillFile;
+
+    private GroupByTable table;
+    private long bytesAtStart;
+
+    @Nullable
+    private SpillFile[] partitions;
+    private boolean closed = false;
+
+    /**
+     * @param newTable      creates an in-memory table which reads the current key from the given key inputs
+     * @param keyInputs     the key inputs of the collector
+     * @param ramAccounting accounts the memory of the groups and their states. It must not be shared with other
+     *                      consumers, as everything accounted on it is released when groups are spilled.
+     *                      See {@link io.crate.breaker.ChildRamAccounting}
+     * @param memoryBudget  number of bytes the in-memory table may use before it's spilled to disk.
+     * @param newSpillFile  creates a new file for a partition. Rows are the key columns followed by the partial
+     *                      aggregation states.
+     */
+    SpillingGroupByTable(Function<List<? extends Input<?>>, GroupByTable> newTable,
+                         List<? extends Input<?>> keyInputs,
+                         AggregationFunction[] aggregations,
+                         RamAccounting ramAccounting,
+                         LongSupplier memoryBudget,
+                         Supplier<SpillFile> newSpillFile) {
+        this.newTable = newTable;
+        this.keyInputs = keyInputs;
+        this.numKeyColumns = keyInputs.size();
+        this.aggregations = aggregations;
+        this.ramAccounting = ramAccounting;
+        this.memoryBudget = memoryBudget;
+        this.newSpillFile = newSpillFile;
+        this.bytesAtStart = ramAccounting.totalBytes();
+        this.table = newTable.apply(keyInputs);
+    }
+
+    /**
+     * The states of existing groups can grow as well (e.g. for {@code count(distinct x)}), so the
+     * budget is checked for every lookup instead of only when adding new groups.
+     */
+    @Override
+    @Nullable
+    public Object[] getForCurrentKey() {
+        ensureOpen();
+        if (ramAccounting.totalBytes() - bytesAtStart > memoryBudget.getAsLong() && table.size() > 0) {
+            spill();
+        }
+        return table.getForCurrentKey();
+    }
+
+    @Override
+    public void putForCurrentKey(Object[] states) {
+        table.putForCurrentKey(states);
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    long numSpilledRows() {
+        if (partitions == null) {
+            return 0;
+        }
+        long numRows = 0;
+        for (SpillFile partition : partitions) {
+            numRows += partition.numRows();
+        }
+        return numRows;
+    }
+
+    /**
+     * Returns a cursor over all groups.
+     * If groups have been spilled, the remaining in-memory groups are spilled as well and each cursor reads
+     * the partitions again. Only the last cursor is valid.
+     */
+    @Override
+    public Cursor cursor() {
+        ensureOpen();
+        if (partitions == null) {
+            return table.cursor();
+        }
+        if (table.size() > 0) {
+            spill();
+        }
+        return new PartitionsCursor();
+    }
+
+    private void spill() {
+        if (partitions == null) {
+            partitions = new SpillFile[NUM_PARTITIONS];
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = newSpillFile.get();
+            }
+        }
+        Cursor cursor = table.cursor();
+        Object[] cells = new Object[numKeyColumns + aggregations.length];
+        while (cursor.moveNext()) {
+            cursor.writeKey(cells);
+            System.arraycopy(cursor.states(), 0, cells, numKeyColumns, aggregations.length);
+            partitions[partition(cells, numKeyColumns)].write(cells);
+        }
+        table = null;
+        releaseTable();
+        table = newTable.apply(keyInputs);
+    }
+
+    /**
+     * Releases the memory accounted since the current table was created
+     */
+    private void releaseTable() {
+        long bytes = ramAccounting.totalBytes() - bytesAtStart;
+        if (bytes > 0) {
+            ramAccounting.addBytes(-bytes);
+        }
+        bytesAtStart = ramAccounting.totalBytes();
+    }
+
+    static int partition(Object[] cells, int numKeyColumns) {
+        int hash = 1;
+        for (int i = 0; i < numKeyColumns; i++) {
+            Object key = cells[i];
+            hash = 31 * hash + (key == null ? 0 : key.hashCode());
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return (hash & 0x7fffffff) % NUM_PARTITIONS;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("SpillingGroupByTable is closed");
+        }
+    }
+
+    /**
+     * Removes all spill files and releases the memory of the in-memory groups.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        table = null;
+        releaseTable();
+        if (partitions != null) {
+            for (SpillFile partition : partitions) {
+                partition.close();
+            }
+            partitions = null;
+        }
+    }
+
+    /**
+     * Loads one partition after another into an in-memory table and iterates over its groups
+     */
+    private class PartitionsCursor implements Cursor {
+
+        private final Object[] mergeRow = new Object[numKeyColumns + aggregations.length];
+        private final List<Input<?>> mergeKeyInputs = new ArrayList<>(numKeyColumns);
+
+        private int partition = -1;
+        private Cursor partitionCursor = null;
+
+        PartitionsCursor() {
+            for (int i = 0; i < numKeyColumns; i++) {
+                int idx = i;
+                mergeKeyInputs.add(() -> mergeRow[idx]);
+            }
+        }
+
+        @Override
+        public boolean moveNext() {
+            while (partitionCursor == null || partitionCursor.moveNext() == false) {
+                if (partition + 1 >= NUM_PARTITIONS) {
+                    partitionCursor = null;
+                    table = null;
+                    releaseTable();
+                    table = newTable.apply(keyInputs);
+                    return false;
+                }
+                partition++;
+                partitionCursor = loadPartition(partitions[partition]).cursor();
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private GroupByTable loadPartition(SpillFile spillFile) {
+            table = null;
+            releaseTable();
+            GroupByTable merged = newTable.apply(mergeKeyInputs);
+            table = merged;
+            try (CloseableIterator<Object[]> rows = spillFile.rows()) {
+                while (rows.hasNext()) {
+                    Object[] cells = rows.next();
+                    System.arraycopy(cells, 0, mergeRow, 0, cells.length);
+                    Object[] states = merged.getForCurrentKey();
+                    if (states == null) {
+                        merged.putForCurrentKey(Arrays.copyOfRange(cells, numKeyColumns, cells.length));
+                    } else {
+                        for (int i = 0; i < aggregations.length; i++) {
+                            states[i] = aggregations[i].reduce(ramAccounting, states[i], cells[numKeyColumns + i]);
+                        }
+                    }
+                }
+            }
+            return merged;
+        }
+
+        @Override
+        public void writeKey(Object[] cells) {
+            partitionCursor.writeKey(cells);
+        }
+
+        @Override
+        public Object[] states() {
+            return partitionCursor.states();
+        }
+    }
+}
@@ -252,6 +252,12 @@ public final class CmpByAggregation extends AggregationFunction<CmpByAggregation
         return state.resultValue;
     }
 
+    @Override
+    public boolean isReduceSideEffectFree() {
+        // reduce returns one of the states without modifying them
+        return true;
+    }
+
     @Override
     public DataType<?> partialType() {
         return partialType;
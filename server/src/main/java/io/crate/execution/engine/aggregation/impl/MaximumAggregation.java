@@ -38,8 +38,13 @@ import io.crate.common.MutableFloat;
 import io.crate.common.MutableLong;
 import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnKernels;
+import io.crate.data.columnar.DoubleColumn;
+import io.crate.data.columnar.LongColumn;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.BatchedDocValueAggregator;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.DocValuesColumns;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Literal;
 import io.crate.memory.MemoryManager;
@@ -79,11 +84,12 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
     }
 
 
-    private static class LongMax implements DocValueAggregator<MutableLong> {
+    private static class LongMax implements BatchedDocValueAggregator<MutableLong> {
 
         private final String columnName;
         private final DataType<?> partialType;
         private SortedNumericDocValues values;
+        private final LongColumn column = new LongColumn(DocValuesColumns.BATCH_SIZE);
 
         public LongMax(String columnName, DataType<?> partialType) {
             this.columnName = columnName;
@@ -111,6 +117,14 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableLong state) throws IOException {
+            DocValuesColumns.readLongs(values, docs, numDocs, column);
+            if (ColumnKernels.countNonNull(column) > 0) {
+                state.setValue(ColumnKernels.max(column, state.value()));
+            }
+        }
+
         @Override
         public Object partialResult(RamAccounting ramAccounting, MutableLong state) {
             if (state.hasValue()) {
@@ -122,10 +136,11 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
     }
 
 
-    private static class DoubleMax implements DocValueAggregator<MutableDouble> {
+    private static class DoubleMax implements BatchedDocValueAggregator<MutableDouble> {
 
         private final String columnName;
         private SortedNumericDocValues values;
+        private final DoubleColumn column = new DoubleColumn(DocValuesColumns.BATCH_SIZE);
 
         public DoubleMax(String columnName) {
             this.columnName = columnName;
@@ -152,6 +167,14 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableDouble state) throws IOException {
+            DocValuesColumns.readDoubles(values, docs, numDocs, column);
+            if (ColumnKernels.countNonNull(column) > 0) {
+                state.setValue(ColumnKernels.max(column, state.value()));
+            }
+        }
+
         @Override
         public Object partialResult(RamAccounting ramAccounting, MutableDouble state) {
             if (state.hasValue()) {
@@ -343,4 +366,10 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
     public Object terminatePartial(RamAccounting ramAccounting, Object state) {
         return state;
     }
+
+    @Override
+    public boolean isReduceSideEffectFree() {
+        // the states are the immutable values themselves
+        return true;
+    }
 }
@@ -38,8 +38,13 @@ import io.crate.common.MutableFloat;
 import io.crate.common.MutableLong;
 import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnKernels;
+import io.crate.data.columnar.DoubleColumn;
+import io.crate.data.columnar.LongColumn;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.BatchedDocValueAggregator;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.DocValuesColumns;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Literal;
 import io.crate.memory.MemoryManager;
@@ -78,11 +83,12 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
         }
     }
 
-    private static class LongMin implements DocValueAggregator<MutableLong> {
+    private static class LongMin implements BatchedDocValueAggregator<MutableLong> {
 
         private final String columnName;
         private final DataType<?> partialType;
         private SortedNumericDocValues values;
+        private final LongColumn column = new LongColumn(DocValuesColumns.BATCH_SIZE);
 
         public LongMin(String columnName, DataType<?> partialType) {
             this.columnName = columnName;
@@ -110,6 +116,14 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableLong state) throws IOException {
+            DocValuesColumns.readLongs(values, docs, numDocs, column);
+            if (ColumnKernels.countNonNull(column) > 0) {
+                state.setValue(ColumnKernels.min(column, state.value()));
+            }
+        }
+
         @Override
         public Object partialResult(RamAccounting ramAccounting, MutableLong state) {
             if (state.hasValue()) {
@@ -121,10 +135,11 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
     }
 
 
-    private static class DoubleMin implements DocValueAggregator<MutableDouble> {
+    private static class DoubleMin implements BatchedDocValueAggregator<MutableDouble> {
 
         private final String columnName;
         private SortedNumericDocValues values;
+        private final DoubleColumn column = new DoubleColumn(DocValuesColumns.BATCH_SIZE);
 
         public DoubleMin(String columnName) {
             this.columnName = columnName;
@@ -151,6 +166,14 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableDouble state) throws IOException {
+            DocValuesColumns.readDoubles(values, docs, numDocs, column);
+            if (ColumnKernels.countNonNull(column) > 0) {
+                state.setValue(ColumnKernels.min(column, state.value()));
+            }
+        }
+
         @Override
         public Object partialResult(RamAccounting ramAccounting, MutableDouble state) {
             if (state.hasValue()) {
@@ -332,6 +355,12 @@ public abstract class MinimumAggregation extends AggregationFunction<Object, Obj
         return state;
     }
 
+    @Override
+    public boolean isReduceSideEffectFree() {
+        // the states are the immutable values themselves
+        return true;
+    }
+
     @Override
     public Object iterate(RamAccounting ramAccounting,
                           MemoryManager memoryManager,
@@ -40,8 +40,13 @@ import io.crate.common.MutableLong;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.data.Input;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.data.columnar.ColumnKernels;
+import io.crate.data.columnar.DoubleColumn;
+import io.crate.data.columnar.LongColumn;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.BatchedDocValueAggregator;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.DocValuesColumns;
 import io.crate.execution.engine.aggregation.impl.util.KahanSummationForDouble;
 import io.crate.execution.engine.aggregation.impl.util.KahanSummationForFloat;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
@@ -240,10 +245,11 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
     }
 
     @VisibleForTesting
-    public static class SumLong implements DocValueAggregator<MutableLong> {
+    public static class SumLong implements BatchedDocValueAggregator<MutableLong> {
 
         private final String columnName;
         private SortedNumericDocValues values;
+        private final LongColumn column = new LongColumn(DocValuesColumns.BATCH_SIZE);
 
         SumLong(String columnName) {
             this.columnName = columnName;
@@ -267,16 +273,25 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableLong state) throws IOException {
+            DocValuesColumns.readLongs(values, docs, numDocs, column);
+            if (ColumnKernels.countNonNull(column) > 0) {
+                state.setValue(ColumnKernels.sum(column, state.value()));
+            }
+        }
+
         @Override
         public Long partialResult(RamAccounting ramAccounting, MutableLong state) {
             return state.hasValue() ? state.value() : null;
         }
     }
 
-    static class SumDouble implements DocValueAggregator<MutableDouble> {
+    static class SumDouble implements BatchedDocValueAggregator<MutableDouble> {
 
         private final String columnName;
         private SortedNumericDocValues values;
+        private final DoubleColumn column = new DoubleColumn(DocValuesColumns.BATCH_SIZE);
         private final KahanSummationForDouble kahanSummation = new KahanSummationForDouble();
 
         SumDouble(String columnName) {
@@ -305,6 +320,22 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
             }
         }
 
+        @Override
+        public void apply(RamAccounting ramAccounting, int[] docs, int numDocs, MutableDouble state) throws IOException {
+            DocValuesColumns.readDoubles(values, docs, numDocs, column);
+            if (ColumnKernels.countNonNull(column) == 0) {
+                return;
+            }
+            double[] doubles = column.values();
+            double sum = state.value();
+            for (int i = 0; i < numDocs; i++) {
+                if (!column.isNull(i)) {
+                    sum = kahanSummation.sum(sum, doubles[i]);
+                }
+            }
+            state.setValue(sum);
+        }
+
         @Override
         public Object partialResult(RamAccounting ramAccounting, MutableDouble state) {
             return state.hasValue() ? state.value() : null;
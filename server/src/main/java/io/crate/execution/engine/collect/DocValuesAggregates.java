@@ -53,7 +53,11 @@ import io.crate.execution.dsl.projection.AggregationProjection;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.BatchedDocValueAggregator;
 import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.DocValuesColumns;
+import io.crate.execution.engine.collect.collectors.LuceneBatchIterator;
+import io.crate.execution.engine.collect.collectors.LuceneBatchIterator.LeafRange;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.scalar.cast.ExplicitCastFunction;
@@ -83,6 +87,33 @@ public final class DocValuesAggregates {
                                                  LuceneQueryBuilder luceneQueryBuilder,
                                                  RoutedCollectPhase phase,
                                                  CollectTask collectTask) {
+        List<BatchIterator<Row>> iterators = tryOptimize(
+            functions,
+            referenceResolver,
+            indexShard,
+            table,
+            luceneQueryBuilder,
+            phase,
+            collectTask,
+            1
+        );
+        return iterators == null ? null : iterators.get(0);
+    }
+
+    /**
+     * Like {@link #tryOptimize(Functions, LuceneReferenceResolver, IndexShard, DocTableInfo, LuceneQueryBuilder, RoutedCollectPhase, CollectTask)}
+     * but splits the shard into up to {@code maxSlices} iterators if the aggregation is partial.
+     * Each iterator emits one row with the partial aggregation of its slice.
+     */
+    @Nullable
+    public static List<BatchIterator<Row>> tryOptimize(Functions functions,
+                                                       LuceneReferenceResolver referenceResolver,
+                                                       IndexShard indexShard,
+                                                       DocTableInfo table,
+                                                       LuceneQueryBuilder luceneQueryBuilder,
+                                                       RoutedCollectPhase phase,
+                                                       CollectTask collectTask,
+                                                       int maxSlices) {
         var shardProjections = Projections.shardProjections(phase.projections());
         AggregationProjection aggregateProjection = aggregateProjection(shardProjections);
         if (aggregateProjection == null) {
@@ -113,27 +144,45 @@ public final class DocValuesAggregates {
             shardContext.indexService().cache()
         );
 
-        AtomicReference<Throwable> killed = new AtomicReference<>();
-        return CollectingBatchIterator.newInstance(
-            () -> killed.set(BatchIterator.CLOSED),
-            killed::set,
-            () -> {
-                try {
-                    return CompletableFuture.completedFuture(getRow(
-                        collectTask.getRamAccounting(),
-                        collectTask.memoryManager(),
-                        collectTask.minNodeVersion(),
-                        killed,
-                        searcher.item(),
-                        queryContext.query(),
-                        aggregators
-                    ));
-                } catch (Throwable t) {
-                    return CompletableFuture.failedFuture(t);
-                }
-            },
-            true
-        );
+        if (!Projections.canApplyToSubsets(shardProjections)) {
+            maxSlices = 1;
+        }
+        List<List<LeafRange>> slices = LuceneBatchIterator.slice(searcher.item(), maxSlices);
+        List<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+        for (int i = 0; i < slices.size(); i++) {
+            List<LeafRange> slice = slices.get(i);
+            // Aggregators hold the doc values of the current leaf, each slice needs its own instances
+            List<DocValueAggregator> sliceAggregators = i == 0 ? aggregators : createAggregators(
+                functions,
+                referenceResolver,
+                aggregateProjection.aggregations(),
+                phase.toCollect(),
+                table
+            );
+            AtomicReference<Throwable> killed = new AtomicReference<>();
+            iterators.add(CollectingBatchIterator.newInstance(
+                () -> killed.set(BatchIterator.CLOSED),
+                killed::set,
+                () -> {
+                    try {
+                        return CompletableFuture.completedFuture(getRow(
+                            collectTask.getRamAccounting(),
+                            collectTask.memoryManager(),
+                            collectTask.minNodeVersion(),
+                            killed,
+                            searcher.item(),
+                            queryContext.query(),
+                            slice,
+                            sliceAggregators
+                        ));
+                    } catch (Throwable t) {
+                        return CompletableFuture.failedFuture(t);
+                    }
+                },
+                true
+            ));
+        }
+        return iterators;
     }
 
     @SuppressWarnings("rawtypes")
@@ -231,14 +280,20 @@ public final class DocValuesAggregates {
                                         AtomicReference<Throwable> killed,
                                         IndexSearcher searcher,
                                         Query query,
+                                        List<LeafRange> leaves,
                                         List<DocValueAggregator> aggregators) throws IOException {
         Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
-        List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
         Object[] cells = new Object[aggregators.size()];
         for (int i = 0; i < aggregators.size(); i++) {
             cells[i] = aggregators.get(i).initialState(ramAccounting, memoryManager, minNodeVersion);
         }
-        for (var leaf : leaves) {
+        boolean batched = aggregators.stream().allMatch(x -> x instanceof BatchedDocValueAggregator);
+        int[] docBuffer = batched ? new int[DocValuesColumns.BATCH_SIZE] : null;
+        for (var range : leaves) {
+            if (range.minDoc() >= range.maxDoc()) {
+                continue;
+            }
+            LeafReaderContext leaf = range.leaf();
             Scorer scorer = weight.scorer(leaf);
             if (scorer == null) {
                 continue;
@@ -248,7 +303,12 @@ public final class DocValuesAggregates {
             }
             DocIdSetIterator docs = scorer.iterator();
             Bits liveDocs = leaf.reader().getLiveDocs();
-            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+            if (docBuffer != null) {
+                applyBatched(ramAccounting, killed, docs, range, liveDocs, docBuffer, aggregators, cells);
+                continue;
+            }
+            int maxDoc = range.maxDoc();
+            for (int doc = docs.advance(range.minDoc()); doc < maxDoc; doc = docs.nextDoc()) {
                 if (liveDocs != null && !liveDocs.get(doc)) {
                     continue;
                 }
@@ -267,6 +327,45 @@ public final class DocValuesAggregates {
         return List.of(new RowN(cells));
     }
 
+    /**
+     * Collects the matching doc ids of a leaf range into batches of {@link DocValuesColumns#BATCH_SIZE}
+     * and feeds each batch to the aggregators at once, so that they can read the doc values
+     * into a column and aggregate it in a tight loop.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static void applyBatched(RamAccounting ramAccounting,
+                                     AtomicReference<Throwable> killed,
+                                     DocIdSetIterator docs,
+                                     LeafRange range,
+                                     @Nullable Bits liveDocs,
+                                     int[] docBuffer,
+                                     List<DocValueAggregator> aggregators,
+                                     Object[] cells) throws IOException {
+        int numDocs = 0;
+        int maxDoc = range.maxDoc();
+        for (int doc = docs.advance(range.minDoc()); doc < maxDoc; doc = docs.nextDoc()) {
+            if (liveDocs != null && !liveDocs.get(doc)) {
+                continue;
+            }
+            docBuffer[numDocs++] = doc;
+            if (numDocs == docBuffer.length) {
+                Throwable killCause = killed.get();
+                if (killCause != null) {
+                    Exceptions.rethrowUnchecked(killCause);
+                }
+                for (int i = 0; i < aggregators.size(); i++) {
+                    ((BatchedDocValueAggregator) aggregators.get(i)).apply(ramAccounting, docBuffer, numDocs, cells[i]);
+                }
+                numDocs = 0;
+            }
+        }
+        if (numDocs > 0) {
+            for (int i = 0; i < aggregators.size(); i++) {
+                ((BatchedDocValueAggregator) aggregators.get(i)).apply(ramAccounting, docBuffer, numDocs, cells[i]);
+            }
+        }
+    }
+
 
     @Nullable
     private static AggregationProjection aggregateProjection(Collection<? extends Projection> shardProjections) {
@@ -34,6 +34,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.DocIdSetIterator;
@@ -105,18 +106,26 @@ final class DocValuesGroupByOptimizedIterator {
             return null;
         }
 
+        List<DocValuesKeyColumn> keyColumns = getKeyColumns(
+            collectPhase.toCollect(),
+            groupProjection.keys(),
+            fieldTypeLookup,
+            collectTask.getRamAccounting()
+        );
         ArrayList<Reference> columnKeyRefs = new ArrayList<>(groupProjection.keys().size());
-        for (var key : groupProjection.keys()) {
-            var docKeyRef = getKeyRef(collectPhase.toCollect(), key);
-            if (docKeyRef == null) {
-                return null; // group by on non-reference
-            }
-            var columnKeyRef = (Reference) DocReferences.inverseSourceLookup(docKeyRef);
-            var keyFieldType = fieldTypeLookup.get(columnKeyRef.column().fqn());
-            if (keyFieldType == null || !keyFieldType.hasDocValues()) {
-                return null;
-            } else {
-                columnKeyRefs.add(columnKeyRef);
+        if (keyColumns == null) {
+            for (var key : groupProjection.keys()) {
+                var docKeyRef = getKeyRef(collectPhase.toCollect(), key);
+                if (docKeyRef == null) {
+                    return null; // group by on non-reference
+                }
+                var columnKeyRef = (Reference) DocReferences.inverseSourceLookup(docKeyRef);
+                var keyFieldType = fieldTypeLookup.get(columnKeyRef.column().fqn());
+                if (keyFieldType == null || !keyFieldType.hasDocValues()) {
+                    return null;
+                } else {
+                    columnKeyRefs.add(columnKeyRef);
+                }
             }
         }
 
@@ -137,12 +146,6 @@ final class DocValuesGroupByOptimizedIterator {
         collectTask.addSearcher(sharedShardContext.readerId(), searcher);
         QueryShardContext queryShardContext = sharedShardContext.indexService().newQueryShardContext();
 
-        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx
-            = docInputFactory.getCtx(collectTask.txnCtx());
-        List<LuceneCollectorExpression<?>> keyExpressions = new ArrayList<>();
-        for (var keyRef : columnKeyRefs) {
-            keyExpressions.add((LuceneCollectorExpression<?>) docCtx.add(keyRef));
-        }
         LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
             collectPhase.where(),
             collectTask.txnCtx(),
@@ -153,6 +156,23 @@ final class DocValuesGroupByOptimizedIterator {
             sharedShardContext.indexService().cache()
         );
 
+        if (keyColumns != null) {
+            return GroupByIterator.forKeyColumns(
+                aggregators,
+                searcher.item(),
+                keyColumns,
+                collectTask.getRamAccounting(),
+                collectTask.memoryManager(),
+                collectTask.minNodeVersion(),
+                queryContext.query()
+            );
+        }
+        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx
+            = docInputFactory.getCtx(collectTask.txnCtx());
+        List<LuceneCollectorExpression<?>> keyExpressions = new ArrayList<>();
+        for (var keyRef : columnKeyRefs) {
+            keyExpressions.add((LuceneCollectorExpression<?>) docCtx.add(keyRef));
+        }
         if (columnKeyRefs.size() == 1) {
             return GroupByIterator.forSingleKey(
                 aggregators,
@@ -251,6 +271,51 @@ final class DocValuesGroupByOptimizedIterator {
             );
         }
 
+        /**
+         * Groups by keys which are read as primitive longs from doc values.
+         * The keys of a document are packed into a {@link PackedKeyHashTable} and only resolved to their values
+         * when the rows are emitted.
+         */
+        @SuppressWarnings("rawtypes")
+        @VisibleForTesting
+        static BatchIterator<Row> forKeyColumns(List<DocValueAggregator> aggregators,
+                                                IndexSearcher indexSearcher,
+                                                List<DocValuesKeyColumn> keyColumns,
+                                                RamAccounting ramAccounting,
+                                                MemoryManager memoryManager,
+                                                Version minNodeVersion,
+                                                Query query) {
+            AtomicReference<Throwable> killed = new AtomicReference<>();
+            return CollectingBatchIterator.newInstance(
+                () -> killed.set(BatchIterator.CLOSED),
+                killed::set,
+                () -> {
+                    try {
+                        return CompletableFuture.completedFuture(
+                            getRows(
+                                applyAggregatesGroupedByKeyColumns(
+                                    aggregators,
+                                    indexSearcher,
+                                    keyColumns,
+                                    ramAccounting,
+                                    memoryManager,
+                                    minNodeVersion,
+                                    query,
+                                    killed
+                                ),
+                                keyColumns,
+                                aggregators,
+                                ramAccounting
+                            )
+                        );
+                    } catch (Throwable t) {
+                        return CompletableFuture.failedFuture(t);
+                    }
+                },
+                true
+            );
+        }
+
         @SuppressWarnings("rawtypes")
         @VisibleForTesting
         static <K> BatchIterator<Row> getIterator(List<DocValueAggregator> aggregators,
@@ -328,6 +393,106 @@ final class DocValuesGroupByOptimizedIterator {
             };
         }
 
+        @SuppressWarnings("rawtypes")
+        private static Iterable<Row> getRows(PackedKeyHashTable groupedStates,
+                                             List<DocValuesKeyColumn> keyColumns,
+                                             List<DocValueAggregator> aggregators,
+                                             RamAccounting ramAccounting) {
+            return () -> {
+                int numberOfKeys = keyColumns.size();
+                Object[] cells = new Object[numberOfKeys + aggregators.size()];
+                RowN row = new RowN(cells);
+                return IntStream.range(0, groupedStates.size()).mapToObj(group -> {
+                    for (int i = 0; i < numberOfKeys; i++) {
+                        cells[i] = groupedStates.isNull(group, i)
+                            ? null
+                            : keyColumns.get(i).value(groupedStates.key(group, i));
+                    }
+                    Object[] states = groupedStates.states(group);
+                    for (int i = 0; i < states.length; i++) {
+                        //noinspection unchecked
+                        cells[numberOfKeys + i] = aggregators.get(i).partialResult(ramAccounting, states[i]);
+                    }
+                    return (Row) row;
+                }).iterator();
+            };
+        }
+
+        @SuppressWarnings("rawtypes")
+        private static PackedKeyHashTable applyAggregatesGroupedByKeyColumns(
+            List<DocValueAggregator> aggregators,
+            IndexSearcher indexSearcher,
+            List<DocValuesKeyColumn> keyColumns,
+            RamAccounting ramAccounting,
+            MemoryManager memoryManager,
+            Version minNodeVersion,
+            Query query,
+            AtomicReference<Throwable> killed
+        ) throws IOException {
+
+            int numberOfKeys = keyColumns.size();
+            PackedKeyHashTable statesByKey = new PackedKeyHashTable(numberOfKeys, ramAccounting);
+            long[] key = statesByKey.newKey();
+            Weight weight = indexSearcher.createWeight(
+                indexSearcher.rewrite(query),
+                ScoreMode.COMPLETE_NO_SCORES,
+                1f
+            );
+            List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+            for (var leaf : leaves) {
+                raiseIfClosedOrKilled(killed);
+                Scorer scorer = weight.scorer(leaf);
+                if (scorer == null) {
+                    continue;
+                }
+                for (int i = 0; i < numberOfKeys; i++) {
+                    keyColumns.get(i).setNextReader(leaf);
+                }
+                for (int i = 0; i < aggregators.size(); i++) {
+                    aggregators.get(i).loadDocValues(leaf);
+                }
+
+                DocIdSetIterator docs = scorer.iterator();
+                Bits liveDocs = leaf.reader().getLiveDocs();
+                for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                    raiseIfClosedOrKilled(killed);
+                    if (docDeleted(liveDocs, doc)) {
+                        continue;
+                    }
+
+                    long nulls = 0;
+                    for (int i = 0; i < numberOfKeys; i++) {
+                        DocValuesKeyColumn keyColumn = keyColumns.get(i);
+                        if (keyColumn.advanceExact(doc)) {
+                            key[i] = keyColumn.key();
+                        } else {
+                            key[i] = 0;
+                            nulls |= 1L << i;
+                        }
+                    }
+                    key[numberOfKeys] = nulls;
+
+                    Object[] states = statesByKey.getForKey(key);
+                    if (states == null) {
+                        states = new Object[aggregators.size()];
+                        for (int i = 0; i < aggregators.size(); i++) {
+                            var aggregator = aggregators.get(i);
+                            states[i] = aggregator.initialState(ramAccounting, memoryManager, minNodeVersion);
+                            //noinspection unchecked
+                            aggregator.apply(ramAccounting, doc, states[i]);
+                        }
+                        statesByKey.putForKey(key, states);
+                    } else {
+                        for (int i = 0; i < aggregators.size(); i++) {
+                            //noinspection unchecked
+                            aggregators.get(i).apply(ramAccounting, doc, states[i]);
+                        }
+                    }
+                }
+            }
+            return statesByKey;
+        }
+
         @SuppressWarnings("rawtypes")
         private static <K> Map<K, Object[]> applyAggregatesGroupedByKey(
             List<DocValueAggregator> aggregators,
@@ -409,6 +574,32 @@ final class DocValuesGroupByOptimizedIterator {
         }
     }
 
+    /**
+     * @return the key columns or null if any of the keys can't be read from doc values as primitive long
+     */
+    @Nullable
+    private static List<DocValuesKeyColumn> getKeyColumns(List<Symbol> toCollect,
+                                                          List<Symbol> keys,
+                                                          FieldTypeLookup fieldTypeLookup,
+                                                          RamAccounting ramAccounting) {
+        if (keys.size() > PackedKeyHashTable.MAX_KEYS) {
+            return null;
+        }
+        ArrayList<DocValuesKeyColumn> keyColumns = new ArrayList<>(keys.size());
+        for (var key : keys) {
+            if (!(key instanceof InputColumn inputColumn)) {
+                return null;
+            }
+            Symbol keySymbol = DocReferences.inverseSourceLookup(toCollect.get(inputColumn.index()));
+            DocValuesKeyColumn keyColumn = DocValuesKeyColumn.of(keySymbol, fieldTypeLookup, ramAccounting);
+            if (keyColumn == null) {
+                return null;
+            }
+            keyColumns.add(keyColumn);
+        }
+        return keyColumns;
+    }
+
     @Nullable
     private static Reference getKeyRef(List<Symbol> toCollect, Symbol key) {
         if (key instanceof InputColumn inputCol) {
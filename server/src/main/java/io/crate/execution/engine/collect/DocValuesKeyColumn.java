@@ -0,0 +1,271 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefHash;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.common.rounding.Rounding;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.exceptions.ArrayViaDocValuesUnsupportedException;
+import io.crate.expression.scalar.DateTruncFunction;
+import io.crate.expression.scalar.TimeZoneParser;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.lucene.FieldTypeLookup;
+import io.crate.metadata.Reference;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.CharacterType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * Reads a GROUP BY key from doc values as a primitive long, so that the keys of a document can be packed into a
+ * {@link PackedKeyHashTable} without creating objects per document.
+ *
+ * <ul>
+ *     <li>Text keys are mapped from their segment ordinal to a shard-wide term id. The term of an ordinal is looked up
+ *     once per segment and only converted to a string in {@link #value(long)}.</li>
+ *     <li>Numeric, boolean and timestamp keys use the long stored in the doc values.</li>
+ *     <li>{@code date_trunc} with a literal interval and time zone on a timestamp column rounds the long.</li>
+ * </ul>
+ */
+abstract class DocValuesKeyColumn {
+
+    /**
+     * @return a key column for the key or null if the key can't be read from doc values as a primitive long
+     */
+    @Nullable
+    static DocValuesKeyColumn of(Symbol key, FieldTypeLookup fieldTypeLookup, RamAccounting ramAccounting) {
+        if (key instanceof Reference ref) {
+            MappedFieldType fieldType = docValuesFieldType(ref, fieldTypeLookup);
+            if (fieldType == null) {
+                return null;
+            }
+            return switch (ref.valueType().id()) {
+                case StringType.ID, CharacterType.ID -> new TermKey(fieldType.name(), ramAccounting);
+                case LongType.ID, TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ ->
+                    new NumericKey(fieldType.name(), null, value -> value);
+                case IntegerType.ID -> new NumericKey(fieldType.name(), null, value -> (int) value);
+                case ShortType.ID -> new NumericKey(fieldType.name(), null, value -> (short) value);
+                case ByteType.ID -> new NumericKey(fieldType.name(), null, value -> (byte) value);
+                case BooleanType.ID -> new NumericKey(fieldType.name(), null, value -> value == 1);
+                case DoubleType.ID -> new NumericKey(fieldType.name(), null, NumericUtils::sortableLongToDouble);
+                case FloatType.ID ->
+                    new NumericKey(fieldType.name(), null, value -> NumericUtils.sortableIntToFloat((int) value));
+                default -> null;
+            };
+        }
+        if (key instanceof Function function && function.name().equals(DateTruncFunction.NAME)) {
+            return dateTrunc(function.arguments(), fieldTypeLookup);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static DocValuesKeyColumn dateTrunc(List<Symbol> arguments, FieldTypeLookup fieldTypeLookup) {
+        Symbol timestamp = arguments.get(arguments.size() - 1);
+        if (!(timestamp instanceof Reference ref)
+            || !(arguments.get(0) instanceof Literal<?> interval)
+            || !(interval.value() instanceof String intervalValue)) {
+            return null;
+        }
+        int typeId = ref.valueType().id();
+        if (typeId != LongType.ID && typeId != TimestampType.ID_WITH_TZ && typeId != TimestampType.ID_WITHOUT_TZ) {
+            return null;
+        }
+        String timeZone = TimeZoneParser.DEFAULT_TZ_LITERAL.value();
+        if (arguments.size() == 3) {
+            if (!(arguments.get(1) instanceof Literal<?> timeZoneLiteral)
+                || !(timeZoneLiteral.value() instanceof String timeZoneValue)) {
+                return null;
+            }
+            timeZone = timeZoneValue;
+        }
+        MappedFieldType fieldType = docValuesFieldType(ref, fieldTypeLookup);
+        if (fieldType == null) {
+            return null;
+        }
+        Rounding rounding;
+        try {
+            rounding = DateTruncFunction.rounding(intervalValue, timeZone);
+        } catch (IllegalArgumentException e) {
+            // Invalid interval or time zone; let the generic group-by raise the error
+            return null;
+        }
+        return new NumericKey(fieldType.name(), rounding::round, value -> value);
+    }
+
+    @Nullable
+    private static MappedFieldType docValuesFieldType(Reference ref, FieldTypeLookup fieldTypeLookup) {
+        MappedFieldType fieldType = fieldTypeLookup.get(ref.column().fqn());
+        if (fieldType == null || !fieldType.hasDocValues()) {
+            return null;
+        }
+        return fieldType;
+    }
+
+    abstract void setNextReader(LeafReaderContext leaf) throws IOException;
+
+    /**
+     * @return true if the document has a value. {@link #key()} must only be called in that case.
+     */
+    abstract boolean advanceExact(int doc) throws IOException;
+
+    /**
+     * @return the key of the document that was positioned using {@link #advanceExact(int)}
+     */
+    abstract long key() throws IOException;
+
+    /**
+     * Resolves a key returned by {@link #key()} to the value of the column
+     */
+    abstract Object value(long key);
+
+
+    static final class TermKey extends DocValuesKeyColumn {
+
+        private static final long BYTES_PER_TERM = 2 * Integer.BYTES;
+
+        private final String fieldName;
+        private final RamAccounting ramAccounting;
+        private final BytesRefHash terms = new BytesRefHash();
+        private final BytesRef scratch = new BytesRef();
+        private SortedSetDocValues values;
+
+        /**
+         * term id + 1 per ordinal of the current segment; 0 if the term of the ordinal wasn't looked up yet
+         */
+        private int[] termIdsByOrd = new int[0];
+
+        TermKey(String fieldName, RamAccounting ramAccounting) {
+            this.fieldName = fieldName;
+            this.ramAccounting = ramAccounting;
+        }
+
+        @Override
+        void setNextReader(LeafReaderContext leaf) throws IOException {
+            values = DocValues.getSortedSet(leaf.reader(), fieldName);
+            int valueCount = Math.toIntExact(values.getValueCount());
+            if (valueCount > termIdsByOrd.length) {
+                ramAccounting.addBytes((long) (valueCount - termIdsByOrd.length) * Integer.BYTES);
+                termIdsByOrd = new int[valueCount];
+            } else {
+                Arrays.fill(termIdsByOrd, 0, valueCount, 0);
+            }
+        }
+
+        @Override
+        boolean advanceExact(int doc) throws IOException {
+            return values.advanceExact(doc);
+        }
+
+        @Override
+        long key() throws IOException {
+            if (values.docValueCount() > 1) {
+                throw new ArrayViaDocValuesUnsupportedException(fieldName);
+            }
+            int ord = (int) values.nextOrd();
+            int termId = termIdsByOrd[ord] - 1;
+            if (termId < 0) {
+                BytesRef term = values.lookupOrd(ord);
+                termId = terms.add(term);
+                if (termId < 0) {
+                    termId = -termId - 1;
+                } else {
+                    ramAccounting.addBytes(term.length + BYTES_PER_TERM);
+                }
+                termIdsByOrd[ord] = termId + 1;
+            }
+            return termId;
+        }
+
+        @Override
+        Object value(long key) {
+            return terms.get((int) key, scratch).utf8ToString();
+        }
+    }
+
+    static final class NumericKey extends DocValuesKeyColumn {
+
+        private final String fieldName;
+        @Nullable
+        private final LongUnaryOperator transform;
+        private final LongFunction<Object> toValue;
+        private SortedNumericDocValues values;
+
+        /**
+         * @param transform applied to the doc value to compute the key
+         * @param toValue converts a key into the value of the column
+         */
+        NumericKey(String fieldName, @Nullable LongUnaryOperator transform, LongFunction<Object> toValue) {
+            this.fieldName = fieldName;
+            this.transform = transform;
+            this.toValue = toValue;
+        }
+
+        @Override
+        void setNextReader(LeafReaderContext leaf) throws IOException {
+            values = DocValues.getSortedNumeric(leaf.reader(), fieldName);
+        }
+
+        @Override
+        boolean advanceExact(int doc) throws IOException {
+            return values.advanceExact(doc);
+        }
+
+        @Override
+        long key() throws IOException {
+            if (values.docValueCount() > 1) {
+                throw new ArrayViaDocValuesUnsupportedException(fieldName);
+            }
+            long value = values.nextValue();
+            return transform == null ? value : transform.applyAsLong(value);
+        }
+
+        @Override
+        Object value(long key) {
+            return toValue.apply(key);
+        }
+    }
+}
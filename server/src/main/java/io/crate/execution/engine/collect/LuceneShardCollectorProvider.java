@@ -21,11 +21,14 @@
 
 package io.crate.execution.engine.collect;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.client.ElasticsearchClient;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
@@ -44,6 +47,7 @@ import io.crate.data.Row;
 import io.crate.data.SentinelRow;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.engine.collect.collectors.LuceneBatchIterator;
+import io.crate.execution.engine.collect.collectors.LuceneBatchIterator.LeafRange;
 import io.crate.execution.engine.collect.collectors.LuceneOrderedDocCollector;
 import io.crate.execution.engine.collect.collectors.OptimizeQueryForSearchAfter;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
@@ -76,6 +80,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     private final BigArrays bigArrays;
     private final FieldTypeLookup fieldTypeLookup;
     private final RelationName relationName;
+    private final ShardResultCache shardResultCache;
 
     private final LuceneReferenceResolver referenceResolver;
 
@@ -90,7 +95,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                                         ElasticsearchClient elasticsearchClient,
                                         IndexShard indexShard,
                                         BigArrays bigArrays,
-                                        Map<String, FileOutputFactory> fileOutputFactoryMap) {
+                                        Map<String, FileOutputFactory> fileOutputFactoryMap,
+                                        ShardResultCache shardResultCache) {
         super(
             clusterService,
             circuitBreakerService,
@@ -122,12 +128,20 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         );
         this.docInputFactory = new DocInputFactory(nodeCtx, referenceResolver);
         this.bigArrays = bigArrays;
+        this.shardResultCache = shardResultCache;
     }
 
     @Override
     protected BatchIterator<Row> getUnorderedIterator(RoutedCollectPhase collectPhase,
                                                       boolean requiresScroll,
                                                       CollectTask collectTask) {
+        return getUnorderedIterators(collectPhase, collectTask, 1).get(0);
+    }
+
+    @Override
+    protected List<BatchIterator<Row>> getUnorderedIterators(RoutedCollectPhase collectPhase,
+                                                             CollectTask collectTask,
+                                                             int maxSlices) {
         ShardId shardId = indexShard.shardId();
         SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
         var searcher = sharedShardContext.acquireSearcher("unordered-iterator: " + formatSource(collectPhase));
@@ -137,7 +151,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         // therefore skip it
         boolean isClosed = sharedShardContextShard.mapperService() == null;
         if (isClosed) {
-            return InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
+            return List.of(InMemoryBatchIterator.empty(SentinelRow.SENTINEL));
         }
         QueryShardContext queryShardContext = sharedShardContext.indexService().newQueryShardContext();
         DocTableInfo table = schemas.getTableInfo(relationName);
@@ -150,23 +164,53 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             table,
             sharedShardContext.indexService().cache()
         );
-        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
-            docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
-
-        return new LuceneBatchIterator(
-            searcher.item(),
-            queryContext.query(),
-            queryContext.minScore(),
-            Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
-            new CollectorContext(sharedShardContext.readerId(), table.droppedColumns(), table.lookupNameBySourceKey()),
-            docCtx.topLevelInputs(),
-            docCtx.expressions()
-        );
+        IndexSearcher indexSearcher = searcher.item();
+        List<List<LeafRange>> slices = LuceneBatchIterator.slice(indexSearcher, maxSlices);
+        boolean doScores = Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE);
+        List<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+        for (List<LeafRange> slice : slices) {
+            // Expressions keep the state of the current document, each iterator needs its own instances
+            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+                docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
+            iterators.add(new LuceneBatchIterator(
+                indexSearcher,
+                queryContext.query(),
+                queryContext.minScore(),
+                doScores,
+                new CollectorContext(sharedShardContext.readerId(), table.droppedColumns(), table.lookupNameBySourceKey()),
+                docCtx.topLevelInputs(),
+                docCtx.expressions(),
+                slice
+            ));
+        }
+        if (iterators.size() > 1 && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("[{}] scanning shard={} with {} concurrent slices", formatSource(collectPhase), shardId, iterators.size());
+        }
+        return iterators;
     }
 
     @Nullable
     @Override
     protected BatchIterator<Row> getProjectionFusedIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
+        BatchIterator<Row> it = getAggregationIterator(normalizedPhase, collectTask);
+        if (it == null) {
+            return null;
+        }
+        // The optimized iterators acquired the searcher already, the reader stays open until the collectTask ends
+        SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(indexShard.shardId());
+        try (var searcher = sharedShardContext.acquireSearcher("shard-result-cache: " + formatSource(normalizedPhase))) {
+            return shardResultCache.getOrCache(
+                searcher.item().getIndexReader(),
+                normalizedPhase,
+                collectTask.minNodeVersion(),
+                collectTask.getRamAccounting(),
+                it
+            );
+        }
+    }
+
+    @Nullable
+    private BatchIterator<Row> getAggregationIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
         DocTableInfo table = schemas.getTableInfo(relationName);
         var it = GroupByOptimizedIterator.tryOptimizeSingleStringKey(
             indexShard,
@@ -196,15 +240,17 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         if (it != null) {
             return it;
         }
-        return DocValuesAggregates.tryOptimize(
+        List<BatchIterator<Row>> aggregates = DocValuesAggregates.tryOptimize(
             nodeCtx.functions(),
             referenceResolver,
             indexShard,
             table,
             luceneQueryBuilder,
             normalizedPhase,
-            collectTask
+            collectTask,
+            shardScanParallelism
         );
+        return aggregates == null ? null : concurrently(aggregates);
     }
 
     @Override
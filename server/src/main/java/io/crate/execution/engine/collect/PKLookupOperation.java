@@ -36,6 +36,7 @@ import java.util.stream.Stream;
 
 import org.apache.lucene.index.StoredFields;
 import org.apache.lucene.index.Term;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.VersionType;
@@ -65,6 +66,7 @@ import io.crate.expression.reference.doc.lucene.SourceParser;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.TransactionContext;
 import io.crate.planner.operators.PKAndVersion;
+import io.crate.server.xcontent.BinarySource;
 
 public final class PKLookupOperation {
 
@@ -117,7 +119,10 @@ public final class PKLookupOperation {
                 docIdAndVersion.seqNo,
                 docIdAndVersion.primaryTerm,
                 sourceMap,
-                () -> visitor.source().utf8ToString()
+                () -> {
+                    BytesReference source = visitor.source();
+                    return BinarySource.isBinary(source) ? BinarySource.toJson(source).utf8ToString() : source.utf8ToString();
+                }
             );
         }
     }
@@ -0,0 +1,186 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect;
+
+import java.util.Arrays;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.breaker.RamAccounting;
+
+/**
+ * Open addressing hash table for GROUP BY keys which consist of a fixed number of primitive longs, as read by
+ * {@link DocValuesKeyColumn}s.
+ * <p>
+ * A key is a {@code long[]} with one entry per key column followed by a bit mask of the key columns which are null.
+ * The keys of all groups are packed into a single {@code long[]}. Like in
+ * {@link io.crate.execution.engine.aggregation.GroupByHashTable}, the slots only contain the index of a group and
+ * groups are numbered by insertion order.
+ * </p>
+ */
+final class PackedKeyHashTable {
+
+    static final int MAX_KEYS = Long.SIZE;
+
+    private static final int INITIAL_NUM_SLOTS = 16;
+
+    private final int numKeys;
+    private final int stride;
+    private final long bytesPerGroup;
+    private final RamAccounting ramAccounting;
+
+    /**
+     * group number + 1 per slot; 0 marks an empty slot
+     */
+    private int[] slots;
+    private int[] hashes;
+    private long[] keys;
+    private Object[][] states;
+    private int size = 0;
+
+    private int currentHash;
+    private int currentSlot = -1;
+
+    PackedKeyHashTable(int numKeys, RamAccounting ramAccounting) {
+        assert numKeys > 0 && numKeys <= MAX_KEYS : "number of keys must be between 1 and " + MAX_KEYS;
+        this.numKeys = numKeys;
+        this.stride = numKeys + 1;
+        this.bytesPerGroup = Integer.BYTES                 // hashes
+            + (long) stride * Long.BYTES                   // keys
+            + RamUsageEstimator.NUM_BYTES_OBJECT_REF;      // states
+        this.ramAccounting = ramAccounting;
+        ramAccounting.addBytes(INITIAL_NUM_SLOTS * (Integer.BYTES + bytesPerGroup));
+        this.slots = new int[INITIAL_NUM_SLOTS];
+        this.hashes = new int[INITIAL_NUM_SLOTS];
+        this.keys = new long[INITIAL_NUM_SLOTS * stride];
+        this.states = new Object[INITIAL_NUM_SLOTS][];
+    }
+
+    /**
+     * Creates an array to hold a key for {@link #getForKey(long[])} and {@link #putForKey(long[], Object[])}
+     */
+    long[] newKey() {
+        return new long[stride];
+    }
+
+    /**
+     * @return the states of the group with the given key or null if there is no such group
+     */
+    @Nullable
+    Object[] getForKey(long[] key) {
+        int hash = hash(key);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int group = slots[slot] - 1;
+            if (group < 0) {
+                currentHash = hash;
+                currentSlot = slot;
+                return null;
+            }
+            if (hashes[group] == hash && Arrays.equals(keys, group * stride, group * stride + stride, key, 0, stride)) {
+                return states[group];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds a group, must follow a {@link #getForKey(long[])} call with the same key which returned null
+     */
+    void putForKey(long[] key, Object[] groupStates) {
+        assert currentSlot >= 0 && slots[currentSlot] == 0 : "putForKey must follow a getForKey miss";
+        ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) groupStates.length * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+        if (size == hashes.length) {
+            growGroups();
+        }
+        hashes[size] = currentHash;
+        System.arraycopy(key, 0, keys, size * stride, stride);
+        states[size] = groupStates;
+        slots[currentSlot] = size + 1;
+        currentSlot = -1;
+        size++;
+        if (size * 4L >= slots.length * 3L) {
+            rehash();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isNull(int group, int keyIdx) {
+        return (keys[group * stride + numKeys] & (1L << keyIdx)) != 0;
+    }
+
+    long key(int group, int keyIdx) {
+        return keys[group * stride + keyIdx];
+    }
+
+    Object[] states(int group) {
+        return states[group];
+    }
+
+    private void growGroups() {
+        int newCapacity = ArrayUtil.oversize(size + 1, Long.BYTES);
+        ramAccounting.addBytes((newCapacity - hashes.length) * bytesPerGroup);
+        hashes = Arrays.copyOf(hashes, newCapacity);
+        keys = Arrays.copyOf(keys, Math.multiplyExact(newCapacity, stride));
+        states = Arrays.copyOf(states, newCapacity);
+    }
+
+    private void rehash() {
+        int newNumSlots = slots.length << 1;
+        ramAccounting.addBytes((long) (newNumSlots - slots.length) * Integer.BYTES);
+        int[] newSlots = new int[newNumSlots];
+        int mask = newNumSlots - 1;
+        for (int group = 0; group < size; group++) {
+            int slot = hashes[group] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = group + 1;
+        }
+        slots = newSlots;
+    }
+
+    /**
+     * Combines the longs of the key and applies the finalization step of murmur3 to spread the bits,
+     * as keys like truncated timestamps only differ in their higher bits.
+     */
+    private static int hash(long[] key) {
+        long h = 0;
+        for (long value : key) {
+            h = h * 31 + value;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -21,24 +21,35 @@
 
 package io.crate.execution.engine.collect;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.IntSupplier;
 
 import org.jetbrains.annotations.Nullable;
 
 import org.elasticsearch.client.ElasticsearchClient;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import io.crate.analyze.WhereClause;
 import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
 import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.SentinelRow;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
 import io.crate.execution.engine.export.FileOutputFactory;
@@ -47,6 +58,7 @@ import io.crate.execution.engine.pipeline.ProjectorFactory;
 import io.crate.execution.engine.pipeline.Projectors;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.jobs.SharedShardContext;
+import io.crate.execution.support.ThreadPools;
 import io.crate.expression.InputFactory;
 import io.crate.expression.eval.EvaluatingNormalizer;
 import io.crate.expression.reference.sys.shard.ShardRowContext;
@@ -57,12 +69,25 @@ import io.crate.metadata.shard.ShardReferenceResolver;
 
 public abstract class ShardCollectorProvider {
 
+    /**
+     * Maximum number of concurrent scans of a single shard for queries which aggregate the shard rows.
+     */
+    public static final Setting<Integer> SHARD_SCAN_PARALLELISM = Setting.intSetting(
+        "node.sql.shard_scan.parallelism",
+        1,
+        1,
+        Property.NodeScope
+    );
+
     protected final Schemas schemas;
     private final ProjectorFactory projectorFactory;
     private final ShardRowContext shardRowContext;
     protected final IndexShard indexShard;
     final EvaluatingNormalizer shardNormalizer;
     private final BatchIteratorFactory batchIteratorFactory;
+    protected final int shardScanParallelism;
+    private final Executor searchExecutor;
+    private final IntSupplier availableThreads;
 
     ShardCollectorProvider(ClusterService clusterService,
                            CircuitBreakerService circuitBreakerService,
@@ -99,9 +124,14 @@ public abstract class ShardCollectorProvider {
             t -> null,
             indexShard.indexSettings().getIndexVersionCreated(),
             indexShard.shardId(),
-            fileOutputFactoryMap
+            fileOutputFactoryMap,
+            null
         );
         this.batchIteratorFactory = new BatchIteratorFactory();
+        this.shardScanParallelism = SHARD_SCAN_PARALLELISM.get(settings);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
+        this.searchExecutor = executor;
+        this.availableThreads = ThreadPools.numIdleThreads(executor, EsExecutors.numberOfProcessors(settings));
     }
 
     public class BatchIteratorFactory {
@@ -122,14 +152,38 @@ public abstract class ShardCollectorProvider {
                     return fusedIterator;
                 }
             }
+            Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
             final BatchIterator<Row> iterator;
             if (isOpenIndex && WhereClause.canMatch(normalizedCollectNode.where())) {
-                iterator = getUnorderedIterator(normalizedCollectNode, requiresScroll, collectTask);
+                if (shardScanParallelism > 1 && !requiresScroll && Projections.canApplyToSubsets(shardProjections)) {
+                    List<BatchIterator<Row>> slices = getUnorderedIterators(
+                        normalizedCollectNode,
+                        collectTask,
+                        shardScanParallelism
+                    );
+                    if (slices.size() > 1) {
+                        List<BatchIterator<Row>> projectedSlices = new ArrayList<>(slices.size());
+                        for (BatchIterator<Row> slice : slices) {
+                            projectedSlices.add(wrap(shardProjections, collectPhase, collectTask, slice));
+                        }
+                        return concurrently(projectedSlices);
+                    }
+                    iterator = slices.get(0);
+                } else {
+                    iterator = getUnorderedIterator(normalizedCollectNode, requiresScroll, collectTask);
+                }
             } else {
                 iterator = InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
             }
+            return wrap(shardProjections, collectPhase, collectTask, iterator);
+        }
+
+        private BatchIterator<Row> wrap(Collection<? extends Projection> shardProjections,
+                                        RoutedCollectPhase collectPhase,
+                                        CollectTask collectTask,
+                                        BatchIterator<Row> iterator) {
             return Projectors.wrap(
-                Projections.shardProjections(collectPhase.projections()),
+                shardProjections,
                 collectPhase.jobId(),
                 collectTask.txnCtx(),
                 collectTask.getRamAccounting(),
@@ -173,6 +227,25 @@ public abstract class ShardCollectorProvider {
                                                                boolean requiresScroll,
                                                                CollectTask collectTask);
 
+    /**
+     * Combines iterators of the same shard into one iterator which loads them concurrently
+     * using the search thread pool.
+     */
+    protected BatchIterator<Row> concurrently(List<BatchIterator<Row>> iterators) {
+        return CompositeBatchIterator.asyncComposite(searchExecutor, availableThreads, iterators);
+    }
+
+    /**
+     * Like {@link #getUnorderedIterator(RoutedCollectPhase, boolean, CollectTask)}, but splits the rows of the shard
+     * into up to {@code maxSlices} iterators which can be consumed concurrently.
+     * The default implementation doesn't split the shard.
+     */
+    protected List<BatchIterator<Row>> getUnorderedIterators(RoutedCollectPhase collectPhase,
+                                                             CollectTask collectTask,
+                                                             int maxSlices) {
+        return List.of(getUnorderedIterator(collectPhase, false, collectTask));
+    }
+
     protected abstract OrderedDocCollector getOrderedCollector(RoutedCollectPhase collectPhase,
                                                                SharedShardContext sharedShardContext,
                                                                CollectTask collectTask,
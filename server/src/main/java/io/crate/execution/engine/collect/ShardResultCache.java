@@ -0,0 +1,265 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.lucene.index.IndexReader;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.jetbrains.annotations.Nullable;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.crate.Streamer;
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.SentinelRow;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.dsl.projection.Projections;
+import io.crate.execution.engine.distribution.StreamBucket;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+
+/**
+ * Node-wide cache of the partial results of shards, the rows emitted by the projection fused iterators of
+ * aggregations (e.g. {@link DocValuesAggregates}) before they are merged.
+ * <p>
+ * Results are keyed by the {@link IndexReader} of the shard and by the serialized collect phase without its job
+ * specific parts. A refresh which changes the shard opens a new reader, so the cached results of the old reader are
+ * never returned again and are removed once the old reader is closed.
+ * </p>
+ * <p>
+ * The results are kept serialized, which bounds the memory used by the cache and guarantees that each query
+ * receives its own copy of the aggregation states. Phases with functions which are not deterministic are never
+ * cached.
+ * </p>
+ */
+@Singleton
+public class ShardResultCache {
+
+    public static final Setting<ByteSizeValue> SHARD_RESULT_CACHE_SIZE = Setting.memorySizeSetting(
+        "node.sql.shard_result_cache.size",
+        "1%",
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Results which use more than this fraction of the cache size aren't cached, so that a single large result
+     * doesn't evict all others.
+     */
+    private static final int MAX_ENTRY_FRACTION = 10;
+
+    private final long maxSizeInBytes;
+    @Nullable
+    private final Cache<Key, StreamBucket> cache;
+    private final Set<IndexReader.CacheKey> readersWithListener = ConcurrentHashMap.newKeySet();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Inject
+    public ShardResultCache(Settings settings) {
+        this(SHARD_RESULT_CACHE_SIZE.get(settings).getBytes());
+    }
+
+    @VisibleForTesting
+    public ShardResultCache(long maxSizeInBytes) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.cache = maxSizeInBytes == 0
+            ? null
+            : Caffeine.newBuilder()
+                .executor(Runnable::run)
+                .maximumWeight(maxSizeInBytes)
+                .weigher((Key key, StreamBucket rows) -> key.phase.length() + rows.sizeInBytes())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns an iterator over the cached result of the phase on the given reader, or wraps {@code it} to add its
+     * result to the cache once it has been fully consumed.
+     *
+     * @param it the projection fused iterator of the phase. It is closed if a cached result is returned instead.
+     */
+    public BatchIterator<Row> getOrCache(IndexReader reader,
+                                         RoutedCollectPhase phase,
+                                         Version minNodeVersion,
+                                         RamAccounting ramAccounting,
+                                         BatchIterator<Row> it) {
+        if (cache == null) {
+            return it;
+        }
+        IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(phase.projections());
+        if (cacheHelper == null || shardProjections.size() != 1 || !isDeterministic(phase, shardProjections)) {
+            return it;
+        }
+        Projection projection = shardProjections.iterator().next();
+        Key key = new Key(cacheHelper.getKey(), minNodeVersion, serialize(phase, projection));
+        StreamBucket rows = cache.getIfPresent(key);
+        if (rows != null) {
+            it.close();
+            return InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL, false);
+        }
+        if (readersWithListener.add(key.readerKey)) {
+            cacheHelper.addClosedListener(this::invalidate);
+        }
+        Streamer<?>[] streamers = Symbols.streamerArray(projection.outputs());
+        return new CachingBatchIterator(it, key, new StreamBucket.Builder(streamers, ramAccounting));
+    }
+
+    private void invalidate(IndexReader.CacheKey readerKey) {
+        readersWithListener.remove(readerKey);
+        if (cache.asMap().keySet().removeIf(key -> key.readerKey == readerKey)) {
+            invalidations.increment();
+        }
+    }
+
+    private static boolean isDeterministic(RoutedCollectPhase phase, Collection<? extends Projection> projections) {
+        if (!Symbols.isDeterministic(phase.where())) {
+            return false;
+        }
+        for (Symbol symbol : phase.toCollect()) {
+            if (!Symbols.isDeterministic(symbol)) {
+                return false;
+            }
+        }
+        for (Projection projection : projections) {
+            for (Symbol symbol : projection.outputs()) {
+                if (!Symbols.isDeterministic(symbol)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static BytesReference serialize(RoutedCollectPhase phase, Projection projection) {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            Symbols.toStream(phase.toCollect(), out);
+            Symbols.toStream(phase.where(), out);
+            Projection.toStream(projection, out);
+            return out.bytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    public long sizeInBytes() {
+        return cache == null ? 0 : cache.policy().eviction().orElseThrow().weightedSize().orElse(0L);
+    }
+
+    public long maxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    public long hits() {
+        return cache == null ? 0 : cache.stats().hitCount();
+    }
+
+    public long misses() {
+        return cache == null ? 0 : cache.stats().missCount();
+    }
+
+    public long evictions() {
+        return cache == null ? 0 : cache.stats().evictionCount();
+    }
+
+    /**
+     * @return how often the results of a reader have been removed because the reader was closed,
+     *         e.g. after a refresh
+     */
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    private record Key(IndexReader.CacheKey readerKey, Version minNodeVersion, BytesReference phase) {
+    }
+
+    /**
+     * Serializes the rows of the source while they're consumed and adds them to the cache once the source is
+     * exhausted. Nothing is cached if the consumer stops early or the result gets too large.
+     */
+    private class CachingBatchIterator extends ForwardingBatchIterator<Row> {
+
+        private final BatchIterator<Row> delegate;
+        private final Key key;
+        @Nullable
+        private StreamBucket.Builder rows;
+
+        CachingBatchIterator(BatchIterator<Row> delegate, Key key, StreamBucket.Builder rows) {
+            this.delegate = delegate;
+            this.key = key;
+            this.rows = rows;
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public boolean moveNext() {
+            if (delegate.moveNext()) {
+                if (rows != null) {
+                    rows.add(delegate.currentElement());
+                    if ((long) rows.sizeInBytes() * MAX_ENTRY_FRACTION > maxSizeInBytes) {
+                        rows = null;
+                    }
+                }
+                return true;
+            }
+            if (rows != null && delegate.allLoaded()) {
+                cache.put(key, rows.build());
+                rows = null;
+            }
+            return false;
+        }
+
+        @Override
+        public void moveToStart() {
+            rows = null;
+            super.moveToStart();
+        }
+    }
+}
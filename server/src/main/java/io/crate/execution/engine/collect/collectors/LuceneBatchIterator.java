@@ -42,6 +42,7 @@ import org.apache.lucene.util.Bits;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -52,21 +53,40 @@ import java.util.concurrent.CompletionStage;
  * It supports filtering the data using a lucene {@link Query} or via {@code minScore}.
  * <p>
  * Row data depends on {@code inputs} and {@code expressions}. The data is unordered.
+ * <p>
+ * The iterator can be restricted to a subset of the documents using {@link LeafRange}s.
+ * This allows to scan a single searcher concurrently with multiple iterators, see {@link #slice(List, int)}.
  */
 public class LuceneBatchIterator implements BatchIterator<Row> {
 
+    /**
+     * Searchers are only split into slices with at least this number of documents.
+     * Smaller slices don't outweigh the overhead of consuming and merging them separately.
+     */
+    static final int MIN_DOCS_PER_SLICE = 100_000;
+
+    /**
+     * Documents with {@code minDoc <= docId < maxDoc} of a leaf.
+     */
+    public record LeafRange(LeafReaderContext leaf, int minDoc, int maxDoc) {
+
+        public static LeafRange of(LeafReaderContext leaf) {
+            return new LeafRange(leaf, 0, leaf.reader().maxDoc());
+        }
+    }
+
     private final IndexSearcher indexSearcher;
     private final Query query;
     private final CollectorContext collectorContext;
     private final boolean doScores;
     private final LuceneCollectorExpression[] expressions;
-    private final List<LeafReaderContext> leaves;
+    private final List<LeafRange> leaves;
     private final InputRow row;
     private Weight weight;
     private final Float minScore;
 
-    private Iterator<LeafReaderContext> leavesIt;
-    private LeafReaderContext currentLeaf;
+    private Iterator<LeafRange> leavesIt;
+    private LeafRange currentLeaf;
     private Scorer currentScorer;
     private DocIdSetIterator currentDocIdSetIt;
     private volatile Throwable killed;
@@ -78,6 +98,26 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
                                CollectorContext collectorContext,
                                List<? extends Input<?>> inputs,
                                Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(
+            indexSearcher,
+            query,
+            minScore,
+            doScores,
+            collectorContext,
+            inputs,
+            expressions,
+            indexSearcher.getTopReaderContext().leaves().stream().map(LeafRange::of).toList()
+        );
+    }
+
+    public LuceneBatchIterator(IndexSearcher indexSearcher,
+                               Query query,
+                               @Nullable Float minScore,
+                               boolean doScores,
+                               CollectorContext collectorContext,
+                               List<? extends Input<?>> inputs,
+                               Collection<? extends LuceneCollectorExpression<?>> expressions,
+                               List<LeafRange> leaves) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.doScores = doScores || minScore != null;
@@ -85,7 +125,7 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         this.collectorContext = collectorContext;
         this.row = new InputRow(inputs);
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
-        leaves = indexSearcher.getTopReaderContext().leaves();
+        this.leaves = leaves;
         leavesIt = leaves.iterator();
     }
 
@@ -120,10 +160,11 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
 
     private boolean innerMoveNext() throws IOException {
         while (tryAdvanceDocIdSetIterator()) {
-            LeafReader reader = currentLeaf.reader();
+            LeafReader reader = currentLeaf.leaf().reader();
             Bits liveDocs = reader.getLiveDocs();
+            int maxDoc = currentLeaf.maxDoc();
             int doc;
-            while ((doc = currentDocIdSetIt.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            while ((doc = nextDoc()) < maxDoc) {
                 if (docDeleted(liveDocs, doc) || belowMinScore(currentScorer)) {
                     continue;
                 }
@@ -136,6 +177,13 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         return false;
     }
 
+    private int nextDoc() throws IOException {
+        if (currentDocIdSetIt.docID() == -1) {
+            return currentDocIdSetIt.advance(currentLeaf.minDoc());
+        }
+        return currentDocIdSetIt.nextDoc();
+    }
+
     private boolean belowMinScore(Scorer currentScorer) throws IOException {
         return minScore != null && currentScorer.score() < minScore;
     }
@@ -145,15 +193,18 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
             return true;
         }
         while (leavesIt.hasNext()) {
-            LeafReaderContext leaf = leavesIt.next();
-            Scorer scorer = weight.scorer(leaf);
+            LeafRange leaf = leavesIt.next();
+            if (leaf.minDoc() >= leaf.maxDoc()) {
+                continue;
+            }
+            Scorer scorer = weight.scorer(leaf.leaf());
             if (scorer == null) {
                 continue;
             }
             currentScorer = scorer;
             currentLeaf = leaf;
             currentDocIdSetIt = scorer.iterator();
-            var readerContext = new ReaderContext(currentLeaf);
+            var readerContext = new ReaderContext(leaf.leaf());
             for (LuceneCollectorExpression<?> expression : expressions) {
                 expression.setScorer(currentScorer);
                 expression.setNextReader(readerContext);
@@ -198,6 +249,56 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         return true;
     }
 
+    /**
+     * Splits the documents of the searcher into at most {@code maxSlices} slices
+     * with at least {@link #MIN_DOCS_PER_SLICE} documents each.
+     */
+    public static List<List<LeafRange>> slice(IndexSearcher searcher, int maxSlices) {
+        List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+        int maxDoc = searcher.getIndexReader().maxDoc();
+        int numSlices = Math.min(maxSlices, Math.max(1, maxDoc / MIN_DOCS_PER_SLICE));
+        if (numSlices == 1) {
+            return List.of(leaves.stream().map(LeafRange::of).toList());
+        }
+        return slice(leaves, numSlices);
+    }
+
+    /**
+     * Splits the documents of {@code leaves} into at most {@code numSlices} slices of about the same size.
+     * Each slice is a contiguous doc-id range of the searcher. Leaves bigger than a slice are split into
+     * multiple doc-id ranges.
+     */
+    public static List<List<LeafRange>> slice(List<LeafReaderContext> leaves, int numSlices) {
+        assert numSlices > 0 : "numSlices must be greater than 0";
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        long docsPerSlice = Math.max(1, (totalDocs + numSlices - 1) / numSlices);
+        List<List<LeafRange>> slices = new ArrayList<>(numSlices);
+        List<LeafRange> currentSlice = new ArrayList<>();
+        long currentSliceDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            int maxDoc = leaf.reader().maxDoc();
+            int minDoc = 0;
+            while (minDoc < maxDoc) {
+                int end = (int) Math.min(maxDoc, minDoc + docsPerSlice - currentSliceDocs);
+                currentSlice.add(new LeafRange(leaf, minDoc, end));
+                currentSliceDocs += end - minDoc;
+                minDoc = end;
+                if (currentSliceDocs == docsPerSlice) {
+                    slices.add(currentSlice);
+                    currentSlice = new ArrayList<>();
+                    currentSliceDocs = 0;
+                }
+            }
+        }
+        if (currentSlice.isEmpty() == false) {
+            slices.add(currentSlice);
+        }
+        return slices;
+    }
+
     private static boolean docDeleted(@Nullable Bits liveDocs, int doc) {
         if (liveDocs == null) {
             return false;
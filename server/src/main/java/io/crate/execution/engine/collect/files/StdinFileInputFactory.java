@@ -0,0 +1,131 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+
+/**
+ * Provides the data a client streams to a node, e.g. using {@code COPY FROM STDIN} via the PostgreSQL wire protocol.
+ *
+ * <p>
+ * The protocol registers the stream of the client connection and executes {@code COPY FROM} with the returned URI.
+ * The stream is only available on the node the client is connected to and can be read once, so the rows must be
+ * read on the handler node. See {@link #isStdin(Object)}.
+ * </p>
+ * <p>
+ * A stream can only be used by statements of the session which registered it, see {@link #isRegisteredBy(Object,
+ * CoordinatorSessionSettings)}. Statements can't use the {@code stdin} scheme to read the streams of other clients.
+ * </p>
+ */
+@Singleton
+public class StdinFileInputFactory implements FileInputFactory {
+
+    public static final String NAME = "stdin";
+
+    private final ConcurrentHashMap<URI, ClientStream> streams = new ConcurrentHashMap<>();
+
+    private record ClientStream(CoordinatorSessionSettings session, InputStream stream) {
+    }
+
+    /**
+     * @param session the settings of the session which executes the {@code COPY FROM} statement
+     * @return the URI to use as source of a {@code COPY FROM} statement to read the stream
+     */
+    public URI register(CoordinatorSessionSettings session, InputStream stream) {
+        URI uri = URI.create(NAME + ":" + UUID.randomUUID());
+        streams.put(uri, new ClientStream(session, stream));
+        return uri;
+    }
+
+    public void unregister(URI uri) {
+        streams.remove(uri);
+    }
+
+    /**
+     * @return true if the uri refers to a stream of a client connection
+     */
+    public static boolean isStdin(@Nullable Object uri) {
+        return uri instanceof String str && str.startsWith(NAME + ":");
+    }
+
+    /**
+     * @return true if the uri refers to a stream which has been registered by the given session
+     */
+    public boolean isRegisteredBy(@Nullable Object uri, CoordinatorSessionSettings session) {
+        if (!isStdin(uri)) {
+            return false;
+        }
+        ClientStream clientStream;
+        try {
+            clientStream = streams.get(URI.create((String) uri));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return clientStream != null && clientStream.session == session;
+    }
+
+    @Override
+    public FileInput create(URI uri, Settings withClauseOptions) throws IOException {
+        return new FileInput() {
+
+            @Override
+            public List<URI> expandUri() {
+                return List.of(uri);
+            }
+
+            @Override
+            public InputStream getStream(URI uri) throws IOException {
+                ClientStream clientStream = streams.remove(uri);
+                if (clientStream == null) {
+                    throw new IOException("No client stream is registered for " + uri + " on this node");
+                }
+                return clientStream.stream;
+            }
+
+            @Override
+            public boolean isGlobbed() {
+                return false;
+            }
+
+            @Override
+            public URI uri() {
+                return uri;
+            }
+
+            @Override
+            public boolean sharedStorageDefault() {
+                return false;
+            }
+        };
+    }
+}
@@ -45,6 +45,7 @@ import io.crate.execution.dsl.phases.CollectPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.engine.collect.CollectTask;
 import io.crate.execution.engine.collect.collectors.NodeStats;
+import io.crate.execution.engine.collect.stats.NodeResponseStats;
 import io.crate.execution.engine.collect.stats.NodeStatsAction;
 import io.crate.execution.engine.collect.stats.NodeStatsRequest;
 import io.crate.execution.engine.collect.stats.NodeStatsResponse;
@@ -71,8 +72,14 @@ public class NodeStatsCollectSource implements CollectSource {
     @Inject
     public NodeStatsCollectSource(Node node,
                                   ClusterService clusterService,
-                                  NodeContext nodeCtx) {
-        this.nodeStatsAction = req -> node.client().execute(NodeStatsAction.INSTANCE, req);
+                                  NodeContext nodeCtx,
+                                  NodeResponseStats nodeResponseStats) {
+        this.nodeStatsAction = req -> node.client().execute(NodeStatsAction.INSTANCE, req)
+            .whenComplete((response, err) -> {
+                if (response != null && response.nodeStatsContext() != null) {
+                    nodeResponseStats.onThreadPoolStats(req.nodeId(), response.nodeStatsContext().threadPools());
+                }
+            });
         this.clusterService = clusterService;
         this.inputFactory = new InputFactory(nodeCtx);
         this.nodeCtx = nodeCtx;
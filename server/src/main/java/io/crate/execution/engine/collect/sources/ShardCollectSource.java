@@ -36,6 +36,7 @@ import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
@@ -82,10 +83,12 @@ import io.crate.execution.engine.collect.RowsTransformer;
 import io.crate.execution.engine.collect.ShardCollectorProvider;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
 import io.crate.execution.engine.collect.collectors.OrderedLuceneBatchIteratorFactory;
+import io.crate.execution.engine.export.FileOutputFactory;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
 import io.crate.execution.engine.pipeline.Projectors;
 import io.crate.execution.engine.sort.OrderingByPosition;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.execution.jobs.SharedShardContexts;
@@ -167,7 +170,9 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
                               RemoteCollectorFactory remoteCollectorFactory,
                               SystemCollectSource systemCollectSource,
                               CircuitBreakerService circuitBreakerService,
-                              ShardCollectorProviderFactory shardCollectorProviderFactory) {
+                              ShardCollectorProviderFactory shardCollectorProviderFactory,
+                              SpillService spillService,
+                              Map<String, FileOutputFactory> fileOutputFactoryMap) {
         this.unassignedShardReferenceResolver = new StaticTableReferenceResolver<>(
             SysShardsTableInfo.unassignedShardsExpressions());
         this.shardReferenceResolver = new StaticTableReferenceResolver<>(SysShardsTableInfo.create().expressions());
@@ -197,7 +202,11 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
             inputFactory,
             nodeNormalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            Version.CURRENT,
+            null,
+            fileOutputFactoryMap,
+            spillService
         );
     }
 
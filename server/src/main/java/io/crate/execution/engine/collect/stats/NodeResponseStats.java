@@ -0,0 +1,269 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.stats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPoolStats;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects the response times, service times and search queue sizes of the nodes this node sends job and fetch
+ * requests to, as exponentially weighted moving averages (EWMA).
+ *
+ * <p>
+ * The statistics are used to rank the nodes holding copies of a shard, so that the copy on the node which is
+ * expected to respond the fastest is used. The rank is computed similar to the C3 algorithm:
+ * </p>
+ *
+ * <pre>
+ *     rank = responseTime - serviceTime + (1 + outstandingRequests + queueSize)^3 * serviceTime
+ * </pre>
+ *
+ * The queue size is weighted cubed, so that a node which builds up a queue, e.g. because of a long garbage
+ * collection, is avoided before its response times show it.
+ *
+ * Nodes without statistics, or whose statistics are outdated, don't have a rank. If a copy of a shard is on such
+ * a node, the copy is chosen randomly, which also updates the statistics of the node again.
+ */
+@Singleton
+public class NodeResponseStats implements ClusterStateListener {
+
+    public static final Setting<Boolean> USE_ADAPTIVE_REPLICA_SELECTION = Setting.boolSetting(
+        "cluster.routing.use_adaptive_replica_selection",
+        true,
+        Setting.Property.Dynamic,
+        Setting.Property.NodeScope,
+        Setting.Property.Exposed
+    );
+
+    /**
+     * The weight of a new measurement
+     */
+    static final double ALPHA = 0.3;
+
+    /**
+     * Statistics of nodes without outstanding requests which weren't updated within this time are ignored.
+     */
+    static final long STALE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ConcurrentHashMap<String, NodeEntry> nodes = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    @Inject
+    public NodeResponseStats(Settings settings, ClusterService clusterService) {
+        this.enabled = USE_ADAPTIVE_REPLICA_SELECTION.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            USE_ADAPTIVE_REPLICA_SELECTION,
+            newValue -> enabled = newValue);
+        clusterService.addListener(this);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wraps a listener of a request sent to a node to update the statistics of the node once the response arrives.
+     *
+     * @param serviceTimeNanos the time the node needed to process the request, or -1 if the response doesn't
+     *                         include it
+     * @param queueSize the size of the search queue of the node, or -1 if the response doesn't include it
+     */
+    public <T> ActionListener<T> track(String nodeId,
+                                       ActionListener<T> listener,
+                                       ToLongFunction<T> serviceTimeNanos,
+                                       ToIntFunction<T> queueSize) {
+        NodeEntry entry = nodes.computeIfAbsent(nodeId, ignored -> new NodeEntry(nodeId));
+        entry.onRequestSent();
+        long startNanos = System.nanoTime();
+        return new ActionListener<>() {
+
+            @Override
+            public void onResponse(T response) {
+                entry.onResponse(
+                    System.nanoTime() - startNanos,
+                    serviceTimeNanos.applyAsLong(response),
+                    queueSize.applyAsInt(response)
+                );
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                entry.onFailure();
+                listener.onFailure(e);
+            }
+        };
+    }
+
+    /**
+     * Updates the search queue size of a node from its thread pool statistics, e.g. collected for {@code sys.nodes}.
+     */
+    public void onThreadPoolStats(String nodeId, @Nullable ThreadPoolStats threadPools) {
+        NodeEntry entry = nodes.get(nodeId);
+        if (entry == null || threadPools == null) {
+            return;
+        }
+        for (ThreadPoolStats.Stats stats : threadPools) {
+            if (ThreadPool.Names.SEARCH.equals(stats.getName()) && stats.getQueue() >= 0) {
+                entry.onQueueSize(stats.getQueue());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the current statistics of all nodes which have statistics.
+     */
+    public List<NodeEntry.Snapshot> snapshots() {
+        long now = System.nanoTime();
+        ArrayList<NodeEntry.Snapshot> snapshots = new ArrayList<>(nodes.size());
+        for (NodeEntry entry : nodes.values()) {
+            NodeEntry.Snapshot snapshot = entry.snapshot(now);
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns the statistics of all nodes which are used to rank nodes, by node id.
+     * Outdated statistics are excluded.
+     */
+    public Map<String, NodeEntry.Snapshot> rankableSnapshots() {
+        long now = System.nanoTime();
+        HashMap<String, NodeEntry.Snapshot> snapshots = new HashMap<>();
+        for (NodeEntry entry : nodes.values()) {
+            NodeEntry.Snapshot snapshot = entry.snapshot(now);
+            if (snapshot != null && snapshot.isStale() == false) {
+                snapshots.put(snapshot.nodeId(), snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.nodesRemoved()) {
+            for (DiscoveryNode removedNode : event.nodesDelta().removedNodes()) {
+                nodes.remove(removedNode.getId());
+            }
+        }
+    }
+
+    public static final class NodeEntry {
+
+        private final String nodeId;
+        private int outstandingRequests = 0;
+        private double responseTimeNanos = -1;
+        private double serviceTimeNanos = -1;
+        private double queueSize = 0;
+        private long lastUpdateNanos;
+
+        private NodeEntry(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        synchronized void onRequestSent() {
+            outstandingRequests++;
+        }
+
+        synchronized void onFailure() {
+            outstandingRequests = Math.max(0, outstandingRequests - 1);
+        }
+
+        synchronized void onResponse(long responseTimeNanos, long serviceTimeNanos, int queueSize) {
+            outstandingRequests = Math.max(0, outstandingRequests - 1);
+            this.responseTimeNanos = ewma(this.responseTimeNanos, responseTimeNanos);
+            if (serviceTimeNanos >= 0) {
+                this.serviceTimeNanos = ewma(this.serviceTimeNanos, serviceTimeNanos);
+            } else if (this.serviceTimeNanos < 0) {
+                // Without any measurement the response time is the best estimate
+                this.serviceTimeNanos = responseTimeNanos;
+            }
+            if (queueSize >= 0) {
+                this.queueSize = ewma(this.queueSize, queueSize);
+            }
+            lastUpdateNanos = System.nanoTime();
+        }
+
+        synchronized void onQueueSize(int queueSize) {
+            if (responseTimeNanos >= 0) {
+                this.queueSize = ewma(this.queueSize, queueSize);
+            }
+        }
+
+        private static double ewma(double current, double value) {
+            return current < 0 ? value : ALPHA * value + (1 - ALPHA) * current;
+        }
+
+        @Nullable
+        synchronized Snapshot snapshot(long nowNanos) {
+            if (responseTimeNanos < 0) {
+                return null;
+            }
+            boolean stale = outstandingRequests == 0 && nowNanos - lastUpdateNanos > STALE_AFTER_NANOS;
+            return new Snapshot(nodeId, responseTimeNanos, serviceTimeNanos, queueSize, outstandingRequests, stale);
+        }
+
+        public record Snapshot(String nodeId,
+                               double responseTimeNanos,
+                               double serviceTimeNanos,
+                               double queueSize,
+                               int outstandingRequests,
+                               boolean isStale) {
+
+            public double rank() {
+                return rank(0);
+            }
+
+            /**
+             * @param additionalRequests requests which will be sent to the node in addition to the outstanding
+             *                           requests.
+             */
+            public double rank(int additionalRequests) {
+                double qHat = 1 + outstandingRequests + additionalRequests + queueSize;
+                return responseTimeNanos - serviceTimeNanos + qHat * qHat * qHat * serviceTimeNanos;
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.UUID;
 
 import org.jetbrains.annotations.Nullable;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportRequest;
@@ -36,6 +37,8 @@ import io.crate.execution.support.NodeRequest;
 
 public class DistributedResultRequest extends TransportRequest {
 
+    public static final int NO_PAGE_IDX = -1;
+
     public static class Builder {
 
         public final DistributedResultRequest innerRequest;
@@ -56,10 +59,24 @@ public class DistributedResultRequest extends TransportRequest {
                                                            int bucketIdx,
                                                            StreamBucket rows,
                                                            boolean isLast) {
-        return new NodeRequest<>(
-            nodeId,
-            new DistributedResultRequest(jobId, executionPhaseId, inputId, bucketIdx, rows, isLast)
-        );
+        return of(nodeId, jobId, executionPhaseId, inputId, bucketIdx, NO_PAGE_IDX, rows, isLast);
+    }
+
+    /**
+     * @param pageIdx the sequence number of the page within the bucket if the upstream sends pages without waiting
+     *                for the responses of the previous pages, otherwise {@link #NO_PAGE_IDX}.
+     */
+    public static NodeRequest<DistributedResultRequest> of(String nodeId,
+                                                           UUID jobId,
+                                                           int executionPhaseId,
+                                                           byte inputId,
+                                                           int bucketIdx,
+                                                           int pageIdx,
+                                                           StreamBucket rows,
+                                                           boolean isLast) {
+        DistributedResultRequest request = new DistributedResultRequest(jobId, executionPhaseId, inputId, bucketIdx, rows, isLast);
+        request.pageIdx = pageIdx;
+        return new NodeRequest<>(nodeId, request);
     }
 
     private final byte inputId;
@@ -69,6 +86,7 @@ public class DistributedResultRequest extends TransportRequest {
     private StreamBucket rows;
     private final UUID jobId;
     private boolean isLast = true;
+    private int pageIdx = NO_PAGE_IDX;
 
     private Throwable throwable = null;
     private boolean isKilled = false;
@@ -127,6 +145,14 @@ public class DistributedResultRequest extends TransportRequest {
         return isLast;
     }
 
+    /**
+     * The sequence number of the page within the bucket, or {@link #NO_PAGE_IDX} if the upstream waits for the
+     * response of a page before it sends the next one.
+     */
+    public int pageIdx() {
+        return pageIdx;
+    }
+
     @Nullable
     public Throwable throwable() {
         return throwable;
@@ -143,6 +169,9 @@ public class DistributedResultRequest extends TransportRequest {
         bucketIdx = in.readVInt();
         isLast = in.readBoolean();
         inputId = in.readByte();
+        if (in.getVersion().onOrAfter(Version.V_5_6_0)) {
+            pageIdx = in.readInt();
+        }
 
         boolean failure = in.readBoolean();
         if (failure) {
@@ -162,6 +191,9 @@ public class DistributedResultRequest extends TransportRequest {
         out.writeVInt(bucketIdx);
         out.writeBoolean(isLast);
         out.writeByte(inputId);
+        if (out.getVersion().onOrAfter(Version.V_5_6_0)) {
+            out.writeInt(pageIdx);
+        }
 
         boolean failure = throwable != null;
         out.writeBoolean(failure);
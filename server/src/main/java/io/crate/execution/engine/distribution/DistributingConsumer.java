@@ -35,6 +35,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 
+import io.crate.common.annotations.GuardedBy;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.data.BatchIterator;
 import io.crate.data.Paging;
@@ -50,8 +51,10 @@ import io.crate.execution.support.NodeRequest;
  * The rows from the source {@link BatchIterator} are "bucketed" using a {@link MultiBucketBuilder}. So a downstream
  * can either receive a part of the data or all data.
  *
- * Every time requests to the downstreams are made consumption of the source BatchIterator is stopped until a response
- * from all downstreams is received.
+ * Each downstream grants {@link #maxPagesInFlight} pages of credit: The consumption of the source BatchIterator
+ * continues while the requests of previous pages are in flight and is stopped once a downstream has that many pages
+ * it didn't respond to yet. A response returns the credit for a page. With more than one page in flight the requests
+ * include a page index, so that the downstream can process the pages in order.
  */
 public class DistributingConsumer implements RowConsumer {
 
@@ -63,16 +66,39 @@ public class DistributingConsumer implements RowConsumer {
     private final int bucketIdx;
     private final ActionExecutor<NodeRequest<DistributedResultRequest>, DistributedResultResponse> distributedResultAction;
     private final int pageSize;
+    private final int maxPagesInFlight;
     private final StreamBucket[] buckets;
     private final List<Downstream> downstreams;
     private final boolean traceEnabled;
     private final CompletableFuture<Void> completionFuture;
+    private final Object lock = new Object();
 
     @VisibleForTesting
     final MultiBucketBuilder multiBucketBuilder;
 
     private volatile Throwable failure;
 
+    @GuardedBy("lock")
+    private State state = State.CONSUMING;
+
+    @GuardedBy("lock")
+    private boolean lastPageSent = false;
+
+    private enum State {
+        /**
+         * The source is consumed or the consumer is about to continue consuming it
+         */
+        CONSUMING,
+        /**
+         * Waiting for responses before the source can be consumed further or be closed
+         */
+        PAUSED,
+        /**
+         * The source is or will be closed
+         */
+        FINISHED
+    }
+
     public DistributingConsumer(Executor responseExecutor,
                                 UUID jobId,
                                 MultiBucketBuilder multiBucketBuilder,
@@ -81,7 +107,9 @@ public class DistributingConsumer implements RowConsumer {
                                 int bucketIdx,
                                 Collection<String> downstreamNodeIds,
                                 ActionExecutor<NodeRequest<DistributedResultRequest>, DistributedResultResponse> distributedResultAction,
-                                int pageSize) {
+                                int pageSize,
+                                int maxPagesInFlight) {
+        assert maxPagesInFlight > 0 : "maxPagesInFlight must be greater than 0";
         this.traceEnabled = LOGGER.isTraceEnabled();
         this.responseExecutor = responseExecutor;
         this.jobId = jobId;
@@ -91,6 +119,7 @@ public class DistributingConsumer implements RowConsumer {
         this.bucketIdx = bucketIdx;
         this.distributedResultAction = distributedResultAction;
         this.pageSize = pageSize;
+        this.maxPagesInFlight = maxPagesInFlight;
         this.buckets = new StreamBucket[downstreamNodeIds.size()];
         this.completionFuture = new CompletableFuture<>();
         downstreams = new ArrayList<>(downstreamNodeIds.size());
@@ -120,23 +149,33 @@ public class DistributingConsumer implements RowConsumer {
                 multiBucketBuilder.add(it.currentElement());
                 if (multiBucketBuilder.size() >= pageSize || multiBucketBuilder.ramBytesUsed() >= Paging.MAX_PAGE_BYTES) {
                     forwardResults(it, false);
-                    return;
+                    if (continueConsuming(it) == false) {
+                        return;
+                    }
                 }
             }
             if (it.allLoaded()) {
                 forwardResults(it, true);
+                continueConsuming(it);
             } else {
                 it.loadNextBatch().whenComplete((r, t) -> {
                     if (t == null) {
                         consumeIt(it);
                     } else {
-                        forwardFailure(it, t);
+                        finishAndForwardFailure(it, t);
                     }
                 });
             }
         } catch (Throwable t) {
-            forwardFailure(it, t);
+            finishAndForwardFailure(it, t);
+        }
+    }
+
+    private void finishAndForwardFailure(BatchIterator<?> it, Throwable t) {
+        synchronized (lock) {
+            state = State.FINISHED;
         }
+        forwardFailure(it, t);
     }
 
     private void forwardFailure(@Nullable final BatchIterator<?> it, final Throwable f) {
@@ -145,7 +184,7 @@ public class DistributingConsumer implements RowConsumer {
         var builder = new DistributedResultRequest.Builder(jobId, targetPhaseId, inputId, bucketIdx, failure, false);
         for (int i = 0; i < downstreams.size(); i++) {
             Downstream downstream = downstreams.get(i);
-            if (downstream.needsMoreData == false) {
+            if (downstream.needsMoreData() == false) {
                 countdownAndMaybeCloseIt(numActiveRequests, it);
             } else {
                 if (traceEnabled) {
@@ -157,7 +196,9 @@ public class DistributingConsumer implements RowConsumer {
                     .whenComplete(
                         (resp, t) -> {
                             if (t == null) {
-                                downstream.needsMoreData = false;
+                                synchronized (lock) {
+                                    downstream.needsMoreData = false;
+                                }
                                 countdownAndMaybeCloseIt(numActiveRequests, it);
                             } else {
                                 if (traceEnabled) {
@@ -190,93 +231,187 @@ public class DistributingConsumer implements RowConsumer {
 
     private void forwardResults(BatchIterator<Row> it, boolean isLast) {
         multiBucketBuilder.build(buckets);
-        AtomicInteger numActiveRequests = new AtomicInteger(downstreams.size());
-        for (int i = 0; i < downstreams.size(); i++) {
-            Downstream downstream = downstreams.get(i);
-            if (downstream.needsMoreData == false) {
-                countdownAndMaybeContinue(it, numActiveRequests, true);
-                continue;
+        List<NodeRequest<DistributedResultRequest>> requests = new ArrayList<>(downstreams.size());
+        List<Downstream> receivers = new ArrayList<>(downstreams.size());
+        synchronized (lock) {
+            for (int i = 0; i < downstreams.size(); i++) {
+                Downstream downstream = downstreams.get(i);
+                if (downstream.needsMoreData == false) {
+                    continue;
+                }
+                int pageIdx = maxPagesInFlight == 1 ? DistributedResultRequest.NO_PAGE_IDX : downstream.nextPageIdx++;
+                downstream.pagesInFlight++;
+                requests.add(DistributedResultRequest.of(
+                    downstream.nodeId,
+                    jobId,
+                    targetPhaseId,
+                    inputId,
+                    bucketIdx,
+                    pageIdx,
+                    buckets[i],
+                    isLast));
+                receivers.add(downstream);
             }
+            if (isLast) {
+                lastPageSent = true;
+            }
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            Downstream downstream = receivers.get(i);
             if (traceEnabled) {
                 LOGGER.trace("forwardResults targetNode={} jobId={} targetPhase={}/{} bucket={} isLast={}",
                              downstream.nodeId, jobId, targetPhaseId, inputId, bucketIdx, isLast);
             }
             distributedResultAction
-                .execute(
-                    DistributedResultRequest.of(
-                        downstream.nodeId,
-                        jobId,
-                        targetPhaseId,
-                        inputId,
-                        bucketIdx,
-                        buckets[i],
-                        isLast))
+                .execute(requests.get(i))
                 .whenComplete(
                     (resp, t) -> {
-                        if (t == null) {
-                            downstream.needsMoreData = resp.needMore();
-                            countdownAndMaybeContinue(it, numActiveRequests, false);
-                        } else {
-                            LOGGER.trace(
-                                "Failure from downstream while sending result. job={} targetNode={} failure={}",
-                                jobId,
-                                downstream.nodeId,
-                                t
-                            );
-                            failure = t;
-                            downstream.needsMoreData = false;
-                            // continue because it's necessary to send something to downstreams still waiting for data
-                            countdownAndMaybeContinue(it, numActiveRequests, false);
+                        synchronized (lock) {
+                            downstream.pagesInFlight--;
+                            if (t == null) {
+                                // Responses of pipelined pages can arrive in any order, once a downstream is done it stays done
+                                if (resp.needMore() == false) {
+                                    downstream.needsMoreData = false;
+                                }
+                            } else {
+                                LOGGER.trace(
+                                    "Failure from downstream while sending result. job={} targetNode={} failure={}",
+                                    jobId,
+                                    downstream.nodeId,
+                                    t
+                                );
+                                failure = t;
+                                downstream.needsMoreData = false;
+                                // continue because it's necessary to send something to downstreams still waiting for data
+                            }
                         }
+                        maybeResume(it);
                     }
                 );
         }
     }
 
-    private void countdownAndMaybeContinue(BatchIterator<Row> it,
-                                           AtomicInteger numActiveRequests,
-                                           boolean sameExecutor) {
-        if (numActiveRequests.decrementAndGet() == 0) {
-            if (downstreams.stream().anyMatch(Downstream::needsMoreData)) {
-                if (failure == null) {
-                    if (sameExecutor) {
-                        consumeIt(it);
-                    } else {
-                        // try to dispatch to different executor, if it fails, forward the error in the same thread
-                        try {
-                            responseExecutor.execute(() -> consumeIt(it));
-                        } catch (EsRejectedExecutionException e) {
-                            failure = e;
-                            forwardFailure(it, failure);
-                        }
-                    }
-                } else {
-                    forwardFailure(it, failure);
+    /**
+     * Called by the consumer after a page has been sent.
+     *
+     * @return true if the consumer can continue to consume the source. Otherwise the consumption is continued or the
+     *         source is closed once the pending responses arrived.
+     */
+    private boolean continueConsuming(BatchIterator<Row> it) {
+        Runnable action;
+        synchronized (lock) {
+            if (lastPageSent == false && failure == null && anyNeedsMoreData() && hasCredits()) {
+                return true;
+            }
+            state = State.PAUSED;
+            action = nextAction(it);
+        }
+        if (action != null) {
+            action.run();
+        }
+        return false;
+    }
+
+    private void maybeResume(BatchIterator<Row> it) {
+        Runnable action;
+        synchronized (lock) {
+            if (state != State.PAUSED) {
+                return;
+            }
+            action = nextAction(it);
+        }
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    @Nullable
+    @GuardedBy("lock")
+    private Runnable nextAction(BatchIterator<Row> it) {
+        assert state == State.PAUSED : "nextAction must only be called if the consumer is paused";
+        boolean anyNeedsMoreData = anyNeedsMoreData();
+        if (lastPageSent || failure != null || anyNeedsMoreData == false) {
+            for (int i = 0; i < downstreams.size(); i++) {
+                if (downstreams.get(i).pagesInFlight > 0) {
+                    return null;
                 }
-            } else {
-                // If we've a failure we either communicated it to the other downstreams already,
-                // or were able to send results to all downstreams. In either case, *this* operation succeeded and the
-                // downstreams need to deal with failures.
+            }
+            state = State.FINISHED;
+            Throwable err = failure;
+            if (err != null && anyNeedsMoreData) {
+                return () -> forwardFailure(it, err);
+            }
+            // If we've a failure we either communicated it to the other downstreams already,
+            // or were able to send results to all downstreams. In either case, *this* operation succeeded and the
+            // downstreams need to deal with failures.
 
-                // The NodeDisconnectJobMonitorService takes care of node disconnects, so we don't have to manage
-                // that scenario.
+            // The NodeDisconnectJobMonitorService takes care of node disconnects, so we don't have to manage
+            // that scenario.
+            return () -> {
                 it.close();
                 completionFuture.complete(null);
+            };
+        }
+        if (hasCredits()) {
+            state = State.CONSUMING;
+            return () -> {
+                // try to dispatch to different executor, if it fails, forward the error in the same thread
+                try {
+                    responseExecutor.execute(() -> consumeIt(it));
+                } catch (EsRejectedExecutionException e) {
+                    failure = e;
+                    finishAndForwardFailure(it, e);
+                }
+            };
+        }
+        return null;
+    }
+
+    @GuardedBy("lock")
+    private boolean anyNeedsMoreData() {
+        for (int i = 0; i < downstreams.size(); i++) {
+            if (downstreams.get(i).needsMoreData) {
+                return true;
             }
         }
+        return false;
     }
 
-    private static class Downstream {
+    /**
+     * @return true if no downstream which needs more data has {@link #maxPagesInFlight} pages in flight
+     */
+    @GuardedBy("lock")
+    private boolean hasCredits() {
+        for (int i = 0; i < downstreams.size(); i++) {
+            Downstream downstream = downstreams.get(i);
+            if (downstream.needsMoreData && downstream.pagesInFlight >= maxPagesInFlight) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class Downstream {
 
         private final String nodeId;
+
+        @GuardedBy("lock")
         private boolean needsMoreData = true;
 
+        @GuardedBy("lock")
+        private int pagesInFlight = 0;
+
+        @GuardedBy("lock")
+        private int nextPageIdx = 0;
+
         Downstream(String nodeId) {
             this.nodeId = nodeId;
         }
 
         boolean needsMoreData() {
-            return needsMoreData;
+            synchronized (lock) {
+                return needsMoreData;
+            }
         }
 
         @Override
@@ -284,6 +419,7 @@ public class DistributingConsumer implements RowConsumer {
             return "Downstream{" +
                    nodeId + '\'' +
                    ", needsMoreData=" + needsMoreData +
+                   ", pagesInFlight=" + pagesInFlight +
                    '}';
         }
     }
@@ -26,9 +26,13 @@ import java.util.Collection;
 import java.util.UUID;
 import java.util.concurrent.Executor;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -48,15 +52,30 @@ public class DistributingConsumerFactory {
 
     private static final String RESPONSE_EXECUTOR_NAME = ThreadPool.Names.SEARCH;
 
+    /**
+     * Number of pages an upstream sends to a downstream without waiting for the responses of the previous pages.
+     */
+    public static final Setting<Integer> MAX_PAGES_IN_FLIGHT = Setting.intSetting(
+        "node.sql.distribution.max_pages_in_flight",
+        1,
+        1,
+        Property.NodeScope
+    );
+
     private final ClusterService clusterService;
+    private final int maxPagesInFlight;
+    private final boolean compress;
     private final Executor responseExecutor;
     private final ActionExecutor<NodeRequest<DistributedResultRequest>, DistributedResultResponse> distributedResultAction;
 
     @Inject
-    public DistributingConsumerFactory(ClusterService clusterService,
+    public DistributingConsumerFactory(Settings settings,
+                                       ClusterService clusterService,
                                        ThreadPool threadPool,
                                        Node node) {
         this.clusterService = clusterService;
+        this.maxPagesInFlight = MAX_PAGES_IN_FLIGHT.get(settings);
+        this.compress = StreamBucket.COMPRESSION.get(settings);
         this.responseExecutor = threadPool.executor(RESPONSE_EXECUTOR_NAME);
         this.distributedResultAction = req -> node.client().execute(DistributedResultAction.INSTANCE, req);
     }
@@ -81,14 +100,16 @@ public class DistributingConsumerFactory {
                     multiBucketBuilder = new BroadcastingBucketBuilder(
                         streamers,
                         nodeOperation.downstreamNodes().size(),
-                        ramAccounting
+                        ramAccounting,
+                        compress
                     );
                 } else {
                     multiBucketBuilder = new ModuloBucketBuilder(
                         streamers,
                         nodeOperation.downstreamNodes().size(),
                         distributionInfo.distributeByColumn(),
-                        ramAccounting
+                        ramAccounting,
+                        compress
                     );
                 }
                 break;
@@ -96,7 +117,8 @@ public class DistributingConsumerFactory {
                 multiBucketBuilder = new BroadcastingBucketBuilder(
                     streamers,
                     nodeOperation.downstreamNodes().size(),
-                    ramAccounting
+                    ramAccounting,
+                    compress
                 );
                 break;
             default:
@@ -112,10 +134,21 @@ public class DistributingConsumerFactory {
             bucketIdx,
             nodeOperation.downstreamNodes(),
             distributedResultAction,
-            pageSize
+            pageSize,
+            maxPagesInFlight()
         );
     }
 
+    /**
+     * Pages can only be pipelined if all downstreams can handle the page index of the requests
+     */
+    private int maxPagesInFlight() {
+        if (clusterService.state().nodes().getMinNodeVersion().onOrAfter(Version.V_5_6_0)) {
+            return maxPagesInFlight;
+        }
+        return 1;
+    }
+
     /**
      * @return bucketIdx (= phaseInputID (8bit) | idx of localNode in nodeIds (24bit) )
      *
@@ -26,43 +26,100 @@ import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
+import io.crate.types.StringType;
 
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 
 import static java.util.Objects.requireNonNull;
 
 public class StreamBucket implements Bucket, Writeable {
 
+    /**
+     * Enables the dictionary encoding and LZ4 compression of buckets which are sent to other nodes.
+     */
+    public static final Setting<Boolean> COMPRESSION = Setting.boolSetting(
+        "node.sql.distribution.compression",
+        false,
+        Property.NodeScope
+    );
+
+    /**
+     * Buckets smaller than this are sent as they are, the saved bytes wouldn't be worth the CPU time.
+     */
+    static final int MIN_COMPRESSION_BYTES = 1024;
+
+    /**
+     * The codec byte is a bit set of the encodings applied to the rows.
+     */
+    static final byte CODEC_NONE = 0;
+    static final byte CODEC_LZ4 = 1;
+    static final byte CODEC_DICTIONARY = 2;
+
     private Streamer<?>[] streamers;
     private int size = -1;
     private BytesReference bytes;
+    private boolean compress = false;
+
+    /**
+     * If true, {@link #bytes} contains the rows in the dictionary encoded format, see {@link #dictionaryEncode()}.
+     */
+    private boolean dictionaryEncoded = false;
+
+    /**
+     * The bytes which are sent to nodes supporting the codecs, or null if not encoded yet.
+     */
+    @Nullable
+    private Encoded encoded;
+
+    /**
+     * @param uncompressedLength the length of the bytes before the LZ4 compression
+     */
+    private record Encoded(byte codec, int uncompressedLength, BytesReference bytes) {
+    }
 
     public static class Builder implements Accountable {
 
         private static final int INITIAL_PAGE_SIZE = 1024;
         private final RamAccounting ramAccounting;
         private final Streamer<?>[] streamers;
+        private final boolean compress;
 
         private int size = 0;
         private BytesStreamOutput out;
         private int prevOutSize = 0;
 
         public Builder(Streamer<?>[] streamers, RamAccounting ramAccounting) {
+            this(streamers, ramAccounting, false);
+        }
+
+        /**
+         * @param compress if true, the built buckets are compressed when they are sent to nodes which support it.
+         */
+        public Builder(Streamer<?>[] streamers, RamAccounting ramAccounting, boolean compress) {
             this.ramAccounting = requireNonNull(ramAccounting, "RamAccounting must not be null");
             assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
             this.streamers = streamers;
+            this.compress = compress;
             out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
         }
 
@@ -86,6 +143,7 @@ public class StreamBucket implements Bucket, Writeable {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
             sb.bytes = out.bytes();
+            sb.compress = compress;
             return sb;
         }
 
@@ -98,6 +156,13 @@ public class StreamBucket implements Bucket, Writeable {
             return size;
         }
 
+        /**
+         * @return the number of bytes of the rows added since the last reset
+         */
+        public int sizeInBytes() {
+            return out.size();
+        }
+
         @Override
         public long ramBytesUsed() {
             return ramAccounting.totalBytes();
@@ -114,6 +179,13 @@ public class StreamBucket implements Bucket, Writeable {
         return size;
     }
 
+    /**
+     * @return the number of bytes of the serialized rows
+     */
+    public int sizeInBytes() {
+        return bytes == null ? 0 : bytes.length();
+    }
+
     public void streamers(Streamer<?>[] streamers) {
         assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
         this.streamers = streamers;
@@ -138,11 +210,21 @@ public class StreamBucket implements Bucket, Writeable {
         private final StreamInput input;
         private final Object[] current;
         private final RowN row;
+
+        /**
+         * The dictionaries of the dictionary encoded columns, null for all other columns.
+         */
+        @Nullable
+        private final Object[][] dictionaries;
         private int pos = 0;
 
-        private RowIterator(StreamInput streamInput, Streamer<?>[] streamers, int size) {
+        private RowIterator(StreamInput streamInput,
+                            Streamer<?>[] streamers,
+                            int size,
+                            @Nullable Object[][] dictionaries) {
             this.streamers = streamers;
             this.size = size;
+            this.dictionaries = dictionaries;
             input = streamInput;
             current = new Object[streamers.length];
             row = new RowN(current);
@@ -157,7 +239,8 @@ public class StreamBucket implements Bucket, Writeable {
         public Row next() {
             for (int c = 0; c < streamers.length; c++) {
                 try {
-                    current[c] = streamers[c].readValueFrom(input);
+                    Object[] dictionary = dictionaries == null ? null : dictionaries[c];
+                    current[c] = dictionary == null ? streamers[c].readValueFrom(input) : dictionary[input.readVInt()];
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
@@ -179,7 +262,9 @@ public class StreamBucket implements Bucket, Writeable {
         }
         assert streamers != null : "streamers must not be null";
         try {
-            return new RowIterator(bytes.streamInput(), streamers, size);
+            StreamInput input = bytes.streamInput();
+            Object[][] dictionaries = dictionaryEncoded ? readDictionaries(input, streamers) : null;
+            return new RowIterator(input, streamers, size, dictionaries);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -201,7 +286,20 @@ public class StreamBucket implements Bucket, Writeable {
     public StreamBucket(StreamInput in) throws IOException {
         size = in.readVInt();
         if (size > 0) {
-            bytes = in.readBytesReference();
+            byte codec = in.getVersion().onOrAfter(Version.V_5_6_0) ? in.readByte() : CODEC_NONE;
+            if ((codec & ~(CODEC_LZ4 | CODEC_DICTIONARY)) != 0) {
+                throw new IllegalStateException("Unknown StreamBucket codec: " + codec);
+            }
+            if ((codec & CODEC_LZ4) != 0) {
+                int uncompressedLength = in.readVInt();
+                byte[] compressed = BytesReference.toBytes(in.readBytesReference());
+                byte[] uncompressed = new byte[uncompressedLength];
+                LZ4.decompress(new ByteArrayDataInput(compressed), uncompressedLength, uncompressed, 0);
+                bytes = new BytesArray(uncompressed);
+            } else {
+                bytes = in.readBytesReference();
+            }
+            dictionaryEncoded = (codec & CODEC_DICTIONARY) != 0;
         }
     }
 
@@ -217,7 +315,166 @@ public class StreamBucket implements Bucket, Writeable {
         assert size > -1 : "size must be > -1";
         out.writeVInt(size);
         if (size > 0) {
-            out.writeBytesReference(bytes);
+            if (out.getVersion().before(Version.V_5_6_0)) {
+                out.writeBytesReference(dictionaryEncoded ? dictionaryDecode() : bytes);
+                return;
+            }
+            Encoded encoded = encoded();
+            out.writeByte(encoded.codec);
+            if ((encoded.codec & CODEC_LZ4) != 0) {
+                out.writeVInt(encoded.uncompressedLength);
+            }
+            out.writeBytesReference(encoded.bytes);
+        }
+    }
+
+    /**
+     * Encodes the bytes once, so that a bucket which is sent to multiple nodes isn't encoded again for each node.
+     * Buckets which are too small, or for which an encoding doesn't reduce the size, are sent as they are.
+     */
+    private synchronized Encoded encoded() throws IOException {
+        if (encoded == null) {
+            byte codec = dictionaryEncoded ? CODEC_DICTIONARY : CODEC_NONE;
+            BytesReference payload = bytes;
+            if (compress && bytes.length() >= MIN_COMPRESSION_BYTES) {
+                if (!dictionaryEncoded && streamers != null) {
+                    BytesReference dictionaryEncodedBytes = dictionaryEncode();
+                    if (dictionaryEncodedBytes != null && dictionaryEncodedBytes.length() < payload.length()) {
+                        codec = CODEC_DICTIONARY;
+                        payload = dictionaryEncodedBytes;
+                    }
+                }
+                BytesReference compressed = compress(payload);
+                if (compressed != null) {
+                    encoded = new Encoded((byte) (codec | CODEC_LZ4), payload.length(), compressed);
+                    return encoded;
+                }
+            }
+            encoded = new Encoded(codec, payload.length(), payload);
+        }
+        return encoded;
+    }
+
+    /**
+     * @return the compressed bytes or null if compression doesn't reduce the size.
+     */
+    @Nullable
+    private static BytesReference compress(BytesReference bytes) throws IOException {
+        int length = bytes.length();
+        // worst case size of incompressible input
+        byte[] buffer = new byte[length + length / 255 + 16];
+        ByteArrayDataOutput compressedOut = new ByteArrayDataOutput(buffer);
+        LZ4.compress(BytesReference.toBytes(bytes), 0, length, compressedOut, new LZ4.FastCompressionHashTable());
+        int compressedLength = compressedOut.getPosition();
+        return compressedLength < length ? new BytesArray(buffer, 0, compressedLength) : null;
+    }
+
+    /**
+     * Replaces the values of text columns with a low cardinality by their ordinal in a per-bucket dictionary:
+     *
+     * <pre>
+     * | vInt numColumns | numColumns * (bool isDictionary [| vInt numEntries | entries]) |
+     * | size * numColumns * (vInt ordinal | value) |
+     * </pre>
+     *
+     * The dictionary entries and the values of the other columns are written with the streamers of the columns.
+     *
+     * @return the dictionary encoded rows or null if no column has a low cardinality.
+     */
+    @Nullable
+    private BytesReference dictionaryEncode() throws IOException {
+        int numColumns = streamers.length;
+        @SuppressWarnings("unchecked")
+        HashMap<Object, Integer>[] ordinals = new HashMap[numColumns];
+        int numCandidates = 0;
+        for (int c = 0; c < numColumns; c++) {
+            if (streamers[c] instanceof StringType) {
+                ordinals[c] = new HashMap<>();
+                numCandidates++;
+            }
+        }
+        // A dictionary pays off if the values are repeated at least once on average
+        int maxEntries = size / 2;
+        var it = new RowIterator(bytes.streamInput(), streamers, size, null);
+        while (numCandidates > 0 && it.hasNext()) {
+            Row row = it.next();
+            for (int c = 0; c < numColumns; c++) {
+                HashMap<Object, Integer> columnOrdinals = ordinals[c];
+                if (columnOrdinals == null) {
+                    continue;
+                }
+                columnOrdinals.putIfAbsent(row.get(c), columnOrdinals.size());
+                if (columnOrdinals.size() > maxEntries) {
+                    ordinals[c] = null;
+                    numCandidates--;
+                }
+            }
+        }
+        if (numCandidates == 0) {
+            return null;
+        }
+
+        BytesStreamOutput out = new BytesStreamOutput(bytes.length());
+        out.writeVInt(numColumns);
+        for (int c = 0; c < numColumns; c++) {
+            HashMap<Object, Integer> columnOrdinals = ordinals[c];
+            out.writeBoolean(columnOrdinals != null);
+            if (columnOrdinals != null) {
+                Object[] entries = new Object[columnOrdinals.size()];
+                for (var entry : columnOrdinals.entrySet()) {
+                    entries[entry.getValue()] = entry.getKey();
+                }
+                out.writeVInt(entries.length);
+                for (Object entry : entries) {
+                    //noinspection unchecked
+                    ((Streamer) streamers[c]).writeValueTo(out, entry);
+                }
+            }
+        }
+        it = new RowIterator(bytes.streamInput(), streamers, size, null);
+        while (it.hasNext()) {
+            Row row = it.next();
+            for (int c = 0; c < numColumns; c++) {
+                HashMap<Object, Integer> columnOrdinals = ordinals[c];
+                if (columnOrdinals == null) {
+                    //noinspection unchecked
+                    ((Streamer) streamers[c]).writeValueTo(out, row.get(c));
+                } else {
+                    out.writeVInt(columnOrdinals.get(row.get(c)));
+                }
+            }
+        }
+        return out.bytes();
+    }
+
+    private static Object[][] readDictionaries(StreamInput in, Streamer<?>[] streamers) throws IOException {
+        int numColumns = in.readVInt();
+        assert numColumns == streamers.length : "number of streamers must match the number of encoded columns";
+        Object[][] dictionaries = new Object[numColumns][];
+        for (int c = 0; c < numColumns; c++) {
+            if (in.readBoolean()) {
+                Object[] entries = new Object[in.readVInt()];
+                for (int i = 0; i < entries.length; i++) {
+                    entries[i] = streamers[c].readValueFrom(in);
+                }
+                dictionaries[c] = entries;
+            }
+        }
+        return dictionaries;
+    }
+
+    /**
+     * @return the rows of a dictionary encoded bucket in the plain format, for nodes which don't support the codecs
+     */
+    private BytesReference dictionaryDecode() throws IOException {
+        assert streamers != null : "streamers must be set to decode the dictionary encoded rows";
+        BytesStreamOutput out = new BytesStreamOutput(bytes.length());
+        for (Row row : this) {
+            for (int c = 0; c < streamers.length; c++) {
+                //noinspection unchecked
+                ((Streamer) streamers[c]).writeValueTo(out, row.get(c));
+            }
         }
+        return out.bytes();
     }
 }
@@ -173,12 +173,22 @@ public class TransportDistributedResultAction extends TransportAction<NodeReques
         Throwable throwable = request.throwable();
         if (throwable == null) {
             SendResponsePageResultListener pageResultListener = new SendResponsePageResultListener();
-            pageBucketReceiver.setBucket(
-                request.bucketIdx(),
-                request.readRows(pageBucketReceiver.streamers()),
-                request.isLast(),
-                pageResultListener
-            );
+            if (request.pageIdx() == DistributedResultRequest.NO_PAGE_IDX) {
+                pageBucketReceiver.setBucket(
+                    request.bucketIdx(),
+                    request.readRows(pageBucketReceiver.streamers()),
+                    request.isLast(),
+                    pageResultListener
+                );
+            } else {
+                pageBucketReceiver.setPage(
+                    request.bucketIdx(),
+                    request.pageIdx(),
+                    request.readRows(pageBucketReceiver.streamers()),
+                    request.isLast(),
+                    pageResultListener
+                );
+            }
             return pageResultListener.future;
         } else {
             pageBucketReceiver.kill(throwable);
@@ -58,7 +58,9 @@ import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.metadata.ColumnIdent;
+import io.crate.protocols.arrow.ArrowStreamWriter;
 import io.crate.server.xcontent.XContentHelper;
+import io.crate.types.DataType;
 
 /**
  * Collector implementation which writes the rows to the configured {@link FileOutput}
@@ -71,6 +73,8 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     private final Executor executor;
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    @Nullable
+    private final List<DataType<?>> inputTypes;
     private final URI uri;
     private final FileOutput fileOutput;
     private final Map<String, Object> overwrites;
@@ -85,6 +89,7 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
                              String uriStr,
                              @Nullable WriterProjection.CompressionType compressionType,
                              @Nullable List<Input<?>> inputs,
+                             @Nullable List<DataType<?>> inputTypes,
                              Iterable<CollectExpression<Row, ?>> collectExpressions,
                              Map<ColumnIdent, Object> overwrites,
                              @Nullable List<String> outputNames,
@@ -94,6 +99,7 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
         this.executor = executor;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.overwrites = toNestedStringObjectMap(overwrites);
         this.compressionType = compressionType;
         this.outputNames = outputNames;
@@ -156,6 +162,9 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
             if (!overwrites.isEmpty()) {
                 return new DocWriter(
                     fileOutput.acquireOutputStream(executor, uri, compressionType), collectExpressions, overwrites);
+            } else if (outputFormat.equals(WriterProjection.OutputFormat.ARROW)) {
+                assert outputNames != null && inputTypes != null : "Arrow format requires the names and types of the columns";
+                return new ArrowRowWriter(fileOutput.acquireOutputStream(executor, uri, compressionType), collectExpressions, inputs, inputTypes, outputNames);
             } else if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
                 return new ColumnRowWriter(fileOutput.acquireOutputStream(executor, uri, compressionType), collectExpressions, inputs);
             } else if (outputNames != null && outputFormat.equals(WriterProjection.OutputFormat.JSON_OBJECT)) {
@@ -361,4 +370,44 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
             }
         }
     }
+
+    static class ArrowRowWriter implements RowWriter {
+
+        private final OutputStream outputStream;
+        private final Iterable<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final ArrowStreamWriter writer;
+
+        ArrowRowWriter(OutputStream outputStream,
+                       Iterable<CollectExpression<Row, ?>> collectExpressions,
+                       List<Input<?>> inputs,
+                       List<DataType<?>> inputTypes,
+                       List<String> outputNames) {
+            this.outputStream = outputStream;
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            this.writer = new ArrowStreamWriter(outputStream, outputNames, inputTypes, ArrowStreamWriter.DEFAULT_BATCH_SIZE);
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            try {
+                writer.addRow(inputs);
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writer.finish();
+            } finally {
+                outputStream.close();
+            }
+        }
+    }
 }
@@ -22,43 +22,54 @@
 package io.crate.execution.engine.fetch;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 
 import com.carrotsearch.hppc.IntArrayList;
 
 import io.crate.Streamer;
+import io.crate.breaker.EstimateCellsSize;
 import io.crate.common.exceptions.Exceptions;
+import io.crate.data.RowN;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.expression.InputRow;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
-import io.netty.util.collection.IntObjectHashMap;
 
 class FetchCollector {
 
+    private static final int MIN_DOCS_FOR_SEQUENTIAL_READER = 10;
+
     private final LuceneCollectorExpression[] collectorExpressions;
     private final InputRow row;
     private final Streamer<?>[] streamers;
     private final RamAccounting ramAccounting;
+    private final EstimateCellsSize estimateCellsSize;
     private final int readerId;
     private final FetchTask fetchTask;
+    private final boolean compress;
 
     FetchCollector(List<LuceneCollectorExpression<?>> collectorExpressions,
                    Streamer<?>[] streamers,
                    FetchTask fetchTask,
                    RamAccounting ramAccounting,
-                   int readerId) {
+                   EstimateCellsSize estimateCellsSize,
+                   int readerId,
+                   boolean compress) {
         this.fetchTask = fetchTask;
+        this.compress = compress;
         // use toArray to avoid iterator allocations in docIds loop
         this.collectorExpressions = collectorExpressions.toArray(new LuceneCollectorExpression[0]);
         this.streamers = streamers;
         this.ramAccounting = ramAccounting;
+        this.estimateCellsSize = estimateCellsSize;
         this.readerId = readerId;
         var table = fetchTask.table(readerId);
         CollectorContext collectorContext = new CollectorContext(readerId, table.droppedColumns(), table.lookupNameBySourceKey());
@@ -69,48 +80,103 @@ class FetchCollector {
 
     }
 
-    private void setNextDocId(ReaderContext readerContext, int doc) throws IOException {
-        for (LuceneCollectorExpression<?> e : collectorExpressions) {
-            e.setNextReader(readerContext);
-            e.setNextDocId(doc);
-        }
-    }
-
+    /**
+     * Collects the rows of the given docIds and returns them in the same order.
+     *
+     * <p>
+     * The documents are read in the order of their docIds, one leaf after another. Reading in docId order lets
+     * stored fields readers decompress each block only once and allows doc values iterators, which can only move
+     * forward, to be re-used for all documents of a leaf.
+     * If the docIds are requested in ascending order, which is what the fetch phase does, the rows are streamed
+     * into the bucket directly. Otherwise they are materialized and put back into the requested order afterwards.
+     * </p>
+     */
     public StreamBucket collect(IntArrayList docIds) {
-        boolean collectSequential = isSequential(docIds);
-        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccounting);
+        int numDocs = docIds.size();
+        int[] positions = sortedPositions(docIds);
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccounting, compress);
+        Object[][] rows = null;
+        if (!isAscending(positions)) {
+            rows = new Object[numDocs][];
+            ramAccounting.addBytes(RamUsageEstimator.shallowSizeOf(rows));
+        }
         try (var borrowed = fetchTask.searcher(readerId)) {
             var searcher = borrowed.item();
             List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
-            var readerContexts = new IntObjectHashMap<ReaderContext>(leaves.size());
-            for (var cursor : docIds) {
-                int docId = cursor.value;
-                int readerIndex = readerIndex(docId, leaves);
+            int i = 0;
+            while (i < numDocs) {
+                int readerIndex = readerIndex(docIds.get(positions[i]), leaves);
                 LeafReaderContext subReaderContext = leaves.get(readerIndex);
+                int leafEnd = subReaderContext.docBase + subReaderContext.reader().maxDoc();
+                int leafDocsEnd = i + 1;
+                while (leafDocsEnd < numDocs && docIds.get(positions[leafDocsEnd]) < leafEnd) {
+                    leafDocsEnd++;
+                }
                 try {
-                    var readerContext = readerContexts.get(readerIndex);
-                    if (readerContext == null) {
-                        // If the document access is sequential, the field reader from the merge instance can be used
-                        // to provide a significant speed up. However, accessing the merge CompressingStoredFieldsReader is expensive
-                        // because the underlying inputData is cloned.
-                        if (collectSequential && subReaderContext.reader() instanceof SequentialStoredFieldsLeafReader storedFieldsLeafReader) {
-                            StoredFieldsReader sequentialStoredFieldsReader = storedFieldsLeafReader.getSequentialStoredFieldsReader();
-                            readerContext = new ReaderContext(subReaderContext, sequentialStoredFieldsReader::document);
+                    setNextReader(readerContext(subReaderContext, leafDocsEnd - i));
+                    int prevDocId = -1;
+                    for (; i < leafDocsEnd; i++) {
+                        int position = positions[i];
+                        int docId = docIds.get(position);
+                        if (docId != prevDocId) {
+                            for (LuceneCollectorExpression<?> e : collectorExpressions) {
+                                e.setNextDocId(docId - subReaderContext.docBase);
+                            }
+                            prevDocId = docId;
+                        } else if (rows != null) {
+                            rows[position] = rows[positions[i - 1]];
+                            continue;
+                        }
+                        if (rows == null) {
+                            builder.add(row);
                         } else {
-                            readerContext = new ReaderContext(subReaderContext);
+                            Object[] cells = row.materialize();
+                            ramAccounting.addBytes(estimateCellsSize.applyAsLong(cells));
+                            rows[position] = cells;
                         }
-                        readerContexts.put(readerIndex, readerContext);
                     }
-                    setNextDocId(readerContext, docId - subReaderContext.docBase);
                 } catch (IOException e) {
                     Exceptions.rethrowRuntimeException(e);
                 }
-                builder.add(row);
+            }
+        }
+        if (rows != null) {
+            RowN outRow = new RowN(streamers.length);
+            for (Object[] cells : rows) {
+                outRow.cells(cells);
+                builder.add(outRow);
             }
         }
         return builder.build();
     }
 
+    private static boolean isAscending(int[] positions) {
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setNextReader(ReaderContext readerContext) throws IOException {
+        for (LuceneCollectorExpression<?> e : collectorExpressions) {
+            e.setNextReader(readerContext);
+        }
+    }
+
+    private static ReaderContext readerContext(LeafReaderContext subReaderContext, int numDocs) throws IOException {
+        // The field reader from the merge instance keeps the last decompressed block, which is a significant speed up
+        // if several documents of a block are read. However, accessing the merge CompressingStoredFieldsReader is
+        // expensive because the underlying inputData is cloned, so it's only used for larger batches.
+        if (numDocs >= MIN_DOCS_FOR_SEQUENTIAL_READER
+            && subReaderContext.reader() instanceof SequentialStoredFieldsLeafReader storedFieldsLeafReader) {
+            StoredFieldsReader sequentialStoredFieldsReader = storedFieldsLeafReader.getSequentialStoredFieldsReader();
+            return new ReaderContext(subReaderContext, sequentialStoredFieldsReader::document);
+        }
+        return new ReaderContext(subReaderContext);
+    }
+
     private int readerIndex(int docId, List<LeafReaderContext> leaves) {
         int readerIndex = ReaderUtil.subIndex(docId, leaves);
         if (readerIndex == -1) {
@@ -119,15 +185,25 @@ class FetchCollector {
         return readerIndex;
     }
 
-    static boolean isSequential(IntArrayList docIds) {
-        if (docIds.size() < 2) {
-            return false;
+    /**
+     * Returns the positions of the docIds ordered by docId.
+     * <pre>
+     *     docIds:    [7, 3, 5]
+     *     positions: [1, 2, 0]
+     * </pre>
+     */
+    static int[] sortedPositions(IntArrayList docIds) {
+        int size = docIds.size();
+        // docIds are not negative, so the docId in the upper bits determines the order
+        long[] docIdAndPosition = new long[size];
+        for (int i = 0; i < size; i++) {
+            docIdAndPosition[i] = ((long) docIds.get(i) << 32) | i;
+        }
+        Arrays.sort(docIdAndPosition);
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = (int) docIdAndPosition[i];
         }
-        // checks if doc ids are in sequential order using the following conditions:
-        // (last element - first element) = (number of elements in between first and last)
-        // [3,4,5,6,7] -> 7 - 3 == 4
-        int last = docIds.get(docIds.size() - 1);
-        int first = docIds.get(0);
-        return last - first == docIds.size() - 1;
+        return positions;
     }
 }
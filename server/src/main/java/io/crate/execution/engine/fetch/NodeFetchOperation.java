@@ -33,6 +33,8 @@ import java.util.function.Supplier;
 
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MapperService;
 import org.jetbrains.annotations.Nullable;
 
 import com.carrotsearch.hppc.IntArrayList;
@@ -42,6 +44,9 @@ import com.carrotsearch.hppc.cursors.IntObjectCursor;
 
 import io.crate.Streamer;
 import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.EstimateCellsSize;
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.common.collections.Lists2;
 import io.crate.data.breaker.BlockBasedRamAccounting;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.exceptions.SQLExceptions;
@@ -53,8 +58,10 @@ import io.crate.execution.support.ThreadPools;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.DocReferences;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
+import io.crate.types.DataTypes;
 
 public class NodeFetchOperation {
 
@@ -63,10 +70,12 @@ public class NodeFetchOperation {
     private final JobsLogs jobsLogs;
     private final TasksService tasksService;
     private final CircuitBreaker circuitBreaker;
+    private final boolean compress;
 
     private static class TableFetchInfo {
 
         private final Streamer<?>[] streamers;
+        private final EstimateCellsSize estimateCellsSize;
         private final Collection<Reference> refs;
         private final FetchTask fetchTask;
 
@@ -74,9 +83,10 @@ public class NodeFetchOperation {
             this.refs = refs;
             this.fetchTask = fetchTask;
             this.streamers = Symbols.streamerArray(refs);
+            this.estimateCellsSize = new EstimateCellsSize(Lists2.map(refs, Reference::valueType));
         }
 
-        FetchCollector createCollector(int readerId, RamAccounting ramAccounting) {
+        FetchCollector createCollector(int readerId, RamAccounting ramAccounting, boolean compress) {
             IndexService indexService = fetchTask.indexService(readerId);
             var mapperService = indexService.mapperService();
             LuceneReferenceResolver resolver = new LuceneReferenceResolver(
@@ -86,14 +96,16 @@ public class NodeFetchOperation {
             );
             ArrayList<LuceneCollectorExpression<?>> exprs = new ArrayList<>(refs.size());
             for (Reference reference : refs) {
-                exprs.add(resolver.getImplementation(reference));
+                exprs.add(resolver.getImplementation(preferDocValues(reference, mapperService)));
             }
             return new FetchCollector(
                 exprs,
                 streamers,
                 fetchTask,
                 ramAccounting,
-                readerId
+                estimateCellsSize,
+                readerId,
+                compress
             );
         }
     }
@@ -102,12 +114,14 @@ public class NodeFetchOperation {
                               int numProcessors,
                               JobsLogs jobsLogs,
                               TasksService tasksService,
-                              CircuitBreaker circuitBreaker) {
+                              CircuitBreaker circuitBreaker,
+                              boolean compress) {
         this.executor = executor;
         this.numProcessors = numProcessors;
         this.jobsLogs = jobsLogs;
         this.tasksService = tasksService;
         this.circuitBreaker = circuitBreaker;
+        this.compress = compress;
     }
 
     public CompletableFuture<? extends IntObjectMap<StreamBucket>> fetch(UUID jobId,
@@ -191,7 +205,8 @@ public class NodeFetchOperation {
                 new BlockBasedRamAccounting(
                     ramAccounting::addBytes,
                     BlockBasedRamAccounting.MAX_BLOCK_SIZE_IN_BYTES
-                )
+                ),
+                compress
             );
             collectors.add(() -> collector.collect(docIds));
         }
@@ -212,4 +227,19 @@ public class NodeFetchOperation {
             return bucketByReader;
         }).whenComplete((result, err) -> ramAccounting.close());
     }
+
+    /**
+     * The references to fetch are source lookups (`_doc['x']`). Columns of primitive types which have doc values
+     * are read from the doc values instead, to avoid parsing the source if no other column requires it.
+     * This is cheap as {@link FetchCollector} reads the documents of a leaf in docId order.
+     */
+    @VisibleForTesting
+    static Reference preferDocValues(Reference ref, MapperService mapperService) {
+        Reference column = DocReferences.docRefToRegularRef(ref);
+        if (column == ref || DataTypes.isPrimitive(column.valueType()) == false) {
+            return ref;
+        }
+        MappedFieldType fieldType = mapperService.fieldType(column.storageIdent());
+        return fieldType != null && fieldType.hasDocValues() ? column : ref;
+    }
 }
@@ -39,6 +39,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.collect.stats.NodeResponseStats;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.jobs.TasksService;
 import io.crate.execution.support.NodeActionRequestHandler;
@@ -49,6 +50,7 @@ public class TransportFetchNodeAction extends TransportAction<NodeFetchRequest,
 
     private final Transports transports;
     private final NodeFetchOperation nodeFetchOperation;
+    private final NodeResponseStats nodeResponseStats;
 
     @Inject
     public TransportFetchNodeAction(Settings settings,
@@ -57,15 +59,18 @@ public class TransportFetchNodeAction extends TransportAction<NodeFetchRequest,
                                     ThreadPool threadPool,
                                     JobsLogs jobsLogs,
                                     TasksService tasksService,
-                                    CircuitBreakerService circuitBreakerService) {
+                                    CircuitBreakerService circuitBreakerService,
+                                    NodeResponseStats nodeResponseStats) {
         super(FetchNodeAction.NAME);
         this.transports = transports;
+        this.nodeResponseStats = nodeResponseStats;
         this.nodeFetchOperation = new NodeFetchOperation(
             (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH),
             EsExecutors.numberOfProcessors(settings),
             jobsLogs,
             tasksService,
-            circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY)
+            circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY),
+            StreamBucket.COMPRESSION.get(settings)
         );
 
         transportService.registerRequestHandler(
@@ -84,12 +89,17 @@ public class TransportFetchNodeAction extends TransportAction<NodeFetchRequest,
 
     @Override
     public void doExecute(NodeFetchRequest nodeFetchRequest, ActionListener<NodeFetchResponse> listener) {
+        // Fetch responses don't include the service time and queue size, only the response time is tracked.
+        // Requests which only close the fetch context are answered right away and aren't tracked.
+        ActionListener<NodeFetchResponse> trackingListener = nodeFetchRequest.innerRequest().toFetch() == null
+            ? listener
+            : nodeResponseStats.track(nodeFetchRequest.nodeId(), listener, response -> -1L, response -> -1);
         transports.sendRequest(
             FetchNodeAction.NAME,
             nodeFetchRequest.nodeId(),
             nodeFetchRequest.innerRequest(),
-            listener,
-            new ActionListenerResponseHandler<>(listener, nodeFetchRequest.createResponseReader())
+            trackingListener,
+            new ActionListenerResponseHandler<>(trackingListener, nodeFetchRequest.createResponseReader())
         );
     }
 
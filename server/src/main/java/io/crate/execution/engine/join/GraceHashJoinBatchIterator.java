@@ -0,0 +1,500 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.common.io.IOUtils;
+import io.crate.data.BatchIterator;
+import io.crate.data.CloseableIterator;
+import io.crate.data.Row;
+import io.crate.data.UnsafeArrayRow;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.JoinBatchIterator;
+import io.crate.execution.engine.spill.SpillFile;
+import io.netty.util.collection.IntObjectHashMap;
+
+/**
+ * A hybrid (grace) hash join which reads each side only once and offloads partitions that don't fit into memory
+ * to disk.
+ *
+ * <pre>
+ *     Build Phase:
+ *     for (leftRow in left) {
+ *         partition = partitionOf(hash(leftRow))
+ *         if (partition is spilled) {
+ *             write leftRow to the left spill file of the partition
+ *         } else {
+ *             add leftRow to the in-memory buffer of the partition
+ *             while (memory budget exceeded) {
+ *                 move the largest in-memory partition to a spill file
+ *             }
+ *         }
+ *     }
+ *
+ *     Probe Phase:
+ *     for (rightRow in right) {
+ *         partition = partitionOf(hash(rightRow))
+ *         if (partition is spilled) {
+ *             write rightRow to the right spill file of the partition
+ *         } else {
+ *             emit matches from the in-memory buffer of the partition
+ *         }
+ *     }
+ *
+ *     Spilled Partitions Phase:
+ *     for (partition in spilledPartitions) {
+ *         load the left rows of the partition into a buffer (block-wise if they exceed the memory budget)
+ *         for (rightRow in right spill file of partition) {
+ *             emit matches from the buffer
+ *         }
+ *     }
+ * </pre>
+ * <p>
+ * In contrast to {@link HashInnerJoinBatchIterator} the right side doesn't have to be re-read for each block of the
+ * left side. If the left side fits into memory no spill files are created at all.
+ * </p>
+ */
+public class GraceHashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
+
+    static final int MIN_PARTITIONS = 8;
+    static final int MAX_PARTITIONS = 256;
+
+    private enum Phase {
+        BUILD,
+        PROBE,
+        JOIN_SPILLED
+    }
+
+    private final RamAccounting ramAccounting;
+    private final ToLongFunction<Object[]> leftRowSizeEstimator;
+    private final Predicate<Row> joinCondition;
+    private final ToIntFunction<Row> hashBuilderForLeft;
+    private final ToIntFunction<Row> hashBuilderForRight;
+    private final LongSupplier memoryBudget;
+    private final long estimatedLeftSizeInBytes;
+    private final Supplier<SpillFile> leftSpillFiles;
+    private final Supplier<SpillFile> rightSpillFiles;
+
+    /**
+     * Used to avoid instantiating multiple times RowN in {@link #findMatchingRows()}
+     */
+    private final UnsafeArrayRow leftRow = new UnsafeArrayRow();
+    private final UnsafeArrayRow spilledRightRow = new UnsafeArrayRow();
+    private final UnsafeArrayRow unsafeArrayRow = new UnsafeArrayRow();
+
+    private volatile Throwable killed;
+
+    private Phase phase;
+    private Partition[] partitions;
+    private long budget;
+    private long bytesInMemory;
+    private Iterator<Object[]> leftMatchingRowsIterator;
+
+    private int spilledPartitionIdx;
+    @Nullable
+    private Partition spilledPartition;
+    @Nullable
+    private CloseableIterator<Object[]> spilledLeftRows;
+    @Nullable
+    private CloseableIterator<Object[]> spilledRightRows;
+
+    /**
+     * @param memoryBudget supplies the number of bytes the in-memory partitions may occupy.
+     *                     Evaluated each time the build phase starts.
+     * @param estimatedLeftSizeInBytes estimated size of the whole left side, used to determine the number of partitions.
+     *                                 Can be -1 if unknown.
+     */
+    public GraceHashJoinBatchIterator(BatchIterator<Row> left,
+                                      BatchIterator<Row> right,
+                                      RamAccounting ramAccounting,
+                                      ToLongFunction<Object[]> leftRowSizeEstimator,
+                                      CombinedRow combiner,
+                                      Predicate<Row> joinCondition,
+                                      ToIntFunction<Row> hashBuilderForLeft,
+                                      ToIntFunction<Row> hashBuilderForRight,
+                                      LongSupplier memoryBudget,
+                                      long estimatedLeftSizeInBytes,
+                                      Supplier<SpillFile> leftSpillFiles,
+                                      Supplier<SpillFile> rightSpillFiles) {
+        super(left, right, combiner);
+        this.ramAccounting = ramAccounting;
+        this.leftRowSizeEstimator = leftRowSizeEstimator;
+        this.joinCondition = joinCondition;
+        this.hashBuilderForLeft = hashBuilderForLeft;
+        this.hashBuilderForRight = hashBuilderForRight;
+        this.memoryBudget = memoryBudget;
+        this.estimatedLeftSizeInBytes = estimatedLeftSizeInBytes;
+        this.leftSpillFiles = leftSpillFiles;
+        this.rightSpillFiles = rightSpillFiles;
+        this.phase = Phase.BUILD;
+    }
+
+    /**
+     * Calculates the number of partitions so that each partition is expected to take at most half of the memory budget.
+     * The result is always a power of two.
+     */
+    static int numPartitions(long estimatedLeftSizeInBytes, long memoryBudget) {
+        if (estimatedLeftSizeInBytes <= 0 || memoryBudget <= 1) {
+            return MIN_PARTITIONS;
+        }
+        long wanted = (estimatedLeftSizeInBytes / (memoryBudget / 2)) + 1;
+        if (wanted >= MAX_PARTITIONS) {
+            return MAX_PARTITIONS;
+        }
+        int numPartitions = Integer.highestOneBit((int) wanted);
+        if (numPartitions < wanted) {
+            numPartitions <<= 1;
+        }
+        return Math.max(MIN_PARTITIONS, numPartitions);
+    }
+
+    /**
+     * The hash is mixed before using it to pick a partition, because in a distributed join the rows are already
+     * distributed across nodes by a modulo on the hash.
+     */
+    private int partitionIndex(int hash) {
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & (partitions.length - 1);
+    }
+
+    @Override
+    public Row currentElement() {
+        return combiner.currentElement();
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfKilled();
+        left.moveToStart();
+        right.moveToStart();
+        activeIt = left;
+        reset();
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfKilled();
+        if (phase == Phase.BUILD) {
+            if (buildLeft() == false) {
+                // left needs the next batch loaded
+                return false;
+            }
+            phase = Phase.PROBE;
+            activeIt = right;
+        }
+        if (phase == Phase.PROBE) {
+            if (probeRight()) {
+                return true;
+            }
+            if (right.allLoaded() == false) {
+                return false;
+            }
+            releaseInMemoryPartitions();
+            phase = Phase.JOIN_SPILLED;
+            spilledPartitionIdx = -1;
+        }
+        return joinSpilledPartitions();
+    }
+
+    /**
+     * @return true if the left side has been consumed entirely
+     */
+    private boolean buildLeft() {
+        if (partitions == null) {
+            budget = memoryBudget.getAsLong();
+            partitions = new Partition[numPartitions(estimatedLeftSizeInBytes, budget)];
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = new Partition();
+            }
+        }
+        while (left.moveNext()) {
+            Object[] cells = left.currentElement().materialize();
+            int hash = hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(cells));
+            Partition partition = partitions[partitionIndex(hash)];
+            partition.numLeftRows++;
+            if (partition.leftSpillFile == null) {
+                long rowSize = leftRowSizeEstimator.applyAsLong(cells);
+                while (rowSize > budget - bytesInMemory) {
+                    if (spillLargestPartition() == false) {
+                        break;
+                    }
+                }
+                if (partition.leftSpillFile == null) {
+                    ramAccounting.addBytes(rowSize);
+                    bytesInMemory += rowSize;
+                    partition.add(hash, cells, rowSize);
+                    continue;
+                }
+            }
+            partition.leftSpillFile.write(cells);
+        }
+        return left.allLoaded();
+    }
+
+    private boolean spillLargestPartition() {
+        Partition largest = null;
+        for (Partition partition : partitions) {
+            if (partition.bytesInMemory > 0 && (largest == null || partition.bytesInMemory > largest.bytesInMemory)) {
+                largest = partition;
+            }
+        }
+        if (largest == null) {
+            return false;
+        }
+        largest.leftSpillFile = leftSpillFiles.get();
+        for (List<Object[]> rows : largest.rows.values()) {
+            for (Object[] row : rows) {
+                largest.leftSpillFile.write(row);
+            }
+        }
+        release(largest);
+        return true;
+    }
+
+    private boolean probeRight() {
+        // In case of multiple matches on the left side (duplicate values or hash collisions)
+        if (leftMatchingRowsIterator != null && findMatchingRows()) {
+            return true;
+        }
+        leftMatchingRowsIterator = null;
+        while (right.moveNext()) {
+            Row rightRow = right.currentElement();
+            int rightHash = hashBuilderForRight.applyAsInt(rightRow);
+            Partition partition = partitions[partitionIndex(rightHash)];
+            if (partition.numLeftRows == 0) {
+                continue;
+            }
+            if (partition.leftSpillFile != null) {
+                if (partition.rightSpillFile == null) {
+                    partition.rightSpillFile = rightSpillFiles.get();
+                }
+                partition.rightSpillFile.write(rightRow);
+                continue;
+            }
+            List<Object[]> leftMatchingRows = partition.rows.get(rightHash);
+            if (leftMatchingRows != null) {
+                leftMatchingRowsIterator = leftMatchingRows.iterator();
+                combiner.setRight(rightRow);
+                if (findMatchingRows()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean joinSpilledPartitions() {
+        while (true) {
+            if (leftMatchingRowsIterator != null && findMatchingRows()) {
+                return true;
+            }
+            leftMatchingRowsIterator = null;
+            if (spilledPartition != null) {
+                assert spilledRightRows != null && spilledLeftRows != null
+                    : "spilled rows iterators must be set if there is a current spilled partition";
+                while (spilledRightRows.hasNext()) {
+                    spilledRightRow.cells(spilledRightRows.next());
+                    List<Object[]> leftMatchingRows = spilledPartition.rows.get(hashBuilderForRight.applyAsInt(spilledRightRow));
+                    if (leftMatchingRows != null) {
+                        leftMatchingRowsIterator = leftMatchingRows.iterator();
+                        combiner.setRight(spilledRightRow);
+                        if (findMatchingRows()) {
+                            return true;
+                        }
+                    }
+                }
+                spilledRightRows.close();
+                spilledRightRows = null;
+                if (spilledLeftRows.hasNext()) {
+                    // The left rows of the partition didn't fit into memory, continue with the next block
+                    loadSpilledLeftBlock(spilledPartition);
+                    spilledRightRows = spilledPartition.rightSpillFile.rows();
+                    continue;
+                }
+                closeSpilledPartition();
+            }
+            if (nextSpilledPartition() == false) {
+                return false;
+            }
+        }
+    }
+
+    private boolean nextSpilledPartition() {
+        while (++spilledPartitionIdx < partitions.length) {
+            Partition partition = partitions[spilledPartitionIdx];
+            if (partition.leftSpillFile == null) {
+                continue;
+            }
+            if (partition.rightSpillFile == null) {
+                // no right row can match
+                partition.close();
+                continue;
+            }
+            spilledPartition = partition;
+            spilledLeftRows = partition.leftSpillFile.rows();
+            loadSpilledLeftBlock(partition);
+            spilledRightRows = partition.rightSpillFile.rows();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Loads left rows of a spilled partition into memory until the budget is reached (but at least one row)
+     */
+    private void loadSpilledLeftBlock(Partition partition) {
+        assert spilledLeftRows != null : "spilledLeftRows must not be null when loading the next block";
+        release(partition);
+        while (spilledLeftRows.hasNext()) {
+            Object[] cells = spilledLeftRows.next();
+            long rowSize = leftRowSizeEstimator.applyAsLong(cells);
+            ramAccounting.addBytes(rowSize);
+            bytesInMemory += rowSize;
+            partition.add(hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(cells)), cells, rowSize);
+            if (bytesInMemory >= budget) {
+                break;
+            }
+        }
+    }
+
+    private void closeSpilledPartition() {
+        if (spilledLeftRows != null) {
+            spilledLeftRows.close();
+            spilledLeftRows = null;
+        }
+        if (spilledRightRows != null) {
+            spilledRightRows.close();
+            spilledRightRows = null;
+        }
+        if (spilledPartition != null) {
+            release(spilledPartition);
+            spilledPartition.close();
+            spilledPartition = null;
+        }
+    }
+
+    private boolean findMatchingRows() {
+        while (leftMatchingRowsIterator.hasNext()) {
+            leftRow.cells(leftMatchingRowsIterator.next());
+            combiner.setLeft(leftRow);
+            if (joinCondition.test(combiner.currentElement())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release(Partition partition) {
+        ramAccounting.addBytes(-partition.bytesInMemory);
+        bytesInMemory -= partition.bytesInMemory;
+        partition.bytesInMemory = 0;
+        partition.rows.clear();
+    }
+
+    private void releaseInMemoryPartitions() {
+        for (Partition partition : partitions) {
+            release(partition);
+        }
+    }
+
+    private void reset() {
+        closeSpilledPartition();
+        if (partitions != null) {
+            for (Partition partition : partitions) {
+                release(partition);
+                partition.close();
+            }
+            partitions = null;
+        }
+        leftMatchingRowsIterator = null;
+        phase = Phase.BUILD;
+    }
+
+    @Override
+    public void close() {
+        killed = BatchIterator.CLOSED;
+        try {
+            reset();
+        } finally {
+            super.close();
+        }
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        killed = throwable;
+        super.kill(throwable);
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+
+    private static final class Partition {
+
+        private final IntObjectHashMap<List<Object[]>> rows = new IntObjectHashMap<>();
+        private long bytesInMemory = 0;
+        private long numLeftRows = 0;
+
+        @Nullable
+        private SpillFile leftSpillFile;
+
+        @Nullable
+        private SpillFile rightSpillFile;
+
+        void add(int hash, Object[] row, long rowSize) {
+            List<Object[]> existingRows = rows.get(hash);
+            if (existingRows == null) {
+                existingRows = new ArrayList<>();
+                rows.put(hash, existingRows);
+            }
+            existingRows.add(row);
+            bytesInMemory += rowSize;
+        }
+
+        void close() {
+            IOUtils.closeWhileHandlingException(leftSpillFile, rightSpillFile);
+            leftSpillFile = null;
+            rightSpillFile = null;
+        }
+    }
+}
@@ -27,19 +27,26 @@ import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.jetbrains.annotations.Nullable;
 
+import io.crate.Streamer;
+import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.BatchIterator;
 import io.crate.data.CapturingRowConsumer;
 import io.crate.data.Paging;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.join.CombinedRow;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.TransactionContext;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 
 public class HashJoinOperation implements CompletionListenable {
 
@@ -53,35 +60,68 @@ public class HashJoinOperation implements CompletionListenable {
                              Predicate<Row> joinPredicate,
                              List<Symbol> joinLeftInputs,
                              List<Symbol> joinRightInputs,
-                             RowAccounting<Object[]> rowAccounting,
+                             RowCellsAccountingWithEstimators rowAccounting,
                              TransactionContext txnCtx,
                              InputFactory inputFactory,
                              CircuitBreaker circuitBreaker,
-                             long estimatedRowSizeForLeft) {
+                             long estimatedRowSizeForLeft,
+                             long numberOfRowsForLeft,
+                             List<DataType<?>> leftOutputTypes,
+                             @Nullable List<DataType<?>> rightOutputTypes,
+                             RamAccounting ramAccounting,
+                             int operationMemoryLimit,
+                             SpillService spillService) {
 
         this.resultConsumer = nlResultConsumer;
+        // The grace hash join reads the right side only once, the block based hash join re-reads it for every block
+        boolean spill = spillService.isEnabled() && rightOutputTypes != null;
         this.leftConsumer = new CapturingRowConsumer(nlResultConsumer.requiresScroll(), nlResultConsumer.completionFuture());
-        this.rightConsumer = new CapturingRowConsumer(true, nlResultConsumer.completionFuture());
+        this.rightConsumer = new CapturingRowConsumer(
+            spill == false || nlResultConsumer.requiresScroll(),
+            nlResultConsumer.completionFuture()
+        );
         CompletableFuture.allOf(leftConsumer.capturedBatchIterator(), rightConsumer.capturedBatchIterator())
             .whenComplete((result, failure) -> {
                 if (failure == null) {
                     BatchIterator<Row> joinIterator;
                     try {
-                        joinIterator = createHashJoinIterator(
-                            leftConsumer.capturedBatchIterator().join(),
-                            numLeftCols,
-                            rightConsumer.capturedBatchIterator().join(),
-                            numRightCols,
-                            joinPredicate,
-                            getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
-                            getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
-                            rowAccounting,
-                            new RamBlockSizeCalculator(
-                                Paging.PAGE_SIZE,
-                                circuitBreaker,
-                                estimatedRowSizeForLeft
-                            )
-                        );
+                        if (spill) {
+                            Streamer<?>[] leftStreamers = DataTypes.getStreamers(leftOutputTypes);
+                            Streamer<?>[] rightStreamers = DataTypes.getStreamers(rightOutputTypes);
+                            long estimatedLeftSize = estimatedRowSizeForLeft > 0 && numberOfRowsForLeft > 0
+                                ? estimatedRowSizeForLeft * numberOfRowsForLeft
+                                : -1;
+                            joinIterator = new GraceHashJoinBatchIterator(
+                                leftConsumer.capturedBatchIterator().join(),
+                                rightConsumer.capturedBatchIterator().join(),
+                                ramAccounting,
+                                rowAccounting::accountRowBytes,
+                                new CombinedRow(numLeftCols, numRightCols),
+                                joinPredicate,
+                                getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
+                                getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
+                                SpillService.memoryBudget(circuitBreaker, operationMemoryLimit),
+                                estimatedLeftSize,
+                                () -> spillService.newSpillFile(leftStreamers),
+                                () -> spillService.newSpillFile(rightStreamers)
+                            );
+                        } else {
+                            joinIterator = createHashJoinIterator(
+                                leftConsumer.capturedBatchIterator().join(),
+                                numLeftCols,
+                                rightConsumer.capturedBatchIterator().join(),
+                                numRightCols,
+                                joinPredicate,
+                                getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
+                                getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
+                                rowAccounting,
+                                new RamBlockSizeCalculator(
+                                    Paging.PAGE_SIZE,
+                                    circuitBreaker,
+                                    estimatedRowSizeForLeft
+                                )
+                            );
+                        }
                         nlResultConsumer.accept(joinIterator, null);
                     } catch (Exception e) {
                         nlResultConsumer.accept(null, e);
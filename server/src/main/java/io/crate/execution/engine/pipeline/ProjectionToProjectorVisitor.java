@@ -26,6 +26,7 @@ import static io.crate.execution.engine.pipeline.LimitAndOffset.NO_OFFSET;
 import static io.crate.planner.operators.InsertFromValues.checkConstraints;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
@@ -53,6 +55,7 @@ import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.Streamer;
 import io.crate.analyze.NumberOfReplicas;
 import io.crate.analyze.SymbolEvaluator;
 import io.crate.breaker.RowCellsAccountingWithEstimators;
@@ -101,6 +104,7 @@ import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.NestableCollectExpression;
 import io.crate.execution.engine.export.FileOutputFactory;
 import io.crate.execution.engine.export.FileWriterProjector;
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.execution.engine.fetch.FetchNodeAction;
 import io.crate.execution.engine.fetch.FetchProjector;
 import io.crate.execution.engine.fetch.TransportFetchOperation;
@@ -111,10 +115,12 @@ import io.crate.execution.engine.indexing.IndexWriterProjector;
 import io.crate.execution.engine.indexing.ShardDMLExecutor;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.execution.engine.indexing.UpsertResultContext;
+import io.crate.execution.engine.sort.ExternalSorter;
 import io.crate.execution.engine.sort.OrderingByPosition;
 import io.crate.execution.engine.sort.SortingLimitAndOffsetProjector;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.UnboundedSortingLimitAndOffsetCollector;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.execution.engine.window.WindowProjector;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.execution.support.ThreadPools;
@@ -177,6 +183,8 @@ public class ProjectionToProjectorVisitor
     private final int numProcessors;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
     private final Schemas schemas;
+    @Nullable
+    private final SpillService spillService;
 
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -193,7 +201,8 @@ public class ProjectionToProjectorVisitor
                                         Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
                                         Version indexVersionCreated,
                                         @Nullable ShardId shardId,
-                                        Map<String, FileOutputFactory> fileOutputFactoryMap) {
+                                        Map<String, FileOutputFactory> fileOutputFactoryMap,
+                                        @Nullable SpillService spillService) {
         this.clusterService = clusterService;
         this.schemas = schemas;
         this.nodeJobsCounter = nodeJobsCounter;
@@ -210,6 +219,7 @@ public class ProjectionToProjectorVisitor
         this.shardId = shardId;
         this.numProcessors = EsExecutors.numberOfProcessors(settings);
         this.fileOutputFactoryMap = fileOutputFactoryMap;
+        this.spillService = spillService;
     }
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -223,7 +233,8 @@ public class ProjectionToProjectorVisitor
                                         InputFactory inputFactory,
                                         EvaluatingNormalizer normalizer,
                                         Function<RelationName, SysRowUpdater<?>> sysUpdaterGetter,
-                                        Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter) {
+                                        Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
+                                        @Nullable SpillService spillService) {
         this(clusterService,
             schemas,
             nodeJobsCounter,
@@ -238,7 +249,8 @@ public class ProjectionToProjectorVisitor
             staticTableDefinitionGetter,
             Version.CURRENT,
             null,
-            null
+            null,
+            spillService
         );
     }
 
@@ -281,13 +293,30 @@ public class ProjectionToProjectorVisitor
             context.ramAccounting,
             rowMemoryOverhead
         );
+        Comparator<Object[]> ordering = OrderingByPosition.arrayOrdering(
+            rowTypes, orderByIndices, projection.reverseFlags(), projection.nullsFirst());
+        long maxRows = projection.limit() == NO_LIMIT ? Long.MAX_VALUE : (long) projection.limit() + projection.offset();
+        Supplier<ExternalSorter> externalSorter = externalSorter(rowTypes, ordering, maxRows, context);
+        if (externalSorter != null
+            && (projection.limit() == NO_LIMIT || projection.limit() + projection.offset() > UNBOUNDED_COLLECTOR_THRESHOLD)) {
+            return new SortingProjector(
+                rowAccounting,
+                inputs,
+                ctx.expressions(),
+                numOutputs,
+                ordering,
+                projection.limit() == NO_LIMIT ? Integer.MAX_VALUE : projection.limit(),
+                projection.offset(),
+                externalSorter
+            );
+        }
         if (projection.limit() > NO_LIMIT) {
             return new SortingLimitAndOffsetProjector(
                 rowAccounting,
                 inputs,
                 ctx.expressions(),
                 numOutputs,
-                OrderingByPosition.arrayOrdering(rowTypes, orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
+                ordering,
                 projection.limit(),
                 projection.offset(),
                 UNBOUNDED_COLLECTOR_THRESHOLD
@@ -298,11 +327,40 @@ public class ProjectionToProjectorVisitor
             inputs,
             ctx.expressions(),
             numOutputs,
-            OrderingByPosition.arrayOrdering(rowTypes, orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
+            ordering,
             projection.offset()
         );
     }
 
+    /**
+     * @return a supplier for a {@link ExternalSorter} if spilling is enabled, otherwise null.
+     */
+    @Nullable
+    private Supplier<ExternalSorter> externalSorter(List<DataType<?>> rowTypes,
+                                                    Comparator<Object[]> ordering,
+                                                    long maxRows,
+                                                    Context context) {
+        if (spillService == null || !spillService.isEnabled()) {
+            return null;
+        }
+        Streamer<?>[] streamers = DataTypes.getStreamers(rowTypes);
+        LongSupplier memoryBudget = memoryBudget(context);
+        return () -> new ExternalSorter(
+            ordering,
+            memoryBudget,
+            context.ramAccounting,
+            () -> spillService.newSpillFile(streamers),
+            maxRows
+        );
+    }
+
+    private LongSupplier memoryBudget(Context context) {
+        return SpillService.memoryBudget(
+            circuitBreakerService.getBreaker(HierarchyCircuitBreakerService.QUERY),
+            context.txnCtx.sessionSettings().memoryLimitInBytes()
+        );
+    }
+
     @Override
     public Projector visitLimitDistinct(LimitDistinctProjection limitDistinct, Context context) {
         var rowAccounting = new RowCellsAccountingWithEstimators(
@@ -339,6 +397,7 @@ public class ProjectionToProjectorVisitor
         ctx.add(projection.values());
 
         List<Input<?>> keyInputs = ctx.topLevelInputs();
+        boolean spill = spillService != null && spillService.isEnabled();
         return new GroupingProjector(
             projection.keys(),
             keyInputs,
@@ -348,7 +407,9 @@ public class ProjectionToProjectorVisitor
             context.ramAccounting,
             context.memoryManager,
             clusterService.state().nodes().getMinNodeVersion(),
-            indexVersionCreated
+            indexVersionCreated,
+            spill ? spillService::newSpillFile : null,
+            spill ? memoryBudget(context) : null
         );
     }
 
@@ -377,9 +438,11 @@ public class ProjectionToProjectorVisitor
         InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(context.txnCtx);
 
         List<Input<?>> inputs = null;
+        List<DataType<?>> inputTypes = null;
         if (!projection.inputs().isEmpty()) {
             ctx.add(projection.inputs());
             inputs = ctx.topLevelInputs();
+            inputTypes = Symbols.typeView(projection.inputs());
         }
 
         projection = projection.normalize(normalizer, context.txnCtx);
@@ -387,21 +450,27 @@ public class ProjectionToProjectorVisitor
             SymbolEvaluator.evaluate(context.txnCtx, nodeCtx, projection.uri(), Row.EMPTY, SubQueryResults.EMPTY));
         assert uri != null : "URI must not be null";
 
-        StringBuilder sb = new StringBuilder(uri);
-        Symbol resolvedFileName = normalizer.normalize(WriterProjection.DIRECTORY_TO_FILENAME, context.txnCtx);
-        assert resolvedFileName instanceof Literal : "resolvedFileName must be a Literal, but is: " + resolvedFileName;
-        assert resolvedFileName.valueType().id() == StringType.ID :
-            "resolvedFileName.valueType() must be " + StringType.INSTANCE;
-
-        String fileName = (String) ((Literal) resolvedFileName).value();
-        if (!uri.endsWith("/")) {
-            sb.append("/");
-        }
-        sb.append(fileName);
-        if (projection.compressionType() == WriterProjection.CompressionType.GZIP) {
-            sb.append(".gz");
+        // The rows of all shards are written to the same client stream, there is no directory
+        if (!StdoutFileOutputFactory.isStdout(uri)) {
+            StringBuilder sb = new StringBuilder(uri);
+            Symbol fileNameFormat = projection.outputFormat() == WriterProjection.OutputFormat.ARROW
+                ? WriterProjection.DIRECTORY_TO_ARROW_FILENAME
+                : WriterProjection.DIRECTORY_TO_FILENAME;
+            Symbol resolvedFileName = normalizer.normalize(fileNameFormat, context.txnCtx);
+            assert resolvedFileName instanceof Literal : "resolvedFileName must be a Literal, but is: " + resolvedFileName;
+            assert resolvedFileName.valueType().id() == StringType.ID :
+                "resolvedFileName.valueType() must be " + StringType.INSTANCE;
+
+            String fileName = (String) ((Literal) resolvedFileName).value();
+            if (!uri.endsWith("/")) {
+                sb.append("/");
+            }
+            sb.append(fileName);
+            if (projection.compressionType() == WriterProjection.CompressionType.GZIP) {
+                sb.append(".gz");
+            }
+            uri = sb.toString();
         }
-        uri = sb.toString();
 
         Map<ColumnIdent, Object> overwrites =
             symbolMapToObject(projection.overwrites(), ctx, context.txnCtx);
@@ -411,6 +480,7 @@ public class ProjectionToProjectorVisitor
             uri,
             projection.compressionType(),
             inputs,
+            inputTypes,
             ctx.expressions(),
             overwrites,
             projection.outputNames(),
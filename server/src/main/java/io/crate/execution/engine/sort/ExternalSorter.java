@@ -0,0 +1,282 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.Buckets;
+import io.crate.data.CloseableIterator;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.distribution.merge.KeyIterable;
+import io.crate.execution.engine.distribution.merge.PagingIterator;
+import io.crate.execution.engine.spill.SpillFile;
+
+/**
+ * Sorts rows which may not fit into memory.
+ * <p>
+ * Rows are buffered in memory until they exceed the memory budget. The buffered rows are then sorted and written
+ * as a sorted run to a {@link SpillFile} and their memory is released.
+ * The result is a k-way merge of all runs and the remaining in-memory rows.
+ * If there are more than {@link #MAX_MERGE_WIDTH} runs, the oldest runs are first merged in groups of at most
+ * {@link #MAX_MERGE_WIDTH} runs, so that each row is only re-written a logarithmic number of times and the number
+ * of files which are open at the same time is limited.
+ * </p>
+ * <p>
+ * If only the first {@code maxRows} rows are required, runs only contain their first {@code maxRows} rows.
+ * The last row of a full run is used as a cutoff: rows ordered after it are dropped right away.
+ * </p>
+ * This class is not thread-safe.
+ */
+public final class ExternalSorter implements Closeable {
+
+    static final int MAX_MERGE_WIDTH = 64;
+
+    private final Comparator<Object[]> comparator;
+    private final LongSupplier memoryBudget;
+    private final RamAccounting ramAccounting;
+    private final Supplier<SpillFile> newSpillFile;
+    private final long maxRows;
+    private final List<SpillFile> runs = new ArrayList<>();
+    private final List<CloseableIterator<Object[]>> openIterators = new ArrayList<>();
+
+    private ArrayList<Object[]> rows = new ArrayList<>();
+    private long bytesInMemory = 0;
+    @Nullable
+    private Object[] cutoff = null;
+    private boolean closed = false;
+
+    /**
+     * @param memoryBudget  number of bytes the buffered rows may use before they're spilled to disk.
+     * @param ramAccounting used to release the memory of spilled rows. Rows must be accounted by the caller.
+     * @param newSpillFile  creates a new file for a sorted run
+     */
+    public ExternalSorter(Comparator<Object[]> comparator,
+                          LongSupplier memoryBudget,
+                          RamAccounting ramAccounting,
+                          Supplier<SpillFile> newSpillFile) {
+        this(comparator, memoryBudget, ramAccounting, newSpillFile, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxRows the number of rows which are required at most, usually offset + limit
+     */
+    public ExternalSorter(Comparator<Object[]> comparator,
+                          LongSupplier memoryBudget,
+                          RamAccounting ramAccounting,
+                          Supplier<SpillFile> newSpillFile,
+                          long maxRows) {
+        this.comparator = comparator;
+        this.memoryBudget = memoryBudget;
+        this.ramAccounting = ramAccounting;
+        this.newSpillFile = newSpillFile;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * @param rowBytes the number of bytes the caller has accounted for the row
+     */
+    void add(Object[] row, long rowBytes) {
+        ensureOpen();
+        if (cutoff != null && comparator.compare(row, cutoff) > 0) {
+            // A run already contains maxRows rows which are ordered before this row
+            ramAccounting.addBytes(-rowBytes);
+            return;
+        }
+        rows.add(row);
+        bytesInMemory += rowBytes;
+        if (bytesInMemory > memoryBudget.getAsLong()) {
+            spill();
+        }
+    }
+
+    int numRuns() {
+        return runs.size();
+    }
+
+    /**
+     * @return the sorted rows, skipping {@code offset} rows and returning at most {@code limit} rows.
+     *         Rows are exposed as a shared row with {@code numColumns} columns.
+     *         The result can be iterated multiple times, but only the last iterator is valid.
+     */
+    Iterable<Row> finish(int offset, int limit, int numColumns) {
+        ensureOpen();
+        rows.sort(comparator);
+        if (runs.isEmpty()) {
+            int end = (int) Math.min((long) offset + limit, rows.size());
+            List<Object[]> result = offset >= end ? List.of() : rows.subList(offset, end);
+            return () -> result.stream().map(Buckets.arrayToSharedRow(numColumns)).iterator();
+        }
+        reduceRuns();
+        return () -> {
+            closeOpenIterators();
+            Iterator<Object[]> merged = mergedRows();
+            Function<Object[], Row> toRow = Buckets.arrayToSharedRow(numColumns);
+            for (int i = 0; i < offset && merged.hasNext(); i++) {
+                merged.next();
+            }
+            return new Iterator<>() {
+
+                int remaining = limit;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0 && merged.hasNext();
+                }
+
+                @Override
+                public Row next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException("No more sorted rows");
+                    }
+                    remaining--;
+                    return toRow.apply(merged.next());
+                }
+            };
+        };
+    }
+
+    private void spill() {
+        rows.sort(comparator);
+        SpillFile run = newSpillFile.get();
+        runs.add(run);
+        int numRows = (int) Math.min(rows.size(), maxRows);
+        for (int i = 0; i < numRows; i++) {
+            run.write(rows.get(i));
+        }
+        run.finishWriting();
+        if (numRows > 0 && numRows == maxRows) {
+            Object[] last = rows.get(numRows - 1);
+            if (cutoff == null || comparator.compare(last, cutoff) < 0) {
+                cutoff = last;
+            }
+        }
+        rows = new ArrayList<>();
+        ramAccounting.addBytes(-bytesInMemory);
+        bytesInMemory = 0;
+    }
+
+    /**
+     * Merges the oldest runs until the remaining runs and the in-memory rows can be merged at once.
+     * Merged runs are added to the end, so each row is re-written at most log<sub>{@link #MAX_MERGE_WIDTH}</sub>
+     * of the number of runs times.
+     */
+    private void reduceRuns() {
+        while (runs.size() >= MAX_MERGE_WIDTH) {
+            int width = Math.min(MAX_MERGE_WIDTH, runs.size() - MAX_MERGE_WIDTH + 2);
+            List<SpillFile> group = runs.subList(0, width);
+            SpillFile merged = merge(group);
+            for (SpillFile run : group) {
+                run.close();
+            }
+            group.clear();
+            runs.add(merged);
+        }
+    }
+
+    /**
+     * Merges the runs into a new run, which contains at most {@code maxRows} rows
+     */
+    private SpillFile merge(List<SpillFile> toMerge) {
+        SpillFile merged = newSpillFile.get();
+        try {
+            var it = PagingIterator.<Integer, Object[]>createSorted(comparator, false);
+            List<KeyIterable<Integer, Object[]>> iterables = new ArrayList<>(toMerge.size());
+            for (int i = 0; i < toMerge.size(); i++) {
+                iterables.add(new KeyIterable<>(i, openIterator(toMerge.get(i))));
+            }
+            it.merge(iterables);
+            it.finish();
+            for (long i = 0; i < maxRows && it.hasNext(); i++) {
+                merged.write(it.next());
+            }
+            merged.finishWriting();
+        } catch (Throwable t) {
+            merged.close();
+            throw t;
+        } finally {
+            closeOpenIterators();
+        }
+        return merged;
+    }
+
+    private Iterator<Object[]> mergedRows() {
+        var it = PagingIterator.<Integer, Object[]>createSorted(comparator, false);
+        List<KeyIterable<Integer, Object[]>> iterables = new ArrayList<>(runs.size() + 1);
+        for (int i = 0; i < runs.size(); i++) {
+            iterables.add(new KeyIterable<>(i, openIterator(runs.get(i))));
+        }
+        iterables.add(new KeyIterable<>(runs.size(), rows));
+        it.merge(iterables);
+        it.finish();
+        return it;
+    }
+
+    /**
+     * Opens a reader for the run and returns a one-shot iterable for it.
+     */
+    private Iterable<Object[]> openIterator(SpillFile run) {
+        CloseableIterator<Object[]> it = run.rows();
+        openIterators.add(it);
+        return () -> it;
+    }
+
+    private void closeOpenIterators() {
+        for (CloseableIterator<Object[]> it : openIterators) {
+            it.close();
+        }
+        openIterators.clear();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("ExternalSorter is closed");
+        }
+    }
+
+    /**
+     * Closes all readers and removes all files. Doesn't release the memory of the rows which are still in memory.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeOpenIterators();
+        for (SpillFile run : runs) {
+            run.close();
+        }
+        runs.clear();
+        rows = new ArrayList<>();
+    }
+}
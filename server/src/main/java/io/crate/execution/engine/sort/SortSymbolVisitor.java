@@ -172,9 +172,19 @@ public class SortSymbolVisitor extends SymbolVisitor<SortSymbolVisitor.SortSymbo
     static SortField mappedSortField(Reference symbol,
                                      boolean reverse,
                                      NullValueOrder nullValueOrder) {
-        String fieldName = symbol.storageIdent();
+        return mappedSortField(symbol.storageIdent(), symbol.valueType(), reverse, nullValueOrder);
+    }
+
+    /**
+     * Creates the sort field for a column with doc values.
+     * Also used to build the index sort, which must be equal to the sort fields of queries to allow early termination.
+     */
+    public static SortField mappedSortField(String fieldName,
+                                            DataType<?> type,
+                                            boolean reverse,
+                                            NullValueOrder nullValueOrder) {
         MultiValueMode sortMode = reverse ? MultiValueMode.MAX : MultiValueMode.MIN;
-        switch (symbol.valueType().id()) {
+        switch (type.id()) {
             case StringType.ID, CharacterType.ID -> {
                 SortField sortField = new SortedSetSortField(
                     fieldName,
@@ -230,7 +240,7 @@ public class SortSymbolVisitor extends SymbolVisitor<SortSymbolVisitor.SortSymbo
             }
             case GeoPointType.ID -> throw new IllegalArgumentException(
                 "can't sort on geo_point field without using specific sorting feature, like geo_distance");
-            default -> throw new UnsupportedOperationException("Cannot order on " + symbol + "::" + symbol.valueType());
+            default -> throw new UnsupportedOperationException("Cannot order on " + fieldName + "::" + type);
         }
     }
 
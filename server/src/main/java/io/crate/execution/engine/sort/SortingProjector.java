@@ -31,9 +31,12 @@ import io.crate.data.Row;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -42,6 +45,11 @@ import java.util.stream.Collectors;
  * <p>
  * Compared to {@link SortingLimitAndOffsetProjector} this projector does not support limiting,
  * while the {@link SortingLimitAndOffsetProjector} does not work WITHOUT a limit.
+ * </p>
+ * <p>
+ * If created with an {@link ExternalSorter} supplier, rows are sorted using the {@link ExternalSorter} which writes
+ * sorted runs to disk once the rows exceed its memory budget. In that case a limit is supported as well.
+ * </p>
  */
 public class SortingProjector implements Projector {
 
@@ -51,7 +59,10 @@ public class SortingProjector implements Projector {
     private final Comparator<Object[]> comparator;
     private final int offset;
     private final int numOutputs;
+    private final int limit;
     private final RowAccounting<Object[]> rowAccounting;
+    @Nullable
+    private final Supplier<ExternalSorter> externalSorter;
 
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
@@ -67,9 +78,27 @@ public class SortingProjector implements Projector {
                             int numOutputs,
                             Comparator<Object[]> comparator,
                             int offset) {
+        this(rowAccounting, inputs, collectExpressions, numOutputs, comparator, Integer.MAX_VALUE, offset, null);
+    }
+
+    /**
+     * @param limit          the max number of rows to emit; only supported if {@code externalSorter} is not null
+     * @param externalSorter if not null, used to create an {@link ExternalSorter} for each iterator.
+     */
+    public SortingProjector(RowAccounting<Object[]> rowAccounting,
+                            Collection<? extends Input<?>> inputs,
+                            Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            int numOutputs,
+                            Comparator<Object[]> comparator,
+                            int limit,
+                            int offset,
+                            @Nullable Supplier<ExternalSorter> externalSorter) {
         if (offset < 0) {
             throw new IllegalArgumentException("invalid offset " + offset);
         }
+        assert externalSorter != null || limit == Integer.MAX_VALUE : "limit requires an externalSorter";
+        this.limit = limit;
+        this.externalSorter = externalSorter;
         this.rowAccounting = rowAccounting;
         this.numOutputs = numOutputs;
         this.inputs = inputs;
@@ -81,6 +110,9 @@ public class SortingProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        if (externalSorter != null) {
+            return externalSort(batchIterator, externalSorter.get());
+        }
         Collector<Row, ?, Bucket> collector = Collectors.mapping(
             this::getCells,
             Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
@@ -92,7 +124,39 @@ public class SortingProjector implements Projector {
         return true;
     }
 
+    private BatchIterator<Row> externalSort(BatchIterator<Row> batchIterator, ExternalSorter sorter) {
+        Collector<Row, ExternalSorter, Iterable<Row>> collector = Collector.of(
+            () -> sorter,
+            (s, row) -> {
+                Object[] cells = materialize(row);
+                s.add(cells, rowAccounting.accountForAndMaybeBreak(cells));
+            },
+            (s1, s2) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            },
+            s -> s.finish(offset, limit, numOutputs)
+        );
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                try {
+                    batchIterator.close();
+                } finally {
+                    sorter.close();
+                }
+            },
+            batchIterator::kill,
+            () -> batchIterator.collect(collector),
+            true
+        );
+    }
+
     private Object[] getCells(Row row) {
+        Object[] newRow = materialize(row);
+        rowAccounting.accountForAndMaybeBreak(newRow);
+        return newRow;
+    }
+
+    private Object[] materialize(Row row) {
         for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
             collectExpression.setNextRow(row);
         }
@@ -101,7 +165,6 @@ public class SortingProjector implements Projector {
         for (Input<?> input : inputs) {
             newRow[i++] = input.value();
         }
-        rowAccounting.accountForAndMaybeBreak(newRow);
         return newRow;
     }
 
@@ -0,0 +1,215 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+import io.crate.data.CloseableIterator;
+import io.crate.data.Row;
+
+/**
+ * A temporary file to which rows can be appended and which can be read back (multiple times) once writing is done.
+ * <p>
+ * Rows are serialized cell by cell using the {@link Streamer}s of the columns, the same format that is used by
+ * {@link io.crate.execution.engine.distribution.StreamBucket}.
+ * </p>
+ * The file is removed on {@link #close()}.
+ * This class is not thread-safe.
+ */
+public final class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path path;
+    private final Streamer<?>[] streamers;
+
+    private OutputStreamStreamOutput out;
+    private long numRows = 0;
+    private boolean closed = false;
+
+    SpillFile(Path path, Streamer<?>[] streamers) throws IOException {
+        this.path = path;
+        this.streamers = streamers;
+        this.out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+    }
+
+    /**
+     * Creates a new spill file within {@code directory}.
+     */
+    public static SpillFile create(Path directory, Streamer<?>[] streamers) throws IOException {
+        return new SpillFile(Files.createTempFile(directory, "spill-", ".bin"), streamers);
+    }
+
+    public void write(Row row) {
+        assert row.numColumns() == streamers.length : "number of streamers must match row size";
+        ensureWritable();
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                //noinspection unchecked
+                ((Streamer<Object>) streamers[i]).writeValueTo(out, row.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    public void write(Object[] cells) {
+        assert cells.length == streamers.length : "number of streamers must match row size";
+        ensureWritable();
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                //noinspection unchecked
+                ((Streamer<Object>) streamers[i]).writeValueTo(out, cells[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    public long numRows() {
+        return numRows;
+    }
+
+    /**
+     * Finishes writing (if not done yet) and returns an iterator over all rows written to the file.
+     * Every call returns a new iterator starting at the first row; each returned row is a new array.
+     * The iterator releases the underlying file handle once it is exhausted or closed.
+     * No more rows can be written once this has been called.
+     */
+    public CloseableIterator<Object[]> rows() {
+        if (closed) {
+            throw new IllegalStateException("SpillFile is already closed");
+        }
+        finishWriting();
+        try {
+            if (numRows == 0) {
+                return CloseableIterator.fromIterator(Collections.emptyIterator());
+            }
+            StreamInput in = new InputStreamStreamInput(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            return new RowsIterator(in, streamers, numRows);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finishes writing and releases the file handle used to write the rows. No more rows can be written afterwards.
+     */
+    public void finishWriting() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out = null;
+        }
+    }
+
+    private void ensureWritable() {
+        if (out == null) {
+            throw new IllegalStateException("Cannot write to a SpillFile after it has been read from or closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            IOUtils.closeWhileHandlingException(out);
+            out = null;
+        } finally {
+            IOUtils.deleteFilesIgnoringExceptions(path);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpillFile{path=" + path + ", numRows=" + numRows + '}';
+    }
+
+    private static class RowsIterator implements CloseableIterator<Object[]> {
+
+        private final StreamInput in;
+        private final Streamer<?>[] streamers;
+        private final long numRows;
+        private long pos = 0;
+
+        RowsIterator(StreamInput in, Streamer<?>[] streamers, long numRows) {
+            this.in = in;
+            this.streamers = streamers;
+            this.numRows = numRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < numRows;
+        }
+
+        @Override
+        public Object[] next() {
+            if (pos >= numRows) {
+                throw new NoSuchElementException("SpillFile has no more rows");
+            }
+            Object[] cells = new Object[streamers.length];
+            try {
+                for (int i = 0; i < streamers.length; i++) {
+                    cells[i] = streamers[i].readValueFrom(in);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pos++;
+            if (pos == numRows) {
+                close();
+            }
+            return cells;
+        }
+
+        @Override
+        public void close() {
+            IOUtils.closeWhileHandlingException(in);
+        }
+    }
+}
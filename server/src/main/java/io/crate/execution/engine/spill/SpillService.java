@@ -0,0 +1,121 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.NodeEnvironment;
+
+import io.crate.Streamer;
+import io.crate.common.io.IOUtils;
+
+/**
+ * Provides {@link SpillFile}s to operations which can offload intermediate results to disk
+ * instead of keeping everything in memory.
+ * <p>
+ * Spill files are created within a {@code spill} directory below the first data path of the node.
+ * Leftovers of a previous run (e.g. after a crash) are removed when the service is created.
+ * </p>
+ */
+@Singleton
+public class SpillService {
+
+    private static final Logger LOGGER = LogManager.getLogger(SpillService.class);
+
+    public static final String SPILL_DIRECTORY_NAME = "spill";
+
+    public static final Setting<Boolean> SPILL_ENABLED_SETTING = Setting.boolSetting(
+        "memory.spill.enabled",
+        false,
+        Property.NodeScope,
+        Property.Dynamic,
+        Property.Exposed
+    );
+
+    private final Path spillDirectory;
+    private volatile boolean enabled;
+
+    @Inject
+    public SpillService(Settings settings, ClusterSettings clusterSettings, NodeEnvironment nodeEnvironment) {
+        this(settings, clusterSettings, nodeEnvironment.nodeDataPaths()[0].resolve(SPILL_DIRECTORY_NAME));
+    }
+
+    public SpillService(Settings settings, ClusterSettings clusterSettings, Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        this.enabled = SPILL_ENABLED_SETTING.get(settings);
+        clusterSettings.addSettingsUpdateConsumer(SPILL_ENABLED_SETTING, newValue -> enabled = newValue);
+        try {
+            IOUtils.rm(spillDirectory);
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove leftover spill files in {}", spillDirectory, e);
+        }
+    }
+
+    /**
+     * @return true if operations are allowed to offload data to disk once they run short of memory.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a supplier for the number of bytes an operation may keep in memory before it should start to spill:
+     * Half of the memory that is still available in the circuit breaker, further restricted by the
+     * operation memory limit if one is set.
+     */
+    public static LongSupplier memoryBudget(CircuitBreaker breaker, int operationMemoryLimit) {
+        return () -> {
+            long limit = breaker.getLimit();
+            long budget = limit == -1 ? Long.MAX_VALUE : Math.max(0L, (limit - breaker.getUsed()) / 2);
+            if (operationMemoryLimit > 0) {
+                budget = Math.min(budget, operationMemoryLimit / 2);
+            }
+            return budget;
+        };
+    }
+
+    public Path spillDirectory() {
+        return spillDirectory;
+    }
+
+    public SpillFile newSpillFile(Streamer<?>[] streamers) {
+        try {
+            Files.createDirectories(spillDirectory);
+            return SpillFile.create(spillDirectory, streamers);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -56,6 +56,12 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
     private int seenFrameUpperBound = -1;
     private Object resultForCurrentFrame;
 
+    /**
+     * Built on demand once the frame start moves within a partition if the function isn't removable cumulative.
+     */
+    @Nullable
+    private SegmentTree segmentTree;
+
     AggregateToWindowFunctionAdapter(AggregationFunction aggregationFunction,
                                      ExpressionsInput<Row, Boolean> filter,
                                      Version indexVersionCreated,
@@ -99,7 +105,10 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                           Input... args) {
         assert ignoreNulls == null;
         if (idxInPartition == 0) {
+            segmentTree = null;
             recomputeFunction(frame, expressions, args);
+        } else if (segmentTree != null) {
+            executeWithSegmentTree(frame);
         } else if (isLowerBoundIncreasing(frame, seenFrameLowerBound)) {
             if (aggregationFunction.isRemovableCumulative()) {
                 removeSeenRowsFromAccumulatedState(frame, expressions, args);
@@ -110,6 +119,9 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                 }
                 seenFrameLowerBound = frame.lowerBound();
                 seenFrameUpperBound = frame.upperBoundExclusive();
+            } else if (aggregationFunction.isReduceSideEffectFree()) {
+                segmentTree = buildSegmentTree(frame, expressions, args);
+                executeWithSegmentTree(frame);
             } else {
                 recomputeFunction(frame, expressions, args);
             }
@@ -119,6 +131,47 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
         return resultForCurrentFrame;
     }
 
+    /**
+     * Computes the state of each row in the partition, so that each following frame can be computed with O(log n)
+     * reductions instead of aggregating all rows of the frame.
+     */
+    private SegmentTree buildSegmentTree(WindowFrameState frame,
+                                         List<? extends CollectExpression<Row, ?>> expressions,
+                                         Input[] args) {
+        var row = new ArrayRow();
+        Object[] states = new Object[frame.partitionSize()];
+        for (int i = 0; i < states.length; i++) {
+            Object[] cells = frame.getRowInPartitionAtIndexOrNull(i);
+            assert cells != null : "No row at idx=" + i + " in current partition=" + frame;
+            row.cells(cells);
+            for (int j = 0, expressionsSize = expressions.size(); j < expressionsSize; j++) {
+                expressions.get(j).setNextRow(row);
+            }
+            Object state = aggregationFunction.newState(ramAccounting, indexVersionCreated, minNodeVersion, memoryManager);
+            if (filter.value(row)) {
+                //noinspection unchecked
+                state = aggregationFunction.iterate(ramAccounting, memoryManager, state, args);
+            }
+            states[i] = state;
+        }
+        //noinspection unchecked
+        return new SegmentTree(aggregationFunction, ramAccounting, states);
+    }
+
+    private void executeWithSegmentTree(WindowFrameState frame) {
+        if (frame.lowerBound() != seenFrameLowerBound || frame.upperBoundExclusive() != seenFrameUpperBound) {
+            Object state = segmentTree.query(
+                frame.lowerBound(),
+                frame.upperBoundExclusive(),
+                () -> aggregationFunction.newState(ramAccounting, indexVersionCreated, minNodeVersion, memoryManager)
+            );
+            //noinspection unchecked
+            resultForCurrentFrame = aggregationFunction.terminatePartial(ramAccounting, state);
+            seenFrameLowerBound = frame.lowerBound();
+            seenFrameUpperBound = frame.upperBoundExclusive();
+        }
+    }
+
     private void removeSeenRowsFromAccumulatedState(WindowFrameState frame,
                                                     List<? extends CollectExpression<Row, ?>> expressions,
                                                     Input[] args) {
@@ -0,0 +1,187 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.window;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Buckets;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.breaker.RowAccounting;
+
+/**
+ * BatchIterator which buffers the rows of a source that is sorted by partition and emits the result of
+ * {@code computePartition} for each partition once the partition is complete.
+ *
+ * <pre>
+ *     source:  [a, 1], [a, 2], [b, 3]  (partitioned by the first column)
+ *
+ *     computePartition([[a, 1], [a, 2]])  -> emitted once [b, 3] is read
+ *     computePartition([[b, 3]])          -> emitted once the source is exhausted
+ * </pre>
+ *
+ * The memory of the buffered rows is released once the rows of a partition have been consumed.
+ */
+final class PartitionedBatchIterator implements BatchIterator<Row> {
+
+    private final BatchIterator<Row> source;
+    private final Comparator<Object[]> cmpPartitionBy;
+    private final Function<Row, Object[]> materialize;
+    private final RowAccounting<Row> rowAccounting;
+    private final RamAccounting ramAccounting;
+    private final Function<List<Object[]>, Iterator<Object[]>> computePartition;
+    private final Function<Object[], Row> toRow = Buckets.arrayToSharedRow();
+
+    private ArrayList<Object[]> partition = new ArrayList<>();
+    private long partitionBytes = 0;
+
+    @Nullable
+    private Object[] nextPartitionRow;
+    private long nextPartitionRowBytes = 0;
+
+    @Nullable
+    private Iterator<Object[]> results;
+    private Row current;
+
+    /**
+     * @param materialize       copies the cells of a source row into a new array
+     * @param rowAccounting     used to account for the buffered rows
+     * @param ramAccounting     used to release the memory of the buffered rows
+     * @param computePartition  computes the output rows for all rows of a partition
+     */
+    PartitionedBatchIterator(BatchIterator<Row> source,
+                             Comparator<Object[]> cmpPartitionBy,
+                             Function<Row, Object[]> materialize,
+                             RowAccounting<Row> rowAccounting,
+                             RamAccounting ramAccounting,
+                             Function<List<Object[]>, Iterator<Object[]>> computePartition) {
+        this.source = source;
+        this.cmpPartitionBy = cmpPartitionBy;
+        this.materialize = materialize;
+        this.rowAccounting = rowAccounting;
+        this.ramAccounting = ramAccounting;
+        this.computePartition = computePartition;
+    }
+
+    @Override
+    public Row currentElement() {
+        return current;
+    }
+
+    @Override
+    public void moveToStart() {
+        releaseAll();
+        results = null;
+        current = null;
+        source.moveToStart();
+    }
+
+    @Override
+    public boolean moveNext() {
+        while (true) {
+            if (results != null) {
+                if (results.hasNext()) {
+                    current = toRow.apply(results.next());
+                    return true;
+                }
+                results = null;
+                startNextPartition();
+            }
+            if (source.moveNext()) {
+                Row row = source.currentElement();
+                long bytes = rowAccounting.accountForAndMaybeBreak(row);
+                Object[] cells = materialize.apply(row);
+                if (partition.isEmpty() || cmpPartitionBy.compare(partition.get(partition.size() - 1), cells) == 0) {
+                    partition.add(cells);
+                    partitionBytes += bytes;
+                } else {
+                    nextPartitionRow = cells;
+                    nextPartitionRowBytes = bytes;
+                    results = computePartition.apply(partition);
+                }
+            } else if (source.allLoaded() && partition.isEmpty() == false) {
+                results = computePartition.apply(partition);
+            } else {
+                current = null;
+                return false;
+            }
+        }
+    }
+
+    private void startNextPartition() {
+        releasePartition();
+        if (nextPartitionRow != null) {
+            partition.add(nextPartitionRow);
+            partitionBytes = nextPartitionRowBytes;
+            nextPartitionRow = null;
+            nextPartitionRowBytes = 0;
+        }
+    }
+
+    private void releasePartition() {
+        ramAccounting.addBytes(-partitionBytes);
+        partition = new ArrayList<>();
+        partitionBytes = 0;
+    }
+
+    private void releaseAll() {
+        releasePartition();
+        ramAccounting.addBytes(-nextPartitionRowBytes);
+        nextPartitionRow = null;
+        nextPartitionRowBytes = 0;
+    }
+
+    @Override
+    public void close() {
+        releaseAll();
+        source.close();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        return source.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return source.allLoaded();
+    }
+
+    @Override
+    public void kill(@NotNull Throwable throwable) {
+        source.kill(throwable);
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return source.hasLazyResultSet();
+    }
+}
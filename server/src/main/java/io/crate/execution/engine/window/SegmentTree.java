@@ -0,0 +1,99 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.window;
+
+import java.util.function.Supplier;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+
+/**
+ * Pre-aggregates the partial states of the rows of a partition, so that the state of any range of rows can be
+ * computed with O(log n) {@link AggregationFunction#reduce(RamAccounting, Object, Object)} calls.
+ *
+ * <pre>
+ *                 [0..4)
+ *           [0..2)      [2..4)
+ *         [0]   [1]   [2]   [3]    leaves: the states of the single rows
+ * </pre>
+ *
+ * The tree is stored bottom-up in an array, the leaves start at index {@code numLeaves}.
+ * Requires an aggregation with {@link AggregationFunction#isReduceSideEffectFree()}, as the states of the nodes
+ * are re-used for every range.
+ */
+final class SegmentTree {
+
+    private final AggregationFunction<Object, ?> aggregationFunction;
+    private final RamAccounting ramAccounting;
+    private final int numLeaves;
+    private final Object[] nodes;
+
+    /**
+     * @param leafStates the partial states of the rows; the array is not modified
+     */
+    SegmentTree(AggregationFunction<Object, ?> aggregationFunction, RamAccounting ramAccounting, Object[] leafStates) {
+        assert aggregationFunction.isReduceSideEffectFree()
+            : "Aggregation must not modify the states in reduce to be used in a SegmentTree";
+        this.aggregationFunction = aggregationFunction;
+        this.ramAccounting = ramAccounting;
+        this.numLeaves = leafStates.length;
+        this.nodes = new Object[2 * numLeaves];
+        System.arraycopy(leafStates, 0, nodes, numLeaves, numLeaves);
+        for (int i = numLeaves - 1; i > 0; i--) {
+            nodes[i] = aggregationFunction.reduce(ramAccounting, nodes[2 * i], nodes[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Returns the reduced state of the leaves in the range {@code [from, toExclusive)}.
+     * The order of the leaves is retained, so the aggregation doesn't need to be commutative.
+     *
+     * @param emptyState used to create a state if the range is empty
+     */
+    Object query(int from, int toExclusive, Supplier<Object> emptyState) {
+        assert from >= 0 && toExclusive <= numLeaves : "Range must be within the leaves of the tree";
+        Object left = null;
+        Object right = null;
+        boolean hasLeft = false;
+        boolean hasRight = false;
+        for (int l = from + numLeaves, r = toExclusive + numLeaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                left = hasLeft ? aggregationFunction.reduce(ramAccounting, left, nodes[l]) : nodes[l];
+                hasLeft = true;
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                right = hasRight ? aggregationFunction.reduce(ramAccounting, nodes[r], right) : nodes[r];
+                hasRight = true;
+            }
+        }
+        if (hasLeft && hasRight) {
+            return aggregationFunction.reduce(ramAccounting, left, right);
+        } else if (hasLeft) {
+            return left;
+        } else if (hasRight) {
+            return right;
+        }
+        return emptyState.get();
+    }
+}
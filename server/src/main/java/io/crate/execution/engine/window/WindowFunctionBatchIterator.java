@@ -43,6 +43,7 @@ import io.crate.data.Buckets;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.sort.Sort;
@@ -117,6 +118,47 @@ public final class WindowFunctionBatchIterator {
         );
     }
 
+    /**
+     * Creates a BatchIterator which computes the window functions for a source which is already sorted by the
+     * PARTITION BY and ORDER BY of the window definition.
+     * <p>
+     * Only the rows of the current partition are kept in memory. Once a row of the next partition arrives (or the
+     * source is exhausted) the window functions are computed for the buffered partition and its rows are emitted.
+     * </p>
+     */
+    public static BatchIterator<Row> ofSorted(BatchIterator<Row> source,
+                                              RowAccounting<Row> rowAccounting,
+                                              RamAccounting ramAccounting,
+                                              ComputeFrameBoundary<Object[]> computeFrameStart,
+                                              ComputeFrameBoundary<Object[]> computeFrameEnd,
+                                              Comparator<Object[]> cmpPartitionBy,
+                                              int numCellsInSourceRow,
+                                              List<WindowFunction> windowFunctions,
+                                              List<? extends CollectExpression<Row, ?>> argsExpressions,
+                                              Boolean[] ignoreNulls,
+                                              Input[]... args) {
+        assert windowFunctions.size() == args.length : "arguments must be defined for each window function";
+        assert args.length == ignoreNulls.length : "ignore-nulls option must be defined for each window function";
+        return new PartitionedBatchIterator(
+            source,
+            cmpPartitionBy,
+            row -> materializeWithSpare(row, windowFunctions.size()),
+            rowAccounting,
+            ramAccounting,
+            partitionRows -> computeWindowFunctions(
+                partitionRows,
+                computeFrameStart,
+                computeFrameEnd,
+                null,
+                numCellsInSourceRow,
+                windowFunctions,
+                argsExpressions,
+                ignoreNulls,
+                args
+            ).iterator()
+        );
+    }
+
     private static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
         Object[] cells = new Object[row.numColumns() + numWindowFunctions];
         for (int i = 0; i < row.numColumns(); i++) {
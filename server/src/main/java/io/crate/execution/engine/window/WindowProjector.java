@@ -153,6 +153,21 @@ public class WindowProjector {
             windowDefinition,
             cmpOrderBy
         );
+        if (projection.presorted() && cmpPartitionBy != null) {
+            return sourceRows -> WindowFunctionBatchIterator.ofSorted(
+                sourceRows,
+                accounting,
+                ramAccounting,
+                computeFrameStart,
+                computeFrameEnd,
+                cmpPartitionBy,
+                numCellsInSourceRow,
+                windowFunctions,
+                windowFuncArgsExpressions,
+                ignoreNulls,
+                windowFuncArgsInputs
+            );
+        }
         return sourceRows -> WindowFunctionBatchIterator.of(
             sourceRows,
             accounting,
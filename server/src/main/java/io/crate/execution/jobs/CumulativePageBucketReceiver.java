@@ -244,25 +244,30 @@ public class CumulativePageBucketReceiver implements PageBucketReceiver {
     }
 
     private void fetchExhausted(Integer exhaustedBucket) {
+        PageResultListener pageResultListener;
         synchronized (listenersByBucketIdx) {
             // We're only requesting data for 1 specific bucket,
             // so we need to fill in other buckets to meet the
             // "receivedAllBucketsOfPage" condition once we get the data for this bucket
-            PageResultListener pageResultListener = listenersByBucketIdx.remove(exhaustedBucket);
+            pageResultListener = listenersByBucketIdx.remove(exhaustedBucket);
             for (Integer bucketIdx : listenersByBucketIdx.keySet()) {
                 bucketsByIdx.putIfAbsent(bucketIdx, Bucket.EMPTY);
             }
-            pageResultListener.needMore(true);
         }
+        // A listener can set the next bucket right away (see PipelinedPageBucketReceiver)
+        pageResultListener.needMore(true);
     }
 
     private void fetchFromUnExhausted() {
+        List<PageResultListener> listeners;
         synchronized (listenersByBucketIdx) {
-            for (PageResultListener listener : listenersByBucketIdx.values()) {
-                listener.needMore(true);
-            }
+            listeners = new ArrayList<>(listenersByBucketIdx.values());
             listenersByBucketIdx.clear();
         }
+        // A listener can set the next bucket right away (see PipelinedPageBucketReceiver)
+        for (PageResultListener listener : listeners) {
+            listener.needMore(true);
+        }
     }
 
     @Override
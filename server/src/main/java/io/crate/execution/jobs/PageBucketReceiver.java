@@ -71,6 +71,15 @@ public interface PageBucketReceiver extends CompletionListenable, Killable {
      */
     void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener);
 
+    /**
+     * Receives a page of a bucket from an upstream which sends multiple pages without waiting for the
+     * {@code pageResultListener} of the previous page. The pages of a bucket can arrive in any order.
+     * @param pageIdx The sequence number of the page within the bucket, starting at 0.
+     */
+    default void setPage(int bucketIdx, int pageIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot receive pipelined pages");
+    }
+
     Streamer<?>[] streamers();
 
     /**
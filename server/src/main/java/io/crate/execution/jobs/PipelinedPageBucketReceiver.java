@@ -0,0 +1,210 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.common.annotations.GuardedBy;
+import io.crate.data.Bucket;
+import io.netty.util.collection.IntObjectHashMap;
+
+/**
+ * A {@link PageBucketReceiver} which buffers the pages of upstreams that send multiple pages without waiting for the
+ * response of the previous page.
+ *
+ * <p>
+ * The pages of a bucket can arrive in any order. They are passed to the delegate one at a time and in the order of
+ * their page index, the same way an upstream which waits for each response would send them. The response for a page
+ * is sent once the delegate requested more data after consuming it, which grants the upstream the credit to send
+ * another page. So the number of buffered pages per bucket is limited by the number of pages an upstream keeps in
+ * flight.
+ * </p>
+ *
+ * Buckets which are set using {@link #setBucket(int, Bucket, boolean, PageResultListener)} are directly passed to the
+ * delegate.
+ */
+public final class PipelinedPageBucketReceiver implements PageBucketReceiver {
+
+    private final PageBucketReceiver delegate;
+    private final Object lock = new Object();
+
+    @GuardedBy("lock")
+    private final IntObjectHashMap<Upstream> upstreams = new IntObjectHashMap<>();
+
+    @GuardedBy("lock")
+    private boolean done = false;
+
+    public PipelinedPageBucketReceiver(PageBucketReceiver delegate) {
+        this.delegate = delegate;
+        delegate.completionFuture().whenComplete((result, err) -> {
+            List<Page> pending = new ArrayList<>();
+            synchronized (lock) {
+                done = true;
+                for (var upstream : upstreams.values()) {
+                    upstream.drainTo(pending);
+                }
+            }
+            respondNoMoreData(pending);
+        });
+    }
+
+    @Override
+    public void setBucket(int bucketIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        delegate.setBucket(bucketIdx, rows, isLast, pageResultListener);
+    }
+
+    @Override
+    public void setPage(int bucketIdx, int pageIdx, Bucket rows, boolean isLast, PageResultListener pageResultListener) {
+        Upstream upstream;
+        Page next = null;
+        boolean noMoreData;
+        synchronized (lock) {
+            upstream = upstreams.get(bucketIdx);
+            if (upstream == null) {
+                upstream = new Upstream(bucketIdx);
+                upstreams.put(bucketIdx, upstream);
+            }
+            noMoreData = done || upstream.finished;
+            if (!noMoreData) {
+                upstream.pending.put(pageIdx, new Page(rows, isLast, pageResultListener));
+                next = upstream.pollNext();
+            }
+        }
+        if (noMoreData) {
+            pageResultListener.needMore(false);
+        } else if (next != null) {
+            passToDelegate(upstream, next);
+        }
+    }
+
+    /**
+     * Passes the page and all following pages which are ready to the delegate.
+     * A delegate can request more data while the page is set, the next page is only passed once setBucket returned,
+     * so that the pages are set one after another and not nested.
+     */
+    private void passToDelegate(Upstream upstream, Page page) {
+        while (page != null) {
+            Page current = page;
+            delegate.setBucket(upstream.bucketIdx, current.rows, current.isLast, needMore -> onNeedMore(upstream, current, needMore));
+            synchronized (lock) {
+                upstream.passing = false;
+                page = upstream.pollNext();
+            }
+        }
+    }
+
+    private void onNeedMore(Upstream upstream, Page page, boolean needMore) {
+        page.listener.needMore(needMore);
+        Page next = null;
+        List<Page> dropped = new ArrayList<>();
+        synchronized (lock) {
+            upstream.delegateHasPage = false;
+            if (needMore) {
+                next = upstream.pollNext();
+            } else {
+                upstream.finished = true;
+                upstream.drainTo(dropped);
+            }
+        }
+        respondNoMoreData(dropped);
+        if (next != null) {
+            passToDelegate(upstream, next);
+        }
+    }
+
+    private static void respondNoMoreData(List<Page> pages) {
+        for (Page page : pages) {
+            page.listener.needMore(false);
+        }
+    }
+
+    @Override
+    public Streamer<?>[] streamers() {
+        return delegate.streamers();
+    }
+
+    @Override
+    public CompletableFuture<?> completionFuture() {
+        return delegate.completionFuture();
+    }
+
+    @Override
+    public void consumeRows() {
+        delegate.consumeRows();
+    }
+
+    @Override
+    public void kill(@NotNull Throwable t) {
+        delegate.kill(t);
+    }
+
+    @Override
+    public String toString() {
+        return "PipelinedPageBucketReceiver{" + delegate + '}';
+    }
+
+    private record Page(Bucket rows, boolean isLast, PageResultListener listener) {
+    }
+
+    private static class Upstream {
+
+        private final int bucketIdx;
+        private final IntObjectHashMap<Page> pending = new IntObjectHashMap<>();
+        private int nextPageIdx = 0;
+        private boolean delegateHasPage = false;
+        private boolean passing = false;
+        private boolean finished = false;
+
+        Upstream(int bucketIdx) {
+            this.bucketIdx = bucketIdx;
+        }
+
+        /**
+         * Returns the next page that can be passed to the delegate, or null if the delegate hasn't consumed the
+         * previous page yet, a page is currently being passed to the delegate or the next page didn't arrive yet.
+         */
+        @Nullable
+        Page pollNext() {
+            if (delegateHasPage || passing) {
+                return null;
+            }
+            Page page = pending.remove(nextPageIdx);
+            if (page != null) {
+                nextPageIdx++;
+                delegateHasPage = true;
+                passing = true;
+            }
+            return page;
+        }
+
+        void drainTo(List<Page> pages) {
+            pages.addAll(pending.values());
+            pending.clear();
+        }
+    }
+}
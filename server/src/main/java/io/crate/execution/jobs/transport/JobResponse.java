@@ -23,6 +23,7 @@ package io.crate.execution.jobs.transport;
 
 import io.crate.Streamer;
 import io.crate.execution.engine.distribution.StreamBucket;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportResponse;
@@ -35,9 +36,21 @@ import java.util.List;
 public class JobResponse extends TransportResponse {
 
     private final List<StreamBucket> directResponse;
+    private final long serviceTimeNanos;
+    private final int searchQueueSize;
 
     public JobResponse(@NotNull List<StreamBucket> directResponse) {
+        this(directResponse, -1L, -1);
+    }
+
+    /**
+     * @param serviceTimeNanos time the node needed to process the request
+     * @param searchQueueSize the size of the search queue of the node once the request was processed
+     */
+    public JobResponse(@NotNull List<StreamBucket> directResponse, long serviceTimeNanos, int searchQueueSize) {
         this.directResponse = directResponse;
+        this.serviceTimeNanos = serviceTimeNanos;
+        this.searchQueueSize = searchQueueSize;
     }
 
     public List<StreamBucket> getDirectResponses(Streamer<?>[] streamers) {
@@ -51,6 +64,20 @@ public class JobResponse extends TransportResponse {
         return !directResponse.isEmpty();
     }
 
+    /**
+     * @return the time the node needed to process the request, or -1 if unknown
+     */
+    public long serviceTimeNanos() {
+        return serviceTimeNanos;
+    }
+
+    /**
+     * @return the size of the search queue of the node, or -1 if unknown
+     */
+    public int searchQueueSize() {
+        return searchQueueSize;
+    }
+
     public JobResponse(StreamInput in) throws IOException {
         int size = in.readVInt();
         directResponse = new ArrayList<>(size);
@@ -58,6 +85,13 @@ public class JobResponse extends TransportResponse {
             StreamBucket bucket = new StreamBucket(in);
             directResponse.add(bucket);
         }
+        if (in.getVersion().onOrAfter(Version.V_5_6_0)) {
+            serviceTimeNanos = in.readZLong();
+            searchQueueSize = in.readInt();
+        } else {
+            serviceTimeNanos = -1L;
+            searchQueueSize = -1;
+        }
     }
 
     @Override
@@ -66,5 +100,9 @@ public class JobResponse extends TransportResponse {
         for (StreamBucket bucket : directResponse) {
             bucket.writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_6_0)) {
+            out.writeZLong(serviceTimeNanos);
+            out.writeInt(searchQueueSize);
+        }
     }
 }
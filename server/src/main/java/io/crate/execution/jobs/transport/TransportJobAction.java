@@ -22,6 +22,7 @@
 package io.crate.execution.jobs.transport;
 
 import io.crate.common.concurrent.CompletableFutures;
+import io.crate.execution.engine.collect.stats.NodeResponseStats;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.jobs.InstrumentedIndexSearcher;
 import io.crate.execution.jobs.JobSetup;
@@ -46,6 +47,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.UnaryOperator;
 
 @Singleton
@@ -55,18 +58,24 @@ public class TransportJobAction extends TransportAction<NodeRequest<JobRequest>,
     private final Transports transports;
     private final TasksService tasksService;
     private final JobSetup jobSetup;
+    private final NodeResponseStats nodeResponseStats;
+    private final Executor searchExecutor;
 
     @Inject
     public TransportJobAction(TransportService transportService,
                               IndicesService indicesService,
                               Transports transports,
                               TasksService tasksService,
-                              JobSetup jobSetup) {
+                              JobSetup jobSetup,
+                              ThreadPool threadPool,
+                              NodeResponseStats nodeResponseStats) {
         super(JobAction.NAME);
         this.indicesService = indicesService;
         this.transports = transports;
         this.tasksService = tasksService;
         this.jobSetup = jobSetup;
+        this.nodeResponseStats = nodeResponseStats;
+        this.searchExecutor = threadPool.executor(ThreadPool.Names.SEARCH);
         transportService.registerRequestHandler(
             JobAction.NAME,
             ThreadPool.Names.SEARCH,
@@ -76,16 +85,23 @@ public class TransportJobAction extends TransportAction<NodeRequest<JobRequest>,
 
     @Override
     public void doExecute(NodeRequest<JobRequest> request, ActionListener<JobResponse> listener) {
+        ActionListener<JobResponse> trackingListener = nodeResponseStats.track(
+            request.nodeId(),
+            listener,
+            JobResponse::serviceTimeNanos,
+            JobResponse::searchQueueSize
+        );
         transports.sendRequest(
             JobAction.NAME,
             request.nodeId(),
             request.innerRequest(),
-            listener,
-            new ActionListenerResponseHandler<>(listener, JobResponse::new)
+            trackingListener,
+            new ActionListenerResponseHandler<>(trackingListener, JobResponse::new)
         );
     }
 
     private CompletableFuture<JobResponse> nodeOperation(final JobRequest request) {
+        long startNanos = System.nanoTime();
         RootTask.Builder contextBuilder = tasksService.newBuilder(
             request.jobId(),
             request.sessionSettings().userName(),
@@ -110,12 +126,18 @@ public class TransportJobAction extends TransportAction<NodeRequest<JobRequest>,
         }
 
         if (directResponseFutures.size() == 0) {
-            return CompletableFuture.completedFuture(new JobResponse(List.of()));
+            return CompletableFuture.completedFuture(
+                new JobResponse(List.of(), System.nanoTime() - startNanos, searchQueueSize()));
         } else {
-            return CompletableFutures.allAsList(directResponseFutures).thenApply(JobResponse::new);
+            return CompletableFutures.allAsList(directResponseFutures).thenApply(
+                directResponses -> new JobResponse(directResponses, System.nanoTime() - startNanos, searchQueueSize()));
         }
     }
 
+    private int searchQueueSize() {
+        return searchExecutor instanceof ThreadPoolExecutor executor ? executor.getQueue().size() : -1;
+    }
+
     private SharedShardContexts maybeInstrumentProfiler(boolean enableProfiling, RootTask.Builder contextBuilder) {
         if (enableProfiling) {
             var profilers = new ArrayList<QueryProfiler>();
@@ -21,13 +21,17 @@
 
 package io.crate.expression.operator;
 
+import java.util.List;
 import java.util.function.IntPredicate;
 
 import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 
 import io.crate.data.Input;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.lucene.LuceneQueryBuilder;
 import io.crate.metadata.NodeContext;
 import io.crate.metadata.Reference;
 import io.crate.metadata.TransactionContext;
@@ -67,8 +71,15 @@ public final class CmpOperator extends Operator<Object> {
         return isMatch.test(type.compare(left, right));
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public static Query toQuery(String functionName, Reference ref, Object value) {
+        return toQuery(functionName, ref, value, false);
+    }
+
+    /**
+     * @param isIndexSortedByRef true if the documents of the index are sorted by {@code ref} first
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Query toQuery(String functionName, Reference ref, Object value, boolean isIndexSortedByRef) {
         StorageSupport<?> storageSupport = ref.valueType().storageSupport();
         if (storageSupport == null) {
             return null;
@@ -81,17 +92,31 @@ public final class CmpOperator extends Operator<Object> {
         String field = ref.storageIdent();
         return switch (functionName) {
             case GtOperator.NAME -> eqQuery.rangeQuery(
-                    field, value, null, false, false, ref.hasDocValues());
+                    field, value, null, false, false, ref.hasDocValues(), isIndexSortedByRef);
             case GteOperator.NAME -> eqQuery.rangeQuery(
-                    field, value, null, true, false, ref.hasDocValues());
+                    field, value, null, true, false, ref.hasDocValues(), isIndexSortedByRef);
             case LtOperator.NAME ->
-                    eqQuery.rangeQuery(field, null, value, false, false, ref.hasDocValues());
+                    eqQuery.rangeQuery(field, null, value, false, false, ref.hasDocValues(), isIndexSortedByRef);
             case LteOperator.NAME ->
-                    eqQuery.rangeQuery(field, null, value, false, true, ref.hasDocValues());
+                    eqQuery.rangeQuery(field, null, value, false, true, ref.hasDocValues(), isIndexSortedByRef);
             default -> throw new IllegalArgumentException(functionName + " is not a supported comparison operator");
         };
     }
 
+    @Override
+    public Query toQuery(Function function, LuceneQueryBuilder.Context context) {
+        List<Symbol> arguments = function.arguments();
+        if (arguments.get(0) instanceof Reference ref && arguments.get(1) instanceof Literal<?> literal) {
+            return CmpOperator.toQuery(
+                signature.getName().name(),
+                ref,
+                literal.value(),
+                context.isIndexSortedBy(ref.column())
+            );
+        }
+        return null;
+    }
+
     @Override
     public Query toQuery(Reference ref, Literal<?> literal) {
         return CmpOperator.toQuery(signature.getName().name(), ref, literal.value());
@@ -22,6 +22,8 @@
 package io.crate.expression.reference.doc.lucene;
 
 import io.crate.execution.engine.fetch.ReaderContext;
+import io.crate.server.xcontent.BinarySource;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.compress.CompressorFactory;
 
 import java.io.IOException;
@@ -49,7 +51,11 @@ public class RawCollectorExpression extends LuceneCollectorExpression<String> {
     @Override
     public String value() {
         try {
-            return CompressorFactory.uncompressIfNeeded(sourceLookup.rawSource()).utf8ToString();
+            BytesReference source = sourceLookup.rawSource();
+            if (BinarySource.isBinary(source)) {
+                return BinarySource.toJson(source).utf8ToString();
+            }
+            return CompressorFactory.uncompressIfNeeded(source).utf8ToString();
         } catch (IOException e) {
             throw new RuntimeException("Failed to uncompress source", e);
         }
@@ -27,7 +27,9 @@ import static org.elasticsearch.common.xcontent.XContentParser.Token.VALUE_NULL;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
@@ -38,6 +40,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.xcontent.DeprecationHandler;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.XContentParser;
@@ -53,6 +56,7 @@ import io.crate.metadata.DocReferences;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.doc.DocSysColumns;
+import io.crate.server.xcontent.BinarySource;
 import io.crate.server.xcontent.XContentHelper;
 import io.crate.sql.tree.BitString;
 import io.crate.types.ArrayType;
@@ -129,6 +133,9 @@ public final class SourceParser {
     }
 
     public Map<String, Object> parse(BytesReference bytes, boolean includeUnknownCols) {
+        if (BinarySource.isBinary(bytes)) {
+            return parseBinary(bytes, includeUnknownCols);
+        }
         try (InputStream inputStream = XContentHelper.getUncompressedInputStream(bytes)) {
             XContentParser parser = XContentType.JSON.xContent().createParser(
                 NamedXContentRegistry.EMPTY,
@@ -156,6 +163,167 @@ public final class SourceParser {
         return parse(bytes, false);
     }
 
+    private Map<String, Object> parseBinary(BytesReference bytes, boolean includeUnknownCols) {
+        try (StreamInput in = BinarySource.open(bytes)) {
+            byte tag = in.readByte();
+            assert tag == BinarySource.OBJECT : "Root of a binary source must be an object";
+            return parseBinaryObject(
+                in,
+                requiredColumns,
+                droppedColumns,
+                lookupNameBySourceKey,
+                new StringBuilder(),
+                includeUnknownCols
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Same as {@link #parseObject(XContentParser, Map, Set, Function, StringBuilder, boolean)} but for the
+     * {@link BinarySource} format. The values of columns which aren't required are skipped without decoding them.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, Object> parseBinaryObject(StreamInput in,
+                                                         @Nullable Map<String, Object> requiredColumns,
+                                                         Set<String> droppedColumns,
+                                                         Function<String, String> lookupNameBySourceKey,
+                                                         StringBuilder colPath,
+                                                         boolean includeUnknown) throws IOException {
+        boolean parseAllFields = requiredColumns == null || requiredColumns.isEmpty();
+        in.readInt(); // number of bytes, only needed to skip the object
+        int numEntries = in.readInt();
+        HashMap<String, Object> values = new HashMap<>();
+        for (int i = 0; i < numEntries; i++) {
+            String fieldName = lookupNameBySourceKey.apply(BinarySource.readKey(in));
+            boolean dropped = false;
+            if (droppedColumns.isEmpty() == false) {
+                String path = fieldName;
+                if (colPath.isEmpty() == false) {
+                    path = colPath + "." + fieldName;
+                }
+                dropped = droppedColumns.contains(path);
+            }
+
+            byte tag = in.readByte();
+            var required = requiredColumns == null ? null : requiredColumns.get(fieldName);
+            if ((parseAllFields == false && required == null && !includeUnknown) || dropped) {
+                BinarySource.skipValue(in, tag);
+            } else if (tag == BinarySource.ARRAY
+                && required instanceof DataType<?>
+                && !(required instanceof ArrayType<?>)
+                && !(required instanceof GeoPointType)
+                && !(required instanceof GeoShapeType)
+                && !(required instanceof FloatVectorType)
+                && !(required instanceof UndefinedType)) {
+                // due to a bug: https://github.com/crate/crate/issues/13990
+                BinarySource.skipValue(in, tag);
+                values.put(fieldName, null);
+            } else if (tag == BinarySource.NULL) {
+                values.put(fieldName, null);
+            } else {
+                var prevLength = appendToColPath(colPath, fieldName);
+
+                boolean currentTreeIncludeUnknown = false;
+                DataType<?> type = null;
+                if (required instanceof DataType<?> dataType) {
+                    type = dataType;
+                    required = null;
+                    if (dataType instanceof ObjectType objectType) {
+                        required = objectType.innerTypes();
+                        currentTreeIncludeUnknown = true;
+                    }
+                }
+
+                values.put(fieldName, parseBinaryValue(in, tag, type, (Map) required, droppedColumns,
+                        lookupNameBySourceKey, colPath, currentTreeIncludeUnknown));
+
+                colPath.delete(prevLength, colPath.length());
+            }
+        }
+        return values;
+    }
+
+    private static Object parseBinaryValue(StreamInput in,
+                                           byte tag,
+                                           @Nullable DataType<?> type,
+                                           @Nullable Map<String, Object> requiredColumns,
+                                           Set<String> droppedColumns,
+                                           Function<String, String> lookupNameBySourceKey,
+                                           StringBuilder colPath,
+                                           boolean includeUnknown) throws IOException {
+        switch (tag) {
+            case BinarySource.OBJECT:
+                return parseBinaryObject(in, requiredColumns, droppedColumns, lookupNameBySourceKey,
+                    colPath, includeUnknown);
+
+            case BinarySource.ARRAY:
+                if (type instanceof GeoPointType || type instanceof FloatVectorType) {
+                    return type.implicitCast(BinarySource.readValue(in, tag));
+                }
+                in.readInt(); // number of bytes
+                int numValues = in.readInt();
+                ArrayList<Object> values = new ArrayList<>(numValues);
+                while (type instanceof ArrayType) {
+                    type = ((ArrayType<?>) type).innerType();
+                }
+                for (int i = 0; i < numValues; i++) {
+                    values.add(parseBinaryValue(in, in.readByte(), type, requiredColumns, droppedColumns,
+                        lookupNameBySourceKey, colPath, false));
+                }
+                return values;
+
+            default:
+                Object value = BinarySource.readValue(in, tag);
+                if (value == null) {
+                    return null;
+                }
+                return type == null ? untypedValue(value) : convertByType(value, type);
+        }
+    }
+
+    /**
+     * Returns the same value a JSON parser would return for the value written as JSON
+     */
+    private static Object untypedValue(Object value) {
+        if (value instanceof Long l && l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE) {
+            return l.intValue();
+        } else if (value instanceof Float f) {
+            return Double.parseDouble(f.toString());
+        } else if (value instanceof byte[] bytes) {
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+        return value;
+    }
+
+    /**
+     * Same as {@link #parseByType(XContentParser, DataType)} for values of a {@link BinarySource}
+     */
+    private static Object convertByType(Object value, DataType<?> type) {
+        var elementType = ArrayType.unnest(type);
+        return switch (elementType.id()) {
+            case BooleanType.ID -> value instanceof Boolean ? value : Boolean.parseBoolean(value.toString());
+            case ByteType.ID -> toNumber(value).byteValue();
+            case ShortType.ID -> toNumber(value).shortValue();
+            case IntegerType.ID -> toNumber(value).intValue();
+            case LongType.ID -> toNumber(value).longValue();
+            case TimestampType.ID_WITH_TZ -> toNumber(value).longValue();
+            case TimestampType.ID_WITHOUT_TZ -> toNumber(value).longValue();
+            case FloatType.ID -> toNumber(value).floatValue();
+            case DoubleType.ID -> toNumber(value).doubleValue();
+            case BitStringType.ID -> new BitString(
+                BitSet.valueOf(value instanceof byte[] bytes ? bytes : Base64.getDecoder().decode(value.toString())),
+                ((BitStringType) elementType).length()
+            );
+            default -> value instanceof byte[] bytes ? Base64.getEncoder().encodeToString(bytes) : value.toString();
+        };
+    }
+
+    private static Number toNumber(Object value) {
+        return value instanceof Number number ? number : new BigDecimal(value.toString());
+    }
+
     private static Object parseArray(XContentParser parser,
                                      @Nullable DataType<?> type,
                                      @Nullable Map<String, Object> requiredColumns,
@@ -177,7 +177,10 @@ public class DateTruncFunction extends Scalar<Long, Object> {
         return truncate(tzRounding, DataTypes.TIMESTAMPZ.sanitizeValue(value));
     }
 
-    private Rounding rounding(String interval, String timeZoneString) {
+    /**
+     * Returns the rounding used to truncate timestamps in milliseconds down to the given <code>interval</code>.
+     */
+    public static Rounding rounding(String interval, String timeZoneString) {
         DateTimeUnit intervalAsUnit = intervalAsUnit(interval);
         DateTimeZone timeZone = TimeZoneParser.parseTimeZone(timeZoneString);
 
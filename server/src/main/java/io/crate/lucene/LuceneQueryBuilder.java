@@ -41,6 +41,7 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.query.QueryShardContext;
@@ -218,6 +219,16 @@ public class LuceneQueryBuilder {
         public Reference getRef(ColumnIdent column) {
             return table.getReadReference(column);
         }
+
+        /**
+         * @return true if the documents of the index are sorted by the given column first.
+         *         See {@link IndexSortConfig}
+         */
+        public boolean isIndexSortedBy(ColumnIdent column) {
+            List<IndexSortConfig.SortColumn> sortColumns =
+                IndexSortConfig.sortColumns(mapperService.getIndexSettings().getSettings());
+            return !sortColumns.isEmpty() && sortColumns.get(0).columnIdent().equals(column);
+        }
     }
 
 
@@ -26,7 +26,9 @@ import static org.elasticsearch.cluster.routing.OperationRouting.calculateScaled
 import static org.elasticsearch.cluster.routing.OperationRouting.generateShardId;
 import static org.elasticsearch.cluster.routing.OperationRouting.indexMetadata;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -42,6 +44,7 @@ import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.IndexRoutingTable;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
+import org.elasticsearch.cluster.routing.PlainShardIterator;
 import org.elasticsearch.cluster.routing.ShardIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
@@ -53,13 +56,19 @@ import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntIndexedContainer;
 
 import io.crate.exceptions.UnavailableShardsException;
+import io.crate.execution.engine.collect.stats.NodeResponseStats;
 
 /**
  * This component can be used to get the Routing for indices.
  *
  * {@link #forIndices(ClusterState, String[], Map, boolean, ShardSelection)} and
  * {@link #forIndices(ClusterState, String[], Map, boolean, ShardSelection)}
- * will always return the same results for the same arguments, because {@code random} is used to fixate a seed.
+ * will always return the same results for the same arguments, because {@code random} is used to fixate a seed,
+ * unless adaptive replica selection is used.
+ *
+ * With adaptive replica selection the copy of a shard on the node with the best rank is used, see
+ * {@link NodeResponseStats}. It's only used without awareness attributes, like in
+ * {@link org.elasticsearch.cluster.routing.OperationRouting}.
  *
  * The implementation is similar to {@link org.elasticsearch.cluster.routing.OperationRouting}.
  */
@@ -67,6 +76,8 @@ public final class RoutingProvider {
 
     private final int seed;
     private final List<String> awarenessAttributes;
+    @Nullable
+    private final NodeResponseStats nodeResponseStats;
 
     public enum ShardSelection {
         ANY,
@@ -81,8 +92,18 @@ public final class RoutingProvider {
      *                   across different (replica) shards
      */
     public RoutingProvider(int randomSeed, List<String> awarenessAttributes) {
+        this(randomSeed, awarenessAttributes, null);
+    }
+
+    /**
+     * @param nodeResponseStats statistics used to rank the copies of a shard. If null, a random copy is used.
+     */
+    public RoutingProvider(int randomSeed,
+                           List<String> awarenessAttributes,
+                           @Nullable NodeResponseStats nodeResponseStats) {
         this.awarenessAttributes = awarenessAttributes;
         this.seed = randomSeed;
+        this.nodeResponseStats = nodeResponseStats;
     }
 
     public Routing forRandomMasterOrDataNode(RelationName relationName, DiscoveryNodes nodes) {
@@ -110,7 +131,8 @@ public final class RoutingProvider {
         IndexShardRoutingTable routingTable = state.routingTable().shardRoutingTable(shardId);
         ShardRouting shardRouting;
         if (awarenessAttributes.isEmpty()) {
-            shardRouting = routingTable.activeInitializingShardsIt(seed).nextOrNull();
+            shardRouting = rankShards(routingTable.activeInitializingShardsIt(seed), rankableNodes(), new HashMap<>())
+                .nextOrNull();
         } else {
             shardRouting = routingTable
                 .preferAttributesActiveInitializingShardsIt(awarenessAttributes, state.nodes(), seed)
@@ -132,13 +154,17 @@ public final class RoutingProvider {
             return new Routing(Collections.emptyMap());
         }
         Map<String, Map<String, IntIndexedContainer>> locations = new TreeMap<>();
+        Map<String, NodeResponseStats.NodeEntry.Snapshot> rankableNodes = shardSelection == ShardSelection.ANY
+            ? rankableNodes()
+            : Map.of();
+        HashMap<String, Integer> selectedCopiesByNode = new HashMap<>();
 
         for (IndexShardRoutingTable shard : shards) {
             final ShardIterator shardIt;
             switch (shardSelection) {
                 case ANY:
                     if (awarenessAttributes.isEmpty()) {
-                        shardIt = shard.activeInitializingShardsIt(seed);
+                        shardIt = rankShards(shard.activeInitializingShardsIt(seed), rankableNodes, selectedCopiesByNode);
                     } else {
                         shardIt = shard.preferAttributesActiveInitializingShardsIt(
                             awarenessAttributes, state.nodes(), seed);
@@ -158,6 +184,58 @@ public final class RoutingProvider {
         return new Routing(locations);
     }
 
+    private Map<String, NodeResponseStats.NodeEntry.Snapshot> rankableNodes() {
+        if (nodeResponseStats == null || !nodeResponseStats.isEnabled() || !awarenessAttributes.isEmpty()) {
+            return Map.of();
+        }
+        return nodeResponseStats.rankableSnapshots();
+    }
+
+    /**
+     * Moves the active copy on the node with the best rank to the front.
+     * The copies selected before on a node are added to its outstanding requests, so that the shards of a relation
+     * are spread across nodes with similar ranks.
+     *
+     * Initializing copies can't serve reads yet, they are not ranked and stay behind the active copies.
+     * If an active copy is on a node without statistics, the order of the copies is kept.
+     */
+    private static ShardIterator rankShards(ShardIterator shardIt,
+                                            Map<String, NodeResponseStats.NodeEntry.Snapshot> rankableNodes,
+                                            Map<String, Integer> selectedCopiesByNode) {
+        if (rankableNodes.isEmpty() || shardIt.size() <= 1) {
+            return shardIt;
+        }
+        ArrayList<ShardRouting> copies = new ArrayList<>(shardIt.size());
+        ArrayList<ShardRouting> initializingCopies = new ArrayList<>();
+        boolean allRankable = true;
+        int bestIdx = 0;
+        double bestRank = Double.MAX_VALUE;
+        ShardRouting copy;
+        while ((copy = shardIt.nextOrNull()) != null) {
+            if (!copy.active()) {
+                initializingCopies.add(copy);
+                continue;
+            }
+            NodeResponseStats.NodeEntry.Snapshot nodeStats = rankableNodes.get(copy.currentNodeId());
+            if (nodeStats == null) {
+                allRankable = false;
+            } else {
+                double rank = nodeStats.rank(selectedCopiesByNode.getOrDefault(copy.currentNodeId(), 0));
+                if (rank < bestRank) {
+                    bestRank = rank;
+                    bestIdx = copies.size();
+                }
+            }
+            copies.add(copy);
+        }
+        if (allRankable && copies.size() > 1) {
+            copies.add(0, copies.remove(bestIdx));
+        }
+        copies.addAll(initializingCopies);
+        selectedCopiesByNode.merge(copies.get(0).currentNodeId(), 1, Integer::sum);
+        return new PlainShardIterator(shardIt.shardId(), copies);
+    }
+
     private static void fillLocationsFromShardIterator(boolean ignoreMissingShards,
                                                        Map<String, Map<String, IntIndexedContainer>> locations,
                                                        ShardIterator shardIterator) {
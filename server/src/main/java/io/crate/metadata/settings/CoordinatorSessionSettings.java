@@ -47,6 +47,7 @@ public class CoordinatorSessionSettings extends SessionSettings {
     private String applicationName;
     private String dateStyle;
     private TimeValue statementTimeout;
+    private boolean materializedViewRewriteEnabled;
 
     public CoordinatorSessionSettings(User authenticatedUser, String ... searchPath) {
         this(authenticatedUser, authenticatedUser, searchPath);
@@ -146,4 +147,13 @@ public class CoordinatorSessionSettings extends SessionSettings {
     public void memoryLimit(int memoryLimit) {
         this.memoryLimit = memoryLimit;
     }
+
+    @Override
+    public boolean materializedViewRewriteEnabled() {
+        return materializedViewRewriteEnabled;
+    }
+
+    public void setMaterializedViewRewriteEnabled(boolean newValue) {
+        materializedViewRewriteEnabled = newValue;
+    }
 }
@@ -53,6 +53,7 @@ public class SessionSettingRegistry {
 
     private static final String SEARCH_PATH_KEY = "search_path";
     public static final String HASH_JOIN_KEY = "enable_hashjoin";
+    static final String MATERIALIZED_VIEW_REWRITE_KEY = "enable_materialized_view_rewrite";
     static final String MAX_INDEX_KEYS = "max_index_keys";
     static final String MAX_IDENTIFIER_LENGTH = "max_identifier_length";
     static final String SERVER_VERSION_NUM = "server_version_num";
@@ -150,6 +151,20 @@ public class SessionSettingRegistry {
                      () -> String.valueOf(true),
                      "Considers using the Hash Join instead of the Nested Loop Join implementation.",
                      DataTypes.BOOLEAN))
+            .put(MATERIALIZED_VIEW_REWRITE_KEY,
+                 new SessionSetting<>(
+                     MATERIALIZED_VIEW_REWRITE_KEY,
+                     objects -> {
+                         if (objects.length != 1) {
+                             throw new IllegalArgumentException(MATERIALIZED_VIEW_REWRITE_KEY + " should have only one argument.");
+                         }
+                     },
+                     objects -> DataTypes.BOOLEAN.implicitCast(objects[0]),
+                     CoordinatorSessionSettings::setMaterializedViewRewriteEnabled,
+                     s -> Boolean.toString(s.materializedViewRewriteEnabled()),
+                     () -> String.valueOf(false),
+                     "Answers matching queries from materialized views, which may not contain the latest changes.",
+                     DataTypes.BOOLEAN))
             .put(MAX_INDEX_KEYS,
                  new SessionSetting<>(
                      MAX_INDEX_KEYS,
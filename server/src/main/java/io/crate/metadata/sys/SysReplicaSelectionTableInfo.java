@@ -0,0 +1,59 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.metadata.sys;
+
+import static io.crate.types.DataTypes.DOUBLE;
+import static io.crate.types.DataTypes.INTEGER;
+import static io.crate.types.DataTypes.STRING;
+
+import java.util.function.Supplier;
+
+import org.elasticsearch.cluster.node.DiscoveryNode;
+
+import io.crate.execution.engine.collect.stats.NodeResponseStats.NodeEntry;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Routing;
+import io.crate.metadata.SystemTable;
+
+public class SysReplicaSelectionTableInfo {
+
+    public static final RelationName IDENT = new RelationName(SysSchemaInfo.NAME, "replica_selection");
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    public static SystemTable<NodeEntry.Snapshot> create(Supplier<DiscoveryNode> localNode) {
+        return SystemTable.<NodeEntry.Snapshot>builder(IDENT)
+            .add("target_node_id", STRING, NodeEntry.Snapshot::nodeId)
+            .add("response_time", DOUBLE, x -> x.responseTimeNanos() / NANOS_PER_MILLI)
+            .add("service_time", DOUBLE, x -> x.serviceTimeNanos() / NANOS_PER_MILLI)
+            .add("queue_size", DOUBLE, NodeEntry.Snapshot::queueSize)
+            .add("outstanding_requests", INTEGER, NodeEntry.Snapshot::outstandingRequests)
+            .add("rank", DOUBLE, x -> x.rank() / NANOS_PER_MILLI)
+            .startObject("node")
+                .add("id", STRING, ignored -> localNode.get().getId())
+                .add("name", STRING, ignored -> localNode.get().getName())
+            .endObject()
+            .withRouting((state, routingProvider, sessionSettings) -> Routing.forTableOnAllNodes(IDENT, state.nodes()))
+            .build();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+
+package io.crate.metadata.sys;
+
+import static io.crate.types.DataTypes.LONG;
+import static io.crate.types.DataTypes.STRING;
+
+import java.util.function.Supplier;
+
+import org.elasticsearch.cluster.node.DiscoveryNode;
+
+import io.crate.execution.engine.collect.ShardResultCache;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Routing;
+import io.crate.metadata.SystemTable;
+
+public class SysShardResultCacheTableInfo {
+
+    public static final RelationName IDENT = new RelationName(SysSchemaInfo.NAME, "shard_result_cache");
+
+    public static SystemTable<ShardResultCache> create(Supplier<DiscoveryNode> localNode) {
+        return SystemTable.<ShardResultCache>builder(IDENT)
+            .add("size", LONG, ShardResultCache::size)
+            .add("size_in_bytes", LONG, ShardResultCache::sizeInBytes)
+            .add("max_size_in_bytes", LONG, ShardResultCache::maxSizeInBytes)
+            .add("hits", LONG, ShardResultCache::hits)
+            .add("misses", LONG, ShardResultCache::misses)
+            .add("evictions", LONG, ShardResultCache::evictions)
+            .add("invalidations", LONG, ShardResultCache::invalidations)
+            .startObject("node")
+                .add("id", STRING, ignored -> localNode.get().getId())
+                .add("name", STRING, ignored -> localNode.get().getName())
+            .endObject()
+            .withRouting((state, routingProvider, sessionSettings) -> Routing.forTableOnAllNodes(IDENT, state.nodes()))
+            .build();
+    }
+}
@@ -25,6 +25,7 @@ import static java.util.concurrent.CompletableFuture.completedFuture;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -36,8 +37,10 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.repositories.RepositoriesService;
 
+import io.crate.execution.engine.collect.ShardResultCache;
 import io.crate.execution.engine.collect.files.SummitsIterable;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.collect.stats.NodeResponseStats;
 import io.crate.expression.reference.StaticTableDefinition;
 import io.crate.expression.reference.sys.check.SysCheck;
 import io.crate.expression.reference.sys.check.SysChecker;
@@ -47,6 +50,7 @@ import io.crate.expression.reference.sys.shard.SysAllocations;
 import io.crate.expression.reference.sys.snapshot.SysSnapshots;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.SystemTable;
+import io.crate.planner.PlanCache;
 import io.crate.user.Privilege;
 import io.crate.user.Privilege.Clazz;
 import io.crate.user.Privilege.Type;
@@ -64,7 +68,10 @@ public class SysTableDefinitions {
                                RepositoriesService repositoriesService,
                                SysSnapshots sysSnapshots,
                                SysAllocations sysAllocations,
-                               ShardSegments shardSegmentInfos) {
+                               ShardSegments shardSegmentInfos,
+                               PlanCache planCache,
+                               ShardResultCache shardResultCache,
+                               NodeResponseStats nodeResponseStats) {
         Supplier<DiscoveryNode> localNode = clusterService::localNode;
         var sysClusterTableInfo = (SystemTable<Void>) sysSchemaInfo.getTableInfo(SysClusterTableInfo.IDENT.name());
         assert sysClusterTableInfo != null : "sys.cluster table must exist in sys schema";
@@ -154,10 +161,22 @@ public class SysTableDefinitions {
             () -> completedFuture(jobsLogs.metrics()),
             SysMetricsTableInfo.create(localNode).expressions(),
             false));
+        tableDefinitions.put(SysPlanCacheTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(List.of(planCache)),
+            SysPlanCacheTableInfo.create(localNode).expressions(),
+            false));
         tableDefinitions.put(SysSegmentsTableInfo.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(shardSegmentInfos),
             SysSegmentsTableInfo.create(clusterService::localNode).expressions(),
             true));
+        tableDefinitions.put(SysShardResultCacheTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(List.of(shardResultCache)),
+            SysShardResultCacheTableInfo.create(localNode).expressions(),
+            false));
+        tableDefinitions.put(SysReplicaSelectionTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(nodeResponseStats.snapshots()),
+            SysReplicaSelectionTableInfo.create(localNode).expressions(),
+            false));
     }
 
     public StaticTableDefinition<?> get(RelationName relationName) {
@@ -27,10 +27,14 @@ import io.crate.execution.ddl.RepositoryService;
 import io.crate.execution.ddl.TransportSwapRelationsAction;
 import io.crate.execution.ddl.tables.AlterTableOperation;
 import io.crate.execution.ddl.tables.TransportDropTableAction;
+import io.crate.execution.ddl.views.RefreshMaterializedViewOperation;
 import io.crate.execution.ddl.views.TransportCreateViewAction;
 import io.crate.execution.ddl.views.TransportDropViewAction;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.PhasesTaskFactory;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
+import io.crate.execution.engine.collect.stats.NodeResponseStats;
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.expression.udf.TransportCreateUserDefinedFunctionAction;
 import io.crate.expression.udf.TransportDropUserDefinedFunctionAction;
@@ -80,6 +84,10 @@ public class DependencyCarrier {
     private final TransportDropUserDefinedFunctionAction dropFunctionAction;
     private final Provider<TransportAnalyzeAction> analyzeAction;
     private final AlterTableOperation alterTableOperation;
+    private final RefreshMaterializedViewOperation refreshMaterializedViewOperation;
+    private final NodeResponseStats nodeResponseStats;
+    private final StdinFileInputFactory stdinFileInputFactory;
+    private final StdoutFileOutputFactory stdoutFileOutputFactory;
     private final FulltextAnalyzerResolver fulltextAnalyzerResolver;
     private final RepositoryService repositoryService;
     private final RepositoryParamValidator repositoryParamValidator;
@@ -112,6 +120,7 @@ public class DependencyCarrier {
                              TransportDropUserDefinedFunctionAction dropFunctionAction,
                              Provider<TransportAnalyzeAction> analyzeAction,
                              AlterTableOperation alterTableOperation,
+                             RefreshMaterializedViewOperation refreshMaterializedViewOperation,
                              FulltextAnalyzerResolver fulltextAnalyzerResolver,
                              RepositoryService repositoryService,
                              RepositoryParamValidator repositoryParamValidator,
@@ -119,7 +128,10 @@ public class DependencyCarrier {
                              TransportDropPublicationAction dropPublicationAction,
                              TransportAlterPublicationAction alterPublicationAction,
                              TransportCreateSubscriptionAction createSubscriptionAction,
-                             LogicalReplicationService logicalReplicationService) {
+                             LogicalReplicationService logicalReplicationService,
+                             NodeResponseStats nodeResponseStats,
+                             StdinFileInputFactory stdinFileInputFactory,
+                             StdoutFileOutputFactory stdoutFileOutputFactory) {
         this.settings = settings;
         this.client = node.client();
         this.phasesTaskFactory = phasesTaskFactory;
@@ -140,6 +152,7 @@ public class DependencyCarrier {
         this.dropFunctionAction = dropFunctionAction;
         this.analyzeAction = analyzeAction;
         this.alterTableOperation = alterTableOperation;
+        this.refreshMaterializedViewOperation = refreshMaterializedViewOperation;
         this.fulltextAnalyzerResolver = fulltextAnalyzerResolver;
         this.repositoryService = repositoryService;
         this.repositoryParamValidator = repositoryParamValidator;
@@ -148,6 +161,9 @@ public class DependencyCarrier {
         this.alterPublicationAction = alterPublicationAction;
         this.createSubscriptionAction = createSubscriptionAction;
         this.logicalReplicationService = logicalReplicationService;
+        this.nodeResponseStats = nodeResponseStats;
+        this.stdinFileInputFactory = stdinFileInputFactory;
+        this.stdoutFileOutputFactory = stdoutFileOutputFactory;
     }
 
     public Schemas schemas() {
@@ -226,6 +242,22 @@ public class DependencyCarrier {
         return alterTableOperation;
     }
 
+    public RefreshMaterializedViewOperation refreshMaterializedViewOperation() {
+        return refreshMaterializedViewOperation;
+    }
+
+    public NodeResponseStats nodeResponseStats() {
+        return nodeResponseStats;
+    }
+
+    public StdinFileInputFactory stdinFileInputFactory() {
+        return stdinFileInputFactory;
+    }
+
+    public StdoutFileOutputFactory stdoutFileOutputFactory() {
+        return stdoutFileOutputFactory;
+    }
+
     public RepositoryParamValidator repositoryParamValidator() {
         return repositoryParamValidator;
     }
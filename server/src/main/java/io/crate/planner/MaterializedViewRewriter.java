@@ -0,0 +1,274 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.ParamTypeHints;
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.analyze.relations.RelationAnalyzer;
+import io.crate.exceptions.RelationUnknown;
+import io.crate.execution.ddl.views.MaterializedViewSettings;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.symbol.AliasSymbol;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.FunctionCopyVisitor;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.expression.symbol.Symbols;
+import io.crate.expression.symbol.WindowFunction;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.FunctionType;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.operators.Filter;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Query;
+import io.crate.user.Privilege;
+import io.crate.user.User;
+
+/**
+ * Answers a query from a materialized view if the view holds exactly the groups the query computes.
+ *
+ * <p>
+ * A query matches a view if both group the same table by the same keys, the filter of the query contains all
+ * conditions of the filter of the view, and all other parts of the query can be computed from the columns of the
+ * view. Such a query is answered by reading the rows of the view:
+ * </p>
+ *
+ * <pre>
+ *     CREATE MATERIALIZED VIEW mv AS SELECT k, sum(x) AS total FROM t GROUP BY k
+ *
+ *     SELECT k, sum(x) FROM t WHERE k > 10 GROUP BY k HAVING sum(x) > 100
+ *      -> SELECT k, total AS "sum(x)" FROM mv WHERE k > 10 AND total > 100
+ * </pre>
+ *
+ * Only views which can be refreshed incrementally, see {@link MaterializedViewSettings#SOURCE}, are considered.
+ * The view only contains the rows of the source as of its last refresh, so the rewrite is only done if enabled
+ * with the {@code enable_materialized_view_rewrite} session setting.
+ */
+final class MaterializedViewRewriter {
+
+    private final RelationAnalyzer relationAnalyzer;
+    private final Schemas schemas;
+
+    MaterializedViewRewriter(RelationAnalyzer relationAnalyzer, Schemas schemas) {
+        this.relationAnalyzer = relationAnalyzer;
+        this.schemas = schemas;
+    }
+
+    /**
+     * @return a relation reading from a materialized view or the given relation if there is no matching view
+     */
+    AnalyzedRelation rewrite(AnalyzedRelation relation, CoordinatorTxnCtx txnCtx, ClusterState state) {
+        if (!(relation instanceof QueriedSelectRelation select)
+            || select.from().size() != 1
+            || !(select.from().get(0) instanceof DocTableRelation source)
+            || select.groupBy().isEmpty()) {
+            return relation;
+        }
+        CoordinatorSessionSettings sessionSettings = txnCtx.sessionSettings();
+        User user = sessionSettings.sessionUser();
+        String sourceIndex = source.tableInfo().ident().indexNameOrAlias();
+        for (IndexMetadata indexMetadata : state.metadata()) {
+            Settings settings = indexMetadata.getSettings();
+            if (!sourceIndex.equals(MaterializedViewSettings.SOURCE.get(settings))) {
+                continue;
+            }
+            RelationName viewName = RelationName.fromIndexName(indexMetadata.getIndex().getName());
+            if (!user.hasPrivilege(Privilege.Type.DQL, Privilege.Clazz.TABLE, viewName.fqn(), sessionSettings.currentSchema())) {
+                continue;
+            }
+            DocTableInfo view;
+            try {
+                view = schemas.getTableInfo(viewName);
+            } catch (RelationUnknown e) {
+                continue;
+            }
+            AnalyzedRelation rewritten = rewrite(select, source, view, settings, sessionSettings);
+            if (rewritten != null) {
+                return rewritten;
+            }
+        }
+        return relation;
+    }
+
+    @Nullable
+    private AnalyzedRelation rewrite(QueriedSelectRelation select,
+                                     DocTableRelation source,
+                                     DocTableInfo view,
+                                     Settings settings,
+                                     CoordinatorSessionSettings sessionSettings) {
+        var viewSessionSettings = new CoordinatorSessionSettings(
+            sessionSettings.authenticatedUser(),
+            sessionSettings.sessionUser(),
+            MaterializedViewSettings.SCHEMA.get(settings)
+        );
+        AnalyzedRelation viewQuery;
+        try {
+            viewQuery = relationAnalyzer.analyze(
+                (Query) SqlParser.createStatement(MaterializedViewSettings.QUERY.get(settings)),
+                new CoordinatorTxnCtx(viewSessionSettings),
+                ParamTypeHints.EMPTY
+            );
+        } catch (RuntimeException e) {
+            // The query of the view may not be valid anymore, e.g. if columns of the source were dropped
+            return null;
+        }
+        if (!(viewQuery instanceof QueriedSelectRelation viewSelect)
+            || viewSelect.from().size() != 1
+            || !(viewSelect.from().get(0) instanceof DocTableRelation viewSource)
+            || !viewSource.tableInfo().ident().equals(source.tableInfo().ident())
+            || viewSelect.isDistinct()
+            || viewSelect.having() != null
+            || !new HashSet<>(viewSelect.groupBy()).equals(new HashSet<>(select.groupBy()))) {
+            return null;
+        }
+
+        // Each row of the view is one group, expressions computed by the view are replaced by its columns
+        Map<Symbol, Symbol> viewColumns = new HashMap<>();
+        for (Symbol output : viewSelect.outputs()) {
+            Reference column = view.getReference(new ColumnIdent(Symbols.pathFromSymbol(output).sqlFqn()));
+            if (column == null) {
+                return null;
+            }
+            Symbol unaliased = output instanceof AliasSymbol alias ? alias.symbol() : output;
+            viewColumns.putIfAbsent(unaliased, column);
+        }
+
+        // The view must not filter out rows the query needs, additional conditions of the query are applied
+        // to the rows of the view
+        List<Symbol> queryConditions = AndOperator.split(select.where());
+        List<Symbol> viewConditions = AndOperator.split(viewSelect.where());
+        for (Symbol viewCondition : viewConditions) {
+            if (!Filter.isMatchAll(viewCondition) && !queryConditions.contains(viewCondition)) {
+                return null;
+            }
+        }
+        List<Symbol> conditions = new ArrayList<>();
+        for (Symbol condition : queryConditions) {
+            if (!viewConditions.contains(condition) && !Filter.isMatchAll(condition)) {
+                conditions.add(condition);
+            }
+        }
+        if (select.having() != null) {
+            conditions.add(select.having());
+        }
+
+        List<Symbol> outputs = new ArrayList<>(select.outputs().size());
+        for (Symbol output : select.outputs()) {
+            Symbol mapped = mapToView(output, viewColumns, source);
+            if (mapped == null) {
+                return null;
+            }
+            String outputName = Symbols.pathFromSymbol(output).sqlFqn();
+            if (!mapped.valueType().equals(output.valueType())) {
+                mapped = mapped.cast(output.valueType());
+            }
+            if (!Symbols.pathFromSymbol(mapped).sqlFqn().equals(outputName)) {
+                mapped = new AliasSymbol(outputName, mapped);
+            }
+            outputs.add(mapped);
+        }
+        List<Symbol> where = new ArrayList<>(conditions.size());
+        for (Symbol condition : conditions) {
+            Symbol mapped = mapToView(condition, viewColumns, source);
+            if (mapped == null) {
+                return null;
+            }
+            where.add(mapped);
+        }
+        OrderBy orderBy = select.orderBy();
+        if (orderBy != null) {
+            List<Symbol> orderBySymbols = new ArrayList<>(orderBy.orderBySymbols().size());
+            for (Symbol orderBySymbol : orderBy.orderBySymbols()) {
+                Symbol mapped = mapToView(orderBySymbol, viewColumns, source);
+                if (mapped == null) {
+                    return null;
+                }
+                orderBySymbols.add(mapped);
+            }
+            orderBy = new OrderBy(orderBySymbols, orderBy.reverseFlags(), orderBy.nullsFirst());
+        }
+        return new QueriedSelectRelation(
+            select.isDistinct(),
+            List.of(new DocTableRelation(view)),
+            List.of(),
+            outputs,
+            AndOperator.join(where),
+            List.of(),
+            null,
+            orderBy,
+            select.limit(),
+            select.offset()
+        );
+    }
+
+    /**
+     * @return the symbol computed from the columns of the view or null if it still needs the rows of the source
+     */
+    @Nullable
+    private static Symbol mapToView(Symbol symbol, Map<Symbol, Symbol> viewColumns, DocTableRelation source) {
+        Symbol mapped = symbol.accept(ViewColumnMapper.INSTANCE, viewColumns);
+        RelationName sourceName = source.relationName();
+        boolean needsSource = SymbolVisitors.any(
+            s -> s instanceof Reference ref && ref.ident().tableIdent().equals(sourceName)
+                || s instanceof WindowFunction
+                || s instanceof Function fn && fn.signature().getKind() == FunctionType.AGGREGATE,
+            mapped
+        );
+        return needsSource ? null : mapped;
+    }
+
+    private static final class ViewColumnMapper extends FunctionCopyVisitor<Map<Symbol, Symbol>> {
+
+        private static final ViewColumnMapper INSTANCE = new ViewColumnMapper();
+
+        @Override
+        public Symbol visitFunction(Function func, Map<Symbol, Symbol> viewColumns) {
+            Symbol column = viewColumns.get(func);
+            return column == null ? super.visitFunction(func, viewColumns) : column;
+        }
+
+        @Override
+        public Symbol visitReference(Reference ref, Map<Symbol, Symbol> viewColumns) {
+            return viewColumns.getOrDefault(ref, ref);
+        }
+    }
+}
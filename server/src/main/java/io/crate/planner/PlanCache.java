@@ -0,0 +1,402 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.jetbrains.annotations.Nullable;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.metadata.FunctionName;
+import io.crate.metadata.FunctionProvider;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.SearchPath;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.Rule;
+import io.crate.sql.tree.AllColumns;
+import io.crate.sql.tree.ArrayComparisonExpression;
+import io.crate.sql.tree.ArrayLiteral;
+import io.crate.sql.tree.DefaultTraversalVisitor;
+import io.crate.sql.tree.ExistsPredicate;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.FrameBound;
+import io.crate.sql.tree.FunctionCall;
+import io.crate.sql.tree.Literal;
+import io.crate.sql.tree.Node;
+import io.crate.sql.tree.ObjectLiteral;
+import io.crate.sql.tree.ParameterExpression;
+import io.crate.sql.tree.QualifiedNameReference;
+import io.crate.sql.tree.Query;
+import io.crate.sql.tree.QuerySpecification;
+import io.crate.sql.tree.SortItem;
+import io.crate.sql.tree.Statement;
+import io.crate.sql.tree.SubscriptExpression;
+import io.crate.sql.tree.Table;
+import io.crate.sql.tree.Window;
+import io.crate.sql.tree.WithQuery;
+import io.crate.types.DataType;
+
+/**
+ * Node-wide cache of optimized {@link LogicalPlan}s of SELECT statements.
+ * <p>
+ * Plans are keyed by the parsed statement, the parameter types, the session settings which influence
+ * analysis and planning, the version of the cluster metadata and the version of the table statistics.
+ * The cache is cleared if the metadata changes, e.g. due to DDL statements. Plans created with outdated
+ * table statistics, e.g. before an {@code ANALYZE}, are no longer looked up and eventually evicted.
+ * </p>
+ * <p>
+ * Parameters, sub-query results and routing are only bound once a plan is executed, so a cached plan can be
+ * re-used for different parameters. Statements using functions which are not deterministic (e.g.
+ * {@code CURRENT_TIMESTAMP} which is evaluated during analysis) or user defined functions are never cached.
+ * </p>
+ */
+@Singleton
+public class PlanCache implements ClusterStateListener {
+
+    public static final Setting<Integer> PLAN_CACHE_SIZE = Setting.intSetting(
+        "node.sql.plan_cache.size",
+        1000,
+        0,
+        Setting.Property.NodeScope
+    );
+
+    private final NodeContext nodeCtx;
+    private final int maxSize;
+    @Nullable
+    private final Cache<Key, LogicalPlan> cache;
+    private final LongAdder invalidations = new LongAdder();
+
+    @Inject
+    public PlanCache(Settings settings, ClusterService clusterService, NodeContext nodeCtx) {
+        this(PLAN_CACHE_SIZE.get(settings), nodeCtx);
+        if (cache != null) {
+            clusterService.addListener(this);
+        }
+    }
+
+    @VisibleForTesting
+    public PlanCache(int maxSize, NodeContext nodeCtx) {
+        this.nodeCtx = nodeCtx;
+        this.maxSize = maxSize;
+        this.cache = maxSize == 0
+            ? null
+            : Caffeine.newBuilder()
+                .executor(Runnable::run)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a cached plan for the statement or creates a new one using {@code planner}
+     */
+    public Plan plan(Planner planner,
+                     Statement statement,
+                     List<? extends DataType<?>> parameterTypes,
+                     AnalyzedStatement analyzedStatement,
+                     PlannerContext plannerContext) {
+        if (cache == null
+            || !(analyzedStatement instanceof AnalyzedRelation)
+            || analyzedStatement.isWriteOperation()
+            || !isCacheable(statement, plannerContext.transactionContext().sessionSettings().searchPath())) {
+            return planner.plan(analyzedStatement, plannerContext);
+        }
+        Key key = new Key(
+            statement,
+            List.copyOf(parameterTypes),
+            plannerContext.transactionContext().sessionSettings(),
+            plannerContext.clusterState().metadata().version(),
+            plannerContext.planStats().tableStatsVersion()
+        );
+        LogicalPlan plan = cache.getIfPresent(key);
+        if (plan == null) {
+            Plan newPlan = planner.plan(analyzedStatement, plannerContext);
+            if (newPlan instanceof LogicalPlan logicalPlan) {
+                cache.put(key, logicalPlan);
+            }
+            return newPlan;
+        }
+        return plan;
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.metadataChanged() && cache != null && cache.estimatedSize() > 0) {
+            cache.invalidateAll();
+            invalidations.increment();
+        }
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hits() {
+        return cache == null ? 0 : cache.stats().hitCount();
+    }
+
+    public long misses() {
+        return cache == null ? 0 : cache.stats().missCount();
+    }
+
+    public long evictions() {
+        return cache == null ? 0 : cache.stats().evictionCount();
+    }
+
+    /**
+     * @return how often the cache has been cleared because the cluster metadata changed
+     */
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    private boolean isCacheable(Statement statement, SearchPath searchPath) {
+        CacheableStatementVisitor visitor = new CacheableStatementVisitor(nodeCtx, searchPath);
+        statement.accept(visitor, null);
+        return visitor.cacheable;
+    }
+
+    private record Key(Statement statement,
+                       List<DataType<?>> parameterTypes,
+                       String userName,
+                       SearchPath searchPath,
+                       boolean hashJoinsEnabled,
+                       boolean errorOnUnknownObjectKey,
+                       boolean materializedViewRewriteEnabled,
+                       Set<Class<? extends Rule<?>>> excludedOptimizerRules,
+                       long metadataVersion,
+                       long tableStatsVersion) {
+
+        Key(Statement statement,
+            List<DataType<?>> parameterTypes,
+            CoordinatorSessionSettings sessionSettings,
+            long metadataVersion,
+            long tableStatsVersion) {
+            this(
+                statement,
+                parameterTypes,
+                sessionSettings.userName(),
+                sessionSettings.searchPath(),
+                sessionSettings.hashJoinsEnabled(),
+                sessionSettings.errorOnUnknownObjectKey(),
+                sessionSettings.materializedViewRewriteEnabled(),
+                Set.copyOf(sessionSettings.excludedOptimizerRules()),
+                metadataVersion,
+                tableStatsVersion
+            );
+        }
+    }
+
+    /**
+     * Checks if a statement only consists of nodes which are known to result in the same plan if analyzed again.
+     * Any node which isn't explicitly handled makes the statement not cacheable.
+     */
+    private static class CacheableStatementVisitor extends DefaultTraversalVisitor<Void, Void> {
+
+        private final NodeContext nodeCtx;
+        private final SearchPath searchPath;
+        private boolean cacheable = true;
+
+        CacheableStatementVisitor(NodeContext nodeCtx, SearchPath searchPath) {
+            this.nodeCtx = nodeCtx;
+            this.searchPath = searchPath;
+        }
+
+        @Override
+        protected Void visitNode(Node node, Void context) {
+            cacheable = false;
+            return null;
+        }
+
+        @Override
+        protected Void visitQuery(Query node, Void context) {
+            if (node.getWith().isPresent()) {
+                for (WithQuery withQuery : node.getWith().get().withQueries()) {
+                    withQuery.query().accept(this, context);
+                }
+            }
+            super.visitQuery(node, context);
+            node.getLimit().ifPresent(x -> x.accept(this, context));
+            node.getOffset().ifPresent(x -> x.accept(this, context));
+            return null;
+        }
+
+        @Override
+        protected Void visitQuerySpecification(QuerySpecification node, Void context) {
+            super.visitQuerySpecification(node, context);
+            for (Window window : node.getWindows().values()) {
+                window.accept(this, context);
+            }
+            node.getLimit().ifPresent(x -> x.accept(this, context));
+            node.getOffset().ifPresent(x -> x.accept(this, context));
+            return null;
+        }
+
+        @Override
+        protected Void visitFunctionCall(FunctionCall node, Void context) {
+            if (!isDeterministic(node.getName().getParts())) {
+                cacheable = false;
+                return null;
+            }
+            super.visitFunctionCall(node, context);
+            node.filter().ifPresent(x -> x.accept(this, context));
+            node.getWindow().ifPresent(x -> x.accept(this, context));
+            return null;
+        }
+
+        @Override
+        public Void visitWindow(Window window, Void context) {
+            for (Expression partition : window.getPartitions()) {
+                partition.accept(this, context);
+            }
+            for (SortItem sortItem : window.getOrderBy()) {
+                sortItem.accept(this, context);
+            }
+            window.getWindowFrame().ifPresent(frame -> {
+                visitFrameBound(frame.getStart(), context);
+                frame.getEnd().ifPresent(end -> visitFrameBound(end, context));
+            });
+            return null;
+        }
+
+        @Override
+        public Void visitFrameBound(FrameBound frameBound, Void context) {
+            Expression value = frameBound.getValue();
+            if (value != null) {
+                value.accept(this, context);
+            }
+            return null;
+        }
+
+        private boolean isDeterministic(List<String> nameParts) {
+            Map<FunctionName, List<FunctionProvider>> builtIns = nodeCtx.functions().functionResolvers();
+            List<FunctionProvider> candidates;
+            if (nameParts.size() == 1) {
+                String name = nameParts.get(0);
+                candidates = builtIns.get(new FunctionName(name));
+                if (candidates == null) {
+                    for (String schema : searchPath) {
+                        candidates = builtIns.get(new FunctionName(schema, name));
+                        if (candidates != null) {
+                            break;
+                        }
+                    }
+                }
+            } else if (nameParts.size() == 2) {
+                candidates = builtIns.get(new FunctionName(nameParts.get(0), nameParts.get(1)));
+            } else {
+                candidates = null;
+            }
+            if (candidates == null) {
+                // Unknown or user defined function
+                return false;
+            }
+            for (FunctionProvider candidate : candidates) {
+                if (!candidate.getSignature().isDeterministic()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected Void visitSubscriptExpression(SubscriptExpression node, Void context) {
+            node.base().accept(this, context);
+            node.index().accept(this, context);
+            return null;
+        }
+
+        @Override
+        public Void visitArrayComparisonExpression(ArrayComparisonExpression node, Void context) {
+            node.getLeft().accept(this, context);
+            node.getRight().accept(this, context);
+            return null;
+        }
+
+        @Override
+        protected Void visitExists(ExistsPredicate node, Void context) {
+            return node.getSubquery().accept(this, context);
+        }
+
+        @Override
+        public Void visitArrayLiteral(ArrayLiteral node, Void context) {
+            for (Expression value : node.values()) {
+                value.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitObjectLiteral(ObjectLiteral node, Void context) {
+            for (Expression value : node.values().values()) {
+                value.accept(this, context);
+            }
+            return null;
+        }
+
+        @Override
+        protected Void visitLiteral(Literal node, Void context) {
+            return null;
+        }
+
+        @Override
+        protected Void visitQualifiedNameReference(QualifiedNameReference node, Void context) {
+            return null;
+        }
+
+        @Override
+        public Void visitParameterExpression(ParameterExpression node, Void context) {
+            return null;
+        }
+
+        @Override
+        protected Void visitAllColumns(AllColumns node, Void context) {
+            return null;
+        }
+
+        @Override
+        protected Void visitTable(Table<?> node, Void context) {
+            return null;
+        }
+    }
+}
@@ -73,6 +73,7 @@ import io.crate.analyze.AnalyzedInsertStatement;
 import io.crate.analyze.AnalyzedKill;
 import io.crate.analyze.AnalyzedOptimizeTable;
 import io.crate.analyze.AnalyzedPromoteReplica;
+import io.crate.analyze.AnalyzedRefreshMaterializedView;
 import io.crate.analyze.AnalyzedRefreshTable;
 import io.crate.analyze.AnalyzedRerouteAllocateReplicaShard;
 import io.crate.analyze.AnalyzedRerouteCancelShard;
@@ -93,8 +94,11 @@ import io.crate.analyze.DCLStatement;
 import io.crate.analyze.ExplainAnalyzedStatement;
 import io.crate.analyze.NumberOfShards;
 import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.RelationAnalyzer;
 import io.crate.execution.ddl.tables.TableCreator;
+import io.crate.metadata.CoordinatorTxnCtx;
 import io.crate.metadata.NodeContext;
+import io.crate.metadata.Schemas;
 import io.crate.metadata.settings.session.SessionSettingRegistry;
 import io.crate.planner.consumer.CreateTableAsPlan;
 import io.crate.planner.consumer.UpdatePlanner;
@@ -121,6 +125,7 @@ import io.crate.planner.node.ddl.DropSnapshotPlan;
 import io.crate.planner.node.ddl.DropTablePlan;
 import io.crate.planner.node.ddl.DropUserPlan;
 import io.crate.planner.node.ddl.OptimizeTablePlan;
+import io.crate.planner.node.ddl.RefreshMaterializedViewPlan;
 import io.crate.planner.node.ddl.RefreshTablePlan;
 import io.crate.planner.node.ddl.ResetSettingsPlan;
 import io.crate.planner.node.ddl.RestoreSnapshotPlan;
@@ -160,6 +165,7 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
     private final ClusterService clusterService;
     private final TableStats tableStats;
     private final LogicalPlanner logicalPlanner;
+    private final MaterializedViewRewriter materializedViewRewriter;
     private final NumberOfShards numberOfShards;
     private final TableCreator tableCreator;
     private final UserManager userManager;
@@ -171,6 +177,7 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
     public Planner(Settings settings,
                    ClusterService clusterService,
                    NodeContext nodeCtx,
+                   Schemas schemas,
                    TableStats tableStats,
                    NumberOfShards numberOfShards,
                    TableCreator tableCreator,
@@ -179,6 +186,7 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         this.clusterService = clusterService;
         this.tableStats = tableStats;
         this.logicalPlanner = new LogicalPlanner(nodeCtx, () -> clusterService.state().nodes().getMinNodeVersion());
+        this.materializedViewRewriter = new MaterializedViewRewriter(new RelationAnalyzer(nodeCtx, schemas), schemas);
         this.numberOfShards = numberOfShards;
         this.tableCreator = tableCreator;
         this.userManager = userManager;
@@ -239,6 +247,10 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
 
     @Override
     public Plan visitSelectStatement(AnalyzedRelation relation, PlannerContext context) {
+        CoordinatorTxnCtx txnCtx = context.transactionContext();
+        if (txnCtx.sessionSettings().materializedViewRewriteEnabled()) {
+            relation = materializedViewRewriter.rewrite(relation, txnCtx, context.clusterState());
+        }
         return logicalPlanner.plan(relation, context);
     }
 
@@ -359,6 +371,11 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         return new RefreshTablePlan(analysis);
     }
 
+    @Override
+    public Plan visitRefreshMaterializedView(AnalyzedRefreshMaterializedView analysis, PlannerContext context) {
+        return new RefreshMaterializedViewPlan(analysis);
+    }
+
     @Override
     public Plan visitAnalyzedAlterTableRename(AnalyzedAlterTableRename analysis,
                                               PlannerContext context) {
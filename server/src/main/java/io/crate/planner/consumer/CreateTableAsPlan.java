@@ -23,6 +23,8 @@ package io.crate.planner.consumer;
 
 import java.util.function.Supplier;
 
+import org.elasticsearch.common.settings.Settings;
+
 import io.crate.analyze.AnalyzedCreateTable;
 import io.crate.analyze.AnalyzedCreateTableAs;
 import io.crate.analyze.BoundCreateTable;
@@ -43,6 +45,7 @@ public final class CreateTableAsPlan implements Plan {
     private final Supplier<LogicalPlan> postponedInsertPlan;
     private final TableCreator tableCreator;
     private final NumberOfShards numberOfShards;
+    private final Settings internalSettings;
 
     public static CreateTableAsPlan of(AnalyzedCreateTableAs analyzedCreateTableAs,
                                        NumberOfShards numberOfShards,
@@ -55,18 +58,21 @@ public final class CreateTableAsPlan implements Plan {
             analyzedCreateTableAs.analyzedCreateTable(),
             postponedInsertPlan,
             tableCreator,
-            numberOfShards
+            numberOfShards,
+            analyzedCreateTableAs.internalSettings()
         );
     }
 
     public CreateTableAsPlan(AnalyzedCreateTable analyzedCreateTable,
                                 Supplier<LogicalPlan> postponedInsertPlan,
                                 TableCreator tableCreator,
-                                NumberOfShards numberOfShards) {
+                                NumberOfShards numberOfShards,
+                                Settings internalSettings) {
         this.analyzedCreateTable = analyzedCreateTable;
         this.postponedInsertPlan = postponedInsertPlan;
         this.tableCreator = tableCreator;
         this.numberOfShards = numberOfShards;
+        this.internalSettings = internalSettings;
     }
 
     @Override
@@ -88,6 +94,7 @@ public final class CreateTableAsPlan implements Plan {
             params,
             subQueryResults
         );
+        boundCreateTable.tableParameter().settingsBuilder().put(internalSettings);
         tableCreator.create(boundCreateTable, plannerContext.clusterState().nodes().getMinNodeVersion())
             .thenRun(() -> postponedInsertPlan.get().execute(
                 dependencies,
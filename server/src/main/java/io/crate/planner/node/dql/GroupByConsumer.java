@@ -21,18 +21,22 @@
 
 package io.crate.planner.node.dql;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+
+import com.carrotsearch.hppc.IntIndexedContainer;
 
-import io.crate.analyze.WhereClause;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
 import io.crate.metadata.doc.DocTableInfo;
 
 public class GroupByConsumer {
 
     public static boolean groupedByClusteredColumnOrPrimaryKeys(DocTableInfo tableInfo,
-                                                                WhereClause whereClause,
+                                                                Routing routing,
                                                                 List<Symbol> groupBySymbols) {
         if (groupBySymbols.size() > 1) {
             return groupedByPrimaryKeys(tableInfo.primaryKey(), groupBySymbols);
@@ -43,7 +47,7 @@ public class GroupByConsumer {
          * so one shard doesn't contain all "clustered by" values
          * -> need to use a distributed group by.
          */
-        if (tableInfo.isPartitioned() && whereClause.partitions().size() != 1) {
+        if (tableInfo.isPartitioned() && numIndices(routing) != 1) {
             return false;
         }
 
@@ -53,6 +57,14 @@ public class GroupByConsumer {
         return groupByKey instanceof Reference ref && ref.column().equals(tableInfo.clusteredBy());
     }
 
+    private static int numIndices(Routing routing) {
+        HashSet<String> indices = new HashSet<>();
+        for (Map<String, IntIndexedContainer> indicesByNode : routing.locations().values()) {
+            indices.addAll(indicesByNode.keySet());
+        }
+        return indices.size();
+    }
+
     private static boolean groupedByPrimaryKeys(List<ColumnIdent> primaryKeys, List<Symbol> groupBy) {
         if (groupBy.size() != primaryKeys.size()) {
             return false;
@@ -89,9 +89,7 @@ public class Collect implements LogicalPlan {
     private final List<AbstractTableRelation<?>> baseTables;
     final TableInfo tableInfo;
     final WhereClause immutableWhere;
-
-    WhereClause mutableBoundWhere;
-    DetailedQuery detailedQuery;
+    final DetailedQuery detailedQuery;
 
     public Collect(Collect collect, DetailedQuery detailedQuery) {
         assert detailedQuery.docKeys().isEmpty()
@@ -100,7 +98,6 @@ public class Collect implements LogicalPlan {
         this.outputs = collect.outputs();
         this.baseTables = collect.baseTables;
         this.relation = collect.relation;
-        this.mutableBoundWhere = collect.mutableBoundWhere;
         this.immutableWhere = collect.immutableWhere;
         this.tableInfo = collect.relation.tableInfo();
         this.detailedQuery = detailedQuery;
@@ -116,8 +113,8 @@ public class Collect implements LogicalPlan {
         }
         this.relation = relation;
         this.immutableWhere = where;
-        this.mutableBoundWhere = where;
         this.tableInfo = relation.tableInfo();
+        this.detailedQuery = null;
     }
 
     @Override
@@ -262,16 +259,16 @@ public class Collect implements LogicalPlan {
 
         // bind all parameters and possible subQuery values and re-analyze the query
         // (could result in a NO_MATCH, routing could've changed, etc).
-        // the <p>where</p> instance variable must be overwritten as the plan creation of outer operators relies on it
-        // (e.g. GroupHashAggregate will build different plans based on the collect routing)
-        mutableBoundWhere = WhereClauseAnalyzer.resolvePartitions(
+        // The result is kept local: a plan can be built concurrently for different parameters,
+        // outer operators (e.g. GroupHashAggregate) must look at the routing of the built phase instead.
+        WhereClause resolvedWhere = WhereClauseAnalyzer.resolvePartitions(
             boundWhere,
             relation,
             plannerContext.transactionContext(),
             plannerContext.nodeContext());
-        if (mutableBoundWhere.hasVersions()) {
+        if (resolvedWhere.hasVersions()) {
             throw VersioningValidationException.versionInvalidUsage();
-        } else if (mutableBoundWhere.hasSeqNoAndPrimaryTerm()) {
+        } else if (resolvedWhere.hasSeqNoAndPrimaryTerm()) {
             throw VersioningValidationException.seqNoAndPrimaryTermUsage();
         }
 
@@ -283,7 +280,7 @@ public class Collect implements LogicalPlan {
             COLLECT_PHASE_NAME,
             plannerContext.allocateRouting(
                 tableInfo,
-                mutableBoundWhere,
+                resolvedWhere,
                 RoutingProvider.ShardSelection.ANY,
                 sessionSettings),
             tableInfo.rowGranularity(),
@@ -291,7 +288,7 @@ public class Collect implements LogicalPlan {
                 ? Lists2.map(boundOutputs, DocReferences::toSourceLookup)
                 : boundOutputs,
             Collections.emptyList(),
-            Optimizer.optimizeCasts(mutableBoundWhere.queryOrFallback(), plannerContext),
+            Optimizer.optimizeCasts(resolvedWhere.queryOrFallback(), plannerContext),
             DistributionInfo.DEFAULT_BROADCAST
         );
     }
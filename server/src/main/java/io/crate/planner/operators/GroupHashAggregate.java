@@ -39,6 +39,7 @@ import io.crate.common.collections.Lists2;
 import io.crate.data.Row;
 import io.crate.execution.dsl.phases.ExecutionPhases;
 import io.crate.execution.dsl.phases.MergePhase;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
@@ -151,7 +152,7 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
         SubQueryAndParamBinder paramBinder = new SubQueryAndParamBinder(params, subQueryResults);
 
         List<Symbol> sourceOutputs = source.outputs();
-        if (shardsContainAllGroupKeyValues()) {
+        if (shardsContainAllGroupKeyValues(executionPlan)) {
             GroupProjection groupProjection = projectionBuilder.groupProjection(
                 sourceOutputs,
                 groupKeys,
@@ -303,12 +304,14 @@ public class GroupHashAggregate extends ForwardingLogicalPlan {
      * @return true if it's guaranteed that a group-key-value doesn't occur in more than 1 shard.
      *         Each shard has "group or row authority"
      */
-    private boolean shardsContainAllGroupKeyValues() {
-        return source instanceof Collect &&
-               ((Collect) source).tableInfo instanceof DocTableInfo &&
-               GroupByConsumer.groupedByClusteredColumnOrPrimaryKeys(
-                   ((DocTableInfo) ((Collect) source).tableInfo),
-                   ((Collect) source).mutableBoundWhere,
+    private boolean shardsContainAllGroupKeyValues(ExecutionPlan executionPlan) {
+        return source instanceof Collect collect
+               && collect.tableInfo instanceof DocTableInfo docTable
+               && executionPlan instanceof io.crate.planner.node.dql.Collect collectPlan
+               && collectPlan.collectPhase() instanceof RoutedCollectPhase collectPhase
+               && GroupByConsumer.groupedByClusteredColumnOrPrimaryKeys(
+                   docTable,
+                   collectPhase.routing(),
                    groupKeys);
     }
 
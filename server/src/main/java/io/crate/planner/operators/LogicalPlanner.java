@@ -82,6 +82,8 @@ import io.crate.planner.optimizer.Optimizer;
 import io.crate.planner.optimizer.Rule;
 import io.crate.planner.optimizer.costs.PlanStats;
 import io.crate.planner.optimizer.iterative.IterativeOptimizer;
+import io.crate.planner.optimizer.rule.AddHashJoinRuntimeFilter;
+import io.crate.planner.optimizer.rule.CostBasedJoinReorder;
 import io.crate.planner.optimizer.rule.DeduplicateOrder;
 import io.crate.planner.optimizer.rule.EliminateCrossJoin;
 import io.crate.planner.optimizer.rule.MergeAggregateAndCollectToCount;
@@ -154,9 +156,11 @@ public class LogicalPlanner {
         new OptimizeCollectWhereClauseAccess(),
         new RewriteGroupByKeysLimitToLimitDistinct(),
         new MoveConstantJoinConditionsBeneathNestedLoop(),
+        new CostBasedJoinReorder(),
         new EliminateCrossJoin(),
         new RewriteJoinPlan(),
-        new RewriteNestedLoopJoinToHashJoin()
+        new RewriteNestedLoopJoinToHashJoin(),
+        new AddHashJoinRuntimeFilter()
     );
 
     public static final List<Rule<?>> JOIN_ORDER_OPTIMIZER_RULES = List.of(
@@ -39,6 +39,7 @@ import org.elasticsearch.common.UUIDs;
 
 import io.crate.analyze.OrderBy;
 import io.crate.analyze.WindowDefinition;
+import io.crate.analyze.relations.DocTableRelation;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.collections.Lists2;
 import io.crate.data.Row;
@@ -55,6 +56,7 @@ import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Merge;
 import io.crate.planner.PlannerContext;
+import io.crate.planner.PositionalOrderBy;
 import io.crate.planner.ResultDescription;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
@@ -157,13 +159,7 @@ public class WindowAgg extends ForwardingLogicalPlan {
         Function<Symbol, Symbol> toInputCols = binder.andThen(s -> InputColumns.create(s, sourceSymbols));
 
         List<WindowFunction> boundWindowFunctions = (List<WindowFunction>)(List<?>) Lists2.map(windowFunctions, toInputCols);
-        List<Projection> projections = new ArrayList<>();
-        WindowAggProjection windowAggProjection = new WindowAggProjection(
-            windowDefinition.map(toInputCols),
-            boundWindowFunctions,
-            InputColumns.create(this.standalone, sourceSymbols)
-        );
-        projections.add(windowAggProjection);
+        OrderBy sourceOrder = sourceOrder(source, windowDefinition);
         ExecutionPlan sourcePlan = source.build(
             executor,
             plannerContext,
@@ -171,12 +167,24 @@ public class WindowAgg extends ForwardingLogicalPlan {
             projectionBuilder,
             LimitAndOffset.NO_LIMIT,
             LimitAndOffset.NO_OFFSET,
-            null,
+            sourceOrder,
             pageSizeHint,
             params,
             subQueryResults
         );
         ResultDescription resultDescription = sourcePlan.resultDescription();
+        // The source may not be able to sort on all symbols, in that case it ignores the order
+        boolean presorted = sourceOrder != null
+            && resultDescription.orderBy() != null
+            && resultDescription.orderBy().equals(PositionalOrderBy.of(sourceOrder, source.outputs()));
+        List<Projection> projections = new ArrayList<>();
+        WindowAggProjection windowAggProjection = new WindowAggProjection(
+            windowDefinition.map(toInputCols),
+            boundWindowFunctions,
+            InputColumns.create(this.standalone, sourceSymbols),
+            presorted
+        );
+        projections.add(windowAggProjection);
         boolean executesOnHandler = executesOnHandler(plannerContext.handlerNode(), resultDescription.nodeIds());
         boolean nonDistExecution = windowDefinition.partitions().isEmpty()
                                    || resultDescription.hasRemainingLimitOrOffset()
@@ -201,7 +209,8 @@ public class WindowAgg extends ForwardingLogicalPlan {
                 resultDescription.streamOutputs(),
                 projections,
                 DistributionInfo.DEFAULT_BROADCAST,
-                null
+                // Merge the sorted rows of the upstreams to keep them sorted for the per partition computation
+                presorted ? resultDescription.orderBy() : null
             );
             return new Merge(
                 sourcePlan,
@@ -216,6 +225,21 @@ public class WindowAgg extends ForwardingLogicalPlan {
         return sourcePlan;
     }
 
+    /**
+     * Let the source sort the rows by PARTITION BY and ORDER BY if it can do so efficiently, like a table collect
+     * which can use the shard-level sorting.
+     * The window functions can then be computed one partition at a time instead of buffering and sorting all rows.
+     */
+    @Nullable
+    private static OrderBy sourceOrder(LogicalPlan source, WindowDefinition windowDefinition) {
+        if (windowDefinition.partitions().isEmpty()
+            || !(source instanceof Collect collect)
+            || !(collect.relation() instanceof DocTableRelation)) {
+            return null;
+        }
+        return createOrderByInclPartitionBy(windowDefinition);
+    }
+
     @Nullable
     static OrderBy createOrderByInclPartitionBy(WindowDefinition windowDefinition) {
         var orderBy = windowDefinition.orderBy();
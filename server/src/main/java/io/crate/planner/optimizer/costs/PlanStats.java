@@ -21,16 +21,24 @@
 
 package io.crate.planner.optimizer.costs;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.jetbrains.annotations.Nullable;
 
 import io.crate.common.collections.Maps;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.ScopedSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.NodeContext;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
 import io.crate.metadata.TransactionContext;
 import io.crate.planner.operators.AbstractJoinPlan;
 import io.crate.planner.operators.Collect;
@@ -84,6 +92,26 @@ public class PlanStats {
         return logicalPlan.accept(visitor, null);
     }
 
+    /**
+     * @return the version of the table statistics used to estimate the stats, see {@link TableStats#version()}
+     */
+    public long tableStatsVersion() {
+        return tableStats.version();
+    }
+
+    /**
+     * Estimates the stats of a join of two relations with known stats
+     * without having to build and visit the join plan.
+     */
+    public Stats joinStats(JoinType joinType,
+                           @Nullable Symbol joinCondition,
+                           Stats lhsStats,
+                           List<RelationName> lhsRelations,
+                           Stats rhsStats,
+                           List<RelationName> rhsRelations) {
+        return visitor.joinStats(joinType, joinCondition, lhsStats, lhsRelations, rhsStats, rhsRelations);
+    }
+
     private static class StatsVisitor extends LogicalPlanVisitor<Void, Stats> {
 
         private final NodeContext nodeContext;
@@ -147,65 +175,115 @@ public class PlanStats {
             return visitAbstractJoinPlan(join, context);
         }
 
+        @Override
+        public Stats visitHashJoin(HashJoin join, Void context) {
+            return visitAbstractJoinPlan(join, context);
+        }
+
         private Stats visitAbstractJoinPlan(AbstractJoinPlan join, Void context) {
             var lhsStats = join.lhs().accept(this, context);
             var rhsStats = join.rhs().accept(this, context);
-            Map<ColumnIdent, ColumnStats<?>> statsByColumn = Maps.concat(lhsStats.statsByColumn(),
-                                                                         rhsStats.statsByColumn());
+            return joinStats(
+                join.joinType(),
+                join.joinCondition(),
+                lhsStats,
+                join.lhs().getRelationNames(),
+                rhsStats,
+                join.rhs().getRelationNames()
+            );
+        }
+
+        private Stats joinStats(JoinType joinType,
+                                @Nullable Symbol joinCondition,
+                                Stats lhsStats,
+                                List<RelationName> lhsRelations,
+                                Stats rhsStats,
+                                List<RelationName> rhsRelations) {
+            Map<ColumnIdent, ColumnStats<?>> statsByColumn = new HashMap<>(
+                Maps.concat(lhsStats.statsByColumn(), rhsStats.statsByColumn()));
             if (lhsStats.numDocs() == -1
                 || lhsStats.sizeInBytes() == -1
                 || rhsStats.numDocs() == -1
                 || rhsStats.sizeInBytes() == -1) {
                 return new Stats(-1, -1, statsByColumn);
             }
-            long numRows = join.joinType() == JoinType.CROSS
-                ? lhsStats.numDocs() * rhsStats.numDocs()
-                // We don't have any cardinality estimates, so just take the bigger table
-                : Math.max(lhsStats.numDocs(), rhsStats.numDocs());
-            Stats joinStats = new Stats(
-                numRows,
-                (lhsStats.averageSizePerRowInBytes() * numRows) + (rhsStats.averageSizePerRowInBytes() * numRows),
-                statsByColumn
-            );
-            Symbol joinCondition = join.joinCondition();
-            if (joinCondition == null) {
-                return joinStats;
+            long sizePerRow = lhsStats.averageSizePerRowInBytes() + rhsStats.averageSizePerRowInBytes();
+            if (joinType == JoinType.CROSS || joinCondition == null) {
+                long numRows = joinType == JoinType.CROSS
+                    ? lhsStats.numDocs() * rhsStats.numDocs()
+                    : Math.max(lhsStats.numDocs(), rhsStats.numDocs());
+                return new Stats(numRows, numRows * sizePerRow, withMaxDistinct(statsByColumn, numRows));
             }
-            long estimatedNumRows = SelectivityFunctions.estimateNumRows(
-                nodeContext,
-                txnCtx,
-                joinStats,
-                joinCondition,
-                null
-            );
-            return joinStats.withNumDocs(estimatedNumRows);
+            double selectivity = equiJoinSelectivity(
+                joinCondition, lhsStats, lhsRelations, rhsStats, rhsRelations, statsByColumn);
+            long numRows;
+            if (selectivity < 0) {
+                // No equi-join condition on columns with statistics; take the bigger table and apply
+                // the selectivity of the join condition on top of it.
+                numRows = Math.max(lhsStats.numDocs(), rhsStats.numDocs());
+                Stats joinStats = new Stats(numRows, numRows * sizePerRow, statsByColumn);
+                numRows = SelectivityFunctions.estimateNumRows(nodeContext, txnCtx, joinStats, joinCondition, null);
+            } else {
+                double innerRows = (double) lhsStats.numDocs() * rhsStats.numDocs() * selectivity;
+                numRows = outerJoinNumRows(joinType, innerRows, lhsStats.numDocs(), rhsStats.numDocs());
+            }
+            return new Stats(numRows, numRows * sizePerRow, withMaxDistinct(statsByColumn, numRows));
         }
 
-        @Override
-        public Stats visitHashJoin(HashJoin join, Void context) {
-            var lhsStats = join.lhs().accept(this, context);
-            var rhsStats = join.rhs().accept(this, context);
-            Map<ColumnIdent, ColumnStats<?>> statsByColumn = Maps.concat(lhsStats.statsByColumn(), rhsStats.statsByColumn());
-            if (lhsStats.numDocs() == -1
-                || lhsStats.sizeInBytes() == -1
-                || rhsStats.numDocs() == -1
-                || rhsStats.sizeInBytes() == -1) {
-                return new Stats(-1, -1, statsByColumn);
+        /**
+         * Estimates the selectivity of the join condition in relation to the cartesian product of both sides,
+         * using the column statistics of the columns used in equi-join conditions like `lhs.x = rhs.y`.
+         * The number of distinct values of the join columns in `statsByColumn` is reduced to the smaller
+         * number of distinct values of both sides.
+         *
+         * @return the selectivity or -1 if there is no equi-join condition on columns with statistics.
+         */
+        private double equiJoinSelectivity(Symbol joinCondition,
+                                           Stats lhsStats,
+                                           List<RelationName> lhsRelations,
+                                           Stats rhsStats,
+                                           List<RelationName> rhsRelations,
+                                           Map<ColumnIdent, ColumnStats<?>> statsByColumn) {
+            double selectivity = 1.0;
+            int numEquiConditions = 0;
+            List<Symbol> remainingConditions = new ArrayList<>();
+            for (Symbol condition : AndOperator.split(joinCondition)) {
+                if (condition instanceof Function function
+                    && function.name().equals(EqOperator.NAME)
+                    && function.arguments().size() == 2) {
+
+                    Symbol arg1 = function.arguments().get(0);
+                    Symbol arg2 = function.arguments().get(1);
+                    ColumnStats<?> lhsColumnStats = columnStats(arg1, lhsStats, lhsRelations);
+                    ColumnStats<?> rhsColumnStats = columnStats(arg2, rhsStats, rhsRelations);
+                    if (lhsColumnStats == null || rhsColumnStats == null) {
+                        lhsColumnStats = columnStats(arg2, lhsStats, lhsRelations);
+                        rhsColumnStats = columnStats(arg1, rhsStats, rhsRelations);
+                    }
+                    if (lhsColumnStats != null && rhsColumnStats != null) {
+                        selectivity *= SelectivityFunctions.equiJoinSelectivity(lhsColumnStats, rhsColumnStats);
+                        numEquiConditions++;
+                        double approxDistinct = Math.min(lhsColumnStats.approxDistinct(), rhsColumnStats.approxDistinct());
+                        statsByColumn.computeIfPresent(column(arg1), (k, v) -> v.withApproxDistinct(approxDistinct));
+                        statsByColumn.computeIfPresent(column(arg2), (k, v) -> v.withApproxDistinct(approxDistinct));
+                        continue;
+                    }
+                }
+                remainingConditions.add(condition);
             }
-            long numRows = Math.max(lhsStats.numDocs(), rhsStats.numDocs());
-            long sizeInBytes =
-                (numRows * lhsStats.averageSizePerRowInBytes())
-                + (numRows * rhsStats.averageSizePerRowInBytes());
-
-            Stats joinStats = new Stats(numRows, sizeInBytes, statsByColumn);
-            long estimatedNumRows = SelectivityFunctions.estimateNumRows(
-                nodeContext,
-                txnCtx,
-                joinStats,
-                join.joinCondition(),
-                null
-            );
-            return joinStats.withNumDocs(estimatedNumRows);
+            if (numEquiConditions == 0) {
+                return -1;
+            }
+            if (!remainingConditions.isEmpty()) {
+                selectivity *= SelectivityFunctions.selectivity(
+                    nodeContext,
+                    txnCtx,
+                    new Stats(-1, -1, statsByColumn),
+                    AndOperator.join(remainingConditions),
+                    null
+                );
+            }
+            return selectivity;
         }
 
         @Override
@@ -216,7 +294,7 @@ public class PlanStats {
             } else {
                 var query = collect.where().queryOrFallback();
                 var numberOfRows = SelectivityFunctions.estimateNumRows(nodeContext, txnCtx, stats, query, null);
-                return stats.withNumDocs(numberOfRows);
+                return withNumRows(stats, numberOfRows);
             }
         }
 
@@ -225,7 +303,7 @@ public class PlanStats {
             Stats sourceStats = filter.source().accept(this, context);
             Symbol query = filter.query();
             long numRows = SelectivityFunctions.estimateNumRows(nodeContext, txnCtx, sourceStats, query, null);
-            return sourceStats.withNumDocs(numRows);
+            return withNumRows(sourceStats, numRows);
         }
 
         @Override
@@ -242,13 +320,13 @@ public class PlanStats {
         @Override
         public Stats visitGroupHashAggregate(GroupHashAggregate groupHashAggregate, Void context) {
             var stats = groupHashAggregate.source().accept(this, context);
-            return stats.withNumDocs(GroupHashAggregate.approximateDistinctValues(stats, groupHashAggregate.groupKeys()));
+            return withNumRows(stats, GroupHashAggregate.approximateDistinctValues(stats, groupHashAggregate.groupKeys()));
         }
 
         @Override
         public Stats visitHashAggregate(HashAggregate hashAggregate, Void context) {
             var stats = hashAggregate.source().accept(this, context);
-            return stats.withNumDocs(1);
+            return withNumRows(stats, 1);
         }
 
         @Override
@@ -278,4 +356,78 @@ public class PlanStats {
             throw new UnsupportedOperationException("Plan stats not available for " + logicalPlan.getClass().getSimpleName());
         }
     }
+
+    private static long outerJoinNumRows(JoinType joinType, double innerRows, long lhsRows, long rhsRows) {
+        if (lhsRows == 0 || rhsRows == 0) {
+            return switch (joinType) {
+                case LEFT, ANTI -> lhsRows;
+                case RIGHT -> rhsRows;
+                case FULL -> lhsRows + rhsRows;
+                default -> 0L;
+            };
+        }
+        // A join with matching values on both sides results in at least one row
+        long numRows = Math.round(Math.max(1.0, innerRows));
+        return switch (joinType) {
+            case LEFT -> Math.max(numRows, lhsRows);
+            case RIGHT -> Math.max(numRows, rhsRows);
+            case FULL -> Math.max(numRows, Math.max(lhsRows, rhsRows));
+            case SEMI -> Math.min(numRows, lhsRows);
+            case ANTI -> lhsRows - Math.min(numRows, lhsRows);
+            default -> numRows;
+        };
+    }
+
+    /**
+     * Returns stats with the given number of rows.
+     * The number of distinct values of each column are limited to the number of rows.
+     */
+    private static Stats withNumRows(Stats stats, long numRows) {
+        Stats result = stats.withNumDocs(numRows);
+        return new Stats(result.numDocs(), result.sizeInBytes(), withMaxDistinct(result.statsByColumn(), numRows));
+    }
+
+    private static Map<ColumnIdent, ColumnStats<?>> withMaxDistinct(Map<ColumnIdent, ColumnStats<?>> statsByColumn,
+                                                                   long numRows) {
+        if (numRows < 0) {
+            return statsByColumn;
+        }
+        Map<ColumnIdent, ColumnStats<?>> result = null;
+        for (var entry : statsByColumn.entrySet()) {
+            ColumnStats<?> columnStats = entry.getValue();
+            if (columnStats.approxDistinct() > numRows) {
+                if (result == null) {
+                    result = new HashMap<>(statsByColumn);
+                }
+                result.put(entry.getKey(), columnStats.withApproxDistinct(numRows));
+            }
+        }
+        return result == null ? statsByColumn : result;
+    }
+
+    @Nullable
+    private static ColumnIdent column(Symbol symbol) {
+        if (symbol instanceof Reference ref) {
+            return ref.column();
+        } else if (symbol instanceof ScopedSymbol scopedSymbol) {
+            return scopedSymbol.column();
+        }
+        return null;
+    }
+
+    @Nullable
+    private static ColumnStats<?> columnStats(Symbol symbol, Stats stats, List<RelationName> relations) {
+        RelationName relation;
+        if (symbol instanceof Reference ref) {
+            relation = ref.ident().tableIdent();
+        } else if (symbol instanceof ScopedSymbol scopedSymbol) {
+            relation = scopedSymbol.relation();
+        } else {
+            return null;
+        }
+        if (!relations.contains(relation)) {
+            return null;
+        }
+        return stats.getColumnStats(column(symbol));
+    }
 }
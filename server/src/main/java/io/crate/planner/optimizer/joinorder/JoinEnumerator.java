@@ -0,0 +1,345 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.joinorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.collections.Lists2;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.RelationName;
+import io.crate.planner.consumer.RelationNameCollector;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.Stats;
+
+/**
+ * Finds the cheapest order of a tree of inner joins using the estimates of {@link PlanStats}.
+ *
+ * <p>
+ * The join tree is flattened into its relations (any plan which is not an inner join, e.g. a Collect or an
+ * outer join) and the conjuncts of the join conditions. Up to {@link #MAX_DP_RELATIONS} relations, all bushy
+ * join trees without cross joins are enumerated using dynamic programming over the subsets of the relations
+ * (DPsub). For larger trees the two sub-trees with the cheapest join are merged greedily until a single tree
+ * remains.
+ * </p>
+ *
+ * <p>
+ * The cost of a join is the number of rows of its result plus the number of rows of its smaller side, which is
+ * the side used to build the hash table of a hash join. The cost of a tree is the sum of the costs of all its
+ * joins. The smaller side of each join is placed on the right side, like {@code ReorderHashJoin} does.
+ * Row counts are used instead of sizes in bytes, because the size of a table is taken from its store size, which
+ * changes with segment merges and would make the chosen join order unstable.
+ * </p>
+ */
+public final class JoinEnumerator {
+
+    static final int MAX_DP_RELATIONS = 10;
+
+    /**
+     * Limit for the greedy search; relations are tracked in a bitset.
+     */
+    static final int MAX_RELATIONS = Long.SIZE - 1;
+
+    private final PlanStats planStats;
+    private final List<LogicalPlan> relations = new ArrayList<>();
+    private final List<Condition> conditions = new ArrayList<>();
+
+    private record Condition(Symbol symbol, long relations) {}
+
+    private record JoinTree(long relations,
+                            Stats stats,
+                            List<RelationName> relationNames,
+                            double cost,
+                            @Nullable JoinTree lhs,
+                            @Nullable JoinTree rhs,
+                            @Nullable Symbol joinCondition) {
+    }
+
+    private JoinEnumerator(PlanStats planStats) {
+        this.planStats = planStats;
+    }
+
+    /**
+     * @return a join tree with the same relations and join conditions as the given join but with a lower
+     *         estimated cost, or null if the join cannot be reordered or no cheaper order was found.
+     *         The outputs of the returned plan are in a different order than the outputs of the given join.
+     */
+    @Nullable
+    public static LogicalPlan reorder(JoinPlan join,
+                                      PlanStats planStats,
+                                      Function<LogicalPlan, LogicalPlan> resolvePlan) {
+        var enumerator = new JoinEnumerator(planStats);
+        var currentTree = enumerator.flatten(join, resolvePlan);
+        if (currentTree == null || enumerator.relations.size() < 3) {
+            return null;
+        }
+        if (enumerator.assignConditions() == false) {
+            return null;
+        }
+        currentTree = enumerator.costOf(currentTree);
+        if (currentTree == null) {
+            return null;
+        }
+        JoinTree bestTree = enumerator.relations.size() <= MAX_DP_RELATIONS
+            ? enumerator.dynamicProgramming()
+            : enumerator.greedy();
+        // Requiring a strictly cheaper tree ensures that applying the rule repeatedly terminates
+        if (bestTree == null || bestTree.cost >= currentTree.cost * (1 - 1e-9)) {
+            return null;
+        }
+        return enumerator.build(bestTree, join.isFiltered());
+    }
+
+    /**
+     * Collects the relations and conditions of all nested inner joins.
+     * Returns the structure of the current join tree, without stats, or null if it cannot be reordered.
+     */
+    @Nullable
+    private JoinTree flatten(LogicalPlan plan, Function<LogicalPlan, LogicalPlan> resolvePlan) {
+        var resolved = resolvePlan.apply(plan);
+        if (resolved instanceof JoinPlan join
+            && join.joinType() == JoinType.INNER
+            && join.joinCondition() != null) {
+
+            JoinTree lhs = flatten(join.lhs(), resolvePlan);
+            JoinTree rhs = flatten(join.rhs(), resolvePlan);
+            if (lhs == null || rhs == null) {
+                return null;
+            }
+            for (Symbol condition : AndOperator.split(join.joinCondition())) {
+                conditions.add(new Condition(condition, 0L));
+            }
+            return new JoinTree(lhs.relations | rhs.relations, Stats.EMPTY, List.of(), 0, lhs, rhs, join.joinCondition());
+        }
+        if (relations.size() == MAX_RELATIONS) {
+            return null;
+        }
+        long bit = 1L << relations.size();
+        relations.add(plan);
+        return new JoinTree(bit, Stats.EMPTY, List.of(), 0, null, null, null);
+    }
+
+    /**
+     * Resolves the relations used in each condition.
+     * Returns false if a condition doesn't refer to at least two relations of the join tree.
+     */
+    private boolean assignConditions() {
+        List<List<RelationName>> relationNames = Lists2.map(relations, LogicalPlan::getRelationNames);
+        for (int i = 0; i < conditions.size(); i++) {
+            Condition condition = conditions.get(i);
+            Set<RelationName> usedRelations = RelationNameCollector.collect(condition.symbol);
+            long mask = 0L;
+            for (RelationName relationName : usedRelations) {
+                boolean found = false;
+                for (int r = 0; r < relationNames.size(); r++) {
+                    if (relationNames.get(r).contains(relationName)) {
+                        mask |= 1L << r;
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            if (Long.bitCount(mask) < 2) {
+                return false;
+            }
+            conditions.set(i, new Condition(condition.symbol, mask));
+        }
+        return true;
+    }
+
+    @Nullable
+    private JoinTree leaf(int relation) {
+        LogicalPlan plan = relations.get(relation);
+        Stats stats = planStats.get(plan);
+        if (stats.numDocs() == -1 || stats.sizeInBytes() == -1) {
+            return null;
+        }
+        return new JoinTree(1L << relation, stats, plan.getRelationNames(), 0, null, null, null);
+    }
+
+    /**
+     * Estimates the cost of the current join tree
+     */
+    @Nullable
+    private JoinTree costOf(JoinTree tree) {
+        if (tree.lhs == null || tree.rhs == null) {
+            return leaf(Long.numberOfTrailingZeros(tree.relations));
+        }
+        JoinTree lhs = costOf(tree.lhs);
+        JoinTree rhs = costOf(tree.rhs);
+        if (lhs == null || rhs == null) {
+            return null;
+        }
+        return join(lhs, rhs, tree.joinCondition, false);
+    }
+
+    private JoinTree join(JoinTree lhs, JoinTree rhs, Symbol joinCondition, boolean smallerSideRight) {
+        if (smallerSideRight && lhs.stats.numDocs() < rhs.stats.numDocs()) {
+            JoinTree tmp = lhs;
+            lhs = rhs;
+            rhs = tmp;
+        }
+        Stats stats = planStats.joinStats(
+            JoinType.INNER,
+            joinCondition,
+            lhs.stats,
+            lhs.relationNames,
+            rhs.stats,
+            rhs.relationNames
+        );
+        double buildRows = Math.min(lhs.stats.numDocs(), rhs.stats.numDocs());
+        double cost = lhs.cost + rhs.cost + stats.numDocs() + buildRows;
+        return new JoinTree(
+            lhs.relations | rhs.relations,
+            stats,
+            Lists2.concat(lhs.relationNames, rhs.relationNames),
+            cost,
+            lhs,
+            rhs,
+            joinCondition
+        );
+    }
+
+    /**
+     * @return the join condition to use for joining the two sets of relations or null if there is no
+     *         condition connecting them.
+     */
+    @Nullable
+    private Symbol joinCondition(long lhs, long rhs) {
+        long joined = lhs | rhs;
+        List<Symbol> applicable = new ArrayList<>();
+        for (Condition condition : conditions) {
+            long used = condition.relations;
+            if ((used & joined) == used && (used & lhs) != 0 && (used & rhs) != 0) {
+                applicable.add(condition.symbol);
+            }
+        }
+        if (applicable.isEmpty()) {
+            return null;
+        }
+        return AndOperator.join(applicable);
+    }
+
+    @Nullable
+    private JoinTree dynamicProgramming() {
+        int numRelations = relations.size();
+        JoinTree[] best = new JoinTree[1 << numRelations];
+        for (int i = 0; i < numRelations; i++) {
+            JoinTree leaf = leaf(i);
+            if (leaf == null) {
+                return null;
+            }
+            best[1 << i] = leaf;
+        }
+        for (int set = 1; set < best.length; set++) {
+            if (Integer.bitCount(set) < 2) {
+                continue;
+            }
+            int lowestBit = Integer.lowestOneBit(set);
+            // Enumerate all splits of `set` into two non-empty subsets.
+            // Only subsets containing the lowest bit are visited to skip mirrored splits.
+            for (int lhs = (set - 1) & set; lhs > 0; lhs = (lhs - 1) & set) {
+                if ((lhs & lowestBit) == 0) {
+                    continue;
+                }
+                int rhs = set ^ lhs;
+                JoinTree lhsTree = best[lhs];
+                JoinTree rhsTree = best[rhs];
+                if (lhsTree == null || rhsTree == null) {
+                    continue;
+                }
+                Symbol joinCondition = joinCondition(lhs, rhs);
+                if (joinCondition == null) {
+                    continue;
+                }
+                JoinTree candidate = join(lhsTree, rhsTree, joinCondition, true);
+                if (best[set] == null || candidate.cost < best[set].cost) {
+                    best[set] = candidate;
+                }
+            }
+        }
+        return best[best.length - 1];
+    }
+
+    @Nullable
+    private JoinTree greedy() {
+        List<JoinTree> trees = new ArrayList<>(relations.size());
+        for (int i = 0; i < relations.size(); i++) {
+            JoinTree leaf = leaf(i);
+            if (leaf == null) {
+                return null;
+            }
+            trees.add(leaf);
+        }
+        while (trees.size() > 1) {
+            JoinTree cheapest = null;
+            int cheapestLhs = -1;
+            int cheapestRhs = -1;
+            for (int i = 0; i < trees.size(); i++) {
+                for (int j = i + 1; j < trees.size(); j++) {
+                    Symbol joinCondition = joinCondition(trees.get(i).relations, trees.get(j).relations);
+                    if (joinCondition == null) {
+                        continue;
+                    }
+                    JoinTree candidate = join(trees.get(i), trees.get(j), joinCondition, true);
+                    if (cheapest == null || candidate.cost < cheapest.cost) {
+                        cheapest = candidate;
+                        cheapestLhs = i;
+                        cheapestRhs = j;
+                    }
+                }
+            }
+            if (cheapest == null) {
+                // The relations are not connected by join conditions
+                return null;
+            }
+            trees.remove(cheapestRhs);
+            trees.set(cheapestLhs, cheapest);
+        }
+        return trees.get(0);
+    }
+
+    private LogicalPlan build(JoinTree tree, boolean isFiltered) {
+        if (tree.lhs == null || tree.rhs == null) {
+            return relations.get(Long.numberOfTrailingZeros(tree.relations));
+        }
+        return new JoinPlan(
+            build(tree.lhs, false),
+            build(tree.rhs, false),
+            JoinType.INNER,
+            tree.joinCondition,
+            isFiltered,
+            false
+        );
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.WhereClause;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.operator.GtOperator;
+import io.crate.expression.operator.OrOperator;
+import io.crate.expression.operator.any.AnyEqOperator;
+import io.crate.expression.scalar.ArrayUpperFunction;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.SelectSymbol.ResultType;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolVisitors;
+import io.crate.expression.symbol.Symbols;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.Reference;
+import io.crate.metadata.SearchPath;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.HashJoin;
+import io.crate.planner.operators.Limit;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.MultiPhase;
+import io.crate.planner.operators.Rename;
+import io.crate.planner.operators.RootRelationBoundary;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Filters the larger side of a hash join by the join keys of the smaller side if the smaller side is
+ * a selective filter on a table, like in a join of a fact table with a filtered dimension table:
+ *
+ * <pre>
+ *     HashJoin[f.dim_id = d.id]                        MultiPhase
+ *      |                                                 |
+ *      +- Collect[facts]                    -->          +- HashJoin[f.dim_id = d.id]
+ *      +- Collect[dims | d.name = 'x']                   |   +- Collect[facts | f.dim_id = ANY(subquery)]
+ *                                                        |   +- Collect[dims | d.name = 'x']
+ *                                                        +- subquery: Collect[dims | d.id | d.name = 'x']
+ * </pre>
+ *
+ * The keys are collected before the join is executed and the filter is applied on the shards as a lucene query.
+ * Rows of the larger side which cannot match are no longer collected and sent to the join.
+ *
+ * The smaller side is read twice, so the rule only applies if statistics are available and estimate
+ * at most {@link #MAX_KEYS} rows for the smaller side.
+ *
+ * Estimates can be wrong, so the cap is also enforced at runtime: The key lookup is limited to
+ * {@code MAX_KEYS + 1} rows and the filter is
+ *
+ * <pre>
+ *     f.dim_id = ANY(subquery) OR array_length(subquery, 1) > MAX_KEYS
+ * </pre>
+ *
+ * If the limit is hit, the second operand normalizes to {@code true} once the keys are bound and
+ * the larger side is collected unfiltered.
+ */
+public class AddHashJoinRuntimeFilter implements Rule<HashJoin> {
+
+    static final long MAX_KEYS = 10_000;
+
+    private final Pattern<HashJoin> pattern = typeOf(HashJoin.class);
+
+    @Override
+    public Pattern<HashJoin> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(HashJoin join,
+                             Captures captures,
+                             PlanStats planStats,
+                             TransactionContext txnCtx,
+                             NodeContext nodeCtx,
+                             Function<LogicalPlan, LogicalPlan> resolvePlan) {
+        Side lhs = Side.resolve(join.lhs(), resolvePlan);
+        Side rhs = Side.resolve(join.rhs(), resolvePlan);
+        if (lhs == null || rhs == null) {
+            return null;
+        }
+        if (hasRuntimeFilter(lhs.collect, rhs.collect) || hasRuntimeFilter(rhs.collect, lhs.collect)) {
+            return null;
+        }
+        long lhsRows = planStats.get(lhs.collect).numDocs();
+        long rhsRows = planStats.get(rhs.collect).numDocs();
+        if (lhsRows == -1 || rhsRows == -1) {
+            return null;
+        }
+        boolean filterLhs = rhsRows < lhsRows;
+        Side probe = filterLhs ? lhs : rhs;
+        Side build = filterLhs ? rhs : lhs;
+        if (Math.min(lhsRows, rhsRows) > MAX_KEYS || !isSelective(build.collect)) {
+            return null;
+        }
+        Reference[] keys = findKeys(join.joinCondition(), probe, build);
+        if (keys == null) {
+            return null;
+        }
+        Reference probeKey = keys[0];
+        Reference buildKey = keys[1];
+
+        QueriedSelectRelation keysRelation = new QueriedSelectRelation(
+            false,
+            List.of(build.collect.relation()),
+            List.of(),
+            List.of(buildKey),
+            build.collect.where().queryOrFallback(),
+            List.of(),
+            null,
+            null,
+            null,
+            null
+        );
+        SelectSymbol runtimeKeys = new SelectSymbol(
+            keysRelation,
+            new ArrayType<>(buildKey.valueType()),
+            ResultType.SINGLE_COLUMN_MULTIPLE_VALUES,
+            false
+        );
+        Symbol runtimeFilter = function(
+            nodeCtx,
+            OrOperator.NAME,
+            function(nodeCtx, AnyEqOperator.NAME, probeKey, runtimeKeys),
+            function(
+                nodeCtx,
+                GtOperator.NAME,
+                function(nodeCtx, ArrayUpperFunction.ARRAY_LENGTH, runtimeKeys, Literal.of(1)),
+                Literal.of((int) MAX_KEYS)
+            )
+        );
+        Collect probeCollect = probe.collect;
+        LogicalPlan filteredProbe = probe.replaceCollect(new Collect(
+            probeCollect.relation(),
+            probeCollect.outputs(),
+            probeCollect.where().add(runtimeFilter)
+        ));
+        LogicalPlan keysPlan = new RootRelationBoundary(
+            new Limit(
+                new Collect(build.collect.relation(), List.of(buildKey), build.collect.where()),
+                Literal.of(MAX_KEYS + 1),
+                Literal.of(0L)
+            )
+        );
+        HashJoin newJoin = new HashJoin(
+            filterLhs ? filteredProbe : join.lhs(),
+            filterLhs ? join.rhs() : filteredProbe,
+            join.joinCondition()
+        );
+        return MultiPhase.createIfNeeded(Map.of(keysPlan, runtimeKeys), newJoin);
+    }
+
+    private static Symbol function(NodeContext nodeCtx, String name, Symbol... arguments) {
+        List<Symbol> args = List.of(arguments);
+        var impl = nodeCtx.functions().get(null, name, args, SearchPath.pathWithPGCatalogAndDoc());
+        return new io.crate.expression.symbol.Function(impl.signature(), args, impl.boundSignature().returnType());
+    }
+
+    /**
+     * The keys are only worth collecting if the smaller side filters its table.
+     * Otherwise it usually contains all keys which are referenced by the larger side.
+     * The filter must return the same rows for the key lookup and the join.
+     */
+    private static boolean isSelective(Collect build) {
+        WhereClause where = build.where();
+        if (!where.hasQuery()) {
+            return false;
+        }
+        Symbol query = where.queryOrFallback();
+        return Symbols.isDeterministic(query) && !SymbolVisitors.any(s -> s instanceof SelectSymbol, query);
+    }
+
+    /**
+     * @return the columns of the first equi-join condition between probe and build as [probeKey, buildKey]
+     */
+    @Nullable
+    private static Reference[] findKeys(Symbol joinCondition, Side probe, Side build) {
+        for (Symbol condition : AndOperator.split(joinCondition)) {
+            if (!(condition instanceof io.crate.expression.symbol.Function eq) || !eq.name().equals(EqOperator.NAME)) {
+                continue;
+            }
+            Symbol left = eq.arguments().get(0);
+            Symbol right = eq.arguments().get(1);
+            DataType<?> type = left.valueType();
+            if (!type.equals(right.valueType()) || !DataTypes.isPrimitive(type)) {
+                continue;
+            }
+            Reference probeKey = probe.column(left);
+            Reference buildKey = build.column(right);
+            if (probeKey == null || buildKey == null) {
+                probeKey = probe.column(right);
+                buildKey = build.column(left);
+            }
+            if (probeKey != null && buildKey != null) {
+                return new Reference[] { probeKey, buildKey };
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasRuntimeFilter(Collect probe, Collect build) {
+        return SymbolVisitors.any(
+            s -> s instanceof SelectSymbol selectSymbol
+                && selectSymbol.relation() instanceof QueriedSelectRelation relation
+                && relation.from().contains(build.relation()),
+            probe.where().queryOrFallback()
+        );
+    }
+
+    /**
+     * A join side which collects from a table, optionally under an alias.
+     */
+    private record Side(LogicalPlan plan, Collect collect) {
+
+        @Nullable
+        static Side resolve(LogicalPlan plan, Function<LogicalPlan, LogicalPlan> resolvePlan) {
+            LogicalPlan resolved = resolvePlan.apply(plan);
+            if (resolved instanceof Collect collect) {
+                return new Side(collect, collect);
+            }
+            if (resolved instanceof Rename rename && resolvePlan.apply(rename.source()) instanceof Collect collect) {
+                return new Side(rename, collect);
+            }
+            return null;
+        }
+
+        /**
+         * @return the column of the table for an output of the side
+         */
+        @Nullable
+        Reference column(Symbol output) {
+            int idx = plan.outputs().indexOf(output);
+            if (idx < 0) {
+                return null;
+            }
+            return collect.outputs().get(idx) instanceof Reference ref ? ref : null;
+        }
+
+        LogicalPlan replaceCollect(Collect newCollect) {
+            return plan == collect ? newCollect : plan.replaceSources(List.of(newCollect));
+        }
+    }
+}
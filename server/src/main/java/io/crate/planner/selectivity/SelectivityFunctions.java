@@ -48,6 +48,7 @@ import io.crate.metadata.TransactionContext;
 import io.crate.statistics.ColumnStats;
 import io.crate.statistics.MostCommonValues;
 import io.crate.statistics.Stats;
+import io.crate.types.DataType;
 
 /**
  * Used to estimate the number of rows returned after applying a given query.
@@ -69,9 +70,84 @@ public class SelectivityFunctions {
                                        Stats stats,
                                        Symbol query,
                                        @Nullable Row params) {
+        return (long) (stats.numDocs() * selectivity(nodeCtx, txnCtx, stats, query, params));
+    }
+
+    /**
+     * @return the estimated fraction of rows (0.0 - 1.0) matching the query
+     */
+    public static double selectivity(NodeContext nodeCtx,
+                                     TransactionContext txnCtx,
+                                     Stats stats,
+                                     Symbol query,
+                                     @Nullable Row params) {
         var estimator = new SelectivityEstimator(nodeCtx, txnCtx, stats, params);
-        Double selectivity = query.accept(estimator, null);
-        return (long) (stats.numDocs() * selectivity);
+        return query.accept(estimator, null);
+    }
+
+    /**
+     * Estimates the selectivity of an equi-join condition `lhs = rhs` in relation to the cartesian product
+     * of both sides.
+     *
+     * <ul>
+     * <li>If both columns have most common values, the frequencies of matching values are used</li>
+     * <li>Otherwise the distinct counts are used, restricted to the value range where the histograms of both
+     * columns overlap</li>
+     * </ul>
+     *
+     * See PostgreSQL src/backend/utils/adt/selfuncs.c `eqjoinsel_inner`
+     */
+    public static double equiJoinSelectivity(ColumnStats<?> lhsStats, ColumnStats<?> rhsStats) {
+        if (!lhsStats.mostCommonValues().isEmpty() && !rhsStats.mostCommonValues().isEmpty()) {
+            return selectivityFromMvcMatches(lhsStats, rhsStats);
+        }
+        double nd1 = lhsStats.approxDistinct();
+        double nd2 = rhsStats.approxDistinct();
+        if (nd1 <= 0 || nd2 <= 0) {
+            return DEFAULT_EQ_SEL;
+        }
+        double selectivity = (1.0 - lhsStats.nullFraction()) * (1.0 - rhsStats.nullFraction());
+
+        // The histograms only cover values which are not part of the most common values.
+        // If there are none on both sides, they describe the whole value range and can be used to
+        // restrict the estimate to the values which can possibly match.
+        if (lhsStats.mostCommonValues().isEmpty() && rhsStats.mostCommonValues().isEmpty()) {
+            double lhsOverlap = histogramOverlap(lhsStats, rhsStats);
+            double rhsOverlap = histogramOverlap(rhsStats, lhsStats);
+            if (lhsOverlap == 0.0 || rhsOverlap == 0.0) {
+                return 0.0;
+            }
+            selectivity *= lhsOverlap * rhsOverlap;
+            nd1 = Math.max(1.0, nd1 * lhsOverlap);
+            nd2 = Math.max(1.0, nd2 * rhsOverlap);
+        }
+        return clamp(selectivity / Math.max(nd1, nd2));
+    }
+
+    /**
+     * @return the fraction of histogram buckets of `stats` which overlap with the value range of the
+     *         histogram of `other`. 1.0 if the histograms cannot be compared.
+     */
+    @SuppressWarnings("unchecked")
+    private static double histogramOverlap(ColumnStats<?> stats, ColumnStats<?> other) {
+        List<Object> histogram = (List<Object>) stats.histogram();
+        List<Object> otherHistogram = (List<Object>) other.histogram();
+        if (histogram.size() < 2 || otherHistogram.size() < 2 || !stats.type().equals(other.type())) {
+            return 1.0;
+        }
+        DataType<Object> type = (DataType<Object>) stats.type();
+        Object otherMin = otherHistogram.get(0);
+        Object otherMax = otherHistogram.get(otherHistogram.size() - 1);
+        int numBuckets = histogram.size() - 1;
+        int overlappingBuckets = 0;
+        for (int i = 0; i < numBuckets; i++) {
+            Object lower = histogram.get(i);
+            Object upper = histogram.get(i + 1);
+            if (type.compare(upper, otherMin) >= 0 && type.compare(lower, otherMax) <= 0) {
+                overlappingBuckets++;
+            }
+        }
+        return (double) overlappingBuckets / numBuckets;
     }
 
     static class SelectivityEstimator extends SymbolVisitor<Void, Double> {
@@ -245,23 +321,7 @@ public class SelectivityFunctions {
             if (rhsStats == null) {
                 return 1.0 / lhsStats.approxDistinct();
             }
-
-            MostCommonValues lhsMcv = lhsStats.mostCommonValues();
-            MostCommonValues rhsMcv = rhsStats.mostCommonValues();
-
-            if (!lhsMcv.isEmpty() && !rhsMcv.isEmpty()) {
-                return selectivityFromMvcMatches(lhsStats, rhsStats);
-            }
-
-            double nullfrac1 = lhsStats.nullFraction();
-            double nullfrac2 = rhsStats.nullFraction();
-
-            double selectivity = (1.0 - nullfrac1) * (1.0 - nullfrac2);
-            if (lhsStats.approxDistinct() > rhsStats.approxDistinct()) {
-                return selectivity / lhsStats.approxDistinct();
-            } else {
-                return selectivity / rhsStats.approxDistinct();
-            }
+            return equiJoinSelectivity(lhsStats, rhsStats);
         }
 
         return 1.0 / lhsStats.approxDistinct();
@@ -318,9 +378,9 @@ public class SelectivityFunctions {
         double unmatchfreq2 = 0.0;
         for (int i = 0; i < rhsMcv.length(); i++) {
             if (hasmatch2[i]) {
-                matchfreq2 = rhsMcv.frequency(i);
+                matchfreq2 += rhsMcv.frequency(i);
             } else {
-                unmatchfreq1 = rhsMcv.frequency(i);
+                unmatchfreq2 += rhsMcv.frequency(i);
             }
         }
         matchfreq2 = clamp(matchfreq2);
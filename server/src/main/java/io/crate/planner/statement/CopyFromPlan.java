@@ -57,6 +57,7 @@ import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.collections.Lists2;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
 import io.crate.execution.dsl.phases.NodeOperationTree;
 import io.crate.execution.dsl.projection.AbstractIndexWriterProjection;
@@ -67,6 +68,7 @@ import io.crate.execution.dsl.projection.SourceIndexWriterReturnSummaryProjectio
 import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.engine.JobLauncher;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
 import io.crate.execution.engine.pipeline.LimitAndOffset;
 import io.crate.expression.reference.file.SourceLineNumberExpression;
 import io.crate.expression.reference.file.SourceParsingFailureExpression;
@@ -83,6 +85,7 @@ import io.crate.metadata.PartitionName;
 import io.crate.metadata.Reference;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Merge;
@@ -124,6 +127,10 @@ public final class CopyFromPlan implements Plan {
             plannerContext.nodeContext(),
             params,
             subQueryResults);
+        ensureClientStreamsAreRegisteredBy(
+            ((Literal<?>) boundedCopyFrom.uri()).value(),
+            dependencies.stdinFileInputFactory(),
+            plannerContext.transactionContext().sessionSettings());
 
         ExecutionPlan plan = planCopyFromExecution(
             copyFrom,
@@ -321,14 +328,21 @@ public final class CopyFromPlan implements Plan {
             rewriteToCollectToUsePartitionValues(table.partitionedByColumns(), partitionValues, toCollect);
         }
 
+        Collection<String> executionNodes;
+        if (boundedCopyFrom.uri() instanceof Literal<?> uri && StdinFileInputFactory.isStdin(uri.value())) {
+            // The client stream is only available on the node the client is connected to
+            executionNodes = List.of(context.handlerNode());
+        } else {
+            executionNodes = getExecutionNodes(
+                allNodes,
+                boundedCopyFrom.settings().getAsInt("num_readers", allNodes.getSize()),
+                boundedCopyFrom.nodePredicate());
+        }
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
             context.nextExecutionPhaseId(),
             "copyFrom",
-            getExecutionNodes(
-                allNodes,
-                boundedCopyFrom.settings().getAsInt("num_readers", allNodes.getSize()),
-                boundedCopyFrom.nodePredicate()),
+            executionNodes,
             boundedCopyFrom.uri(),
             boundedCopyFrom.targetColumns(),
             toCollect,
@@ -432,6 +446,22 @@ public final class CopyFromPlan implements Plan {
         return nodes;
     }
 
+    /**
+     * The streams of clients are only registered for {@code COPY FROM STDIN} of the PostgreSQL wire protocol
+     * and must not be read by other statements, e.g. by specifying a {@code stdin} URI.
+     */
+    private static void ensureClientStreamsAreRegisteredBy(Object uris,
+                                                           StdinFileInputFactory stdinFileInputFactory,
+                                                           CoordinatorSessionSettings sessionSettings) {
+        List<?> values = uris instanceof List<?> list ? list : List.of(uris);
+        for (Object uri : values) {
+            if (StdinFileInputFactory.isStdin(uri) && !stdinFileInputFactory.isRegisteredBy(uri, sessionSettings)) {
+                throw new UnsupportedFeatureException(
+                    "The `stdin` URI scheme can only be used by COPY FROM STDIN of the PostgreSQL wire protocol");
+            }
+        }
+    }
+
     private static Symbol validateAndConvertToLiteral(Object uri) {
         if (uri instanceof String) {
             return Literal.of(DataTypes.STRING.sanitizeValue(uri));
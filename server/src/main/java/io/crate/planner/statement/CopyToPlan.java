@@ -53,6 +53,7 @@ import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.JobLauncher;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.expression.scalar.cast.CastMode;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.RefVisitor;
@@ -65,6 +66,7 @@ import io.crate.metadata.NodeContext;
 import io.crate.metadata.Reference;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Merge;
@@ -114,6 +116,14 @@ public final class CopyToPlan implements Plan {
             plannerContext.nodeContext(),
             params,
             subQueryResults);
+        // The streams of clients are only registered for COPY TO STDOUT of the PostgreSQL wire protocol
+        Object uri = ((Literal<?>) boundedCopyTo.uri()).value();
+        CoordinatorSessionSettings sessionSettings = plannerContext.transactionContext().sessionSettings();
+        if (StdoutFileOutputFactory.isStdout(uri)
+            && !executor.stdoutFileOutputFactory().isRegisteredBy(uri, sessionSettings)) {
+            throw new UnsupportedFeatureException(
+                "The `stdout` URI scheme can only be used by COPY TO STDOUT of the PostgreSQL wire protocol");
+        }
 
         ExecutionPlan executionPlan = planCopyToExecution(
             executor,
@@ -169,6 +179,12 @@ public final class CopyToPlan implements Plan {
         LogicalPlan source = optimizeCollect(context, planStats, collect);
         ExecutionPlan executionPlan = source.build(
             executor, context, Set.of(), projectionBuilder, 0, 0, null, null, params, SubQueryResults.EMPTY);
+        if (StdoutFileOutputFactory.isStdout(((Literal<?>) boundedCopyTo.uri()).value())) {
+            // The rows are written to the client stream which is only available on the handler
+            executionPlan = Merge.ensureOnHandler(executionPlan, context);
+            executionPlan.addProjection(projection);
+            return executionPlan;
+        }
         executionPlan.addProjection(projection);
 
         return Merge.ensureOnHandler(
@@ -256,16 +272,22 @@ public final class CopyToPlan implements Plan {
         WriterProjection.OutputFormat outputFormat =
             settingAsEnum(WriterProjection.OutputFormat.class, OUTPUT_FORMAT_SETTING.get(settings));
 
-        if (!columnsDefined && outputFormat == WriterProjection.OutputFormat.JSON_ARRAY) {
+        if (!columnsDefined
+            && (outputFormat == WriterProjection.OutputFormat.JSON_ARRAY || outputFormat == WriterProjection.OutputFormat.ARROW)) {
             throw new UnsupportedFeatureException("Output format not supported without specifying columns.");
         }
+        String uri = DataTypes.STRING.sanitizeValue(eval.apply(copyTo.uri()));
+        if (overwrites != null && StdoutFileOutputFactory.isStdout(uri)) {
+            throw new UnsupportedFeatureException(
+                "COPY TO STDOUT of a partitioned table requires to specify the columns or a PARTITION clause");
+        }
 
         WhereClause whereClause = new WhereClause(copyTo.whereClause(), partitions, Collections.emptySet());
         return new BoundCopyTo(
             outputs,
             table,
             whereClause,
-            Literal.of(DataTypes.STRING.sanitizeValue(eval.apply(copyTo.uri()))),
+            Literal.of(uri),
             compressionType,
             outputFormat,
             outputNames.isEmpty() ? null : outputNames,
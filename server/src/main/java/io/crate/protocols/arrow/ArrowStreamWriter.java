@@ -0,0 +1,480 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.arrow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.CharacterType;
+import io.crate.types.DataType;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Writes rows in the <a href="https://arrow.apache.org/docs/format/Columnar.html#ipc-streaming-format">Arrow IPC
+ * streaming format</a>, which can be read by analytical clients like pandas, polars or DuckDB without parsing.
+ *
+ * <pre>
+ * stream:  | Schema message | RecordBatch message | ... | 0xFFFFFFFF | 0x00000000 |
+ * message: | 0xFFFFFFFF | int32 metadata size | Message flatbuffer, padded to 8 bytes | body |
+ * </pre>
+ *
+ * <p>
+ * The rows are buffered column by column and written as a record batch once {@code batchSize} rows have been added.
+ * Numeric, boolean, text, date and timestamp columns are mapped to the corresponding Arrow types, all other types,
+ * like objects or arrays, are written as JSON text.
+ * </p>
+ */
+public final class ArrowStreamWriter {
+
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final short METADATA_VERSION_V5 = 4;
+
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIMESTAMP = 10;
+
+    private static final short PRECISION_SINGLE = 1;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short UNIT_MILLISECOND = 1;
+
+    private static final ByteBuf EMPTY = Unpooled.EMPTY_BUFFER;
+
+    private final OutputStream out;
+    private final List<String> names;
+    private final Column[] columns;
+    private final int batchSize;
+    private final byte[] scratch = new byte[8];
+
+    private boolean schemaWritten = false;
+    private int numRows = 0;
+
+    public ArrowStreamWriter(OutputStream out, List<String> names, List<DataType<?>> types, int batchSize) {
+        assert names.size() == types.size() : "Must have a name for each column";
+        this.out = out;
+        this.names = names;
+        this.batchSize = batchSize;
+        this.columns = new Column[types.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Column.of(types.get(i));
+        }
+    }
+
+    public void addRow(Row row) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(row.get(i));
+        }
+        rowAdded();
+    }
+
+    public void addRow(List<? extends Input<?>> inputs) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(inputs.get(i).value());
+        }
+        rowAdded();
+    }
+
+    private void rowAdded() throws IOException {
+        numRows++;
+        if (numRows >= batchSize) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Writes the buffered rows and the end-of-stream marker. The output stream is not closed.
+     */
+    public void finish() throws IOException {
+        if (numRows > 0) {
+            writeBatch();
+        }
+        ensureSchemaWritten();
+        writeIntLE(CONTINUATION);
+        writeIntLE(0);
+        out.flush();
+    }
+
+    private void ensureSchemaWritten() throws IOException {
+        if (schemaWritten) {
+            return;
+        }
+        FlatBufferBuilder builder = new FlatBufferBuilder(1024);
+        int[] fields = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            int name = builder.createString(names.get(i));
+            int type = column.writeType.applyAsInt(builder);
+            int children = builder.createOffsetVector(new int[0]);
+            builder.startTable(7);
+            builder.addOffsetField(0, name);
+            builder.addBooleanField(1, true);
+            builder.addByteField(2, column.typeId);
+            builder.addOffsetField(3, type);
+            builder.addOffsetField(5, children);
+            fields[i] = builder.endTable();
+        }
+        int fieldsVector = builder.createOffsetVector(fields);
+        builder.startTable(4);
+        builder.addOffsetField(1, fieldsVector);
+        int schema = builder.endTable();
+        writeMessage(builder, HEADER_SCHEMA, schema, 0);
+        schemaWritten = true;
+    }
+
+    private void writeBatch() throws IOException {
+        ensureSchemaWritten();
+        List<ByteBuf> buffers = new ArrayList<>();
+        for (Column column : columns) {
+            buffers.add(column.nullCount == 0 ? EMPTY : column.validity);
+            column.addBuffers(buffers);
+        }
+        FlatBufferBuilder builder = new FlatBufferBuilder(256 + buffers.size() * 16);
+        long bodyLength = 0;
+        long[] offsets = new long[buffers.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = bodyLength;
+            bodyLength += align8(buffers.get(i).readableBytes());
+        }
+        builder.startVector(16, buffers.size(), 8);
+        for (int i = buffers.size() - 1; i >= 0; i--) {
+            builder.addStruct(offsets[i], buffers.get(i).readableBytes());
+        }
+        final int buffersVector = builder.endVector();
+        builder.startVector(16, columns.length, 8);
+        for (int i = columns.length - 1; i >= 0; i--) {
+            builder.addStruct(numRows, columns[i].nullCount);
+        }
+        int nodesVector = builder.endVector();
+        builder.startTable(4);
+        builder.addLongField(0, numRows);
+        builder.addOffsetField(1, nodesVector);
+        builder.addOffsetField(2, buffersVector);
+        int recordBatch = builder.endTable();
+        writeMessage(builder, HEADER_RECORD_BATCH, recordBatch, bodyLength);
+
+        for (ByteBuf buffer : buffers) {
+            int length = buffer.readableBytes();
+            buffer.getBytes(buffer.readerIndex(), out, length);
+            writePadding(align8(length) - length);
+        }
+        for (Column column : columns) {
+            column.reset();
+        }
+        numRows = 0;
+    }
+
+    private void writeMessage(FlatBufferBuilder builder, byte headerType, int header, long bodyLength) throws IOException {
+        builder.startTable(5);
+        builder.addLongField(3, bodyLength);
+        builder.addOffsetField(2, header);
+        builder.addShortField(0, METADATA_VERSION_V5);
+        builder.addByteField(1, headerType);
+        byte[] metadata = builder.finish(builder.endTable());
+        // The continuation and the size take 8 bytes, so the body starts 8 byte aligned
+        int paddedLength = align8(metadata.length);
+        writeIntLE(CONTINUATION);
+        writeIntLE(paddedLength);
+        out.write(metadata);
+        writePadding(paddedLength - metadata.length);
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        scratch[0] = (byte) value;
+        scratch[1] = (byte) (value >> 8);
+        scratch[2] = (byte) (value >> 16);
+        scratch[3] = (byte) (value >> 24);
+        out.write(scratch, 0, 4);
+    }
+
+    private void writePadding(int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            out.write(0);
+        }
+    }
+
+    private static int align8(int length) {
+        return (length + 7) & ~7;
+    }
+
+    private static void setBit(ByteBuf bitmap, int index) {
+        int byteIndex = index >> 3;
+        bitmap.setByte(byteIndex, bitmap.getByte(byteIndex) | (1 << (index & 7)));
+    }
+
+    private abstract static class Column {
+
+        final byte typeId;
+        final ToIntFunction<FlatBufferBuilder> writeType;
+        final ByteBuf validity = Unpooled.buffer();
+        int size = 0;
+        int nullCount = 0;
+
+        Column(byte typeId, ToIntFunction<FlatBufferBuilder> writeType) {
+            this.typeId = typeId;
+            this.writeType = writeType;
+        }
+
+        static Column of(DataType<?> type) {
+            return switch (type.id()) {
+                case BooleanType.ID -> new BoolColumn();
+                case ByteType.ID -> new FixedWidthColumn(TYPE_INT, b -> intType(b, 8), 1,
+                    (buf, value) -> buf.writeByte(((Number) value).byteValue()));
+                case ShortType.ID -> new FixedWidthColumn(TYPE_INT, b -> intType(b, 16), 2,
+                    (buf, value) -> buf.writeShortLE(((Number) value).shortValue()));
+                case IntegerType.ID -> new FixedWidthColumn(TYPE_INT, b -> intType(b, 32), 4,
+                    (buf, value) -> buf.writeIntLE(((Number) value).intValue()));
+                case LongType.ID -> new FixedWidthColumn(TYPE_INT, b -> intType(b, 64), 8,
+                    (buf, value) -> buf.writeLongLE(((Number) value).longValue()));
+                case FloatType.ID -> new FixedWidthColumn(TYPE_FLOATING_POINT, b -> floatingPointType(b, PRECISION_SINGLE), 4,
+                    (buf, value) -> buf.writeFloatLE(((Number) value).floatValue()));
+                case DoubleType.ID -> new FixedWidthColumn(TYPE_FLOATING_POINT, b -> floatingPointType(b, PRECISION_DOUBLE), 8,
+                    (buf, value) -> buf.writeDoubleLE(((Number) value).doubleValue()));
+                case TimestampType.ID_WITH_TZ -> new FixedWidthColumn(TYPE_TIMESTAMP, b -> timestampType(b, "UTC"), 8,
+                    (buf, value) -> buf.writeLongLE(((Number) value).longValue()));
+                case TimestampType.ID_WITHOUT_TZ -> new FixedWidthColumn(TYPE_TIMESTAMP, b -> timestampType(b, null), 8,
+                    (buf, value) -> buf.writeLongLE(((Number) value).longValue()));
+                case DateType.ID -> new FixedWidthColumn(TYPE_DATE, ArrowStreamWriter::dateType, 8,
+                    (buf, value) -> buf.writeLongLE(((Number) value).longValue()));
+                case StringType.ID, CharacterType.ID -> new Utf8Column(value -> ((String) value).getBytes(StandardCharsets.UTF_8));
+                default -> new Utf8Column(ArrowStreamWriter::toJson);
+            };
+        }
+
+        final void add(@Nullable Object value) {
+            if ((size & 7) == 0) {
+                validity.writeByte(0);
+            }
+            if (value == null) {
+                nullCount++;
+                addNull();
+            } else {
+                setBit(validity, size);
+                addValue(value);
+            }
+            size++;
+        }
+
+        abstract void addValue(Object value);
+
+        abstract void addNull();
+
+        /**
+         * Adds the buffers which follow the validity buffer
+         */
+        abstract void addBuffers(List<ByteBuf> buffers);
+
+        void reset() {
+            validity.clear();
+            size = 0;
+            nullCount = 0;
+        }
+    }
+
+    private interface ValueWriter {
+        void write(ByteBuf buffer, Object value);
+    }
+
+    private static final class FixedWidthColumn extends Column {
+
+        private final int byteWidth;
+        private final ValueWriter valueWriter;
+        private final ByteBuf values = Unpooled.buffer();
+
+        FixedWidthColumn(byte typeId, ToIntFunction<FlatBufferBuilder> writeType, int byteWidth, ValueWriter valueWriter) {
+            super(typeId, writeType);
+            this.byteWidth = byteWidth;
+            this.valueWriter = valueWriter;
+        }
+
+        @Override
+        void addValue(Object value) {
+            valueWriter.write(values, value);
+        }
+
+        @Override
+        void addNull() {
+            values.writeZero(byteWidth);
+        }
+
+        @Override
+        void addBuffers(List<ByteBuf> buffers) {
+            buffers.add(values);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            values.clear();
+        }
+    }
+
+    private static final class BoolColumn extends Column {
+
+        private final ByteBuf values = Unpooled.buffer();
+
+        BoolColumn() {
+            super(TYPE_BOOL, ArrowStreamWriter::emptyType);
+        }
+
+        @Override
+        void addValue(Object value) {
+            addNull();
+            if ((Boolean) value) {
+                setBit(values, size);
+            }
+        }
+
+        @Override
+        void addNull() {
+            if ((size & 7) == 0) {
+                values.writeByte(0);
+            }
+        }
+
+        @Override
+        void addBuffers(List<ByteBuf> buffers) {
+            buffers.add(values);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            values.clear();
+        }
+    }
+
+    /**
+     * Variable length values with an int32 offsets buffer, which contains {@code size + 1} offsets into the data buffer
+     */
+    private static final class Utf8Column extends Column {
+
+        private final Function<Object, byte[]> toBytes;
+        private final ByteBuf offsets = Unpooled.buffer();
+        private final ByteBuf data = Unpooled.buffer();
+
+        Utf8Column(Function<Object, byte[]> toBytes) {
+            super(TYPE_UTF8, ArrowStreamWriter::emptyType);
+            this.toBytes = toBytes;
+            offsets.writeIntLE(0);
+        }
+
+        @Override
+        void addValue(Object value) {
+            data.writeBytes(toBytes.apply(value));
+            offsets.writeIntLE(data.readableBytes());
+        }
+
+        @Override
+        void addNull() {
+            offsets.writeIntLE(data.readableBytes());
+        }
+
+        @Override
+        void addBuffers(List<ByteBuf> buffers) {
+            buffers.add(offsets);
+            buffers.add(data);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            offsets.clear();
+            offsets.writeIntLE(0);
+            data.clear();
+        }
+    }
+
+    private static byte[] toJson(Object value) {
+        if (value instanceof String str) {
+            return str.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return Strings.toString(JsonXContent.builder().value(value)).getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot convert `" + value + "` to JSON", e);
+        }
+    }
+
+    private static int emptyType(FlatBufferBuilder builder) {
+        builder.startTable(0);
+        return builder.endTable();
+    }
+
+    private static int intType(FlatBufferBuilder builder, int bitWidth) {
+        builder.startTable(2);
+        builder.addIntField(0, bitWidth);
+        builder.addBooleanField(1, true);
+        return builder.endTable();
+    }
+
+    private static int floatingPointType(FlatBufferBuilder builder, short precision) {
+        builder.startTable(1);
+        builder.addShortField(0, precision);
+        return builder.endTable();
+    }
+
+    private static int timestampType(FlatBufferBuilder builder, @Nullable String timezone) {
+        int tz = timezone == null ? 0 : builder.createString(timezone);
+        builder.startTable(2);
+        builder.addShortField(0, UNIT_MILLISECOND);
+        if (timezone != null) {
+            builder.addOffsetField(1, tz);
+        }
+        return builder.endTable();
+    }
+
+    private static int dateType(FlatBufferBuilder builder) {
+        builder.startTable(1);
+        builder.addShortField(0, UNIT_MILLISECOND);
+        return builder.endTable();
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.arrow;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal builder for the <a href="https://flatbuffers.dev/flatbuffers_internals.html">FlatBuffers</a> binary format
+ * used by the metadata of the Arrow IPC format. Supports tables, strings and vectors of offsets or structs.
+ *
+ * <p>
+ * Like the reference implementation, the buffer is built back to front: referenced objects must be created before
+ * the objects referencing them, and offsets are counted from the end of the buffer.
+ * All values are written in little endian byte order.
+ * </p>
+ */
+final class FlatBufferBuilder {
+
+    private static final int VTABLE_METADATA_FIELDS = 2;
+
+    private byte[] buf;
+
+    /**
+     * Start of the written data within {@link #buf}, the data ends at {@code buf.length}
+     */
+    private int space;
+    private int minAlign = 1;
+
+    private int[] vtable;
+    private int objectStart;
+    private int vectorNumElements;
+
+    FlatBufferBuilder(int initialSize) {
+        this.buf = new byte[initialSize];
+        this.space = initialSize;
+    }
+
+    /**
+     * @return the number of bytes written, which is the offset of the last created object
+     */
+    int offset() {
+        return buf.length - space;
+    }
+
+    private void ensureSpace(int needed) {
+        if (space >= needed) {
+            return;
+        }
+        int used = buf.length - space;
+        int newLength = Math.max(buf.length * 2, used + needed);
+        byte[] newBuf = new byte[newLength];
+        System.arraycopy(buf, space, newBuf, newLength - used, used);
+        space = newLength - used;
+        buf = newBuf;
+    }
+
+    /**
+     * Adds padding so that {@code additionalBytes} followed by a value of {@code size} bytes are aligned to
+     * {@code size}
+     */
+    void prep(int size, int additionalBytes) {
+        if (size > minAlign) {
+            minAlign = size;
+        }
+        int alignSize = (-(offset() + additionalBytes)) & (size - 1);
+        ensureSpace(alignSize + size + additionalBytes);
+        for (int i = 0; i < alignSize; i++) {
+            buf[--space] = 0;
+        }
+    }
+
+    private void putShort(short value) {
+        space -= 2;
+        buf[space] = (byte) value;
+        buf[space + 1] = (byte) (value >> 8);
+    }
+
+    private void putInt(int value) {
+        space -= 4;
+        setInt(space, value);
+    }
+
+    private void setInt(int pos, int value) {
+        buf[pos] = (byte) value;
+        buf[pos + 1] = (byte) (value >> 8);
+        buf[pos + 2] = (byte) (value >> 16);
+        buf[pos + 3] = (byte) (value >> 24);
+    }
+
+    private void putLong(long value) {
+        space -= 8;
+        for (int i = 0; i < 8; i++) {
+            buf[space + i] = (byte) (value >> (i * 8));
+        }
+    }
+
+    void addByte(byte value) {
+        prep(1, 0);
+        buf[--space] = value;
+    }
+
+    void addShort(short value) {
+        prep(2, 0);
+        putShort(value);
+    }
+
+    void addInt(int value) {
+        prep(4, 0);
+        putInt(value);
+    }
+
+    void addLong(long value) {
+        prep(8, 0);
+        putLong(value);
+    }
+
+    /**
+     * Adds an offset to an object created before, relative to the position of the offset itself
+     */
+    void addOffset(int offset) {
+        prep(4, 0);
+        assert offset <= offset() : "Referenced object must have been created before";
+        putInt(offset() - offset + 4);
+    }
+
+    /**
+     * Adds a struct of two longs, like {@code FieldNode} or {@code Buffer} of the Arrow metadata.
+     * Must be called within a vector.
+     */
+    void addStruct(long first, long second) {
+        prep(8, 16);
+        putLong(second);
+        putLong(first);
+    }
+
+    int createString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        addByte((byte) 0);
+        startVector(1, bytes.length, 1);
+        space -= bytes.length;
+        System.arraycopy(bytes, 0, buf, space, bytes.length);
+        return endVector();
+    }
+
+    /**
+     * Starts a vector, the elements must be added in reverse order
+     */
+    void startVector(int elementSize, int numElements, int alignment) {
+        vectorNumElements = numElements;
+        prep(4, elementSize * numElements);
+        prep(alignment, elementSize * numElements);
+    }
+
+    int endVector() {
+        putInt(vectorNumElements);
+        return offset();
+    }
+
+    int createOffsetVector(int[] offsets) {
+        startVector(4, offsets.length, 4);
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            addOffset(offsets[i]);
+        }
+        return endVector();
+    }
+
+    void startTable(int numFields) {
+        assert vtable == null : "Tables must not be nested, create the referenced objects first";
+        vtable = new int[numFields];
+        objectStart = offset();
+    }
+
+    private void slot(int field) {
+        vtable[field] = offset();
+    }
+
+    void addByteField(int field, byte value) {
+        addByte(value);
+        slot(field);
+    }
+
+    void addBooleanField(int field, boolean value) {
+        addByteField(field, value ? (byte) 1 : (byte) 0);
+    }
+
+    void addShortField(int field, short value) {
+        addShort(value);
+        slot(field);
+    }
+
+    void addIntField(int field, int value) {
+        addInt(value);
+        slot(field);
+    }
+
+    void addLongField(int field, long value) {
+        addLong(value);
+        slot(field);
+    }
+
+    void addOffsetField(int field, int offset) {
+        addOffset(offset);
+        slot(field);
+    }
+
+    /**
+     * Writes the vtable of the current table
+     *
+     * <pre>
+     * vtable: | uint16 vtable size | uint16 table size | uint16 offset of each field within the table |
+     * table:  | int32 offset to vtable | fields |
+     * </pre>
+     */
+    int endTable() {
+        addInt(0);
+        int objectOffset = offset();
+        for (int i = vtable.length - 1; i >= 0; i--) {
+            addShort((short) (vtable[i] == 0 ? 0 : objectOffset - vtable[i]));
+        }
+        addShort((short) (objectOffset - objectStart));
+        addShort((short) ((vtable.length + VTABLE_METADATA_FIELDS) * 2));
+        setInt(buf.length - objectOffset, offset() - objectOffset);
+        vtable = null;
+        return objectOffset;
+    }
+
+    /**
+     * Adds the offset to the root table and returns the finished buffer
+     */
+    byte[] finish(int rootTable) {
+        prep(minAlign, 4);
+        addOffset(rootTable);
+        return Arrays.copyOfRange(buf, space, buf.length);
+    }
+}
@@ -193,6 +193,31 @@ class ClientMessages {
         buffer.writeInt(keyData.secretKey());
     }
 
+    static void sendQuery(ByteBuf buffer, String query) {
+        byte[] queryBytes = query.getBytes(StandardCharsets.UTF_8);
+        buffer.writeByte('Q');
+        buffer.writeInt(4 + queryBytes.length + 1);
+        writeCString(buffer, queryBytes);
+    }
+
+    static void sendCopyData(ByteBuf buffer, byte[] data) {
+        buffer.writeByte('d');
+        buffer.writeInt(4 + data.length);
+        buffer.writeBytes(data);
+    }
+
+    static void sendCopyDone(ByteBuf buffer) {
+        buffer.writeByte('c');
+        buffer.writeInt(4);
+    }
+
+    static void sendCopyFail(ByteBuf buffer, String message) {
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        buffer.writeByte('f');
+        buffer.writeInt(4 + messageBytes.length + 1);
+        writeCString(buffer, messageBytes);
+    }
+
     static void sendExecute(ByteBuf buffer, String portalName, int numRows) {
         byte[] portalNameBytes = portalName.getBytes(StandardCharsets.UTF_8);
         int length = 4 + portalNameBytes.length + 1 + 4;
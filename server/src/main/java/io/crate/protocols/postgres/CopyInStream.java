@@ -0,0 +1,175 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.common.annotations.GuardedBy;
+import io.netty.channel.Channel;
+
+/**
+ * InputStream of the data a client sends with CopyData messages during {@code COPY FROM STDIN}.
+ *
+ * <p>
+ * The data is added by the protocol handler and read by the {@code COPY FROM} collector on another thread.
+ * If more than {@code maxBufferedBytes} are buffered, the handler stops reading from the channel until the reader
+ * consumed half of the buffered data. This way the client is slowed down to the speed of the indexing.
+ * </p>
+ */
+final class CopyInStream extends InputStream {
+
+    private final Channel channel;
+    private final long maxBufferedBytes;
+
+    @GuardedBy("this")
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+
+    @GuardedBy("this")
+    private long bufferedBytes = 0;
+
+    @GuardedBy("this")
+    private boolean paused = false;
+
+    @GuardedBy("this")
+    private boolean finished = false;
+
+    @GuardedBy("this")
+    private boolean closed = false;
+
+    @Nullable
+    @GuardedBy("this")
+    private IOException failure;
+
+    @Nullable
+    private byte[] current;
+    private int pos = 0;
+
+    CopyInStream(Channel channel, long maxBufferedBytes) {
+        this.channel = channel;
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    /**
+     * Adds the payload of a CopyData message. Data added after the stream has been closed is discarded.
+     */
+    synchronized void add(byte[] chunk) {
+        if (closed || finished || failure != null) {
+            return;
+        }
+        chunks.add(chunk);
+        bufferedBytes += chunk.length;
+        if (!paused && bufferedBytes >= maxBufferedBytes) {
+            paused = true;
+            channel.config().setAutoRead(false);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Marks the end of the data, called on CopyDone.
+     */
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * Aborts the reading, called on CopyFail or if the connection is closed.
+     */
+    synchronized void fail(String message) {
+        if (!finished) {
+            failure = new IOException(message);
+        }
+        releaseBuffer();
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (current == null || pos == current.length) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            byte[] next = chunks.poll();
+            if (next != null) {
+                current = next;
+                pos = 0;
+                bufferedBytes -= next.length;
+                maybeResume();
+            } else if (finished) {
+                return -1;
+            } else {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for data of the client");
+                }
+            }
+        }
+        int n = Math.min(len, current.length - pos);
+        System.arraycopy(current, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        releaseBuffer();
+        notifyAll();
+    }
+
+    @GuardedBy("this")
+    private void releaseBuffer() {
+        chunks.clear();
+        current = null;
+        bufferedBytes = 0;
+        maybeResume();
+    }
+
+    @GuardedBy("this")
+    private void maybeResume() {
+        if (paused && bufferedBytes <= maxBufferedBytes / 2) {
+            paused = false;
+            channel.config().setAutoRead(true);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+/**
+ * OutputStream which sends the written data as CopyData messages to the client during {@code COPY TO STDOUT}.
+ *
+ * <p>
+ * The data is buffered and sent in chunks of {@code chunkSize} bytes. If the channel is not writable because the
+ * client doesn't read fast enough, the writing thread waits until the chunk has been sent.
+ * Closing the stream sends the remaining data and CopyDone.
+ * </p>
+ */
+final class CopyOutStream extends OutputStream {
+
+    private final Channel channel;
+    private final byte[] buffer;
+    private int count = 0;
+    private boolean closed = false;
+
+    CopyOutStream(Channel channel, int chunkSize) {
+        this.channel = channel;
+        this.buffer = new byte[chunkSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            sendBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                sendBuffer();
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        sendBuffer();
+        Messages.sendCopyDone(channel);
+    }
+
+    private void sendBuffer() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (!channel.isActive()) {
+            throw new IOException("Connection to the client is closed");
+        }
+        ChannelFuture future = Messages.sendCopyData(channel, buffer, 0, count);
+        count = 0;
+        if (!channel.isWritable() && !channel.eventLoop().inEventLoop()) {
+            future.awaitUninterruptibly();
+        }
+    }
+}
@@ -23,10 +23,14 @@ package io.crate.protocols.postgres;
 
 import java.net.SocketAddress;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.jetbrains.annotations.Nullable;
 
+import io.crate.common.annotations.GuardedBy;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
@@ -49,10 +53,14 @@ public class DelayableWriteChannel implements Channel {
     private final Channel delegate;
     private final AtomicReference<DelayedWrites> delay = new AtomicReference<>(null);
 
+    @GuardedBy("writableListeners")
+    private final List<CompletableFuture<Void>> writableListeners = new ArrayList<>();
+
     public DelayableWriteChannel(Channel channel) {
         this.delegate = channel;
         channel.closeFuture().addListener(f -> {
             discardDelayedWrites();
+            notifyWritableListeners();
         });
     }
 
@@ -314,6 +322,47 @@ public class DelayableWriteChannel implements Channel {
         }
     }
 
+    /**
+     * Returns a future which completes once the channel is writable again or closed.
+     */
+    public CompletableFuture<Void> whenWritable() {
+        if (delegate.isWritable() || !delegate.isOpen()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (writableListeners) {
+            writableListeners.add(future);
+        }
+        // The writability could have changed before the listener was added
+        if (delegate.isWritable() || !delegate.isOpen()) {
+            notifyWritableListeners();
+        }
+        return future;
+    }
+
+    /**
+     * Must be called by a handler of the channel on {@code channelWritabilityChanged}
+     */
+    void writabilityChanged() {
+        if (delegate.isWritable()) {
+            notifyWritableListeners();
+        }
+    }
+
+    private void notifyWritableListeners() {
+        List<CompletableFuture<Void>> listeners;
+        synchronized (writableListeners) {
+            if (writableListeners.isEmpty()) {
+                return;
+            }
+            listeners = new ArrayList<>(writableListeners);
+            writableListeners.clear();
+        }
+        for (var listener : listeners) {
+            listener.complete(null);
+        }
+    }
+
     public DelayedWrites delayWrites() {
         return delay.updateAndGet(DelayedWrites::new);
     }
@@ -313,48 +313,60 @@ public class Messages {
      * ByteN
      * The value of the column, in the format indicated by the associated format code. n is the above length.
      */
-    @SuppressWarnings({"unchecked","rawtypes"})
     static void sendDataRow(Channel channel, Row row, List<PGType<?>> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
+        ByteBuf buffer = channel.alloc().buffer();
+        try {
+            writeDataRow(buffer, row, columnTypes, formatCodes);
+        } catch (Throwable t) {
+            buffer.release();
+            throw t;
+        }
+        channel.write(buffer);
+    }
+
+    /**
+     * Appends a DataRow message to the buffer, which may already contain other messages.
+     * If the row can't be encoded, the buffer is reset to its previous content.
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    static void writeDataRow(ByteBuf buffer, Row row, List<PGType<?>> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
         int length = 4 + 2;
         assert columnTypes.size() == row.numColumns()
             : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + columnTypes;
 
-        ByteBuf buffer = channel.alloc().buffer();
+        int start = buffer.writerIndex();
         buffer.writeByte('D');
         buffer.writeInt(0); // will be set at the end
         buffer.writeShort(row.numColumns());
 
-        for (int i = 0; i < row.numColumns(); i++) {
-            PGType pgType = columnTypes.get(i);
-            Object value;
-            try {
-                value = row.get(i);
-            } catch (Exception e) {
-                buffer.release();
-                throw e;
-            }
-            if (value == null) {
-                buffer.writeInt(-1);
-                length += 4;
-            } else {
-                FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
-                switch (formatCode) {
-                    case TEXT:
-                        length += pgType.writeAsText(buffer, value);
-                        break;
-                    case BINARY:
-                        length += pgType.writeAsBinary(buffer, value);
-                        break;
-
-                    default:
-                        buffer.release();
-                        throw new AssertionError("Unrecognized formatCode: " + formatCode);
+        try {
+            for (int i = 0; i < row.numColumns(); i++) {
+                PGType pgType = columnTypes.get(i);
+                Object value = row.get(i);
+                if (value == null) {
+                    buffer.writeInt(-1);
+                    length += 4;
+                } else {
+                    FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
+                    switch (formatCode) {
+                        case TEXT:
+                            length += pgType.writeAsText(buffer, value);
+                            break;
+                        case BINARY:
+                            length += pgType.writeAsBinary(buffer, value);
+                            break;
+
+                        default:
+                            throw new AssertionError("Unrecognized formatCode: " + formatCode);
+                    }
                 }
             }
+        } catch (Throwable t) {
+            buffer.writerIndex(start);
+            throw t;
         }
 
-        buffer.setInt(1, length);
-        channel.write(buffer);
+        buffer.setInt(start + 1, length);
     }
 
     static void writeCString(ByteBuf buffer, byte[] valBytes) {
@@ -565,4 +577,57 @@ public class Messages {
             channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace("sentKeyData"));
         }
     }
+
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format | int16 numColumns | int16[numColumns] columnFormats |
+     *
+     * The data is sent as lines of text, so no columns are announced.
+     */
+    static ChannelFuture sendCopyInResponse(Channel channel) {
+        return sendCopyResponse(channel, 'G', "sentCopyInResponse");
+    }
+
+    /**
+     * CopyOutResponse
+     * | 'H' | int32 len | int8 format | int16 numColumns | int16[numColumns] columnFormats |
+     */
+    static ChannelFuture sendCopyOutResponse(Channel channel) {
+        return sendCopyResponse(channel, 'H', "sentCopyOutResponse");
+    }
+
+    private static ChannelFuture sendCopyResponse(Channel channel, char msgType, String traceLogMsg) {
+        ByteBuf buffer = channel.alloc().buffer(8);
+        buffer.writeByte(msgType);
+        buffer.writeInt(7);
+        buffer.writeByte(FormatCodes.FormatCode.TEXT.ordinal());
+        buffer.writeShort(0);
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace(traceLogMsg));
+        }
+        return channelFuture;
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byte[] data |
+     */
+    static ChannelFuture sendCopyData(Channel channel, byte[] data, int offset, int length) {
+        ByteBuf buffer = channel.alloc().buffer(5 + length);
+        buffer.writeByte('d');
+        buffer.writeInt(4 + length);
+        buffer.writeBytes(data, offset, length);
+        return channel.writeAndFlush(buffer);
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    static ChannelFuture sendCopyDone(Channel channel) {
+        ChannelFuture channelFuture = sendShortMsg(channel, 'c', "sentCopyDone");
+        channel.flush();
+        return channelFuture;
+    }
 }
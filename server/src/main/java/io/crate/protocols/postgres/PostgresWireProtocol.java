@@ -27,6 +27,7 @@ import static io.crate.protocols.postgres.Messages.sendReadyForQuery;
 
 import java.net.InetAddress;
 import java.net.SocketException;
+import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -59,6 +60,9 @@ import io.crate.auth.AuthenticationMethod;
 import io.crate.auth.Protocol;
 import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.collections.Lists2;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.settings.CoordinatorSessionSettings;
@@ -69,7 +73,12 @@ import io.crate.protocols.postgres.parser.PgArrayParser;
 import io.crate.protocols.postgres.types.PGType;
 import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.QualifiedNameReference;
 import io.crate.sql.tree.Statement;
+import io.crate.sql.tree.StringLiteral;
 import io.crate.types.DataType;
 import io.crate.user.User;
 import io.netty.buffer.ByteBuf;
@@ -139,6 +148,36 @@ import joptsimple.OptionSet;
  *          |     ReadyForQuery                |
  *          |<---------------------------------|
  *
+ * COPY FROM STDIN (simple query only):
+ *
+ *          +                                  +
+ *          |   Q (COPY tbl FROM STDIN)        |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CopyInResponse               |
+ *          |<---------------------------------|
+ *          |     CopyData                     |
+ *          |--------------------------------->|
+ *          |     CopyDone | CopyFail          |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CommandComplete              |
+ *          |     ReadyForQuery                |
+ *          |<---------------------------------|
+ *
+ * COPY TO STDOUT (simple query only):
+ *
+ *          +                                  +
+ *          |   Q (COPY tbl TO STDOUT)         |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |     CopyOutResponse              |
+ *          |     CopyData                     |
+ *          |     CopyDone                     |
+ *          |     CommandComplete              |
+ *          |     ReadyForQuery                |
+ *          |<---------------------------------|
+ *
  * Extended Query
  *
  *          +                                  +
@@ -198,6 +237,12 @@ public class PostgresWireProtocol {
     public static int SERVER_VERSION_NUM = 140000;
     public static String PG_SERVER_VERSION = "14.0";
 
+    /**
+     * The number of bytes of CopyData messages that are buffered before the channel stops reading from the client
+     */
+    private static final long MAX_BUFFERED_COPY_IN_BYTES = 8 * 1024 * 1024;
+    private static final int COPY_OUT_CHUNK_SIZE = 64 * 1024;
+
     final PgDecoder decoder;
     final MessageHandler handler;
     private final Sessions sessions;
@@ -205,6 +250,8 @@ public class PostgresWireProtocol {
     private final Function<CoordinatorSessionSettings, AccessControl> getAccessControl;
     private final Authentication authService;
     private final Consumer<ChannelPipeline> addTransportHandler;
+    private final StdinFileInputFactory stdinFileInputFactory;
+    private final StdoutFileOutputFactory stdoutFileOutputFactory;
 
     private DelayableWriteChannel channel;
     Session session;
@@ -212,17 +259,46 @@ public class PostgresWireProtocol {
     private AuthenticationContext authContext;
     private Properties properties;
 
+    /**
+     * The stream of a running {@code COPY FROM STDIN}, set until the client sent CopyDone or CopyFail
+     */
+    @Nullable
+    private CopyInStream copyIn;
+
+    @VisibleForTesting
     PostgresWireProtocol(Sessions sessions,
                          SessionSettingRegistry sessionSettingRegistry,
                          Function<CoordinatorSessionSettings, AccessControl> getAcessControl,
                          Consumer<ChannelPipeline> addTransportHandler,
                          Authentication authService,
                          Supplier<SslContext> getSslContext) {
+        this(
+            sessions,
+            sessionSettingRegistry,
+            getAcessControl,
+            addTransportHandler,
+            authService,
+            getSslContext,
+            new StdinFileInputFactory(),
+            new StdoutFileOutputFactory()
+        );
+    }
+
+    PostgresWireProtocol(Sessions sessions,
+                         SessionSettingRegistry sessionSettingRegistry,
+                         Function<CoordinatorSessionSettings, AccessControl> getAcessControl,
+                         Consumer<ChannelPipeline> addTransportHandler,
+                         Authentication authService,
+                         Supplier<SslContext> getSslContext,
+                         StdinFileInputFactory stdinFileInputFactory,
+                         StdoutFileOutputFactory stdoutFileOutputFactory) {
         this.sessions = sessions;
         this.sessionSettingRegistry = sessionSettingRegistry;
         this.getAccessControl = getAcessControl;
         this.addTransportHandler = addTransportHandler;
         this.authService = authService;
+        this.stdinFileInputFactory = stdinFileInputFactory;
+        this.stdoutFileOutputFactory = stdoutFileOutputFactory;
         this.decoder = new PgDecoder(getSslContext);
         this.handler = new MessageHandler();
     }
@@ -362,6 +438,15 @@ public class PostgresWireProtocol {
                 case 'C':
                     handleClose(buffer, channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     closeSession();
                     channel.close();
@@ -377,12 +462,24 @@ public class PostgresWireProtocol {
         }
 
         private void closeSession() {
+            if (copyIn != null) {
+                copyIn.fail("Connection to the client closed during COPY FROM STDIN");
+                copyIn = null;
+            }
             if (session != null) {
                 session.close();
                 session = null;
             }
         }
 
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            if (channel != null) {
+                channel.writabilityChanged();
+            }
+            super.channelWritabilityChanged(ctx);
+        }
+
         @Override
         public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
             if (cause instanceof SocketException && cause.getMessage().equals("Connection reset")) {
@@ -789,7 +886,14 @@ public class PostgresWireProtocol {
         composedFuture.whenComplete(new ReadyForQueryCallback(channel, TransactionState.IDLE));
     }
 
+    @SuppressWarnings("unchecked")
     private CompletableFuture<?> handleSingleQuery(Statement statement, String query, DelayableWriteChannel channel) {
+        if (statement instanceof CopyFrom<?> copyFrom && isStdio(copyFrom.path(), StdinFileInputFactory.NAME)) {
+            return handleCopyFromStdin((CopyFrom<Expression>) copyFrom, query, channel);
+        }
+        if (statement instanceof CopyTo<?> copyTo && isStdio(copyTo.targetUri(), StdoutFileOutputFactory.NAME)) {
+            return handleCopyToStdout((CopyTo<Expression>) copyTo, query, channel);
+        }
         CompletableFuture<?> result = new CompletableFuture<>();
 
         AccessControl accessControl = getAccessControl.apply(session.sessionSettings());
@@ -831,6 +935,118 @@ public class PostgresWireProtocol {
         }
     }
 
+    /**
+     * {@code STDIN} and {@code STDOUT} are parsed as column references
+     */
+    private static boolean isStdio(Object path, String name) {
+        return path instanceof QualifiedNameReference ref && ref.getName().toString().equals(name);
+    }
+
+    private CompletableFuture<?> handleCopyFromStdin(CopyFrom<Expression> copyFrom,
+                                                     String query,
+                                                     DelayableWriteChannel channel) {
+        AccessControl accessControl = getAccessControl.apply(session.sessionSettings());
+        CopyInStream stream = new CopyInStream(channel.bypassDelay(), MAX_BUFFERED_COPY_IN_BYTES);
+        URI uri = stdinFileInputFactory.register(session.sessionSettings(), stream);
+        try {
+            if (copyFrom.isReturnSummary()) {
+                throw new UnsupportedFeatureException("COPY FROM STDIN doesn't support RETURN SUMMARY");
+            }
+            var statement = new CopyFrom<>(
+                copyFrom.table(),
+                copyFrom.columns(),
+                new StringLiteral(uri.toString()),
+                copyFrom.properties(),
+                false
+            );
+            session.analyze("", statement, Collections.emptyList(), query);
+            session.bind("", "", Collections.emptyList(), null);
+            Messages.sendCopyInResponse(channel.bypassDelay());
+            copyIn = stream;
+            DelayedWrites delayedWrites = channel.delayWrites();
+            RowCountReceiver rowCountReceiver = new RowCountReceiver(query, channel, delayedWrites, accessControl);
+            session.execute("", 0, rowCountReceiver);
+            return session.sync().whenComplete((result, err) -> {
+                // Discards the data which the client still sends if the statement failed
+                stdinFileInputFactory.unregister(uri);
+                stream.close();
+            });
+        } catch (Throwable t) {
+            stdinFileInputFactory.unregister(uri);
+            stream.close();
+            channel.discardDelayedWrites();
+            Messages.sendErrorResponse(channel, accessControl, t);
+            return CompletableFuture.failedFuture(t);
+        }
+    }
+
+    private CompletableFuture<?> handleCopyToStdout(CopyTo<Expression> copyTo,
+                                                    String query,
+                                                    DelayableWriteChannel channel) {
+        AccessControl accessControl = getAccessControl.apply(session.sessionSettings());
+        CopyOutStream stream = new CopyOutStream(channel.bypassDelay(), COPY_OUT_CHUNK_SIZE);
+        URI uri = stdoutFileOutputFactory.register(session.sessionSettings(), stream);
+        try {
+            var statement = new CopyTo<>(
+                copyTo.table(),
+                copyTo.columns(),
+                copyTo.whereClause(),
+                true,
+                new StringLiteral(uri.toString()),
+                copyTo.properties()
+            );
+            session.analyze("", statement, Collections.emptyList(), query);
+            session.bind("", "", Collections.emptyList(), null);
+            Messages.sendCopyOutResponse(channel.bypassDelay());
+            DelayedWrites delayedWrites = channel.delayWrites();
+            RowCountReceiver rowCountReceiver = new RowCountReceiver(query, channel, delayedWrites, accessControl);
+            session.execute("", 0, rowCountReceiver);
+            return session.sync().whenComplete((result, err) -> stdoutFileOutputFactory.unregister(uri));
+        } catch (Throwable t) {
+            stdoutFileOutputFactory.unregister(uri);
+            channel.discardDelayedWrites();
+            Messages.sendErrorResponse(channel, accessControl, t);
+            return CompletableFuture.failedFuture(t);
+        }
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byte[] data |
+     *
+     * Data which arrives after a failed {@code COPY FROM STDIN} is discarded.
+     */
+    private void handleCopyData(ByteBuf buffer) {
+        byte[] data = new byte[decoder.payloadLength()];
+        buffer.readBytes(data);
+        if (copyIn != null) {
+            copyIn.add(data);
+        }
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    private void handleCopyDone() {
+        if (copyIn != null) {
+            copyIn.finish();
+            copyIn = null;
+        }
+    }
+
+    /**
+     * CopyFail
+     * | 'f' | int32 len | str errorMessage |
+     */
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        if (copyIn != null) {
+            copyIn.fail("COPY FROM STDIN failed: " + message);
+            copyIn = null;
+        }
+    }
+
     private void handleCancelRequestBody(ByteBuf buffer, Channel channel) {
         var keyData = KeyData.of(buffer);
 
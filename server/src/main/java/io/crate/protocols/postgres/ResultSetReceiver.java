@@ -22,6 +22,7 @@
 package io.crate.protocols.postgres;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -31,11 +32,24 @@ import io.crate.auth.AccessControl;
 import io.crate.data.Row;
 import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
 import io.crate.protocols.postgres.types.PGType;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 
+/**
+ * Sends the rows of a result as DataRow messages.
+ *
+ * <p>
+ * The rows are encoded into a buffer which is written to the channel once it exceeds {@link #BATCH_BYTES}, instead of
+ * allocating a buffer and writing it for each row.
+ * If the client doesn't read the messages fast enough and the channel isn't writable, the consumer of the rows is
+ * paused until the channel becomes writable again, so that the result isn't buffered in the outbound buffer.
+ * </p>
+ */
 class ResultSetReceiver extends BaseResultReceiver {
 
+    static final int BATCH_BYTES = 32 * 1024;
+
     private final String query;
     private final DelayableWriteChannel channel;
     private final List<PGType<?>> columnTypes;
@@ -49,6 +63,9 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     private long rowCount = 0;
 
+    @Nullable
+    private ByteBuf batch;
+
     ResultSetReceiver(String query,
                       DelayableWriteChannel channel,
                       DelayedWrites delayedWrites,
@@ -69,14 +86,38 @@ class ResultSetReceiver extends BaseResultReceiver {
     @Override
     public void setNextRow(Row row) {
         rowCount++;
-        Messages.sendDataRow(directChannel, row, columnTypes, formatCodes);
-        if (rowCount % 1000 == 0) {
+        if (batch == null) {
+            batch = directChannel.alloc().buffer(BATCH_BYTES);
+        }
+        Messages.writeDataRow(batch, row, columnTypes, formatCodes);
+        if (rowCount % 1000 == 0 || batch.readableBytes() >= BATCH_BYTES) {
+            writeBatch();
             directChannel.flush();
         }
     }
 
+    @Override
+    @Nullable
+    public CompletableFuture<?> readyForMoreRows() {
+        if (directChannel.isWritable()) {
+            return null;
+        }
+        // Everything must be flushed, otherwise the outbound buffer can't drain
+        writeBatch();
+        directChannel.flush();
+        return channel.whenWritable();
+    }
+
+    private void writeBatch() {
+        if (batch != null) {
+            directChannel.write(batch);
+            batch = null;
+        }
+    }
+
     @Override
     public void batchFinished() {
+        writeBatch();
         ChannelFuture sendPortalSuspended = Messages.sendPortalSuspended(directChannel);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
@@ -89,6 +130,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void allFinished() {
+        writeBatch();
         ChannelFuture sendCommandComplete = Messages.sendCommandComplete(directChannel, query, rowCount);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
@@ -97,6 +139,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void fail(@NotNull Throwable throwable) {
+        writeBatch();
         ChannelFuture sendErrorResponse = Messages.sendErrorResponse(directChannel, accessControl, throwable);
         channel.writePendingMessages(delayedWrites);
         channel.flush();
@@ -0,0 +1,359 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.rest.action;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.action.sql.ResultReceiver;
+import io.crate.auth.AccessControl;
+import io.crate.common.CheckedFunction;
+import io.crate.common.collections.Lists2;
+import io.crate.data.Row;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+import io.crate.protocols.arrow.ArrowStreamWriter;
+import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+
+/**
+ * Writes the result of a query as chunks of a response with chunked transfer encoding while the rows are produced,
+ * instead of building the whole response in memory like {@link RestResultSetReceiver}.
+ *
+ * <p>
+ * The response has the same format as a regular response, or the Arrow IPC streaming format if created with
+ * {@link #arrow(ChannelHandlerContext, HttpResponse, boolean, AccessControl, List)}. The response headers are
+ * written together with the
+ * first chunk, so errors which happen before the first chunk is complete are sent as regular error response.
+ * Errors which happen later are added to the response as {@code error} object after the rows and the connection
+ * is closed.
+ * </p>
+ *
+ * If the client doesn't read the response fast enough and the channel isn't writable, the consumer of the rows is
+ * paused until the written chunks have been sent.
+ */
+class RestStreamingResultSetReceiver implements ResultReceiver<Void> {
+
+    static final int CHUNK_BYTES = 32 * 1024;
+
+    private final ChannelHandlerContext ctx;
+    private final HttpResponse response;
+    private final boolean closeConnection;
+    private final AccessControl accessControl;
+    private final ChunkOutputStream out;
+    private final ResultWriter writer;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    private volatile boolean responseStarted = false;
+
+    @Nullable
+    private ChannelFuture lastWrite;
+
+    private long rowCount;
+
+    /**
+     * Writes the result in the same JSON format as a regular response
+     *
+     * @param response the headers of the response, written before the first chunk
+     */
+    RestStreamingResultSetReceiver(ChannelHandlerContext ctx,
+                                   HttpResponse response,
+                                   boolean closeConnection,
+                                   AccessControl accessControl,
+                                   List<Symbol> outputFields,
+                                   long startTimeNs,
+                                   boolean includeTypesOnResponse) throws IOException {
+        this(ctx, response, closeConnection, accessControl, out -> new JsonResultWriter(
+            out,
+            outputFields,
+            startTimeNs,
+            includeTypesOnResponse
+        ));
+    }
+
+    private RestStreamingResultSetReceiver(ChannelHandlerContext ctx,
+                                           HttpResponse response,
+                                           boolean closeConnection,
+                                           AccessControl accessControl,
+                                           CheckedFunction<OutputStream, ResultWriter, IOException> createWriter) throws IOException {
+        this.ctx = ctx;
+        this.response = response;
+        this.closeConnection = closeConnection;
+        this.accessControl = accessControl;
+        this.out = new ChunkOutputStream(ctx);
+        this.writer = createWriter.apply(out);
+    }
+
+    /**
+     * Writes the result in the Arrow IPC streaming format, see {@link ArrowStreamWriter}.
+     * The format has no representation for errors, so the connection is closed without writing the end-of-stream
+     * marker if the query fails after the response started.
+     */
+    static RestStreamingResultSetReceiver arrow(ChannelHandlerContext ctx,
+                                                HttpResponse response,
+                                                boolean closeConnection,
+                                                AccessControl accessControl,
+                                                List<Symbol> outputFields) throws IOException {
+        List<String> names = Lists2.map(outputFields, field -> Symbols.pathFromSymbol(field).sqlFqn());
+        List<DataType<?>> types = Symbols.typeView(outputFields);
+        return new RestStreamingResultSetReceiver(ctx, response, closeConnection, accessControl, out -> new ArrowResultWriter(
+            new ArrowStreamWriter(out, names, types, ArrowStreamWriter.DEFAULT_BATCH_SIZE)
+        ));
+    }
+
+    /**
+     * @return true if the response headers have been written, errors must then be sent as part of the response.
+     */
+    boolean responseStarted() {
+        return responseStarted;
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            writer.addRow(row);
+            rowCount++;
+            if (out.size() >= CHUNK_BYTES) {
+                lastWrite = ctx.writeAndFlush(new DefaultHttpContent(nextChunk()));
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<?> readyForMoreRows() {
+        ChannelFuture lastWrite = this.lastWrite;
+        if (lastWrite == null || ctx.channel().isWritable()) {
+            return null;
+        }
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        lastWrite.addListener(f -> written.complete(null));
+        return written;
+    }
+
+    @Override
+    public void batchFinished() {
+        fail(new IllegalStateException("Incremental result streaming not supported via HTTP"));
+    }
+
+    @Override
+    public void allFinished() {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            writer.finish(rowCount);
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        writeLastChunk(closeConnection);
+        result.complete(null);
+    }
+
+    @Override
+    public void fail(Throwable t) {
+        if (result.isDone()) {
+            return;
+        }
+        if (!responseStarted) {
+            out.release();
+            result.completeExceptionally(t);
+            return;
+        }
+        try {
+            writer.error(SQLExceptions.prepareForClientTransmission(accessControl, t));
+        } catch (IOException | RuntimeException e) {
+            // The content may be incomplete, the client notices it as the connection is closed
+        }
+        writeLastChunk(true);
+        result.complete(null);
+    }
+
+    private ByteBuf nextChunk() {
+        if (!responseStarted) {
+            ctx.write(response);
+            responseStarted = true;
+        }
+        return out.takeBuffer();
+    }
+
+    private void writeLastChunk(boolean close) {
+        ChannelFuture future = ctx.writeAndFlush(new DefaultLastHttpContent(nextChunk()));
+        if (close) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> completionFuture() {
+        return result;
+    }
+
+    /**
+     * Encodes the rows of the response into the output stream
+     */
+    private interface ResultWriter {
+
+        void addRow(Row row) throws IOException;
+
+        void finish(long rowCount) throws IOException;
+
+        /**
+         * Writes the error after the rows written so far, the connection is closed afterwards
+         */
+        void error(Throwable t) throws IOException;
+    }
+
+    private static class JsonResultWriter implements ResultWriter {
+
+        private final XContentBuilder xContentBuilder;
+        private final ResultToXContentBuilder builder;
+        private final int numColumns;
+        private final long startTimeNs;
+
+        JsonResultWriter(OutputStream out,
+                         List<Symbol> outputFields,
+                         long startTimeNs,
+                         boolean includeTypesOnResponse) throws IOException {
+            this.xContentBuilder = new XContentBuilder(JsonXContent.JSON_XCONTENT, out);
+            this.builder = ResultToXContentBuilder.builder(xContentBuilder);
+            this.numColumns = outputFields.size();
+            this.startTimeNs = startTimeNs;
+            builder.cols(outputFields);
+            if (includeTypesOnResponse) {
+                builder.colTypes(outputFields);
+            }
+            builder.startRows();
+        }
+
+        @Override
+        public void addRow(Row row) throws IOException {
+            builder.addRow(row, numColumns);
+            xContentBuilder.flush();
+        }
+
+        @Override
+        public void finish(long rowCount) throws IOException {
+            builder
+                .finishRows()
+                .rowCount(rowCount)
+                .duration(startTimeNs)
+                .build();
+            xContentBuilder.flush();
+        }
+
+        @Override
+        public void error(Throwable t) throws IOException {
+            builder
+                .finishRows()
+                .error(HttpError.fromThrowable(t))
+                .build();
+            xContentBuilder.flush();
+        }
+    }
+
+    private record ArrowResultWriter(ArrowStreamWriter writer) implements ResultWriter {
+
+        @Override
+        public void addRow(Row row) throws IOException {
+            writer.addRow(row);
+        }
+
+        @Override
+        public void finish(long rowCount) throws IOException {
+            writer.finish();
+        }
+
+        @Override
+        public void error(Throwable t) {
+            // Without the end-of-stream marker readers notice that the stream is incomplete
+        }
+    }
+
+    /**
+     * Writes into a pooled buffer which is handed over to the channel as chunk once it is full
+     */
+    private static class ChunkOutputStream extends OutputStream {
+
+        private final ChannelHandlerContext ctx;
+
+        @Nullable
+        private ByteBuf buffer;
+
+        ChunkOutputStream(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        private ByteBuf buffer() {
+            if (buffer == null) {
+                buffer = ctx.alloc().buffer(CHUNK_BYTES);
+            }
+            return buffer;
+        }
+
+        int size() {
+            return buffer == null ? 0 : buffer.readableBytes();
+        }
+
+        ByteBuf takeBuffer() {
+            ByteBuf chunk = buffer();
+            buffer = null;
+            return chunk;
+        }
+
+        void release() {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            buffer().writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer().writeBytes(b, off, len);
+        }
+    }
+}
@@ -143,6 +143,17 @@ class ResultToXContentBuilder {
         return this;
     }
 
+    /**
+     * Adds the error of a failure which happened after parts of the result have been sent
+     */
+    ResultToXContentBuilder error(HttpError error) throws IOException {
+        builder.startObject("error")
+            .field("message", error.message())
+            .field("code", error.errorCode())
+            .endObject();
+        return this;
+    }
+
     XContentBuilder build() throws IOException {
         builder.endObject();
         return builder;
@@ -39,6 +39,7 @@ import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.http.netty4.cors.Netty4CorsConfig;
 import org.elasticsearch.http.netty4.cors.Netty4CorsHandler;
@@ -62,6 +63,7 @@ import io.crate.exceptions.SQLExceptions;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.protocols.arrow.ArrowStreamWriter;
 import io.crate.protocols.http.Headers;
 import io.crate.user.User;
 import io.crate.user.UserLookup;
@@ -71,8 +73,10 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.QueryStringDecoder;
@@ -112,9 +116,15 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             Session session = ensureSession(request);
             Map<String, List<String>> parameters = new QueryStringDecoder(request.uri()).parameters();
             ByteBuf content = request.content();
-            handleSQLRequest(session, content, paramContainFlag(parameters, "types"))
+            boolean includeTypes = paramContainFlag(parameters, "types");
+            boolean stream = paramContainFlag(parameters, "stream");
+            handleSQLRequest(session, ctx, request, content, includeTypes, stream)
                 .whenComplete((result, t) -> {
                     try {
+                        if (result == null && t == null) {
+                            // Response has already been streamed
+                            return;
+                        }
                         sendResponse(session, ctx, request, parameters, result, t);
                     } catch (Throwable ex) {
                         LOGGER.error("Error sending response", ex);
@@ -188,7 +198,17 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         ctx.writeAndFlush(resp, promise);
     }
 
-    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session, ByteBuf content, boolean includeTypes) {
+    /**
+     * @param stream if true, result sets are streamed using chunked transfer encoding and the returned future
+     *               completes with null once the response has been sent.
+     *               Result sets are always streamed if the client accepts the Arrow IPC streaming format.
+     */
+    private CompletableFuture<XContentBuilder> handleSQLRequest(Session session,
+                                                                ChannelHandlerContext ctx,
+                                                                FullHttpRequest request,
+                                                                ByteBuf content,
+                                                                boolean includeTypes,
+                                                                boolean stream) {
         SQLRequestParseContext parseContext;
         try {
             parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(content));
@@ -203,7 +223,7 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         }
         try {
             if (args != null || bulkArgs == null) {
-                return executeSimpleRequest(session, parseContext.stmt(), args, includeTypes);
+                return executeSimpleRequest(session, ctx, request, parseContext.stmt(), args, includeTypes, stream);
             } else {
                 return executeBulkRequest(session, parseContext.stmt(), bulkArgs);
             }
@@ -228,14 +248,23 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
     }
 
     private CompletableFuture<XContentBuilder> executeSimpleRequest(Session session,
+                                                                    ChannelHandlerContext ctx,
+                                                                    FullHttpRequest request,
                                                                     String stmt,
                                                                     List<Object> args,
-                                                                    boolean includeTypes) throws IOException {
+                                                                    boolean includeTypes,
+                                                                    boolean stream) throws IOException {
         long startTimeInNs = System.nanoTime();
         session.parse(UNNAMED, stmt, emptyList());
         session.bind(UNNAMED, UNNAMED, args == null ? emptyList() : args, null);
         DescribeResult description = session.describe('P', UNNAMED);
         List<Symbol> resultFields = description.getFields();
+        if (resultFields != null) {
+            boolean arrow = acceptsArrow(request);
+            if (stream || arrow) {
+                return executeStreamingRequest(session, ctx, request, resultFields, startTimeInNs, includeTypes, arrow);
+            }
+        }
         ResultReceiver<XContentBuilder> resultReceiver;
         if (resultFields == null) {
             resultReceiver = new RestRowCountReceiver(JsonXContent.builder(), startTimeInNs, includeTypes);
@@ -261,6 +290,57 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             .thenCompose(ignored -> resultReceiver.completionFuture());
     }
 
+    private CompletableFuture<XContentBuilder> executeStreamingRequest(Session session,
+                                                                       ChannelHandlerContext ctx,
+                                                                       FullHttpRequest request,
+                                                                       List<Symbol> resultFields,
+                                                                       long startTimeInNs,
+                                                                       boolean includeTypes,
+                                                                       boolean arrow) throws IOException {
+        HttpVersion httpVersion = request.protocolVersion();
+        DefaultHttpResponse response = new DefaultHttpResponse(httpVersion, HttpResponseStatus.OK);
+        response.headers().add(
+            HttpHeaderNames.CONTENT_TYPE,
+            arrow ? ArrowStreamWriter.MEDIA_TYPE : XContentType.JSON.mediaType()
+        );
+        response.headers().add(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        Netty4CorsHandler.setCorsResponseHeaders(request, response, corsConfig);
+        boolean closeConnection = isCloseConnection(request);
+        if (!closeConnection) {
+            Headers.setKeepAlive(httpVersion, response);
+        }
+        AccessControl accessControl = getAccessControl.apply(session.sessionSettings());
+        var resultReceiver = arrow
+            ? RestStreamingResultSetReceiver.arrow(ctx, response, closeConnection, accessControl, resultFields)
+            : new RestStreamingResultSetReceiver(
+                ctx,
+                response,
+                closeConnection,
+                accessControl,
+                resultFields,
+                startTimeInNs,
+                includeTypes
+            );
+        session.execute(UNNAMED, 0, resultReceiver);
+        return session.sync()
+            .handle((ignored, err) -> {
+                if (err == null || resultReceiver.responseStarted()) {
+                    // Failures after the response started are sent as part of the response
+                    return resultReceiver.completionFuture().<XContentBuilder>thenApply(r -> null);
+                }
+                return CompletableFuture.<XContentBuilder>failedFuture(err);
+            })
+            .thenCompose(x -> x);
+    }
+
+    /**
+     * @return true if the client accepts results in the Arrow IPC streaming format
+     */
+    private static boolean acceptsArrow(FullHttpRequest request) {
+        String accept = request.headers().get(HttpHeaderNames.ACCEPT);
+        return accept != null && accept.contains(ArrowStreamWriter.MEDIA_TYPE);
+    }
+
     private CompletableFuture<XContentBuilder> executeBulkRequest(Session session,
                                                                   String stmt,
                                                                   List<List<Object>> bulkArgs) {
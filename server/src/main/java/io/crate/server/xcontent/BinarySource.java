@@ -0,0 +1,197 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.server.xcontent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+/**
+ * A compact binary encoding of the {@code _source} of a document, used instead of JSON if a table is created with
+ * {@code source_format = 'binary'}.
+ *
+ * <pre>
+ * source: | 0x00 | version | object |
+ * value:  | tag | payload |
+ * object: | int32 number of bytes | int32 number of entries | key value ... |
+ * array:  | int32 number of bytes | int32 number of values | value ... |
+ * key:    | vlong (oid << 1) |  or  | vlong (length << 1 | 1) | utf-8 bytes |
+ * </pre>
+ *
+ * <p>
+ * Keys which are column OIDs are written as number instead of text. Numbers are written in binary form instead of
+ * text, and objects and arrays are prefixed with their size, so that a reader can skip the values of columns it
+ * doesn't need without looking at them.
+ * </p>
+ *
+ * JSON starts with {@code {} or whitespace and compressed sources with a compressor header, so the leading
+ * {@code 0x00} byte distinguishes binary sources from the other formats.
+ */
+public final class BinarySource {
+
+    static final byte MAGIC = 0x00;
+    static final byte VERSION_1 = 1;
+
+    public static final byte NULL = 0;
+    public static final byte TRUE = 1;
+    public static final byte FALSE = 2;
+    public static final byte INT = 3;
+    public static final byte LONG = 4;
+    public static final byte FLOAT = 5;
+    public static final byte DOUBLE = 6;
+    public static final byte STRING = 7;
+    public static final byte BINARY = 8;
+    public static final byte OBJECT = 9;
+    public static final byte ARRAY = 10;
+    /**
+     * Numbers which don't fit into a long or double, written as text
+     */
+    public static final byte BIG_NUMBER = 11;
+
+    private BinarySource() {
+    }
+
+    public static boolean isBinary(BytesReference source) {
+        return source.length() > 1 && source.get(0) == MAGIC;
+    }
+
+    /**
+     * Creates a builder which writes the binary format into {@code out}
+     */
+    public static XContentBuilder builder(BytesStreamOutput out) {
+        return new XContentBuilder(new BinarySourceGenerator(out), out);
+    }
+
+    /**
+     * Returns an input positioned at the tag of the root object
+     */
+    public static StreamInput open(BytesReference source) throws IOException {
+        StreamInput in = source.streamInput();
+        byte magic = in.readByte();
+        byte version = in.readByte();
+        if (magic != MAGIC || version != VERSION_1) {
+            throw new IllegalArgumentException("Unsupported source format: " + magic + "/" + version);
+        }
+        return in;
+    }
+
+    public static String readKey(StreamInput in) throws IOException {
+        long key = in.readVLong();
+        if ((key & 1) == 0) {
+            return Long.toString(key >>> 1);
+        }
+        byte[] bytes = new byte[(int) (key >>> 1)];
+        in.readBytes(bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the value following the tag, objects are read as map with the keys in the order of the source
+     */
+    public static Object readValue(StreamInput in, byte tag) throws IOException {
+        return switch (tag) {
+            case NULL -> null;
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            case INT -> (int) in.readZLong();
+            case LONG -> in.readZLong();
+            case FLOAT -> in.readFloat();
+            case DOUBLE -> in.readDouble();
+            case STRING -> readString(in);
+            case BINARY -> in.readByteArray();
+            case BIG_NUMBER -> new BigDecimal(readString(in));
+            case OBJECT -> {
+                in.readInt();
+                int numEntries = in.readInt();
+                LinkedHashMap<String, Object> map = new LinkedHashMap<>(numEntries);
+                for (int i = 0; i < numEntries; i++) {
+                    String key = readKey(in);
+                    map.put(key, readValue(in, in.readByte()));
+                }
+                yield map;
+            }
+            case ARRAY -> {
+                in.readInt();
+                int numValues = in.readInt();
+                List<Object> values = new ArrayList<>(numValues);
+                for (int i = 0; i < numValues; i++) {
+                    values.add(readValue(in, in.readByte()));
+                }
+                yield values;
+            }
+            default -> throw new IllegalArgumentException("Invalid tag in binary source: " + tag);
+        };
+    }
+
+    /**
+     * Skips the value following the tag without decoding it
+     */
+    public static void skipValue(StreamInput in, byte tag) throws IOException {
+        switch (tag) {
+            case NULL, TRUE, FALSE -> {
+            }
+            case INT, LONG -> in.readZLong();
+            case FLOAT -> in.skip(Float.BYTES);
+            case DOUBLE -> in.skip(Double.BYTES);
+            case STRING, BINARY, BIG_NUMBER -> in.skip(in.readVInt());
+            case OBJECT, ARRAY -> in.skip(in.readInt());
+            default -> throw new IllegalArgumentException("Invalid tag in binary source: " + tag);
+        }
+    }
+
+    static String readString(StreamInput in) throws IOException {
+        byte[] bytes = in.readByteArray();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> toMap(BytesReference source) {
+        try (StreamInput in = open(source)) {
+            return (Map<String, Object>) readValue(in, in.readByte());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Converts a binary source to JSON, for consumers which require the source as text or use a JSON parser
+     */
+    public static BytesReference toJson(BytesReference source) {
+        try (XContentBuilder builder = JsonXContent.builder()) {
+            builder.map(toMap(source));
+            return BytesReference.bytes(builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.server.xcontent;
+
+import static io.crate.server.xcontent.BinarySource.ARRAY;
+import static io.crate.server.xcontent.BinarySource.BIG_NUMBER;
+import static io.crate.server.xcontent.BinarySource.BINARY;
+import static io.crate.server.xcontent.BinarySource.DOUBLE;
+import static io.crate.server.xcontent.BinarySource.FALSE;
+import static io.crate.server.xcontent.BinarySource.FLOAT;
+import static io.crate.server.xcontent.BinarySource.INT;
+import static io.crate.server.xcontent.BinarySource.LONG;
+import static io.crate.server.xcontent.BinarySource.NULL;
+import static io.crate.server.xcontent.BinarySource.OBJECT;
+import static io.crate.server.xcontent.BinarySource.STRING;
+import static io.crate.server.xcontent.BinarySource.TRUE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentGenerator;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes the {@link BinarySource} format.
+ * The sizes of objects and arrays are written once they are complete, which requires to seek within the output.
+ */
+final class BinarySourceGenerator implements XContentGenerator {
+
+    /**
+     * OIDs with more digits could overflow when shifted
+     */
+    private static final int MAX_OID_DIGITS = 18;
+
+    private final BytesStreamOutput out;
+
+    /**
+     * Per open object or array: the position of its size, the number of entries and if it's an object
+     */
+    private int[] starts = new int[8];
+    private int[] counts = new int[8];
+    private boolean[] isObject = new boolean[8];
+    private int depth = 0;
+    private boolean closed = false;
+
+    BinarySourceGenerator(BytesStreamOutput out) {
+        this.out = out;
+        out.writeByte(BinarySource.MAGIC);
+        out.writeByte(BinarySource.VERSION_1);
+    }
+
+    @Override
+    public XContentType contentType() {
+        throw new UnsupportedOperationException("Binary source is not a XContentType");
+    }
+
+    @Override
+    public void usePrettyPrint() {
+    }
+
+    @Override
+    public boolean isPrettyPrint() {
+        return false;
+    }
+
+    @Override
+    public void usePrintLineFeedAtEnd() {
+    }
+
+    private void beforeValue() {
+        if (depth > 0 && isObject[depth - 1] == false) {
+            counts[depth - 1]++;
+        }
+    }
+
+    private void startContainer(byte tag, boolean object) {
+        beforeValue();
+        out.writeByte(tag);
+        if (depth == starts.length) {
+            starts = Arrays.copyOf(starts, depth * 2);
+            counts = Arrays.copyOf(counts, depth * 2);
+            isObject = Arrays.copyOf(isObject, depth * 2);
+        }
+        starts[depth] = (int) out.position();
+        counts[depth] = 0;
+        isObject[depth] = object;
+        depth++;
+        // size and number of entries, written in endContainer
+        out.skip(2 * Integer.BYTES);
+    }
+
+    private void endContainer() throws IOException {
+        depth--;
+        int start = starts[depth];
+        long end = out.position();
+        out.seek(start);
+        out.writeInt((int) (end - start - Integer.BYTES));
+        out.writeInt(counts[depth]);
+        out.seek(end);
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        startContainer(OBJECT, true);
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        endContainer();
+    }
+
+    @Override
+    public void writeStartArray() throws IOException {
+        startContainer(ARRAY, false);
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        endContainer();
+    }
+
+    @Override
+    public void writeFieldName(String name) throws IOException {
+        assert depth > 0 && isObject[depth - 1] : "Field names can only be written within objects";
+        counts[depth - 1]++;
+        if (isOid(name)) {
+            out.writeVLong(Long.parseLong(name) << 1);
+        } else {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            out.writeVLong(((long) bytes.length << 1) | 1);
+            out.writeBytes(bytes);
+        }
+    }
+
+    private static boolean isOid(String name) {
+        int length = name.length();
+        if (length == 0 || length > MAX_OID_DIGITS || (length > 1 && name.charAt(0) == '0')) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        beforeValue();
+        out.writeByte(NULL);
+    }
+
+    @Override
+    public void writeNullField(String name) throws IOException {
+        writeFieldName(name);
+        writeNull();
+    }
+
+    @Override
+    public void writeBooleanField(String name, boolean value) throws IOException {
+        writeFieldName(name);
+        writeBoolean(value);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        beforeValue();
+        out.writeByte(value ? TRUE : FALSE);
+    }
+
+    @Override
+    public void writeNumberField(String name, double value) throws IOException {
+        writeFieldName(name);
+        writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(double value) throws IOException {
+        beforeValue();
+        out.writeByte(DOUBLE);
+        out.writeDouble(value);
+    }
+
+    @Override
+    public void writeNumberField(String name, float value) throws IOException {
+        writeFieldName(name);
+        writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(float value) throws IOException {
+        beforeValue();
+        out.writeByte(FLOAT);
+        out.writeFloat(value);
+    }
+
+    @Override
+    public void writeNumberField(String name, int value) throws IOException {
+        writeFieldName(name);
+        writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(int value) throws IOException {
+        beforeValue();
+        out.writeByte(INT);
+        out.writeZLong(value);
+    }
+
+    @Override
+    public void writeNumberField(String name, long value) throws IOException {
+        writeFieldName(name);
+        writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(long value) throws IOException {
+        beforeValue();
+        out.writeByte(LONG);
+        out.writeZLong(value);
+    }
+
+    @Override
+    public void writeNumber(short value) throws IOException {
+        writeNumber((int) value);
+    }
+
+    @Override
+    public void writeNumber(BigInteger value) throws IOException {
+        writeBigNumber(value.toString());
+    }
+
+    @Override
+    public void writeNumberField(String name, BigInteger value) throws IOException {
+        writeFieldName(name);
+        writeNumber(value);
+    }
+
+    @Override
+    public void writeNumber(BigDecimal value) throws IOException {
+        writeBigNumber(value.toString());
+    }
+
+    @Override
+    public void writeNumberField(String name, BigDecimal value) throws IOException {
+        writeFieldName(name);
+        writeNumber(value);
+    }
+
+    private void writeBigNumber(String value) throws IOException {
+        beforeValue();
+        out.writeByte(BIG_NUMBER);
+        out.writeByteArray(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void writeStringField(String name, String value) throws IOException {
+        writeFieldName(name);
+        writeString(value);
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        beforeValue();
+        out.writeByte(STRING);
+        out.writeByteArray(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeString(char[] text, int offset, int len) throws IOException {
+        writeString(new String(text, offset, len));
+    }
+
+    @Override
+    public void writeUTF8String(byte[] value, int offset, int length) throws IOException {
+        beforeValue();
+        out.writeByte(STRING);
+        out.writeVInt(length);
+        out.writeBytes(value, offset, length);
+    }
+
+    @Override
+    public void writeBinaryField(String name, byte[] value) throws IOException {
+        writeFieldName(name);
+        writeBinary(value);
+    }
+
+    @Override
+    public void writeBinary(byte[] value) throws IOException {
+        writeBinary(value, 0, value.length);
+    }
+
+    @Override
+    public void writeBinary(byte[] value, int offset, int length) throws IOException {
+        beforeValue();
+        out.writeByte(BINARY);
+        out.writeVInt(length);
+        out.writeBytes(value, offset, length);
+    }
+
+    @Override
+    public void writeRawValue(InputStream value, XContentType xContentType) throws IOException {
+        try (XContentParser parser = xContentType.xContent().createParser(
+                NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, value)) {
+            parser.nextToken();
+            copyCurrentStructure(parser);
+        }
+    }
+
+    @Override
+    public void copyCurrentStructure(XContentParser parser) throws IOException {
+        if (parser.currentToken() == null) {
+            parser.nextToken();
+        }
+        if (parser.currentToken() == XContentParser.Token.FIELD_NAME) {
+            writeFieldName(parser.currentName());
+            parser.nextToken();
+        }
+        copyCurrentEvent(parser);
+        XContentParser.Token token = parser.currentToken();
+        if (token == XContentParser.Token.START_OBJECT || token == XContentParser.Token.START_ARRAY) {
+            int level = 1;
+            while (level > 0) {
+                token = parser.nextToken();
+                copyCurrentEvent(parser);
+                if (token == XContentParser.Token.START_OBJECT || token == XContentParser.Token.START_ARRAY) {
+                    level++;
+                } else if (token == XContentParser.Token.END_OBJECT || token == XContentParser.Token.END_ARRAY) {
+                    level--;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (depth > 0) {
+            throw new IOException("Unclosed object or array found");
+        }
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void configure(JsonGenerator.Feature f, boolean state) {
+    }
+
+    @Override
+    public boolean isEnabled(JsonGenerator.Feature f) {
+        return false;
+    }
+}
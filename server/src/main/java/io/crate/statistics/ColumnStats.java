@@ -109,6 +109,21 @@ public final class ColumnStats<T> implements Writeable {
         return histogram;
     }
 
+    public DataType<T> type() {
+        return type;
+    }
+
+    /**
+     * @return a copy of these stats with a different number of distinct values.
+     *         Used to derive the stats of a column after an operator reduced the number of rows.
+     */
+    public ColumnStats<T> withApproxDistinct(double approxDistinct) {
+        if (approxDistinct == this.approxDistinct) {
+            return this;
+        }
+        return new ColumnStats<>(nullFraction, averageSizeInBytes, approxDistinct, type, mostCommonValues, histogram);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -26,6 +26,7 @@ import io.crate.metadata.RelationName;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.elasticsearch.common.inject.Singleton;
 
@@ -36,9 +37,19 @@ import org.elasticsearch.common.inject.Singleton;
 public class TableStats {
 
     private volatile Map<RelationName, Stats> tableStats = new HashMap<>();
+    private final AtomicLong version = new AtomicLong();
 
     public void updateTableStats(Map<RelationName, Stats> tableStats) {
         this.tableStats = tableStats;
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns a number which is incremented whenever the statistics are updated.
+     * Plans created using the statistics are outdated once the version changes.
+     */
+    public long version() {
+        return version.get();
     }
 
     /**
@@ -36,4 +36,18 @@ public interface EqQuery<T> {
                      boolean includeLower,
                      boolean includeUpper,
                      boolean hasDocValues);
+
+    /**
+     * Like {@link #rangeQuery(String, Object, Object, boolean, boolean, boolean)}, but can make use of the sort order
+     * of the documents if the index is sorted by the field first.
+     */
+    default Query rangeQuery(String field,
+                             T lowerTerm,
+                             T upperTerm,
+                             boolean includeLower,
+                             boolean includeUpper,
+                             boolean hasDocValues,
+                             boolean isIndexSortedByField) {
+        return rangeQuery(field, lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues);
+    }
 }
@@ -24,6 +24,7 @@ package io.crate.types;
 import org.apache.lucene.document.IntPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.IndexSortSortedNumericDocValuesRangeQuery;
 import org.apache.lucene.search.Query;
 
 public class IntEqQuery implements EqQuery<Number> {
@@ -40,6 +41,17 @@ public class IntEqQuery implements EqQuery<Number> {
                             boolean includeLower,
                             boolean includeUpper,
                             boolean hasDocValues) {
+        return rangeQuery(field, lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues, false);
+    }
+
+    @Override
+    public Query rangeQuery(String field,
+                            Number lowerTerm,
+                            Number upperTerm,
+                            boolean includeLower,
+                            boolean includeUpper,
+                            boolean hasDocValues,
+                            boolean isIndexSortedByField) {
         int lower = Integer.MIN_VALUE;
         if (lowerTerm != null) {
             lower = includeLower ? lowerTerm.intValue() : lowerTerm.intValue() + 1;
@@ -50,8 +62,13 @@ public class IntEqQuery implements EqQuery<Number> {
         }
         Query indexquery = IntPoint.newRangeQuery(field, lower, upper);
         if (hasDocValues) {
-            return new IndexOrDocValuesQuery(
+            Query query = new IndexOrDocValuesQuery(
                     indexquery, SortedNumericDocValuesField.newSlowRangeQuery(field, lower, upper));
+            if (isIndexSortedByField) {
+                // Binary searches the range within the sorted segments, falls back to `query` otherwise
+                return new IndexSortSortedNumericDocValuesRangeQuery(field, lower, upper, query);
+            }
+            return query;
         }
         return indexquery;
     }
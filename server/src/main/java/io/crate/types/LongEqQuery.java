@@ -24,6 +24,7 @@ package io.crate.types;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.IndexSortSortedNumericDocValuesRangeQuery;
 import org.apache.lucene.search.Query;
 
 public class LongEqQuery implements EqQuery<Long> {
@@ -40,6 +41,17 @@ public class LongEqQuery implements EqQuery<Long> {
                             boolean includeLower,
                             boolean includeUpper,
                             boolean hasDocValues) {
+        return rangeQuery(field, lowerTerm, upperTerm, includeLower, includeUpper, hasDocValues, false);
+    }
+
+    @Override
+    public Query rangeQuery(String field,
+                            Long lowerTerm,
+                            Long upperTerm,
+                            boolean includeLower,
+                            boolean includeUpper,
+                            boolean hasDocValues,
+                            boolean isIndexSortedByField) {
         long lower = lowerTerm == null
             ? Long.MIN_VALUE
             : (includeLower ? lowerTerm : lowerTerm + 1);
@@ -48,8 +60,13 @@ public class LongEqQuery implements EqQuery<Long> {
             : (includeUpper ? upperTerm : upperTerm - 1);
         Query indexQuery = LongPoint.newRangeQuery(field, lower, upper);
         if (hasDocValues) {
-            return new IndexOrDocValuesQuery(indexQuery,
-                                             SortedNumericDocValuesField.newSlowRangeQuery(field, lower, upper));
+            Query query = new IndexOrDocValuesQuery(indexQuery,
+                                                    SortedNumericDocValuesField.newSlowRangeQuery(field, lower, upper));
+            if (isIndexSortedByField) {
+                // Binary searches the range within the sorted segments, falls back to `query` otherwise
+                return new IndexSortSortedNumericDocValuesRangeQuery(field, lower, upper, query);
+            }
+            return query;
         }
         return indexQuery;
     }
@@ -108,6 +108,8 @@ import io.crate.blob.TransportPutChunkAction;
 import io.crate.blob.TransportStartBlobAction;
 import io.crate.cluster.decommission.DecommissionNodeAction;
 import io.crate.cluster.decommission.TransportDecommissionNodeAction;
+import io.crate.execution.ddl.views.MaterializedViewChangesAction;
+import io.crate.execution.ddl.views.UpdateMaterializedViewCheckpointsAction;
 import io.crate.execution.dml.delete.ShardDeleteAction;
 import io.crate.execution.dml.delete.TransportShardDeleteAction;
 import io.crate.execution.dml.upsert.ShardUpsertAction;
@@ -237,6 +239,8 @@ public class ActionModule extends AbstractModule {
         actions.register(ReplayChangesAction.INSTANCE, ReplayChangesAction.TransportAction.class);
         actions.register(UpdateSubscriptionAction.INSTANCE, UpdateSubscriptionAction.TransportAction.class);
         actions.register(DropSubscriptionAction.INSTANCE, DropSubscriptionAction.TransportAction.class);
+        actions.register(MaterializedViewChangesAction.INSTANCE, MaterializedViewChangesAction.TransportAction.class);
+        actions.register(UpdateMaterializedViewCheckpointsAction.INSTANCE, UpdateMaterializedViewCheckpointsAction.TransportAction.class);
 
         return unmodifiableMap(actions.getRegistry());
     }
@@ -78,6 +78,7 @@ import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.MapperService.MergeReason;
@@ -674,6 +675,7 @@ public class MetadataCreateIndexService {
         } else {
             final Predicate<String> sourceSettingsPredicate =
                 (s) -> (s.startsWith("index.similarity.") || s.startsWith("index.analysis.") || s.startsWith("index.sort.") ||
+                        s.equals(IndexSortConfig.INDEX_SORT_BY_SETTING.getKey()) ||
                         s.equals("index.mapping.single_type") || s.equals("index.soft_deletes.enabled"))
                         && indexSettingsBuilder.keys().contains(s) == false;
             builder.put(sourceMetadata.getSettings().filter(sourceSettingsPredicate));
@@ -103,12 +103,19 @@ import io.crate.action.sql.Sessions;
 import io.crate.auth.AuthSettings;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.cluster.gracefulstop.DecommissioningService;
+import io.crate.execution.engine.collect.ShardCollectorProvider;
+import io.crate.execution.engine.collect.ShardResultCache;
 import io.crate.execution.engine.collect.stats.JobsLogService;
+import io.crate.execution.engine.collect.stats.NodeResponseStats;
+import io.crate.execution.engine.distribution.DistributingConsumerFactory;
+import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
+import io.crate.execution.engine.spill.SpillService;
 import io.crate.execution.jobs.NodeLimits;
 import io.crate.legacy.LegacySettings;
 import io.crate.memory.MemoryManagerFactory;
 import io.crate.metadata.settings.AnalyzerSettings;
+import io.crate.planner.PlanCache;
 import io.crate.protocols.postgres.PostgresNetty;
 import io.crate.protocols.ssl.SslSettings;
 import io.crate.replication.logical.LogicalReplicationSettings;
@@ -426,8 +433,15 @@ public final class ClusterSettings extends AbstractScopedSettings {
         UDCService.UDC_INITIAL_DELAY_SETTING,
         UDCService.UDC_INTERVAL_SETTING,
         MemoryManagerFactory.MEMORY_ALLOCATION_TYPE,
+        SpillService.SPILL_ENABLED_SETTING,
         AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP,
         Sessions.NODE_READ_ONLY_SETTING,
+        PlanCache.PLAN_CACHE_SIZE,
+        ShardCollectorProvider.SHARD_SCAN_PARALLELISM,
+        ShardResultCache.SHARD_RESULT_CACHE_SIZE,
+        NodeResponseStats.USE_ADAPTIVE_REPLICA_SELECTION,
+        DistributingConsumerFactory.MAX_PAGES_IN_FLIGHT,
+        StreamBucket.COMPRESSION,
         Sessions.STATEMENT_TIMEOUT,
         Sessions.MEMORY_LIMIT,
         PostgresNetty.PSQL_ENABLED_SETTING,
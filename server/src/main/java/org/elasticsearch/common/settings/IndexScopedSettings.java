@@ -33,6 +33,7 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.MergePolicyConfig;
 import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.engine.EngineConfig;
@@ -41,6 +42,7 @@ import org.elasticsearch.index.store.FsDirectoryFactory;
 import org.elasticsearch.index.store.Store;
 
 import io.crate.blob.v2.BlobIndicesService;
+import io.crate.execution.ddl.views.MaterializedViewSettings;
 import io.crate.replication.logical.LogicalReplicationSettings;
 
 /**
@@ -85,6 +87,8 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
         MergePolicyConfig.INDEX_MERGE_POLICY_SEGMENTS_PER_TIER_SETTING,
         MergePolicyConfig.INDEX_MERGE_POLICY_RECLAIM_DELETES_WEIGHT_SETTING,
         IndexSettings.INDEX_TRANSLOG_DURABILITY_SETTING,
+        IndexSettings.INDEX_SOURCE_FORMAT_SETTING,
+        IndexSortConfig.INDEX_SORT_BY_SETTING,
         IndexSettings.INDEX_WARMER_ENABLED_SETTING,
         IndexSettings.INDEX_REFRESH_INTERVAL_SETTING,
         IndexSettings.MAX_NGRAM_DIFF_SETTING,
@@ -120,7 +124,13 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
         BlobIndicesService.SETTING_INDEX_BLOBS_PATH,
         ExistingShardsAllocator.EXISTING_SHARDS_ALLOCATOR_SETTING,
         LogicalReplicationSettings.REPLICATION_SUBSCRIPTION_NAME,
-        LogicalReplicationSettings.PUBLISHER_INDEX_UUID
+        LogicalReplicationSettings.PUBLISHER_INDEX_UUID,
+        MaterializedViewSettings.QUERY,
+        MaterializedViewSettings.SCHEMA,
+        MaterializedViewSettings.SOURCE,
+        MaterializedViewSettings.GROUP_BY,
+        MaterializedViewSettings.SOURCE_GROUP_BY,
+        MaterializedViewSettings.CHECKPOINTS
     );
 
     public static final IndexScopedSettings DEFAULT_SCOPED_SETTINGS = new IndexScopedSettings(Settings.EMPTY, BUILT_IN_INDEX_SETTINGS);
@@ -68,6 +68,20 @@ public final class IndexSettings {
     public static final Setting<Boolean> INDEX_WARMER_ENABLED_SETTING =
         Setting.boolSetting("index.warmer.enabled", true, Property.Dynamic, Property.IndexScope, Property.Deprecated);
 
+    /**
+     * Format used to store the _source of new documents. Documents written with another format remain readable,
+     * so the setting can be changed at any time.
+     */
+    public static final Setting<String> INDEX_SOURCE_FORMAT_SETTING = new Setting<>("index.source_format", "json", (s) -> {
+        switch (s) {
+            case "json":
+            case "binary":
+                return s;
+            default:
+                throw new IllegalArgumentException("unknown value for [index.source_format] must be one of [json, binary] but was: " + s);
+        }
+    }, DataTypes.STRING, Property.Dynamic, Property.IndexScope);
+
     public static final Setting<String> INDEX_CHECK_ON_STARTUP = new Setting<>("index.shard.check_on_startup", "false", (s) -> {
         switch (s) {
             case "false":
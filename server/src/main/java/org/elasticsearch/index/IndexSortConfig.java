@@ -0,0 +1,203 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fielddata.NullValueOrder;
+import org.elasticsearch.index.mapper.ArrayMapper;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.Mapper;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.ObjectMapper;
+import org.jetbrains.annotations.Nullable;
+
+import io.crate.execution.engine.sort.SortSymbolVisitor;
+import io.crate.metadata.ColumnIdent;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.CharacterType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * Configures the sort order of the documents within the segments of a shard, using the {@code sort_by} table setting:
+ *
+ * <pre>
+ *     CREATE TABLE metrics (ts TIMESTAMP, device_id TEXT, value DOUBLE) WITH ("sort_by" = 'ts DESC, device_id')
+ * </pre>
+ *
+ * The sort fields are built the same way as the sort fields of an {@code ORDER BY} on the same columns, so that
+ * Lucene can terminate the collection of a segment early if a query is sorted by a prefix of the index sort.
+ */
+public final class IndexSortConfig {
+
+    /**
+     * Type ids of the columns which can be used to sort an index
+     */
+    public static final Set<Integer> SUPPORTED_TYPE_IDS = Set.of(
+        BooleanType.ID,
+        ByteType.ID,
+        ShortType.ID,
+        IntegerType.ID,
+        LongType.ID,
+        TimestampType.ID_WITH_TZ,
+        TimestampType.ID_WITHOUT_TZ,
+        FloatType.ID,
+        DoubleType.ID,
+        StringType.ID,
+        CharacterType.ID
+    );
+
+    public static final Setting<String> INDEX_SORT_BY_SETTING = new Setting<>(
+        "index.sort_by",
+        "",
+        s -> {
+            parse(s);
+            return s;
+        },
+        DataTypes.STRING,
+        Property.IndexScope,
+        Property.Final
+    );
+
+    public record SortColumn(String column, boolean reverse) {
+
+        public ColumnIdent columnIdent() {
+            return ColumnIdent.fromPath(column);
+        }
+    }
+
+    private IndexSortConfig() {
+    }
+
+    /**
+     * Parses a list of columns with an optional sort direction:
+     * <pre>
+     *     ts DESC, device_id
+     * </pre>
+     */
+    public static List<SortColumn> parse(String value) {
+        if (value.isBlank()) {
+            return List.of();
+        }
+        ArrayList<SortColumn> columns = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String[] parts = item.trim().split("\\s+");
+            if (parts[0].isEmpty() || parts.length > 2) {
+                throw new IllegalArgumentException(
+                    "Invalid value for [sort_by]: '" + value + "', expected a list of columns with an optional ASC or DESC");
+            }
+            boolean reverse = false;
+            if (parts.length == 2) {
+                switch (parts[1].toUpperCase(Locale.ENGLISH)) {
+                    case "ASC" -> reverse = false;
+                    case "DESC" -> reverse = true;
+                    default -> throw new IllegalArgumentException(
+                        "Invalid sort direction for column `" + parts[0] + "` in [sort_by]: " + parts[1]);
+                }
+            }
+            columns.add(new SortColumn(parts[0], reverse));
+        }
+        return columns;
+    }
+
+    public static List<SortColumn> sortColumns(Settings settings) {
+        return parse(INDEX_SORT_BY_SETTING.get(settings));
+    }
+
+    /**
+     * Builds the sort of the documents within the segments, or returns null if the index isn't sorted.
+     * Null values are ordered the same way as by an ORDER BY without NULLS FIRST or NULLS LAST.
+     */
+    @Nullable
+    public static Sort buildIndexSort(Settings settings, MapperService mapperService) {
+        List<SortColumn> sortColumns = sortColumns(settings);
+        if (sortColumns.isEmpty()) {
+            return null;
+        }
+        DocumentMapper documentMapper = mapperService.documentMapper();
+        if (documentMapper == null) {
+            throw new IllegalStateException("The mapping of an index must be known to build the index sort");
+        }
+        SortField[] sortFields = new SortField[sortColumns.size()];
+        for (int i = 0; i < sortColumns.size(); i++) {
+            SortColumn sortColumn = sortColumns.get(i);
+            MappedFieldType fieldType = fieldType(documentMapper, sortColumn.columnIdent());
+            DataType<?> type = DataTypes.ofMappingName(fieldType.typeName());
+            if (fieldType.hasDocValues() == false || type == null || SUPPORTED_TYPE_IDS.contains(type.id()) == false) {
+                throw new IllegalArgumentException(
+                    "Column `" + sortColumn.column() + "` can't be used in [sort_by]");
+            }
+            sortFields[i] = SortSymbolVisitor.mappedSortField(
+                fieldType.name(),
+                type,
+                sortColumn.reverse(),
+                NullValueOrder.fromFlag(sortColumn.reverse())
+            );
+        }
+        return new Sort(sortFields);
+    }
+
+    private static MappedFieldType fieldType(DocumentMapper documentMapper, ColumnIdent column) {
+        Mapper mapper = child(documentMapper.root(), column.name());
+        for (String part : column.path()) {
+            if (mapper instanceof ObjectMapper objectMapper) {
+                mapper = child(objectMapper, part);
+            } else {
+                mapper = null;
+            }
+        }
+        if (mapper instanceof FieldMapper fieldMapper && !(mapper instanceof ArrayMapper)) {
+            return fieldMapper.fieldType();
+        }
+        throw new IllegalArgumentException("Column `" + column.sqlFqn() + "` used in [sort_by] doesn't exist");
+    }
+
+    @Nullable
+    private static Mapper child(ObjectMapper objectMapper, String name) {
+        // Mappers are keyed by OID if the columns have one
+        for (Mapper mapper : objectMapper.getMappers().values()) {
+            if (mapper.simpleName().equals(name)) {
+                return mapper;
+            }
+        }
+        return null;
+    }
+}
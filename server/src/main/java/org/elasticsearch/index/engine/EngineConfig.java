@@ -25,6 +25,7 @@ import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import org.jetbrains.annotations.Nullable;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -114,8 +115,11 @@ public final class EngineConfig {
 
     private final TranslogConfig translogConfig;
 
+    @Nullable
+    private final Sort indexSort;
+
     /**
-     * Creates a new {@link org.elasticsearch.index.engine.EngineConfig}
+     * Creates a new {@link org.elasticsearch.index.engine.EngineConfig} for an index without index sort
      */
     public EngineConfig(ShardId shardId,
                         ThreadPool threadPool,
@@ -136,6 +140,51 @@ public final class EngineConfig {
                         Supplier<RetentionLeases> retentionLeasesSupplier,
                         LongSupplier primaryTermSupplier,
                         TombstoneDocSupplier tombstoneDocSupplier) {
+        this(shardId,
+             threadPool,
+             indexSettings,
+             store,
+             mergePolicy,
+             analyzer,
+             codecService,
+             eventListener,
+             queryCache,
+             queryCachingPolicy,
+             translogConfig,
+             flushMergesAfter,
+             externalRefreshListener,
+             internalRefreshListener,
+             circuitBreakerService,
+             globalCheckpointSupplier,
+             retentionLeasesSupplier,
+             primaryTermSupplier,
+             tombstoneDocSupplier,
+             null);
+    }
+
+    /**
+     * Creates a new {@link org.elasticsearch.index.engine.EngineConfig}
+     */
+    public EngineConfig(ShardId shardId,
+                        ThreadPool threadPool,
+                        IndexSettings indexSettings,
+                        Store store,
+                        MergePolicy mergePolicy,
+                        Analyzer analyzer,
+                        CodecService codecService,
+                        Engine.EventListener eventListener,
+                        QueryCache queryCache,
+                        QueryCachingPolicy queryCachingPolicy,
+                        TranslogConfig translogConfig,
+                        TimeValue flushMergesAfter,
+                        List<ReferenceManager.RefreshListener> externalRefreshListener,
+                        List<ReferenceManager.RefreshListener> internalRefreshListener,
+                        CircuitBreakerService circuitBreakerService,
+                        LongSupplier globalCheckpointSupplier,
+                        Supplier<RetentionLeases> retentionLeasesSupplier,
+                        LongSupplier primaryTermSupplier,
+                        TombstoneDocSupplier tombstoneDocSupplier,
+                        @Nullable Sort indexSort) {
         this.shardId = shardId;
         this.indexSettings = indexSettings;
         this.threadPool = threadPool;
@@ -170,6 +219,7 @@ public final class EngineConfig {
         this.retentionLeasesSupplier = Objects.requireNonNull(retentionLeasesSupplier);
         this.primaryTermSupplier = primaryTermSupplier;
         this.tombstoneDocSupplier = tombstoneDocSupplier;
+        this.indexSort = indexSort;
     }
 
     /**
@@ -356,4 +406,12 @@ public final class EngineConfig {
     public TombstoneDocSupplier getTombstoneDocSupplier() {
         return tombstoneDocSupplier;
     }
+
+    /**
+     * Returns the sort of the documents within the segments, or {@code null} if the index isn't sorted.
+     */
+    @Nullable
+    public Sort getIndexSort() {
+        return indexSort;
+    }
 }
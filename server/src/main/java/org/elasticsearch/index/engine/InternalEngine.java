@@ -2310,6 +2310,9 @@ public class InternalEngine extends Engine {
         iwc.setMaxFullFlushMergeWaitMillis(0);
         iwc.setRAMBufferSizeMB(engineConfig.getIndexingBufferSize().getMbFrac());
         iwc.setCodec(engineConfig.getCodec());
+        if (engineConfig.getIndexSort() != null) {
+            iwc.setIndexSort(engineConfig.getIndexSort());
+        }
         iwc.setUseCompoundFile(true); // always use compound on flush - reduces # of file-handles on refresh
         return iwc;
     }
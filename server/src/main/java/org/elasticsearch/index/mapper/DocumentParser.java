@@ -30,6 +30,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.NumericDocValuesField;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.IndexSettings;
@@ -38,6 +39,7 @@ import org.jetbrains.annotations.Nullable;
 
 import io.crate.common.collections.Tuple;
 import io.crate.metadata.doc.DocSysColumns;
+import io.crate.server.xcontent.BinarySource;
 import io.crate.server.xcontent.LoggingDeprecationHandler;
 import io.crate.server.xcontent.XContentHelper;
 
@@ -58,9 +60,13 @@ final class DocumentParser {
         final Mapping mapping = docMapper.mapping();
         final ParseContext.InternalParseContext context;
         final XContentType xContentType = source.getXContentType();
+        // The stored _source keeps the binary format, only the parser needs JSON
+        final BytesReference bytes = source.source() != null && BinarySource.isBinary(source.source())
+            ? BinarySource.toJson(source.source())
+            : source.source();
 
         try (XContentParser parser = XContentHelper.createParser(docMapperParser.getXContentRegistry(),
-            LoggingDeprecationHandler.INSTANCE, source.source(), xContentType)) {
+            LoggingDeprecationHandler.INSTANCE, bytes, xContentType)) {
             context = new ParseContext.InternalParseContext(indexSettings, docMapperParser, docMapper, source, parser);
             validateStart(parser);
             internalParseDocument(mapping, metadataFieldsMappers, context, parser);
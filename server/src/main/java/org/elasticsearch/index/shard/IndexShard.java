@@ -65,6 +65,7 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.SetOnce;
@@ -105,6 +106,7 @@ import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.CommitStats;
@@ -2670,10 +2672,19 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             globalCheckpointSupplier,
             replicationTracker::getRetentionLeases,
             this::getOperationPrimaryTerm,
-            tombstoneDocSupplier()
+            tombstoneDocSupplier(),
+            getIndexSort()
         );
     }
 
+    /**
+     * Returns the sort of the documents within the segments, or {@code null} if the index isn't sorted.
+     */
+    @Nullable
+    public Sort getIndexSort() {
+        return mapperService == null ? null : IndexSortConfig.buildIndexSort(indexSettings.getSettings(), mapperService);
+    }
+
     /**
      * Acquire a primary operation permit whenever the shard is ready for indexing. If a permit is directly available, the provided
      * ActionListener will be called on the calling thread. During relocation hand-off, permit acquisition can be delayed. The provided
@@ -25,6 +25,7 @@ import static io.crate.testing.Asserts.assertThat;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
@@ -58,7 +59,7 @@ public class RowConsumerToResultReceiverTest {
             }
         };
         RowConsumerToResultReceiver batchConsumer =
-            new RowConsumerToResultReceiver(resultReceiver, 0, t -> {});
+            new RowConsumerToResultReceiver(resultReceiver, 0, Runnable::run, t -> {});
 
         batchConsumer.accept(batchSimulatingIterator, null);
         resultReceiver.completionFuture().get(10, TimeUnit.SECONDS);
@@ -72,9 +73,63 @@ public class RowConsumerToResultReceiverTest {
     @Test
     public void testExceptionOnAllLoadedCallIsForwardedToResultReceiver() throws Exception {
         BaseResultReceiver resultReceiver = new BaseResultReceiver();
-        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, t -> {});
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, Runnable::run, t -> {});
 
         consumer.accept(FailingBatchIterator.failOnAllLoaded(), null);
         assertThat(resultReceiver.completionFuture().isCompletedExceptionally()).isTrue();
     }
+
+    @Test
+    public void test_consumption_is_paused_until_receiver_is_ready_for_more_rows() throws Exception {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        List<Object[]> collectedRows = new ArrayList<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public void setNextRow(Row row) {
+                collectedRows.add(row.materialize());
+            }
+
+            @Override
+            public CompletableFuture<?> readyForMoreRows() {
+                return collectedRows.size() == 2 ? ready : null;
+            }
+        };
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, Runnable::run, t -> {});
+
+        consumer.accept(TestingBatchIterators.range(0, 5), null);
+        assertThat(collectedRows).hasSize(2);
+        assertThat(resultReceiver.completionFuture().isDone()).isFalse();
+
+        ready.complete(null);
+        resultReceiver.completionFuture().get(10, TimeUnit.SECONDS);
+        assertThat(collectedRows).hasSize(5);
+    }
+
+    @Test
+    public void test_consumption_resumes_on_given_executor() throws Exception {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        List<Object[]> collectedRows = new ArrayList<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public void setNextRow(Row row) {
+                collectedRows.add(row.materialize());
+            }
+
+            @Override
+            public CompletableFuture<?> readyForMoreRows() {
+                return collectedRows.size() == 2 ? ready : null;
+            }
+        };
+        List<Runnable> scheduled = new ArrayList<>();
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0, scheduled::add, t -> {});
+
+        consumer.accept(TestingBatchIterators.range(0, 5), null);
+        ready.complete(null);
+        assertThat(collectedRows).hasSize(2);
+        assertThat(scheduled).hasSize(1);
+
+        scheduled.get(0).run();
+        resultReceiver.completionFuture().get(10, TimeUnit.SECONDS);
+        assertThat(collectedRows).hasSize(5);
+    }
 }
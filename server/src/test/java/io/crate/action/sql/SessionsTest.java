@@ -47,6 +47,7 @@ import io.crate.execution.jobs.transport.TransportCancelAction;
 import io.crate.metadata.Functions;
 import io.crate.metadata.NodeContext;
 import io.crate.planner.DependencyCarrier;
+import io.crate.planner.PlanCache;
 import io.crate.planner.Planner;
 import io.crate.protocols.postgres.KeyData;
 import io.crate.sql.tree.Declare.Hold;
@@ -75,7 +76,8 @@ public class SessionsTest extends CrateDummyClusterServiceUnitTest {
             new JobsLogs(() -> false),
             Settings.EMPTY,
             clusterService,
-            new TableStats()
+            new TableStats(),
+            new PlanCache(0, nodeCtx)
         );
 
         KeyData keyData = new KeyData(10, 20);
@@ -145,7 +147,8 @@ public class SessionsTest extends CrateDummyClusterServiceUnitTest {
                 .put("statement_timeout", "30s")
                 .build(),
             clusterService,
-            new TableStats()
+            new TableStats(),
+            new PlanCache(0, nodeCtx)
         );
         Session session = sessions.newSession("doc", User.CRATE_USER);
         assertThat(session.sessionSettings().statementTimeout())
@@ -161,7 +164,8 @@ public class SessionsTest extends CrateDummyClusterServiceUnitTest {
             new JobsLogs(() -> false),
             Settings.EMPTY,
             clusterService,
-            new TableStats()
+            new TableStats(),
+            new PlanCache(0, nodeCtx)
         );
         return sessions;
     }
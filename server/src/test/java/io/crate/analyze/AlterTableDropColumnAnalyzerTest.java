@@ -286,6 +286,24 @@ public class AlterTableDropColumnAnalyzerTest extends CrateDummyClusterServiceUn
             .hasMessage("Dropping column: o['oo']['ooa'] which is part of the 'PARTITIONED BY' columns is not allowed");
     }
 
+    @Test
+    public void test_drop_sort_by_column_is_not_allowed() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("CREATE TABLE t2 (ts bigint, x int, y int) WITH (\"sort_by\" = 'ts DESC, x')")
+            .build();
+
+        assertThatThrownBy(() -> e.analyze("ALTER TABLE t2 DROP COLUMN ts"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("Dropping column: ts which is used in 'sort_by' is not allowed");
+        assertThatThrownBy(() -> e.analyze("ALTER TABLE t2 DROP COLUMN x"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("Dropping column: x which is used in 'sort_by' is not allowed");
+
+        AnalyzedAlterTableDropColumn d = e.analyze("ALTER TABLE t2 DROP COLUMN y");
+        assertThat(d.columns()).satisfiesExactly(
+            dc -> assertThat(dc.ref()).isReference().hasName("y"));
+    }
+
     @Test
     public void test_drop_pk_column_is_not_allowed() throws Exception {
         e = SQLExecutor.builder(clusterService)
@@ -335,6 +335,16 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
             .hasMessage("Output format not supported without specifying columns.");
     }
 
+    @Test
+    public void test_copy_to_arrow_format_requires_columns() throws Exception {
+        BoundCopyTo analysis = analyze("COPY users (id, name) TO DIRECTORY '/blah' WITH (format='arrow')");
+        assertThat(analysis.outputFormat()).isEqualTo(WriterProjection.OutputFormat.ARROW);
+
+        assertThatThrownBy(() -> analyze("COPY users TO DIRECTORY '/blah' WITH (format='arrow')"))
+            .isExactlyInstanceOf(UnsupportedFeatureException.class)
+            .hasMessage("Output format not supported without specifying columns.");
+    }
+
     @Test
     public void testCopyFromWithReferenceAssignedToProperty() throws Exception {
         assertThatThrownBy(() -> analyze("COPY users FROM '/blah.txt' with (compression = gzip)"))
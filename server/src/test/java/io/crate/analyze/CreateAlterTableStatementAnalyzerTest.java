@@ -47,6 +47,7 @@ import org.elasticsearch.cluster.routing.allocation.decider.MaxRetryAllocationDe
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.test.ClusterServiceUtils;
 import org.junit.Before;
@@ -1804,4 +1805,25 @@ public class CreateAlterTableStatementAnalyzerTest extends CrateDummyClusterServ
             .isExactlyInstanceOf(UnsupportedOperationException.class)
             .hasMessage("Arrays of float_vector are not supported");
     }
+
+    @Test
+    public void test_create_table_with_sort_by() throws Exception {
+        BoundCreateTable analysis = analyze(
+            "create table tbl (ts timestamp, device text, value double) with (sort_by = 'ts DESC, device')");
+        assertThat(analysis.tableParameter().settings().get(IndexSortConfig.INDEX_SORT_BY_SETTING.getKey()))
+            .isEqualTo("ts DESC, device");
+    }
+
+    @Test
+    public void test_sort_by_column_must_exist_and_support_sorting() throws Exception {
+        assertThatThrownBy(() -> analyze("create table tbl (x int) with (sort_by = 'y')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Column `y` used in [sort_by] doesn't exist");
+        assertThatThrownBy(() -> analyze("create table tbl (xs int[]) with (sort_by = 'xs')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Column `xs` of type `integer_array` can't be used in [sort_by]");
+        assertThatThrownBy(() -> analyze("create table tbl (x int, p int) partitioned by (p) with (sort_by = 'p')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Partition column `p` can't be used in [sort_by]");
+    }
 }
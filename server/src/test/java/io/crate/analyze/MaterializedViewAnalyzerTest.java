@@ -0,0 +1,76 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.analyze;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import io.crate.execution.ddl.views.MaterializedViewSettings;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+
+public class MaterializedViewAnalyzerTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor executor() throws IOException {
+        return SQLExecutor.builder(clusterService)
+            .addTable("create table tbl (x int, y text, z long)")
+            .build();
+    }
+
+    @Test
+    public void test_create_materialized_view_with_group_by_supports_incremental_refresh() throws IOException {
+        SQLExecutor e = executor();
+        AnalyzedCreateTableAs analyzed = e.analyze(
+            "create materialized view mv as select y as grp, x, sum(z) from tbl group by x, y");
+
+        Settings settings = analyzed.internalSettings();
+        assertThat(MaterializedViewSettings.isMaterializedView(settings)).isTrue();
+        assertThat(MaterializedViewSettings.SCHEMA.get(settings)).isEqualTo("doc");
+        assertThat(MaterializedViewSettings.SOURCE.get(settings)).isEqualTo("tbl");
+        assertThat(MaterializedViewSettings.GROUP_BY.get(settings)).containsExactly("x", "grp");
+        assertThat(MaterializedViewSettings.SOURCE_GROUP_BY.get(settings)).containsExactly("x", "y");
+    }
+
+    @Test
+    public void test_create_materialized_view_without_group_by_requires_full_refresh() throws IOException {
+        SQLExecutor e = executor();
+        AnalyzedCreateTableAs analyzed = e.analyze("create materialized view mv as select x, y from tbl");
+
+        Settings settings = analyzed.internalSettings();
+        assertThat(MaterializedViewSettings.isMaterializedView(settings)).isTrue();
+        assertThat(MaterializedViewSettings.SOURCE.get(settings)).isEmpty();
+        assertThat(MaterializedViewSettings.GROUP_BY.get(settings)).isEmpty();
+    }
+
+    @Test
+    public void test_create_materialized_view_with_group_key_missing_in_outputs_requires_full_refresh() throws IOException {
+        SQLExecutor e = executor();
+        AnalyzedCreateTableAs analyzed = e.analyze("create materialized view mv as select sum(z) from tbl group by x");
+
+        assertThat(MaterializedViewSettings.SOURCE.get(analyzed.internalSettings())).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.dsl.projection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.metadata.RowGranularity;
+import io.crate.types.DataTypes;
+
+public class ProjectionsTest {
+
+    private static final EvalProjection EVAL = new EvalProjection(List.of(new InputColumn(0)), RowGranularity.SHARD);
+    private static final FilterProjection FILTER = new FilterProjection(Literal.BOOLEAN_TRUE, List.of(new InputColumn(0)));
+
+    @Test
+    public void test_partial_aggregations_can_be_applied_to_subsets() {
+        var partialAggregation = new AggregationProjection(List.of(), RowGranularity.SHARD, AggregateMode.ITER_PARTIAL);
+        var partialGroup = new GroupProjection(
+            List.of(new InputColumn(0)), List.of(), AggregateMode.ITER_PARTIAL, RowGranularity.SHARD);
+
+        assertThat(Projections.canApplyToSubsets(List.of(partialAggregation))).isTrue();
+        assertThat(Projections.canApplyToSubsets(List.of(FILTER, EVAL, partialGroup))).isTrue();
+    }
+
+    @Test
+    public void test_final_aggregations_or_row_projections_cannot_be_applied_to_subsets() {
+        var finalGroup = new GroupProjection(
+            List.of(new InputColumn(0)), List.of(), AggregateMode.ITER_FINAL, RowGranularity.SHARD);
+        var partialAggregation = new AggregationProjection(List.of(), RowGranularity.SHARD, AggregateMode.ITER_PARTIAL);
+        var limit = new LimitAndOffsetProjection(10, 0, List.of(DataTypes.INTEGER));
+
+        assertThat(Projections.canApplyToSubsets(List.of())).isFalse();
+        assertThat(Projections.canApplyToSubsets(List.of(FILTER, EVAL))).isFalse();
+        assertThat(Projections.canApplyToSubsets(List.of(finalGroup))).isFalse();
+        assertThat(Projections.canApplyToSubsets(List.of(limit, partialAggregation))).isFalse();
+        assertThat(Projections.canApplyToSubsets(List.of(partialAggregation, EVAL))).isFalse();
+    }
+}
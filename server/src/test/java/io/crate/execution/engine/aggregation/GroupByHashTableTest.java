@@ -0,0 +1,135 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import io.crate.data.Input;
+import io.crate.data.breaker.BlockBasedRamAccounting;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.memory.OffHeapMemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class GroupByHashTableTest {
+
+    private static final List<DataType<?>> KEY_TYPES = List.of(DataTypes.STRING, DataTypes.INTEGER);
+
+    private final Object[] currentKey = new Object[2];
+    private final List<Input<?>> keyInputs = List.of(() -> currentKey[0], () -> currentKey[1]);
+
+    private Object[] getOrPut(GroupByTable table, Object key1, Object key2) {
+        currentKey[0] = key1;
+        currentKey[1] = key2;
+        Object[] states = table.getForCurrentKey();
+        if (states == null) {
+            states = new Object[] { 0 };
+            table.putForCurrentKey(states);
+        }
+        states[0] = (int) states[0] + 1;
+        return states;
+    }
+
+    private static List<Object[]> rows(GroupByTable table) {
+        List<Object[]> rows = new ArrayList<>();
+        GroupByTable.Cursor cursor = table.cursor();
+        while (cursor.moveNext()) {
+            Object[] cells = new Object[3];
+            cursor.writeKey(cells);
+            cells[2] = cursor.states()[0];
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    @Test
+    public void test_groups_rows_by_serialized_keys_including_nulls() {
+        try (var memoryManager = new OffHeapMemoryManager()) {
+            var table = new GroupByHashTable(keyInputs, KEY_TYPES, RamAccounting.NO_ACCOUNTING, memoryManager);
+            getOrPut(table, "a", 1);
+            getOrPut(table, "a", 2);
+            getOrPut(table, "a", 1);
+            getOrPut(table, null, 1);
+            getOrPut(table, "a", null);
+            getOrPut(table, null, 1);
+            getOrPut(table, null, null);
+
+            assertThat(table.size()).isEqualTo(5);
+            assertThat(rows(table)).containsExactly(
+                new Object[] { "a", 1, 2 },
+                new Object[] { "a", 2, 1 },
+                new Object[] { null, 1, 2 },
+                new Object[] { "a", null, 1 },
+                new Object[] { null, null, 1 }
+            );
+        }
+    }
+
+    @Test
+    public void test_table_grows_beyond_initial_capacity_and_page_size() {
+        String largeKey = "x".repeat(GroupByHashTable.PAGE_SIZE * 2);
+        try (var memoryManager = new OffHeapMemoryManager()) {
+            var table = new GroupByHashTable(keyInputs, KEY_TYPES, RamAccounting.NO_ACCOUNTING, memoryManager);
+            for (int run = 0; run < 2; run++) {
+                for (int i = 0; i < 10_000; i++) {
+                    getOrPut(table, "k" + (i % 7), i);
+                }
+                getOrPut(table, largeKey, 1);
+            }
+            assertThat(table.size()).isEqualTo(10_001);
+            for (Object[] row : rows(table)) {
+                assertThat(row[2]).isEqualTo(2);
+            }
+        }
+    }
+
+    @Test
+    public void test_memory_of_groups_and_key_pages_is_accounted() {
+        var usedBytes = new AtomicLong();
+        var ramAccounting = new BlockBasedRamAccounting(usedBytes::addAndGet, 1024);
+        var memoryManager = new OnHeapMemoryManager(ramAccounting::addBytes);
+        var table = new GroupByHashTable(keyInputs, KEY_TYPES, ramAccounting, memoryManager);
+        long initialBytes = ramAccounting.totalBytes();
+        assertThat(initialBytes).isGreaterThan(0L);
+
+        for (int i = 0; i < 1000; i++) {
+            getOrPut(table, "foo", i);
+        }
+        // at least one page for the keys, a slot, a hash, an address and a states array per group
+        assertThat(ramAccounting.totalBytes())
+            .isGreaterThan(initialBytes + GroupByHashTable.PAGE_SIZE + 1000 * (4 + 4 + 8 + 16));
+    }
+
+    @Test
+    public void test_supports_only_types_with_unique_serialized_representation() {
+        assertThat(GroupByHashTable.supportsKeyTypes(KEY_TYPES)).isTrue();
+        assertThat(GroupByHashTable.supportsKeyTypes(List.of(DataTypes.STRING, DataTypes.UNTYPED_OBJECT))).isFalse();
+        assertThat(GroupByHashTable.supportsKeyTypes(List.of(DataTypes.STRING_ARRAY))).isFalse();
+    }
+}
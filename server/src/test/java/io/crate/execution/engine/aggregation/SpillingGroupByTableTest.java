@@ -0,0 +1,188 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.breaker.ChildRamAccounting;
+import io.crate.common.MutableLong;
+import io.crate.data.Input;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.testing.TestingHelpers;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class SpillingGroupByTableTest extends ESTestCase {
+
+    private static final List<DataType<?>> KEY_TYPES = List.of(DataTypes.STRING, DataTypes.INTEGER);
+
+    private final Object[] currentKey = new Object[2];
+    private final List<Input<?>> keyInputs = List.of(() -> currentKey[0], () -> currentKey[1]);
+    private final AggregationFunction<?, ?> count = (AggregationFunction<?, ?>) TestingHelpers.createNodeContext()
+        .functions()
+        .getQualified(CountAggregation.COUNT_STAR_SIGNATURE, List.of(), DataTypes.LONG);
+    private final Streamer<?>[] streamers = new Streamer<?>[] {
+        DataTypes.STRING.streamer(),
+        DataTypes.INTEGER.streamer(),
+        count.partialType().streamer()
+    };
+
+    private static class CountingRamAccounting implements RamAccounting {
+
+        long bytes = 0;
+
+        @Override
+        public void addBytes(long bytes) {
+            this.bytes += bytes;
+        }
+
+        @Override
+        public long totalBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void release() {
+            bytes = 0;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private SpillingGroupByTable newTable(Path dir, long memoryBudget, RamAccounting ramAccounting) {
+        var memoryManager = new OnHeapMemoryManager(ramAccounting::addBytes);
+        return new SpillingGroupByTable(
+            keys -> new GroupByHashTable(keys, KEY_TYPES, ramAccounting, memoryManager),
+            keyInputs,
+            new AggregationFunction[] { count },
+            ramAccounting,
+            () -> memoryBudget,
+            () -> {
+                try {
+                    return SpillFile.create(dir, streamers);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        );
+    }
+
+    private void increment(GroupByTable table, Object key1, Object key2) {
+        currentKey[0] = key1;
+        currentKey[1] = key2;
+        Object[] states = table.getForCurrentKey();
+        if (states == null) {
+            table.putForCurrentKey(new Object[] { new MutableLong(1) });
+        } else {
+            ((MutableLong) states[0]).add(1);
+        }
+    }
+
+    private static List<List<Object>> rows(GroupByTable table) {
+        List<List<Object>> rows = new ArrayList<>();
+        GroupByTable.Cursor cursor = table.cursor();
+        while (cursor.moveNext()) {
+            Object[] cells = new Object[2];
+            cursor.writeKey(cells);
+            rows.add(List.of(cells[0], cells[1], ((MutableLong) cursor.states()[0]).value()));
+        }
+        return rows;
+    }
+
+    private static long numFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("spill-")).count();
+        }
+    }
+
+    @Test
+    public void test_groups_are_kept_in_memory_if_budget_is_not_exceeded() throws Exception {
+        Path dir = createTempDir();
+        try (var table = newTable(dir, Long.MAX_VALUE, new CountingRamAccounting())) {
+            increment(table, "a", 1);
+            increment(table, "b", 2);
+            increment(table, "a", 1);
+
+            assertThat(rows(table)).containsExactly(
+                List.of("a", 1, 2L),
+                List.of("b", 2, 1L)
+            );
+            assertThat(table.numSpilledRows()).isEqualTo(0L);
+            assertThat(numFiles(dir)).isEqualTo(0L);
+        }
+    }
+
+    @Test
+    public void test_spilled_groups_are_merged_by_key() throws Exception {
+        Path dir = createTempDir();
+        var ramAccounting = new CountingRamAccounting();
+        try (var table = newTable(dir, 0, ramAccounting)) {
+            for (int i = 0; i < 100; i++) {
+                increment(table, "k" + (i % 10), i % 2);
+            }
+            assertThat(table.numSpilledRows()).isGreaterThan(10L);
+            assertThat(numFiles(dir)).isEqualTo(SpillingGroupByTable.NUM_PARTITIONS);
+
+            List<List<Object>> rows = rows(table);
+            assertThat(rows).hasSize(10);
+            for (List<Object> row : rows) {
+                assertThat(row.get(2)).isEqualTo(10L);
+            }
+            // the cursor can be iterated again
+            assertThat(rows(table)).containsExactlyInAnyOrderElementsOf(rows);
+        }
+        assertThat(numFiles(dir)).isEqualTo(0L);
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_spilling_only_releases_the_bytes_of_the_groups() throws Exception {
+        Path dir = createTempDir();
+        var sharedRamAccounting = new CountingRamAccounting();
+        sharedRamAccounting.addBytes(1000);
+        try (var table = newTable(dir, 0, new ChildRamAccounting(sharedRamAccounting))) {
+            for (int i = 0; i < 100; i++) {
+                increment(table, "k" + (i % 10), i % 2);
+                assertThat(sharedRamAccounting.totalBytes()).isGreaterThanOrEqualTo(1000L);
+            }
+            assertThat(table.numSpilledRows()).isGreaterThan(10L);
+            assertThat(rows(table)).hasSize(10);
+        }
+        assertThat(sharedRamAccounting.totalBytes()).isEqualTo(1000L);
+    }
+}
@@ -52,6 +52,7 @@ import io.crate.data.BatchIterator;
 import io.crate.data.Row;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
 import io.crate.execution.engine.aggregation.impl.SumAggregation;
 import io.crate.execution.engine.fetch.ReaderContext;
 import io.crate.expression.reference.doc.lucene.BytesRefColumnReference;
@@ -242,6 +243,86 @@ public class DocValuesGroupByOptimizedIteratorTest extends CrateDummyClusterServ
             new Object[]{"0", 0L, 6L}, new Object[]{"1", 1L, 4L});
     }
 
+    @Test
+    public void test_group_by_doc_values_key_columns_across_segments_with_null_keys() throws Exception {
+        var indexWriter = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig());
+        List<Object[]> segments = List.of(
+            new Object[]{"b", 3_600_001L, 1L},
+            new Object[]{"a", 7_199_999L, 2L},
+            new Object[]{null, 1L, 3L},
+            new Object[]{"a", 3_700_000L, 4L},
+            new Object[]{"c", 1L, 5L},
+            new Object[]{null, 2L, 6L}
+        );
+        for (int i = 0; i < segments.size(); i++) {
+            Object[] row = segments.get(i);
+            Document doc = new Document();
+            if (row[0] != null) {
+                doc.add(new SortedSetDocValuesField("x", BytesRefs.toBytesRef(row[0])));
+            }
+            doc.add(new NumericDocValuesField("ts", (Long) row[1]));
+            doc.add(new NumericDocValuesField("z", (Long) row[2]));
+            indexWriter.addDocument(doc);
+            if (i % 3 == 2) {
+                indexWriter.commit();
+            }
+        }
+        var searcher = new IndexSearcher(DirectoryReader.open(indexWriter));
+        assertThat(searcher.getIndexReader().leaves()).hasSize(2);
+
+        var it = DocValuesGroupByOptimizedIterator.GroupByIterator.forKeyColumns(
+            List.of(sumDocValuesAggregator()),
+            searcher,
+            List.of(
+                new DocValuesKeyColumn.TermKey("x", RamAccounting.NO_ACCOUNTING),
+                new DocValuesKeyColumn.NumericKey("ts", ts -> ts - ts % 3_600_000L, ts -> ts)
+            ),
+            RamAccounting.NO_ACCOUNTING,
+            null,
+            null,
+            new MatchAllDocsQuery()
+        );
+
+        var rowConsumer = new TestingRowConsumer();
+        rowConsumer.accept(it, null);
+        assertThat(rowConsumer.getResult()).containsExactlyInAnyOrder(
+            new Object[]{"b", 3_600_000L, 1L},
+            new Object[]{"a", 3_600_000L, 6L},
+            new Object[]{null, 0L, 9L},
+            new Object[]{"c", 0L, 5L}
+        );
+    }
+
+    private DocValueAggregator<?> sumDocValuesAggregator() {
+        SumAggregation<?> sumAggregation = (SumAggregation<?>) functions.getQualified(
+            Signature.aggregate(
+                SumAggregation.NAME,
+                DataTypes.LONG.getTypeSignature(),
+                DataTypes.LONG.getTypeSignature()
+            ),
+            List.of(DataTypes.LONG),
+            DataTypes.LONG
+        );
+        return sumAggregation.getDocValueAggregator(
+            mock(LuceneReferenceResolver.class),
+            List.of(new SimpleReference(
+                new ReferenceIdent(RelationName.fromIndexName("test"), "z"),
+                RowGranularity.DOC,
+                DataTypes.LONG,
+                ColumnPolicy.DYNAMIC,
+                IndexType.PLAIN,
+                true,
+                true,
+                0,
+                COLUMN_OID_UNASSIGNED,
+                false,
+                null)
+            ),
+            mock(DocTableInfo.class),
+            List.of()
+        );
+    }
+
     @Test
     public void test_optimized_iterator_stop_processing_on_kill() throws Exception {
         Throwable expectedException = stopOnInterrupting(it -> it.kill(new InterruptedException("killed")));
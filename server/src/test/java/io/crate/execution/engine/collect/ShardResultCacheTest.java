@@ -0,0 +1,156 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.elasticsearch.Version;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.SentinelRow;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Aggregation;
+import io.crate.expression.symbol.InputColumn;
+import io.crate.expression.symbol.Literal;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.Routing;
+import io.crate.metadata.functions.Signature;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.types.DataTypes;
+
+public class ShardResultCacheTest extends ESTestCase {
+
+    private static RoutedCollectPhase sumPhase() {
+        Aggregation sum = new Aggregation(
+            Signature.aggregate(
+                SumAggregation.NAME,
+                DataTypes.LONG.getTypeSignature(),
+                DataTypes.LONG.getTypeSignature()
+            ),
+            DataTypes.LONG,
+            List.of(new InputColumn(0, DataTypes.LONG))
+        );
+        return new RoutedCollectPhase(
+            UUID.randomUUID(),
+            1,
+            "collect",
+            new Routing(Map.of()),
+            RowGranularity.DOC,
+            List.of(Literal.of(1L)),
+            List.of(new AggregationProjection(List.of(sum), RowGranularity.SHARD, AggregateMode.ITER_PARTIAL)),
+            Literal.BOOLEAN_TRUE,
+            DistributionInfo.DEFAULT_BROADCAST
+        );
+    }
+
+    private static List<Object[]> consume(BatchIterator<Row> it) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(it, null);
+        return consumer.getResult();
+    }
+
+    private static DirectoryReader openReader(IndexWriter writer) throws Exception {
+        writer.addDocument(new Document());
+        writer.commit();
+        return DirectoryReader.open(writer);
+    }
+
+    @Test
+    public void test_result_is_reused_for_same_phase_and_reader() throws Exception {
+        ShardResultCache cache = new ShardResultCache(1024 * 1024);
+        try (var writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig());
+             var reader = openReader(writer)) {
+            BatchIterator<Row> first = cache.getOrCache(
+                reader,
+                sumPhase(),
+                Version.CURRENT,
+                RamAccounting.NO_ACCOUNTING,
+                InMemoryBatchIterator.of(new Row1(10L), SentinelRow.SENTINEL)
+            );
+            assertThat(consume(first)).containsExactly(new Object[] { 10L });
+            assertThat(cache.size()).isEqualTo(1L);
+            assertThat(cache.misses()).isEqualTo(1L);
+
+            BatchIterator<Row> second = cache.getOrCache(
+                reader,
+                sumPhase(),
+                Version.CURRENT,
+                RamAccounting.NO_ACCOUNTING,
+                InMemoryBatchIterator.of(new Row1(20L), SentinelRow.SENTINEL)
+            );
+            assertThat(consume(second)).containsExactly(new Object[] { 10L });
+            assertThat(cache.hits()).isEqualTo(1L);
+            assertThat(cache.sizeInBytes()).isGreaterThan(0L);
+        }
+    }
+
+    @Test
+    public void test_results_are_removed_once_the_reader_is_closed() throws Exception {
+        ShardResultCache cache = new ShardResultCache(1024 * 1024);
+        try (var writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig())) {
+            DirectoryReader reader = openReader(writer);
+            consume(cache.getOrCache(
+                reader,
+                sumPhase(),
+                Version.CURRENT,
+                RamAccounting.NO_ACCOUNTING,
+                InMemoryBatchIterator.of(new Row1(10L), SentinelRow.SENTINEL)
+            ));
+            assertThat(cache.size()).isEqualTo(1L);
+
+            reader.close();
+            assertThat(cache.size()).isEqualTo(0L);
+            assertThat(cache.invalidations()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    public void test_disabled_cache_returns_source_iterator() throws Exception {
+        ShardResultCache cache = new ShardResultCache(0);
+        try (var writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig());
+             var reader = openReader(writer)) {
+            BatchIterator<Row> source = InMemoryBatchIterator.of(new Row1(10L), SentinelRow.SENTINEL);
+            assertThat(cache.getOrCache(reader, sumPhase(), Version.CURRENT, RamAccounting.NO_ACCOUNTING, source))
+                .isSameAs(source);
+        }
+    }
+}
@@ -21,6 +21,8 @@
 
 package io.crate.execution.engine.collect.collectors;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -33,13 +35,18 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.junit.Before;
 import org.junit.Test;
 
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
 import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.execution.engine.collect.collectors.LuceneBatchIterator.LeafRange;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LongColumnReference;
 
@@ -82,4 +89,78 @@ public class LuceneBatchIteratorTest {
         );
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
+
+    @Test
+    public void test_slice_splits_leaves_into_contiguous_doc_ranges() throws Exception {
+        IndexSearcher searcher = searcherWithSegments(3, 10);
+        var leaves = searcher.getTopReaderContext().leaves();
+        assertThat(leaves).hasSize(3);
+
+        List<List<LeafRange>> slices = LuceneBatchIterator.slice(leaves, 4);
+        assertThat(slices).hasSize(4);
+        assertThat(slices.get(0)).containsExactly(new LeafRange(leaves.get(0), 0, 8));
+        assertThat(slices.get(1)).containsExactly(
+            new LeafRange(leaves.get(0), 8, 10),
+            new LeafRange(leaves.get(1), 0, 6)
+        );
+        assertThat(slices.get(2)).containsExactly(
+            new LeafRange(leaves.get(1), 6, 10),
+            new LeafRange(leaves.get(2), 0, 4)
+        );
+        assertThat(slices.get(3)).containsExactly(new LeafRange(leaves.get(2), 4, 10));
+    }
+
+    @Test
+    public void test_slice_returns_less_slices_than_requested_if_there_are_not_enough_docs() throws Exception {
+        IndexSearcher searcher = searcherWithSegments(1, 2);
+        var leaves = searcher.getTopReaderContext().leaves();
+        assertThat(LuceneBatchIterator.slice(leaves, 4)).containsExactly(
+            List.of(new LeafRange(leaves.get(0), 0, 1)),
+            List.of(new LeafRange(leaves.get(0), 1, 2))
+        );
+    }
+
+    @Test
+    public void test_sliced_iterators_return_every_document_exactly_once() throws Exception {
+        IndexSearcher searcher = searcherWithSegments(3, 10);
+        List<Object[]> expected = new ArrayList<>();
+        for (long i = 0; i < 30; i++) {
+            expected.add(new Object[] { i });
+        }
+        List<Object[]> result = new ArrayList<>();
+        for (List<LeafRange> slice : LuceneBatchIterator.slice(searcher.getTopReaderContext().leaves(), 7)) {
+            LongColumnReference columnReference = new LongColumnReference("x");
+            List<LongColumnReference> refs = List.of(columnReference);
+            BatchIterator<Row> it = new LuceneBatchIterator(
+                searcher,
+                new MatchAllDocsQuery(),
+                null,
+                false,
+                new CollectorContext(Set.of(), Function.identity()),
+                refs,
+                refs,
+                slice
+            );
+            TestingRowConsumer consumer = new TestingRowConsumer();
+            consumer.accept(it, null);
+            result.addAll(consumer.getResult());
+        }
+        assertThat(result).containsExactlyElementsOf(expected);
+    }
+
+    private static IndexSearcher searcherWithSegments(int numSegments, int docsPerSegment) throws Exception {
+        IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer());
+        config.setMergePolicy(NoMergePolicy.INSTANCE);
+        IndexWriter iw = new IndexWriter(new ByteBuffersDirectory(), config);
+        long value = 0;
+        for (int segment = 0; segment < numSegments; segment++) {
+            for (int i = 0; i < docsPerSegment; i++) {
+                Document doc = new Document();
+                doc.add(new NumericDocValuesField("x", value++));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+        return new IndexSearcher(DirectoryReader.open(iw));
+    }
 }
@@ -27,10 +27,12 @@ import static org.junit.Assert.assertNull;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.StreamSupport;
 
@@ -46,18 +48,25 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.FilterWeight;
 import org.apache.lucene.search.FuzzyQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
@@ -65,6 +74,7 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.unit.Fuzziness;
+import org.elasticsearch.index.fielddata.NullValueOrder;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.index.shard.ShardId;
@@ -78,8 +88,10 @@ import io.crate.analyze.OrderBy;
 import io.crate.data.Row;
 import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.engine.distribution.merge.KeyIterable;
+import io.crate.execution.engine.sort.SortSymbolVisitor;
 import io.crate.expression.reference.doc.lucene.CollectorContext;
 import io.crate.expression.reference.doc.lucene.LuceneCollectorExpression;
+import io.crate.expression.reference.doc.lucene.LongColumnReference;
 import io.crate.expression.reference.doc.lucene.NullSentinelValues;
 import io.crate.expression.reference.doc.lucene.ScoreCollectorExpression;
 import io.crate.metadata.Reference;
@@ -374,6 +386,147 @@ public class LuceneOrderedDocCollectorTest extends RandomizedTest {
         assertThat(values.next().get(0), Matchers.is(1.0F));
     }
 
+    @Test
+    public void test_collect_terminates_early_if_index_is_sorted_by_the_order_by_column() throws Exception {
+        // The index sort of tables with `sort_by` and the sort of queries are built the same way
+        SortField sortField = SortSymbolVisitor.mappedSortField("value", DataTypes.LONG, false, NullValueOrder.LAST);
+        Sort sort = new Sort(sortField);
+
+        IndexWriterConfig sortedConfig = new IndexWriterConfig(new StandardAnalyzer());
+        sortedConfig.setIndexSort(sort);
+        IndexWriter sortedWriter = new IndexWriter(new ByteBuffersDirectory(), sortedConfig);
+        IndexWriter unsortedWriter = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        for (long i = 999; i >= 0; i--) {
+            addDocToLucene(sortedWriter, i);
+            addDocToLucene(unsortedWriter, i);
+        }
+        sortedWriter.forceMerge(1);
+        unsortedWriter.forceMerge(1);
+
+        CountingMatchAllQuery sortedQuery = new CountingMatchAllQuery();
+        List<Object> sortedValues = collectValues(DirectoryReader.open(sortedWriter), sortedQuery, sort);
+        CountingMatchAllQuery unsortedQuery = new CountingMatchAllQuery();
+        List<Object> unsortedValues = collectValues(DirectoryReader.open(unsortedWriter), unsortedQuery, sort);
+
+        assertThat(sortedValues, is(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L)));
+        assertThat(unsortedValues, is(sortedValues));
+        assertThat(unsortedQuery.visitedDocs.get(), Matchers.greaterThanOrEqualTo(1000));
+        assertThat(sortedQuery.visitedDocs.get(), Matchers.lessThanOrEqualTo(11));
+        sortedWriter.close();
+        unsortedWriter.close();
+    }
+
+    private static List<Object> collectValues(IndexReader reader, Query query, Sort sort) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        searcher.setQueryCache(null);
+        List<LuceneCollectorExpression<?>> columnReferences = List.of(new LongColumnReference("value"));
+        LuceneOrderedDocCollector collector = new LuceneOrderedDocCollector(
+            new ShardId("dummy", UUIDs.base64UUID(), 0),
+            searcher,
+            query,
+            null,
+            false,
+            10,
+            RamAccounting.NO_ACCOUNTING,
+            new CollectorContext(Set.of(), Function.identity()),
+            f -> null,
+            sort,
+            columnReferences,
+            columnReferences
+        );
+        List<Object> values = new ArrayList<>();
+        for (Row row : collector.collect()) {
+            values.add(row.get(0));
+        }
+        return values;
+    }
+
+    /**
+     * Matches all documents and counts the documents visited by the collector
+     */
+    private static class CountingMatchAllQuery extends Query {
+
+        private final AtomicInteger visitedDocs = new AtomicInteger();
+
+        @Override
+        public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+            Weight weight = new MatchAllDocsQuery().createWeight(searcher, scoreMode, boost);
+            return new FilterWeight(this, weight) {
+
+                @Override
+                public Scorer scorer(LeafReaderContext context) throws IOException {
+                    Scorer scorer = in.scorer(context);
+                    DocIdSetIterator iterator = scorer.iterator();
+                    DocIdSetIterator countingIterator = new DocIdSetIterator() {
+
+                        @Override
+                        public int docID() {
+                            return iterator.docID();
+                        }
+
+                        @Override
+                        public int nextDoc() throws IOException {
+                            visitedDocs.incrementAndGet();
+                            return iterator.nextDoc();
+                        }
+
+                        @Override
+                        public int advance(int target) throws IOException {
+                            visitedDocs.incrementAndGet();
+                            return iterator.advance(target);
+                        }
+
+                        @Override
+                        public long cost() {
+                            return iterator.cost();
+                        }
+                    };
+                    return new Scorer(this) {
+
+                        @Override
+                        public int docID() {
+                            return scorer.docID();
+                        }
+
+                        @Override
+                        public DocIdSetIterator iterator() {
+                            return countingIterator;
+                        }
+
+                        @Override
+                        public float getMaxScore(int upTo) throws IOException {
+                            return scorer.getMaxScore(upTo);
+                        }
+
+                        @Override
+                        public float score() throws IOException {
+                            return scorer.score();
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public String toString(String field) {
+            return "CountingMatchAllQuery";
+        }
+
+        @Override
+        public void visit(QueryVisitor visitor) {
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
     private static void addDoc(IndexWriter w, String name, FieldType fieldType, String value) throws IOException {
         Document doc = new Document();
         Field field = new Field(name, value, fieldType);
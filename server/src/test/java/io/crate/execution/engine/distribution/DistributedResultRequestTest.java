@@ -26,11 +26,13 @@ import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 import java.util.UUID;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -70,6 +72,41 @@ public class DistributedResultRequestTest extends ESTestCase {
         assertThat(r2.readRows(streamers), contains(isRow("ab"), isNullRow(), isRow("cd")));
     }
 
+    @Test
+    public void test_compressed_rows_are_streamed() throws Exception {
+        Streamer<?>[] streamers = new Streamer[]{DataTypes.STRING.streamer(), DataTypes.INTEGER.streamer()};
+
+        UUID uuid = UUID.randomUUID();
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, RamAccounting.NO_ACCOUNTING, true);
+        int numRows = 1000;
+        for (int i = 0; i < numRows; i++) {
+            builder.add(new RowN(new Object[] {"category-" + (i % 3), i}));
+        }
+        DistributedResultRequest r1 =
+            DistributedResultRequest.of(
+                "dummyNodeId", uuid, 1, (byte) 3, 1, builder.build(), true
+            ).innerRequest();
+
+        BytesStreamOutput compressedOut = new BytesStreamOutput();
+        r1.writeTo(compressedOut);
+        BytesStreamOutput uncompressedOut = new BytesStreamOutput();
+        uncompressedOut.setVersion(Version.V_5_5_0);
+        r1.writeTo(uncompressedOut);
+        assertThat(compressedOut.size(), lessThan(uncompressedOut.size() / 2));
+
+        for (BytesStreamOutput out : new BytesStreamOutput[] { compressedOut, uncompressedOut }) {
+            StreamInput in = out.bytes().streamInput();
+            in.setVersion(out.getVersion());
+            DistributedResultRequest r2 = new DistributedResultRequest(in);
+            int i = 0;
+            for (var row : r2.readRows(streamers)) {
+                assertThat(row, isRow("category-" + (i % 3), i));
+                i++;
+            }
+            assertThat(i, is(numRows));
+        }
+    }
+
     @Test
     public void testStreamingOfFailure() throws Exception {
         UUID uuid = UUID.randomUUID();
@@ -30,6 +30,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.node.Node;
 import org.junit.Before;
 import org.junit.Test;
@@ -56,6 +57,7 @@ public class DistributingConsumerFactoryTest extends CrateDummyClusterServiceUni
     @Before
     public void prepare() {
         rowDownstreamFactory = new DistributingConsumerFactory(
+            Settings.EMPTY,
             clusterService,
             THREAD_POOL,
             mock(Node.class)
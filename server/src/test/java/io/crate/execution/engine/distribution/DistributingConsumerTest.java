@@ -111,6 +111,38 @@ public class DistributingConsumerTest extends ESTestCase {
         }
     }
 
+    @Test
+    public void test_distributing_consumer_with_pages_in_flight_sends_all_pages_in_order() throws Exception {
+        Streamer<?>[] streamers = {DataTypes.INTEGER.streamer()};
+        TestingRowConsumer collectingConsumer = new TestingRowConsumer();
+        DistResultRXTask distResultRXTask = createPageDownstreamContext(streamers, collectingConsumer);
+        TransportDistributedResultAction distributedResultAction = createFakeTransport(streamers, distResultRXTask);
+        DistributingConsumer distributingConsumer = createDistributingConsumer(streamers, distributedResultAction, 3);
+
+        BatchSimulatingIterator<Row> batchSimulatingIterator =
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 9),
+                2,
+                4,
+                executorService);
+        distributingConsumer.accept(batchSimulatingIterator, null);
+
+        List<Object[]> result = collectingConsumer.getResult();
+        assertThat(TestingHelpers.printedTable(new CollectionBucket(result)),
+            is("0\n" +
+               "1\n" +
+               "2\n" +
+               "3\n" +
+               "4\n" +
+               "5\n" +
+               "6\n" +
+               "7\n" +
+               "8\n"));
+        distributingConsumer.completionFuture().get(5, TimeUnit.SECONDS);
+
+        // pageSize=2 and 9 rows causes 5x pushResult
+        verify(distributedResultAction, times(5)).doExecute(any(), any());
+    }
+
     @Test
     public void testDistributingConsumerForwardsFailure() throws Exception {
         Streamer<?>[] streamers = { DataTypes.INTEGER.streamer() };
@@ -166,6 +198,12 @@ public class DistributingConsumerTest extends ESTestCase {
     }
 
     private DistributingConsumer createDistributingConsumer(Streamer<?>[] streamers, TransportDistributedResultAction distributedResultAction) {
+        return createDistributingConsumer(streamers, distributedResultAction, 1);
+    }
+
+    private DistributingConsumer createDistributingConsumer(Streamer<?>[] streamers,
+                                                            TransportDistributedResultAction distributedResultAction,
+                                                            int maxPagesInFlight) {
         return new DistributingConsumer(
             executorService,
             UUID.randomUUID(),
@@ -179,7 +217,8 @@ public class DistributingConsumerTest extends ESTestCase {
                 distributedResultAction.doExecute(req, listener);
                 return listener;
             },
-            2 // pageSize
+            2, // pageSize
+            maxPagesInFlight
         );
     }
 
@@ -211,7 +250,14 @@ public class DistributingConsumerTest extends ESTestCase {
             Throwable throwable = resultRequest.throwable();
             PageBucketReceiver bucketReceiver = distResultRXTask.getBucketReceiver(resultRequest.executionPhaseInputId());
             assertThat(bucketReceiver, Matchers.notNullValue());
-            if (throwable == null) {
+            if (throwable == null && resultRequest.pageIdx() != DistributedResultRequest.NO_PAGE_IDX) {
+                bucketReceiver.setPage(
+                    resultRequest.bucketIdx(),
+                    resultRequest.pageIdx(),
+                    resultRequest.readRows(streamers),
+                    resultRequest.isLast(),
+                    needMore -> listener.onResponse(new DistributedResultResponse(needMore)));
+            } else if (throwable == null) {
                 bucketReceiver.setBucket(
                     resultRequest.bucketIdx(),
                     resultRequest.readRows(streamers),
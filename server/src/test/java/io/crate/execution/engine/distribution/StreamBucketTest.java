@@ -0,0 +1,137 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.DataTypes;
+
+public class StreamBucketTest extends ESTestCase {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[] {
+        DataTypes.STRING.streamer(),
+        DataTypes.INTEGER.streamer(),
+        DataTypes.STRING.streamer()
+    };
+
+    private static StreamBucket bucket(int numRows, int cardinality) {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, RamAccounting.NO_ACCOUNTING, true);
+        for (Object[] row : rows(numRows, cardinality)) {
+            builder.add(new RowN(row));
+        }
+        return builder.build();
+    }
+
+    private static List<Object[]> rows(int numRows, int cardinality) {
+        List<Object[]> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            String category = i % 7 == 0 ? null : "category-" + (i % cardinality);
+            rows.add(new Object[] { category, i, "name-" + i });
+        }
+        return rows;
+    }
+
+    private static List<Object[]> materialize(StreamBucket bucket) {
+        List<Object[]> rows = new ArrayList<>(bucket.size());
+        for (Row row : bucket) {
+            rows.add(row.materialize());
+        }
+        return rows;
+    }
+
+    private static StreamBucket sendTo(StreamBucket bucket, Version version) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
+        bucket.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(version);
+        return new StreamBucket(in, STREAMERS);
+    }
+
+    private static byte codec(StreamBucket bucket) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        bucket.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.readVInt();
+        return in.readByte();
+    }
+
+    @Test
+    public void test_low_cardinality_text_columns_are_dictionary_encoded() throws Exception {
+        StreamBucket bucket = bucket(1000, 3);
+        assertThat(codec(bucket)).isEqualTo((byte) (StreamBucket.CODEC_DICTIONARY | StreamBucket.CODEC_LZ4));
+
+        StreamBucket received = sendTo(bucket, Version.CURRENT);
+        assertThat(materialize(received)).containsExactlyElementsOf(rows(1000, 3));
+    }
+
+    @Test
+    public void test_dictionary_encoded_bucket_is_smaller_than_the_plain_rows() throws Exception {
+        StreamBucket bucket = bucket(1000, 3);
+        BytesStreamOutput encodedOut = new BytesStreamOutput();
+        bucket.writeTo(encodedOut);
+        BytesStreamOutput plainOut = new BytesStreamOutput();
+        plainOut.setVersion(Version.V_5_5_0);
+        bucket.writeTo(plainOut);
+        assertThat(encodedOut.size()).isLessThan(plainOut.size() / 2);
+    }
+
+    @Test
+    public void test_high_cardinality_text_columns_are_not_dictionary_encoded() throws Exception {
+        StreamBucket bucket = bucket(1000, 1000);
+        assertThat(codec(bucket) & StreamBucket.CODEC_DICTIONARY).isZero();
+
+        StreamBucket received = sendTo(bucket, Version.CURRENT);
+        assertThat(materialize(received)).containsExactlyElementsOf(rows(1000, 1000));
+    }
+
+    @Test
+    public void test_small_buckets_are_sent_as_they_are() throws Exception {
+        StreamBucket bucket = bucket(10, 3);
+        assertThat(codec(bucket)).isEqualTo(StreamBucket.CODEC_NONE);
+
+        StreamBucket received = sendTo(bucket, Version.CURRENT);
+        assertThat(materialize(received)).containsExactlyElementsOf(rows(10, 3));
+    }
+
+    @Test
+    public void test_received_dictionary_encoded_bucket_can_be_sent_to_other_nodes() throws Exception {
+        StreamBucket received = sendTo(bucket(1000, 3), Version.CURRENT);
+
+        assertThat(codec(received)).isEqualTo(StreamBucket.CODEC_DICTIONARY);
+        assertThat(materialize(sendTo(received, Version.CURRENT))).containsExactlyElementsOf(rows(1000, 3));
+        assertThat(materialize(sendTo(received, Version.V_5_5_0))).containsExactlyElementsOf(rows(1000, 3));
+    }
+}
@@ -23,30 +23,160 @@ package io.crate.execution.engine.fetch;
 
 import static org.elasticsearch.test.ESTestCase.randomIntBetween;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MapperService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.randomizedtesting.RandomizedRunner;
 
+import io.crate.Streamer;
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.breaker.EstimateCellsSize;
+import io.crate.common.collections.BorrowedItem;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.distribution.StreamBucket;
+import io.crate.expression.reference.doc.lucene.LongColumnReference;
+import io.crate.metadata.DocReferences;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.SimpleReference;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
 @RunWith(RandomizedRunner.class)
 public class FetchCollectorTest {
 
     @Test
-    public void test_sequential_docs_ids() {
-        int start = randomIntBetween(0, Short.MAX_VALUE);
-        IntArrayList sequential = new IntArrayList(10);
-        for (int i = start; i < start + 10; i++) {
-            sequential.add(i);
+    public void test_positions_are_sorted_by_doc_id() {
+        IntArrayList docIds = IntArrayList.from(7, 3, 5, 3);
+        assertThat(FetchCollector.sortedPositions(docIds), is(new int[] { 1, 3, 2, 0 }));
+    }
+
+    @Test
+    public void test_sorted_positions_of_random_doc_ids_are_ordered() {
+        int numDocs = randomIntBetween(0, 100);
+        IntArrayList docIds = new IntArrayList(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            docIds.add(randomIntBetween(0, Integer.MAX_VALUE));
+        }
+        int[] positions = FetchCollector.sortedPositions(docIds);
+        assertThat(positions.length, is(numDocs));
+        for (int i = 1; i < positions.length; i++) {
+            assertThat(docIds.get(positions[i - 1]) <= docIds.get(positions[i]), is(true));
+        }
+    }
+
+    @Test
+    public void test_rows_are_returned_in_requested_order() throws Exception {
+        // 3 segments with the docIds 0-3, 4-7 and 8-11, the value of each document is its docId
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            for (int segment = 0; segment < 3; segment++) {
+                for (int i = 0; i < 4; i++) {
+                    Document doc = new Document();
+                    doc.add(new NumericDocValuesField("x", segment * 4 + i));
+                    writer.addDocument(doc);
+                }
+                writer.commit();
+            }
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                assertThat(reader.leaves().size(), is(3));
+                IndexSearcher searcher = new IndexSearcher(reader);
+
+                assertThat(collect(searcher, RamAccounting.NO_ACCOUNTING, 1, 5, 5, 9, 11), contains(1L, 5L, 5L, 9L, 11L));
+                assertThat(collect(searcher, RamAccounting.NO_ACCOUNTING, 9, 1, 5, 1, 11, 5), contains(9L, 1L, 5L, 1L, 11L, 5L));
+                assertThat(collect(searcher, RamAccounting.NO_ACCOUNTING), empty());
+            }
         }
-        assertThat(FetchCollector.isSequential(sequential), is(true));
+    }
 
-        IntArrayList nonSequential = new IntArrayList();
-        nonSequential.add(10);
-        nonSequential.add(2);
-        nonSequential.add(48);
-        assertThat(FetchCollector.isSequential(nonSequential), is(false));
+    @Test
+    public void test_rows_materialized_to_restore_the_requested_order_are_accounted() throws Exception {
+        try (var dir = new ByteBuffersDirectory();
+             var writer = new IndexWriter(dir, new IndexWriterConfig())) {
+            for (int i = 0; i < 10; i++) {
+                Document doc = new Document();
+                doc.add(new NumericDocValuesField("x", i));
+                writer.addDocument(doc);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                var inOrder = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 0);
+                var outOfOrder = new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", 0);
+
+                collect(searcher, inOrder, 1, 3, 5, 7);
+                collect(searcher, outOfOrder, 7, 5, 3, 1);
+                assertThat(outOfOrder.totalBytes(), greaterThan(inOrder.totalBytes()));
+            }
+        }
+    }
+
+    @Test
+    public void test_primitive_columns_with_doc_values_are_read_from_doc_values() {
+        RelationName relation = new RelationName("doc", "t");
+        Reference x = new SimpleReference(new ReferenceIdent(relation, "x"), RowGranularity.DOC, DataTypes.LONG, 1, null);
+        Reference obj = new SimpleReference(new ReferenceIdent(relation, "obj"), RowGranularity.DOC, DataTypes.UNTYPED_OBJECT, 2, null);
+        Reference docX = DocReferences.toSourceLookup(x);
+        Reference docObj = DocReferences.toSourceLookup(obj);
+
+        MapperService mapperService = mock(MapperService.class);
+        MappedFieldType withDocValues = mock(MappedFieldType.class);
+        when(withDocValues.hasDocValues()).thenReturn(true);
+        when(mapperService.fieldType("x")).thenReturn(withDocValues);
+        when(mapperService.fieldType("obj")).thenReturn(withDocValues);
+        assertThat(NodeFetchOperation.preferDocValues(docX, mapperService), is(x));
+        assertThat(NodeFetchOperation.preferDocValues(docObj, mapperService), sameInstance(docObj));
+        assertThat(NodeFetchOperation.preferDocValues(x, mapperService), sameInstance(x));
+
+        MappedFieldType withoutDocValues = mock(MappedFieldType.class);
+        when(mapperService.fieldType("x")).thenReturn(withoutDocValues);
+        assertThat(NodeFetchOperation.preferDocValues(docX, mapperService), sameInstance(docX));
+    }
+
+    private static List<Long> collect(IndexSearcher searcher, RamAccounting ramAccounting, int... docIds) {
+        FetchTask fetchTask = mock(FetchTask.class);
+        when(fetchTask.table(0)).thenReturn(mock(DocTableInfo.class));
+        when(fetchTask.searcher(0)).thenReturn(new BorrowedItem<>(searcher, () -> {}));
+        List<DataType<?>> types = List.of(DataTypes.LONG);
+        FetchCollector collector = new FetchCollector(
+            List.of(new LongColumnReference("x")),
+            new Streamer<?>[] { DataTypes.LONG.streamer() },
+            fetchTask,
+            ramAccounting,
+            new EstimateCellsSize(types),
+            0,
+            false
+        );
+        StreamBucket bucket = collector.collect(IntArrayList.from(docIds));
+        List<Long> values = new ArrayList<>();
+        for (Row row : bucket) {
+            values.add((Long) row.get(0));
+        }
+        return values;
     }
 }
@@ -49,7 +49,8 @@ public class NodeFetchOperationTest extends CrateDummyClusterServiceUnitTest {
                 2,
                 jobsLogs,
                 new TasksService(clusterService, jobsLogs),
-                new NoopCircuitBreaker("dummy"));
+                new NoopCircuitBreaker("dummy"),
+                false);
 
             fetchOperation.fetch(UUID.randomUUID(), 1, null, true).get(5, TimeUnit.SECONDS);
 
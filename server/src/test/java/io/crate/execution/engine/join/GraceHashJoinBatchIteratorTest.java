@@ -0,0 +1,199 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import static com.carrotsearch.randomizedtesting.RandomizedTest.$;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Name;
+import com.carrotsearch.randomizedtesting.annotations.ParametersFactory;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakScope;
+
+import io.crate.Streamer;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchSimulatingIterator;
+import io.crate.data.testing.TestingBatchIterators;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.types.DataTypes;
+
+@RunWith(RandomizedRunner.class)
+@ThreadLeakScope(ThreadLeakScope.Scope.NONE)
+public class GraceHashJoinBatchIteratorTest {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer<?>[] { DataTypes.INTEGER.streamer() };
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final List<Object[]> expectedResult;
+    private final Supplier<BatchIterator<Row>> leftIterator;
+    private final Supplier<BatchIterator<Row>> rightIterator;
+
+    private static Predicate<Row> getCol0EqCol1JoinCondition() {
+        return row -> Objects.equals(row.get(0), row.get(1));
+    }
+
+    private static ToIntFunction<Row> getHash() {
+        return row -> Objects.hash(row.get(0));
+    }
+
+    private static ToIntFunction<Row> getHashWithCollisions() {
+        return row -> (Integer) row.get(0) % 3;
+    }
+
+    public GraceHashJoinBatchIteratorTest(@SuppressWarnings("unused") @Name("dataSetName") String testName,
+                                          @Name("dataForLeft") Supplier<BatchIterator<Row>> leftIterator,
+                                          @Name("dataForRight") Supplier<BatchIterator<Row>> rightIterator,
+                                          @Name("expectedResult") List<Object[]> expectedResult) {
+        this.leftIterator = leftIterator;
+        this.rightIterator = rightIterator;
+        this.expectedResult = expectedResult;
+    }
+
+    @ParametersFactory
+    public static Iterable<Object[]> testParameters() {
+        List<Object[]> resultForUniqueValues = Arrays.asList(
+            new Object[] { 2, 2 }, new Object[] { 3, 3 }, new Object[] { 4, 4 });
+        List<Object[]> resultForDuplicateValues = Arrays.asList(
+            new Object[] { 1, 1 }, new Object[] { 1, 1 },
+            new Object[] { 2, 2 }, new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }, new Object[] { 4, 4 }
+        );
+
+        return Arrays.asList(
+            $("UniqueValues-plain",
+              (Supplier<BatchIterator<Row>>) () -> TestingBatchIterators.range(0, 5),
+              (Supplier<BatchIterator<Row>>) () -> TestingBatchIterators.range(2, 6),
+              resultForUniqueValues),
+            $("UniqueValues-batchedSource",
+              (Supplier<BatchIterator<Row>>) () ->
+                  new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 5), 2, 2, null),
+              (Supplier<BatchIterator<Row>>) () ->
+                  new BatchSimulatingIterator<>(TestingBatchIterators.range(2, 6), 2, 2, null),
+              resultForUniqueValues),
+            $("DuplicateValues-plain",
+              (Supplier<BatchIterator<Row>>) () -> TestingBatchIterators.ofValues(Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4)),
+              (Supplier<BatchIterator<Row>>) () ->
+                  TestingBatchIterators.ofValues(Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6)),
+              resultForDuplicateValues),
+            $("DuplicateValues-batchedSource",
+              (Supplier<BatchIterator<Row>>) () ->
+                  new BatchSimulatingIterator<>(
+                      TestingBatchIterators.ofValues(Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4)), 2, 4, null),
+              (Supplier<BatchIterator<Row>>) () -> new BatchSimulatingIterator<>(
+                TestingBatchIterators.ofValues(Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6)), 2, 4, null),
+              resultForDuplicateValues));
+    }
+
+    private Supplier<SpillFile> spillFiles() {
+        return () -> {
+            try {
+                return SpillFile.create(tempFolder.getRoot().toPath(), STREAMERS);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private Supplier<BatchIterator<Row>> joinIterator(ToIntFunction<Row> hashBuilder, long memoryBudget) {
+        return () -> new GraceHashJoinBatchIterator(
+            leftIterator.get(),
+            rightIterator.get(),
+            RamAccounting.NO_ACCOUNTING,
+            row -> 16L,
+            new CombinedRow(1, 1),
+            getCol0EqCol1JoinCondition(),
+            hashBuilder,
+            hashBuilder,
+            () -> memoryBudget,
+            -1,
+            spillFiles(),
+            spillFiles()
+        );
+    }
+
+    @Test
+    public void test_join_with_all_partitions_in_memory() throws Exception {
+        var tester = BatchIteratorTester.forRows(joinIterator(getHash(), Long.MAX_VALUE));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_join_with_all_partitions_spilled() throws Exception {
+        var tester = BatchIteratorTester.forRows(joinIterator(getHash(), 0L));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_join_with_some_partitions_spilled() throws Exception {
+        var tester = BatchIteratorTester.forRows(joinIterator(getHash(), 48L));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_join_with_hash_collisions_and_spilled_partitions_exceeding_budget() throws Exception {
+        var tester = BatchIteratorTester.forRows(joinIterator(getHashWithCollisions(), 32L));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_spill_files_are_removed_after_close() throws Exception {
+        BatchIterator<Row> it = joinIterator(getHash(), 0L).get();
+        List<Row> result = it.toList().get();
+        assertThat(result).hasSize(expectedResult.size());
+        it.close();
+        try (Stream<Path> files = Files.list(tempFolder.getRoot().toPath())) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_num_partitions_is_a_power_of_two_within_bounds() {
+        assertThat(GraceHashJoinBatchIterator.numPartitions(-1, 100)).isEqualTo(GraceHashJoinBatchIterator.MIN_PARTITIONS);
+        assertThat(GraceHashJoinBatchIterator.numPartitions(1000, 100)).isEqualTo(32);
+        assertThat(GraceHashJoinBatchIterator.numPartitions(Long.MAX_VALUE, 100))
+            .isEqualTo(GraceHashJoinBatchIterator.MAX_PARTITIONS);
+    }
+}
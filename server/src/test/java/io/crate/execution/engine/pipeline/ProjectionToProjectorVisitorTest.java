@@ -112,7 +112,8 @@ public class ProjectionToProjectorVisitorTest extends CrateDummyClusterServiceUn
             new InputFactory(nodeCtx),
             EvaluatingNormalizer.functionOnlyNormalizer(nodeCtx),
             t -> null,
-            t -> null
+            t -> null,
+            null
         );
         memoryManager = new OnHeapMemoryManager(usedBytes -> {});
 
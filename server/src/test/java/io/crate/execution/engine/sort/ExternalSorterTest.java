@@ -0,0 +1,165 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.types.DataTypes;
+
+public class ExternalSorterTest extends ESTestCase {
+
+    private static final Comparator<Object[]> ORDERING = OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, false, false);
+    private static final Streamer<?>[] STREAMERS = new Streamer[] { DataTypes.INTEGER.streamer() };
+
+    private ExternalSorter newSorter(Path dir, long memoryBudget, RamAccounting ramAccounting) {
+        return newSorter(dir, memoryBudget, ramAccounting, Long.MAX_VALUE);
+    }
+
+    private ExternalSorter newSorter(Path dir, long memoryBudget, RamAccounting ramAccounting, long maxRows) {
+        return new ExternalSorter(ORDERING, () -> memoryBudget, ramAccounting, () -> {
+            try {
+                return SpillFile.create(dir, STREAMERS);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, maxRows);
+    }
+
+    private static List<Integer> values(Iterable<Row> rows) {
+        List<Integer> values = new ArrayList<>();
+        for (Row row : rows) {
+            values.add((Integer) row.get(0));
+        }
+        return values;
+    }
+
+    private static RamAccounting countingRamAccounting(AtomicLong usedBytes) {
+        return new RamAccounting() {
+
+            @Override
+            public void addBytes(long bytes) {
+                usedBytes.addAndGet(bytes);
+            }
+
+            @Override
+            public long totalBytes() {
+                return usedBytes.get();
+            }
+
+            @Override
+            public void release() {
+                usedBytes.set(0);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static long numFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("spill-")).count();
+        }
+    }
+
+    @Test
+    public void test_rows_are_sorted_in_memory_if_budget_is_not_exceeded() throws Exception {
+        Path dir = createTempDir();
+        try (ExternalSorter sorter = newSorter(dir, Long.MAX_VALUE, RamAccounting.NO_ACCOUNTING)) {
+            for (int value : new int[] { 3, 1, 2 }) {
+                sorter.add(new Object[] { value }, 16);
+            }
+            assertThat(values(sorter.finish(0, Integer.MAX_VALUE, 1))).containsExactly(1, 2, 3);
+            assertThat(sorter.numRuns()).isEqualTo(0);
+            assertThat(numFiles(dir)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void test_spilled_runs_are_merged_with_offset_and_limit_and_removed_on_close() throws Exception {
+        Path dir = createTempDir();
+        AtomicLong usedBytes = new AtomicLong();
+        RamAccounting ramAccounting = countingRamAccounting(usedBytes);
+        List<Integer> expected = new ArrayList<>();
+        ExternalSorter sorter = newSorter(dir, 160, ramAccounting);
+        for (int i = 0; i < 1000; i++) {
+            int value = randomInt();
+            expected.add(value);
+            ramAccounting.addBytes(16);
+            sorter.add(new Object[] { value }, 16);
+        }
+        expected.sort(Comparator.naturalOrder());
+
+        // runs are only merged once all rows have been added
+        assertThat(sorter.numRuns()).isGreaterThan(ExternalSorter.MAX_MERGE_WIDTH);
+        assertThat(usedBytes.get()).isLessThanOrEqualTo(160L);
+
+        Iterable<Row> rows = sorter.finish(10, 500, 1);
+        assertThat(sorter.numRuns()).isBetween(1, ExternalSorter.MAX_MERGE_WIDTH - 1);
+        assertThat(values(rows)).isEqualTo(expected.subList(10, 510));
+        // can be iterated repeatedly
+        assertThat(values(rows)).isEqualTo(expected.subList(10, 510));
+
+        sorter.close();
+        assertThat(numFiles(dir)).isEqualTo(0);
+    }
+
+    @Test
+    public void test_only_max_rows_are_spilled_and_rows_after_cutoff_are_dropped() throws Exception {
+        Path dir = createTempDir();
+        AtomicLong usedBytes = new AtomicLong();
+        RamAccounting ramAccounting = countingRamAccounting(usedBytes);
+        List<Integer> expected = new ArrayList<>();
+        try (ExternalSorter sorter = newSorter(dir, 160, ramAccounting, 5)) {
+            for (int i = 0; i < 1000; i++) {
+                int value = randomInt();
+                expected.add(value);
+                ramAccounting.addBytes(16);
+                sorter.add(new Object[] { value }, 16);
+            }
+            expected.sort(Comparator.naturalOrder());
+
+            // Without dropping rows there would be a run for every 11 rows
+            assertThat(sorter.numRuns()).isBetween(1, 30);
+            assertThat(usedBytes.get()).isLessThanOrEqualTo(160L);
+            assertThat(values(sorter.finish(2, 3, 1))).isEqualTo(expected.subList(2, 5));
+        }
+        assertThat(numFiles(dir)).isEqualTo(0);
+    }
+}
@@ -25,6 +25,11 @@ import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
@@ -35,17 +40,20 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.Streamer;
 import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.breaker.RowCellsAccountingWithEstimators;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.testing.TestingBatchIterators;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.execution.engine.spill.SpillFile;
 import io.crate.expression.symbol.Literal;
 import io.crate.types.DataTypes;
 
@@ -98,6 +106,41 @@ public class SortingProjectorTest extends ESTestCase {
         }
     }
 
+    @Test
+    public void test_order_by_with_external_sorter_spills_and_merges_rows() throws Exception {
+        Path spillDir = createTempDir();
+        RowCollectExpression input = new RowCollectExpression(0);
+        Comparator<Object[]> ordering = OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, true, false);
+        Streamer<?>[] streamers = new Streamer[] { DataTypes.INTEGER.streamer(), DataTypes.BOOLEAN.streamer() };
+        SortingProjector projector = new SortingProjector(
+            new IgnoreRowCellsAccounting(),
+            List.of(input, Literal.of(true)),
+            List.<CollectExpression<Row, ?>>of(input),
+            2,
+            ordering,
+            20,
+            5,
+            () -> new ExternalSorter(ordering, () -> 0L, RamAccounting.NO_ACCOUNTING, () -> {
+                try {
+                    return SpillFile.create(spillDir, streamers);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })
+        );
+
+        consumer.accept(projector.apply(TestingBatchIterators.range(1, 101)), null);
+        Bucket rows = consumer.getBucket();
+        assertThat(rows.size(), is(20));
+        int expected = 95;
+        for (Row row : rows) {
+            assertThat(row, isRow(expected--, true));
+        }
+        try (var files = Files.list(spillDir)) {
+            assertThat(files.filter(f -> f.getFileName().toString().startsWith("spill-")).count(), is(0L));
+        }
+    }
+
     @Test
     public void testInvalidOffset() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
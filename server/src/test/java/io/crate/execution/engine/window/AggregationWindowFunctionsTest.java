@@ -332,4 +332,36 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
             rows
         );
     }
+
+    @Test
+    public void test_max_over_rows_offset_preceding() throws Throwable {
+        assertEvaluate(
+            "max(d) over (order by x rows between 2 preceding and current row)",
+            new Object[] {5.0, 5.0, 8.0, 8.0, 8.0, 7.0, 7.0},
+            List.of(new ColumnIdent("x"), new ColumnIdent("d")),
+            $(1, 5.0),
+            $(2, 3.0),
+            $(3, 8.0),
+            $(4, 1.0),
+            $(5, 2.0),
+            $(6, 7.0),
+            $(7, 4.0)
+        );
+    }
+
+    @Test
+    public void test_min_over_rows_offset_following_including_partitions() throws Throwable {
+        assertEvaluate(
+            "min(d) over (partition by x > 3 order by x rows between current row and 2 following)",
+            new Object[] {3.0, 3.0, 8.0, 1.0, 2.0, 4.0, 4.0},
+            List.of(new ColumnIdent("x"), new ColumnIdent("d")),
+            $(1, 5.0),
+            $(2, 3.0),
+            $(3, 8.0),
+            $(4, 1.0),
+            $(5, 2.0),
+            $(6, 7.0),
+            $(7, 4.0)
+        );
+    }
 }
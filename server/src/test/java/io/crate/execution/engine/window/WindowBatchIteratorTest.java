@@ -115,6 +115,59 @@ public class WindowBatchIteratorTest {
         tester.verifyResultAndEdgeCaseBehaviour(expectedRowNumberResult);
     }
 
+    @Test
+    public void test_window_batch_iterator_over_sorted_source_computes_each_partition() throws Exception {
+        Comparator<Object[]> cmpPartitionBy = Comparator.comparing(row -> (Integer) row[0] / 4);
+        List<Object[]> expectedResult = IntStream.range(0, 10)
+            .mapToObj(l -> new Object[]{l, l % 4 + 1}).collect(toList());
+        var tester = BatchIteratorTester.forRows(
+            () -> {
+                Comparator<Object[]> cmpOrderBy = OrderingByPosition.arrayOrdering(DataTypes.INTEGER, 0, false, false);
+                return WindowFunctionBatchIterator.ofSorted(
+                    new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10), 3, 3, null),
+                    new IgnoreRowAccounting(),
+                    RamAccounting.NO_ACCOUNTING,
+                    getComputeFrameStart(cmpOrderBy, FrameBound.Type.UNBOUNDED_PRECEDING),
+                    getComputeFrameEnd(cmpOrderBy, FrameBound.Type.CURRENT_ROW),
+                    cmpPartitionBy,
+                    1,
+                    Collections.singletonList(rowNumberWindowFunction()),
+                    Collections.emptyList(),
+                    new Boolean[]{null},
+                    new Input[0]);
+            }
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+
+    @Test
+    public void test_window_batch_iterator_over_sorted_source_releases_memory_of_consumed_partitions() {
+        RamAccounting ramAccounting = ConcurrentRamAccounting.forCircuitBreaker("test", new NoopCircuitBreaker("dummy"), 0);
+        BatchIterator<Row> iterator = WindowFunctionBatchIterator.ofSorted(
+            TestingBatchIterators.range(0, 10),
+            new RowAccountingWithEstimators(List.of(DataTypes.INTEGER), ramAccounting, 32),
+            ramAccounting,
+            (partitionStart, partitionEnd, currentIndex, sortedRows) -> 0,
+            (partitionStart, partitionEnd, currentIndex, sortedRows) -> currentIndex,
+            Comparator.comparing(row -> (Integer) row[0] / 2),
+            1,
+            List.of(rowNumberWindowFunction()),
+            List.of(),
+            new Boolean[]{null},
+            new Input[][]{new Input[0]}
+        );
+        long maxBytes = 0;
+        int numRows = 0;
+        while (iterator.moveNext()) {
+            maxBytes = Math.max(maxBytes, ramAccounting.totalBytes());
+            numRows++;
+        }
+        assertThat(numRows, is(10));
+        // at most one partition of two rows and the first row of the next partition are buffered
+        assertThat(maxBytes, is(3 * 48L));
+        assertThat(ramAccounting.totalBytes(), is(0L));
+    }
+
     @Test
     public void testFrameBoundsEmptyWindow() throws Exception {
         var rows = IntStream.range(0, 10).mapToObj(i -> new Object[]{i, null}).collect(toList());
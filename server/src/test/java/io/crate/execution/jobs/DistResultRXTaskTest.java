@@ -22,6 +22,7 @@
 package io.crate.execution.jobs;
 
 import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -83,6 +84,25 @@ public class DistResultRXTaskTest extends ESTestCase {
         );
     }
 
+    @Test
+    public void test_pipelined_pages_are_passed_to_the_receiver_in_order() throws Throwable {
+        TestingRowConsumer batchConsumer = new TestingRowConsumer();
+        DistResultRXTask ctx = getPageDownstreamContext(batchConsumer, PassThroughPagingIterator.oneShot(), 2);
+        PageBucketReceiver bucketReceiver = ctx.getBucketReceiver((byte) 0);
+        List<Boolean> responses = new ArrayList<>();
+
+        // the second page of bucket 0 arrives before the first page
+        bucketReceiver.setPage(0, 1, new ArrayBucket(new Object[][] { new Object[] { "b" } }), true, responses::add);
+        assertThat(responses.isEmpty(), is(true));
+        bucketReceiver.setPage(1, 0, new ArrayBucket(new Object[][] { new Object[] { "c" } }), true, responses::add);
+        bucketReceiver.setPage(0, 0, new ArrayBucket(new Object[][] { new Object[] { "a" } }), false, responses::add);
+
+        List<Object[]> result = batchConsumer.getResult();
+        assertThat(result.size(), is(3));
+        assertThat(result.get(2), is(new Object[] { "b" }));
+        assertThat(responses, contains(false, true, false));
+    }
+
     @Test
     public void testCantSetSameBucketTwiceWithoutReceivingFullPage() throws Throwable {
         TestingRowConsumer batchConsumer = new TestingRowConsumer();
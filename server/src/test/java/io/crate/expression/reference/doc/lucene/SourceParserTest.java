@@ -31,11 +31,14 @@ import java.util.Set;
 import java.util.function.Function;
 
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
 import io.crate.common.collections.Maps;
 import io.crate.metadata.ColumnIdent;
+import io.crate.server.xcontent.BinarySource;
 import io.crate.sql.tree.BitString;
 import io.crate.types.ArrayType;
 import io.crate.types.BitStringType;
@@ -451,4 +454,26 @@ public class SourceParserTest extends ESTestCase {
         assertThat(Maps.getByPath(result, "o.oo")).isNull();
 
     }
+
+    @Test
+    public void test_binary_source_is_parsed_like_json_source() throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (XContentBuilder builder = BinarySource.builder(out)) {
+            builder.map(Map.of(
+                "1", 10L,
+                "2", "skipped",
+                "3", Map.of("4", "2023-01-01", "5", List.of(1, 2))
+            ));
+        }
+        Map<String, String> names = Map.of("1", "x", "2", "y", "3", "o", "4", "a", "5", "b");
+        SourceParser sourceParser = new SourceParser(Set.of(), names::get);
+        sourceParser.register(new ColumnIdent("_doc", List.of("x")), DataTypes.INTEGER);
+        sourceParser.register(new ColumnIdent("_doc", List.of("o", "b")), new ArrayType<>(DataTypes.LONG));
+        Map<String, Object> result = sourceParser.parse(out.bytes());
+
+        assertThat(result.get("x")).isEqualTo(10);
+        assertThat(result).doesNotContainKey("y");
+        assertThat(Maps.getByPath(result, "o.a")).isNull();
+        assertThat(Maps.getByPath(result, "o.b")).isEqualTo(List.of(1L, 2L));
+    }
 }
@@ -46,7 +46,7 @@ public class GroupByAggregateBreakerTest extends IntegTestCase {
         Asserts.assertSQLError(() -> execute("select region, count(*) from sys.summits group by 1"))
             .hasPGError(INTERNAL_ERROR)
             .hasHTTPError(INTERNAL_SERVER_ERROR, 5000)
-            .hasMessageContaining("[query] Data too large, data for [collect: 0] would be [280/280b], " +
+            .hasMessageContaining("[query] Data too large, data for [collect: 0] would be [320/320b], " +
                                          "which is larger than the limit of [256/256b]");
     }
 }
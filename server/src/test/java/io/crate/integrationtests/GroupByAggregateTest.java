@@ -1218,10 +1218,10 @@ public class GroupByAggregateTest extends IntegTestCase {
     public void testGroupByOnScalarOnArray() throws Exception {
         execute("select string_to_array(unnest, ' ')[2], count(*) " +
                 "from unnest([' select foo', 'insert into ', 'select 1']) " +
-                "group by 1 order by 2 desc");
+                "group by 1 order by 2 desc, 1");
         assertThat(response).hasRows(
-            "into| 1",
             "1| 1",
+            "into| 1",
             "select| 1"
         );
     }
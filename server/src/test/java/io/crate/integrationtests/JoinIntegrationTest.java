@@ -920,6 +920,25 @@ public class JoinIntegrationTest extends IntegTestCase {
             "2| 3");
     }
 
+    @Test
+    @UseHashJoins(1)
+    public void test_inner_equi_join_using_hash_join_with_spilling_enabled() {
+        execute("create table t1 (a integer, s text)");
+        execute("create table t2 (x integer)");
+        ensureYellow();
+        execute("insert into t1 (a, s) (select g, 'a' || g from generate_series(1, 500, 1) as g)");
+        execute("insert into t2 (x) (select g from generate_series(0, 1000, 2) as g)");
+        execute("refresh table t1, t2");
+
+        execute("set global transient \"memory.spill.enabled\" = true");
+        try {
+            execute("select count(*), sum(a), max(s) from t1 join t2 on t1.a = t2.x");
+            assertThat(response).hasRows("250| 62750| a98");
+        } finally {
+            execute("reset global \"memory.spill.enabled\"");
+        }
+    }
+
     private void resetTableStats() {
         for (TableStats tableStats : cluster().getInstances(TableStats.class)) {
             tableStats.updateTableStats(new HashMap<>());
@@ -1174,12 +1193,11 @@ public class JoinIntegrationTest extends IntegTestCase {
         assertThat(response.rows()[0][0]).isEqualTo(
             """
                 NestedLoopJoin[LEFT | (id = id)]
-                  ├ Eval[id, a, id, b, id, c]
-                  │  └ HashJoin[(id = id)]
-                  │    ├ Collect[doc.t3 | [id, c] | true]
-                  │    └ HashJoin[(id = id)]
-                  │      ├ Collect[doc.t1 | [id, a] | true]
-                  │      └ Get[doc.t2 | id, b | DocKeys{1; 2} | ((id = 1) OR (id = 2))]
+                  ├ HashJoin[(id = id)]
+                  │  ├ HashJoin[(id = id)]
+                  │  │  ├ Collect[doc.t1 | [id, a] | true]
+                  │  │  └ Get[doc.t2 | id, b | DocKeys{1; 2} | ((id = 1) OR (id = 2))]
+                  │  └ Collect[doc.t3 | [id, c] | true]
                   └ Collect[doc.t4 | [id, d] | true]"""
         );
         execute(stmt);
@@ -1549,9 +1567,9 @@ public class JoinIntegrationTest extends IntegTestCase {
 
         var stmt = "SELECT t3.e FROM t1 JOIN t3 ON t1.b = t3.f JOIN t2 ON t1.a = t2.c WHERE t2.d =t3.e";
         assertThat(execute("explain " + stmt)).hasLines(
-                "Eval[e] (rows=0)",
-                "  └ Eval[b, a, e, f, c, d] (rows=0)",
-                "    └ HashJoin[((a = c) AND (d = e))] (rows=0)",
+                "Eval[e] (rows=1)",
+                "  └ Eval[b, a, e, f, c, d] (rows=1)",
+                "    └ HashJoin[((a = c) AND (d = e))] (rows=1)",
                 "      ├ Collect[doc.t2 | [c, d] | true] (rows=2)",
                 "      └ HashJoin[(b = f)] (rows=1)",
                 "        ├ Collect[doc.t1 | [b, a] | true] (rows=1)",
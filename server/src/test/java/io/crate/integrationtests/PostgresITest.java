@@ -27,6 +27,8 @@ import static io.crate.protocols.postgres.PostgresNetty.PSQL_PORT_SETTING;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.sql.Array;
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
@@ -54,7 +56,9 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
+import org.postgresql.PGConnection;
 import org.postgresql.PGProperty;
+import org.postgresql.copy.CopyManager;
 import org.postgresql.geometric.PGpoint;
 import org.postgresql.jdbc.PreferQueryMode;
 import org.postgresql.util.PGobject;
@@ -1235,6 +1239,34 @@ public class PostgresITest extends IntegTestCase {
         }
     }
 
+    @Test
+    public void test_copy_from_stdin_and_copy_to_stdout_using_the_copy_manager() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            Statement statement = conn.createStatement();
+            statement.execute("create table tbl (id int, name text) clustered into 2 shards");
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+
+            long inserted = copyManager.copyIn(
+                "COPY tbl FROM STDIN",
+                new StringReader("{\"id\": 1, \"name\": \"foo\"}\n{\"id\": 2, \"name\": \"bar\"}\n")
+            );
+            assertThat(inserted).isEqualTo(2L);
+            statement.execute("refresh table tbl");
+
+            StringWriter writer = new StringWriter();
+            long exported = copyManager.copyOut("COPY tbl (id, name) TO STDOUT", writer);
+            assertThat(exported).isEqualTo(2L);
+            assertThat(writer.toString().lines().map(String::trim).sorted()).containsExactly(
+                "[1,\"foo\"]",
+                "[2,\"bar\"]"
+            );
+
+            assertThatThrownBy(() -> statement.execute("copy tbl from 'stdin:foo'"))
+                .isExactlyInstanceOf(PSQLException.class)
+                .hasMessageContaining("The `stdin` URI scheme can only be used by COPY FROM STDIN of the PostgreSQL wire protocol");
+        }
+    }
+
     private long getNumQueriesFromJobsLogs() {
         long result = 0;
         Iterable<JobsLogs> jobLogs = cluster().getInstances(JobsLogs.class);
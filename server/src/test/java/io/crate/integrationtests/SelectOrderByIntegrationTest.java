@@ -190,4 +190,26 @@ public class SelectOrderByIntegrationTest extends IntegTestCase {
         assertThat(printedTable(response.rows()), Matchers.is("1| 1\n" +
                                                               "1| 2\n"));
     }
+
+    @Test
+    public void test_order_by_on_grouped_result_with_spilling_enabled() {
+        execute("create table t1 (x int, s text)");
+        execute("insert into t1 (x, s) (select g % 500, 's' || g from generate_series(1, 2000, 1) as g)");
+        refresh();
+
+        execute("set global transient \"memory.spill.enabled\" = true");
+        try {
+            execute("select x, count(*), max(s) from t1 group by x order by x desc limit 3");
+            assertThat(printedTable(response.rows()), is(
+                "499| 4| s999\n" +
+                "498| 4| s998\n" +
+                "497| 4| s997\n"));
+            execute("select x, count(*) from t1 group by x order by x desc");
+            assertThat(response.rowCount(), is(500L));
+            assertThat(response.rows()[0][0], is(499));
+            assertThat(response.rows()[499][0], is(0));
+        } finally {
+            execute("reset global \"memory.spill.enabled\"");
+        }
+    }
 }
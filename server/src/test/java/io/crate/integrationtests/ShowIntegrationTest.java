@@ -401,10 +401,13 @@ public class ShowIntegrationTest extends IntegTestCase {
             "application_name| PostgreSQL JDBC Driver| Optional application name. Can be set by a client to identify the application which created the connection",
             "datestyle| ISO| Display format for date and time values.",
             "enable_hashjoin| true| Considers using the Hash Join instead of the Nested Loop Join implementation.",
+            "enable_materialized_view_rewrite| false| Answers matching queries from materialized views, which may not contain the latest changes.",
             "error_on_unknown_object_key| true| Raises or suppresses ObjectKeyUnknownException when querying nonexistent keys to dynamic objects.",
             "max_identifier_length| 255| Shows the maximum length of identifiers in bytes.",
             "max_index_keys| 32| Shows the maximum number of index keys.",
             "memory.operation_limit| 0| Memory limit in bytes for an individual operation. 0 by-passes the operation limit, relying entirely on the global circuit breaker limits",
+            "optimizer_add_hash_join_runtime_filter| true| Indicates if the optimizer rule AddHashJoinRuntimeFilter is activated.",
+            "optimizer_cost_based_join_reorder| true| Indicates if the optimizer rule CostBasedJoinReorder is activated.",
             "optimizer_deduplicate_order| true| Indicates if the optimizer rule DeduplicateOrder is activated.",
             "optimizer_eliminate_cross_join| true| Indicates if the optimizer rule EliminateCrossJoin is activated.",
             "optimizer_merge_aggregate_and_collect_to_count| true| Indicates if the optimizer rule MergeAggregateAndCollectToCount is activated.",
@@ -0,0 +1,75 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.IndexSortSortedNumericDocValuesRangeQuery;
+import org.apache.lucene.search.Query;
+import org.elasticsearch.Version;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.QueryTester;
+
+public class IndexSortQueryBuilderTest extends CrateDummyClusterServiceUnitTest {
+
+    private QueryTester tester;
+
+    @Before
+    public void setUpTester() throws Exception {
+        QueryTester.Builder builder = new QueryTester.Builder(
+            createTempDir(),
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            "create table t (x bigint, y bigint) with (sort_by = 'x')"
+        );
+        tester = builder
+            .indexValues("x", 5L, 1L, 8L, 3L, 4L, null, 9L, 6L)
+            .build();
+    }
+
+    @After
+    public void tearDownTester() throws Exception {
+        tester.close();
+    }
+
+    @Test
+    public void test_range_query_on_first_sort_column_uses_index_sort() throws Exception {
+        Query query = tester.toQuery("x > 3");
+        assertThat(query).isExactlyInstanceOf(IndexSortSortedNumericDocValuesRangeQuery.class);
+        assertThat(query).hasToString("x:[4 TO 9223372036854775807]");
+
+        assertThat(tester.runQuery("x", "x > 3 and x <= 6")).containsExactly(4L, 5L, 6L);
+        assertThat(tester.runQuery("x", "x < 4")).containsExactly(1L, 3L);
+    }
+
+    @Test
+    public void test_range_query_on_other_column_does_not_use_index_sort() throws Exception {
+        Query query = tester.toQuery("y > 3");
+        assertThat(query).isExactlyInstanceOf(IndexOrDocValuesQuery.class);
+    }
+}
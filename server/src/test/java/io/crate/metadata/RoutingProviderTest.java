@@ -28,13 +28,22 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import java.util.concurrent.TimeUnit;
+
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
+import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.common.settings.Settings;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import io.crate.execution.engine.collect.stats.NodeResponseStats;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 
 public class RoutingProviderTest extends CrateDummyClusterServiceUnitTest {
@@ -58,4 +67,73 @@ public class RoutingProviderTest extends CrateDummyClusterServiceUnitTest {
             Matchers.oneOf(node1.getId(), node2.getId())
         ));
     }
+
+    @Test
+    public void test_adaptive_replica_selection_uses_copy_on_node_with_best_rank() {
+        ClusterState state = ClusterStateCreationUtils.state(
+            "idx", true, ShardRoutingState.STARTED, ShardRoutingState.STARTED);
+        IndexShardRoutingTable shard = state.routingTable().index("idx").shard(0);
+        String primaryNode = shard.primaryShard().currentNodeId();
+        String replicaNode = shard.replicaShards().get(0).currentNodeId();
+
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(Settings.EMPTY, clusterService);
+        respond(nodeResponseStats, primaryNode, TimeUnit.SECONDS.toNanos(1), 10);
+        respond(nodeResponseStats, replicaNode, TimeUnit.MILLISECONDS.toNanos(1), 0);
+
+        for (int seed = 0; seed < 10; seed++) {
+            RoutingProvider routingProvider = new RoutingProvider(seed, List.of(), nodeResponseStats);
+            Routing routing = routingProvider.forIndices(
+                state, new String[] { "idx" }, Map.of(), false, RoutingProvider.ShardSelection.ANY);
+            assertThat(routing.nodes(), contains(replicaNode));
+        }
+    }
+
+    @Test
+    public void test_adaptive_replica_selection_uses_random_copy_if_a_node_has_no_stats() {
+        ClusterState state = ClusterStateCreationUtils.state(
+            "idx", true, ShardRoutingState.STARTED, ShardRoutingState.STARTED);
+        IndexShardRoutingTable shard = state.routingTable().index("idx").shard(0);
+        String primaryNode = shard.primaryShard().currentNodeId();
+
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(Settings.EMPTY, clusterService);
+        respond(nodeResponseStats, primaryNode, TimeUnit.MILLISECONDS.toNanos(1), 0);
+
+        for (int seed = 0; seed < 10; seed++) {
+            Routing expected = new RoutingProvider(seed, List.of()).forIndices(
+                state, new String[] { "idx" }, Map.of(), false, RoutingProvider.ShardSelection.ANY);
+            Routing routing = new RoutingProvider(seed, List.of(), nodeResponseStats).forIndices(
+                state, new String[] { "idx" }, Map.of(), false, RoutingProvider.ShardSelection.ANY);
+            assertThat(routing.nodes(), Matchers.is(expected.nodes()));
+        }
+    }
+
+    @Test
+    public void test_adaptive_replica_selection_does_not_use_initializing_copy() {
+        ClusterState state = ClusterStateCreationUtils.state(
+            "idx", true, ShardRoutingState.STARTED, ShardRoutingState.INITIALIZING);
+        IndexShardRoutingTable shard = state.routingTable().index("idx").shard(0);
+        String primaryNode = shard.primaryShard().currentNodeId();
+        String replicaNode = shard.replicaShards().get(0).currentNodeId();
+
+        NodeResponseStats nodeResponseStats = new NodeResponseStats(Settings.EMPTY, clusterService);
+        respond(nodeResponseStats, primaryNode, TimeUnit.SECONDS.toNanos(1), 10);
+        respond(nodeResponseStats, replicaNode, TimeUnit.MILLISECONDS.toNanos(1), 0);
+
+        for (int seed = 0; seed < 10; seed++) {
+            RoutingProvider routingProvider = new RoutingProvider(seed, List.of(), nodeResponseStats);
+            Routing routing = routingProvider.forIndices(
+                state, new String[] { "idx" }, Map.of(), false, RoutingProvider.ShardSelection.ANY);
+            assertThat(routing.nodes(), contains(primaryNode));
+        }
+    }
+
+    private static void respond(NodeResponseStats nodeResponseStats, String nodeId, long serviceTimeNanos, int queueSize) {
+        ActionListener<Object> listener = nodeResponseStats.track(
+            nodeId,
+            ActionListener.wrap(() -> {}),
+            response -> serviceTimeNanos,
+            response -> queueSize
+        );
+        listener.onResponse(new Object());
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import static io.crate.testing.Asserts.assertThat;
+import static io.crate.testing.Asserts.isAlias;
+import static io.crate.testing.Asserts.isDocTable;
+import static io.crate.testing.Asserts.isFunction;
+import static io.crate.testing.Asserts.isLiteral;
+import static io.crate.testing.Asserts.isReference;
+
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.RelationAnalyzer;
+import io.crate.execution.ddl.views.MaterializedViewSettings;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.RelationName;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+
+public class MaterializedViewRewriterTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private MaterializedViewRewriter rewriter;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("CREATE TABLE doc.t (k INT, x BIGINT, y INT)")
+            .addTable(
+                "CREATE TABLE doc.mv (k INT, total BIGINT, cnt BIGINT)",
+                Settings.builder()
+                    .put(
+                        MaterializedViewSettings.QUERY.getKey(),
+                        "SELECT k, sum(x) AS total, count(*) AS cnt FROM t WHERE y > 0 GROUP BY k")
+                    .put(MaterializedViewSettings.SCHEMA.getKey(), "doc")
+                    .put(MaterializedViewSettings.SOURCE.getKey(), "t")
+                    .putList(MaterializedViewSettings.GROUP_BY.getKey(), "k")
+                    .putList(MaterializedViewSettings.SOURCE_GROUP_BY.getKey(), "k")
+                    .build())
+            .build();
+        rewriter = new MaterializedViewRewriter(new RelationAnalyzer(e.nodeCtx, e.schemas()), e.schemas());
+    }
+
+    private AnalyzedRelation rewrite(String statement) {
+        AnalyzedRelation relation = e.analyze(statement);
+        return rewriter.rewrite(relation, new CoordinatorTxnCtx(e.getSessionSettings()), clusterService.state());
+    }
+
+    @Test
+    public void test_matching_group_by_is_answered_from_view() {
+        AnalyzedRelation relation = rewrite(
+            "SELECT k, sum(x) FROM t WHERE y > 0 AND k > 10 GROUP BY k HAVING count(*) > 100 ORDER BY 2");
+
+        assertThat(relation).isExactlyInstanceOf(QueriedSelectRelation.class);
+        QueriedSelectRelation select = (QueriedSelectRelation) relation;
+        assertThat(select.from()).satisfiesExactly(isDocTable(new RelationName("doc", "mv")));
+        assertThat(select.groupBy()).isEmpty();
+        assertThat(select.having()).isNull();
+        assertThat(select.outputs()).satisfiesExactly(
+            isReference("k"),
+            isAlias("sum(x)", isReference("total"))
+        );
+        assertThat(select.where()).isFunction(
+            "op_and",
+            isFunction("op_>", isReference("k"), isLiteral(10)),
+            isFunction("op_>", isReference("cnt"), isLiteral(100L))
+        );
+        assertThat(select.orderBy().orderBySymbols()).satisfiesExactly(isReference("total"));
+    }
+
+    @Test
+    public void test_group_by_query_is_planned_on_view_if_rewrite_is_enabled() {
+        String statement = "SELECT k, count(*) AS cnt FROM t WHERE y > 0 GROUP BY k";
+        e.getSessionSettings().setMaterializedViewRewriteEnabled(true);
+        LogicalPlan plan = e.logicalPlan(statement);
+        assertThat(plan).isEqualTo("Collect[doc.mv | [k, cnt AS cnt] | true]");
+
+        e.getSessionSettings().setMaterializedViewRewriteEnabled(false);
+        plan = e.logicalPlan(statement);
+        assertThat(plan).isEqualTo(
+            """
+            Eval[k, count(*) AS cnt]
+              └ GroupHashAggregate[k | count(*)]
+                └ Collect[doc.t | [k] | (y > 0)]
+            """
+        );
+    }
+
+    @Test
+    public void test_query_without_view_condition_is_not_rewritten() {
+        AnalyzedRelation relation = e.analyze("SELECT k, sum(x) FROM t GROUP BY k");
+        assertThat(rewriter.rewrite(relation, new CoordinatorTxnCtx(e.getSessionSettings()), clusterService.state()))
+            .isSameAs(relation);
+    }
+
+    @Test
+    public void test_query_with_different_groups_is_not_rewritten() {
+        AnalyzedRelation relation = e.analyze("SELECT k, y, sum(x) FROM t WHERE y > 0 GROUP BY k, y");
+        assertThat(rewriter.rewrite(relation, new CoordinatorTxnCtx(e.getSessionSettings()), clusterService.state()))
+            .isSameAs(relation);
+    }
+
+    @Test
+    public void test_query_with_aggregate_not_stored_in_view_is_not_rewritten() {
+        AnalyzedRelation relation = e.analyze("SELECT k, avg(x) FROM t WHERE y > 0 GROUP BY k");
+        assertThat(rewriter.rewrite(relation, new CoordinatorTxnCtx(e.getSessionSettings()), clusterService.state()))
+            .isSameAs(relation);
+    }
+
+    @Test
+    public void test_query_filtering_on_aggregated_column_is_not_rewritten() {
+        AnalyzedRelation relation = e.analyze("SELECT k, sum(x) FROM t WHERE y > 0 AND x > 1 GROUP BY k");
+        assertThat(rewriter.rewrite(relation, new CoordinatorTxnCtx(e.getSessionSettings()), clusterService.state()))
+            .isSameAs(relation);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.Metadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.ParamTypeHints;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.statistics.Stats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.testing.T3;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class PlanCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private PlanCache planCache;
+
+    @Before
+    public void setUpExecutor() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable(T3.T1_DEFINITION)
+            .addTable(T3.T2_DEFINITION)
+            .build();
+        planCache = new PlanCache(10, e.nodeCtx);
+    }
+
+    private Plan plan(String stmt, List<DataType<?>> parameterTypes) {
+        Statement statement = SqlParser.createStatement(stmt);
+        AnalyzedStatement analyzedStatement = e.analyzer.analyze(
+            statement,
+            e.getSessionSettings(),
+            new ParamTypeHints(parameterTypes),
+            e.cursors
+        );
+        PlannerContext plannerContext = e.getPlannerContext(clusterService.state());
+        return planCache.plan(e.planner, statement, parameterTypes, analyzedStatement, plannerContext);
+    }
+
+    @Test
+    public void test_select_plan_is_reused_for_same_statement() {
+        Plan plan1 = plan("select a, x from t1 where x = ? order by a", List.of(DataTypes.INTEGER));
+        Plan plan2 = plan("select a, x from t1   where x = ? order by a", List.of(DataTypes.INTEGER));
+
+        assertThat(plan2).isSameAs(plan1);
+        assertThat(planCache.size()).isEqualTo(1L);
+        assertThat(planCache.misses()).isEqualTo(1L);
+        assertThat(planCache.hits()).isEqualTo(1L);
+    }
+
+    @Test
+    public void test_parameter_types_are_part_of_the_key() {
+        Plan plan1 = plan("select a from t1 where x = ?", List.of(DataTypes.INTEGER));
+        Plan plan2 = plan("select a from t1 where x = ?", List.of(DataTypes.LONG));
+
+        assertThat(plan2).isNotSameAs(plan1);
+        assertThat(planCache.size()).isEqualTo(2L);
+    }
+
+    @Test
+    public void test_statements_with_non_deterministic_functions_are_not_cached() {
+        Plan plan1 = plan("select a, now() from t1", List.of());
+        Plan plan2 = plan("select a, now() from t1", List.of());
+        plan("select a from t1 where x > random()", List.of());
+        plan("select a from t1 where x in (select y from t2 where b = current_user)", List.of());
+
+        assertThat(plan2).isNotSameAs(plan1);
+        assertThat(planCache.size()).isEqualTo(0L);
+        assertThat(planCache.misses()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_write_statements_are_not_cached() {
+        plan("insert into t1 (a, x) values (?, ?)", List.of(DataTypes.STRING, DataTypes.INTEGER));
+        plan("delete from t1 where x = 1", List.of());
+
+        assertThat(planCache.size()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_cache_is_cleared_on_metadata_change() {
+        plan("select a from t1", List.of());
+        assertThat(planCache.size()).isEqualTo(1L);
+
+        ClusterState oldState = clusterService.state();
+        ClusterState newState = ClusterState.builder(oldState)
+            .metadata(Metadata.builder(oldState.metadata()).version(oldState.metadata().version() + 1))
+            .build();
+        planCache.clusterChanged(new ClusterChangedEvent("test", newState, oldState));
+
+        assertThat(planCache.size()).isEqualTo(0L);
+        assertThat(planCache.invalidations()).isEqualTo(1L);
+    }
+
+    @Test
+    public void test_plan_is_not_reused_after_table_stats_are_updated() {
+        Plan plan1 = plan("select a from t1 where x = 1", List.of());
+        e.updateTableStats(Map.of(T3.T1, new Stats(100, 100, Map.of())));
+        Plan plan2 = plan("select a from t1 where x = 1", List.of());
+        Plan plan3 = plan("select a from t1 where x = 1", List.of());
+
+        assertThat(plan2).isNotSameAs(plan1);
+        assertThat(plan3).isSameAs(plan2);
+        assertThat(planCache.misses()).isEqualTo(2L);
+        assertThat(planCache.hits()).isEqualTo(1L);
+    }
+
+    @Test
+    public void test_disabled_cache_always_plans() {
+        planCache = new PlanCache(0, e.nodeCtx);
+        Plan plan1 = plan("select a from t1", List.of());
+        Plan plan2 = plan("select a from t1", List.of());
+
+        assertThat(plan2).isNotSameAs(plan1);
+        assertThat(planCache.maxSize()).isEqualTo(0);
+    }
+}
@@ -981,6 +981,21 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(collect.nodeIds()).hasSize(2);
     }
 
+    @Test
+    public void test_window_function_with_partition_by_on_table_collect_uses_presorted_rows() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService, 2, RandomizedTest.getRandom(), List.of())
+            .addTable(TableDefinitions.USER_TABLE_DEFINITION)
+            .build();
+
+        Merge localMerge = e.plan("select sum(ints) OVER (partition by awesome order by id) from users");
+        Merge distMerge = (Merge) localMerge.subPlan();
+        WindowAggProjection windowAggProjection = (WindowAggProjection) distMerge.mergePhase().projections().get(0);
+        assertThat(windowAggProjection.presorted()).isTrue();
+        assertThat(distMerge.mergePhase().orderByPositions()).isNotNull();
+        Collect collect = (Collect) distMerge.subPlan();
+        assertThat(((RoutedCollectPhase) collect.collectPhase()).orderBy()).isNotNull();
+    }
+
     @Test
     public void testSeqNoAndPrimaryTermFilteringRequirePrimaryKey() throws Exception {
         SQLExecutor e = SQLExecutor.builder(clusterService, 2, RandomizedTest.getRandom(), List.of())
@@ -24,9 +24,11 @@ package io.crate.planner.optimizer.costs;
 import static io.crate.testing.Asserts.assertThat;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
@@ -269,8 +271,9 @@ public class PlanStatsTest extends CrateDummyClusterServiceUnitTest {
         nestedLoopJoin = new NestedLoopJoin(
             lhs, rhs, JoinType.INNER, joinCondition, false, false, false, false);
         result = planStats.get(nestedLoopJoin);
-        assertThat(result.numDocs()).isEqualTo(1L);
-        assertThat(result.sizeInBytes()).isEqualTo(32L);
+        // Both rows of b have the same value which matches one value of a
+        assertThat(result.numDocs()).isEqualTo(2L);
+        assertThat(result.sizeInBytes()).isEqualTo(64L);
 
         nestedLoopJoin = new NestedLoopJoin(
             lhs, rhs, JoinType.CROSS, x, false, false, false, false);
@@ -282,6 +285,55 @@ public class PlanStatsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(result.sizeInBytes()).isEqualTo(576L);
     }
 
+    @Test
+    public void test_equi_join_cardinality_is_based_on_distinct_values_of_join_columns() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .addTable("create table fact (dim_id int, val int)")
+            .addTable("create table dim (id int, name text)")
+            .build();
+
+        DocTableInfo fact = e.resolveTableInfo("fact");
+        DocTableInfo dim = e.resolveTableInfo("dim");
+
+        var lhs = new Collect(new DocTableRelation(fact), List.of(e.asSymbol("dim_id")), WhereClause.MATCH_ALL);
+        var rhs = new Collect(new DocTableRelation(dim), List.of(e.asSymbol("id")), WhereClause.MATCH_ALL);
+
+        ArrayList<Integer> dimIds = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            dimIds.add(i / 10);
+        }
+        ColumnStats<Integer> dimIdStats = ColumnStats.fromSortedValues(dimIds, DataTypes.INTEGER, 0, 1000);
+        ColumnStats<Integer> idStats = ColumnStats.fromSortedValues(
+            IntStream.range(0, 100).boxed().toList(), DataTypes.INTEGER, 0, 100);
+
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(
+            Map.of(
+                fact.ident(), new Stats(1000L, 1000L * 32, Map.of(new ColumnIdent("dim_id"), dimIdStats)),
+                dim.ident(), new Stats(100L, 100L * 32, Map.of(new ColumnIdent("id"), idStats))
+            )
+        );
+        PlanStats planStats = new PlanStats(nodeContext, txnCtx, tableStats, null);
+
+        var hashJoin = new HashJoin(lhs, rhs, e.asSymbol("fact.dim_id = dim.id"));
+        Stats result = planStats.get(hashJoin);
+        // Every fact row matches exactly one dim row
+        assertThat(result.numDocs()).isEqualTo(1000L);
+        assertThat(result.getColumnStats(new ColumnIdent("id")).approxDistinct()).isEqualTo(100.0);
+
+        var filteredRhs = new Filter(rhs, e.asSymbol("dim.id = 10"));
+        hashJoin = new HashJoin(lhs, filteredRhs, e.asSymbol("fact.dim_id = dim.id"));
+        result = planStats.get(hashJoin);
+        assertThat(result.numDocs()).isEqualTo(10L);
+        assertThat(result.getColumnStats(new ColumnIdent("id")).approxDistinct()).isEqualTo(1.0);
+        assertThat(result.getColumnStats(new ColumnIdent("dim_id")).approxDistinct()).isEqualTo(1.0);
+
+        var leftJoin = new NestedLoopJoin(
+            lhs, filteredRhs, JoinType.LEFT, e.asSymbol("fact.dim_id = dim.id"), false, false, false, false);
+        result = planStats.get(leftJoin);
+        assertThat(result.numDocs()).isEqualTo(1000L);
+    }
+
     @Test
     public void test_filter() throws Exception {
         SQLExecutor e = SQLExecutor.builder(clusterService)
@@ -0,0 +1,199 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.testing.Asserts.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.data.Row;
+import io.crate.expression.eval.EvaluatingNormalizer;
+import io.crate.expression.operator.any.AnyEqOperator;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.HashJoin;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.SubQueryAndParamBinder;
+import io.crate.planner.operators.SubQueryResults;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.Stats;
+import io.crate.statistics.TableStats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
+
+public class AddHashJoinRuntimeFilterTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private DocTableInfo factsTable;
+    private DocTableInfo dimsTable;
+    private Collect facts;
+    private Collect dims;
+    private Collect filteredDims;
+    private CoordinatorTxnCtx txnCtx = CoordinatorTxnCtx.systemTransactionContext();
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table facts (dim_id int, amount int)")
+            .addTable("create table dims (id int, region int)")
+            .build();
+        factsTable = e.resolveTableInfo("facts");
+        dimsTable = e.resolveTableInfo("dims");
+        facts = new Collect(
+            new DocTableRelation(factsTable),
+            List.of(e.asSymbol("dim_id"), e.asSymbol("amount")),
+            WhereClause.MATCH_ALL
+        );
+        dims = new Collect(
+            new DocTableRelation(dimsTable),
+            List.of(e.asSymbol("id"), e.asSymbol("region")),
+            WhereClause.MATCH_ALL
+        );
+        filteredDims = new Collect(
+            new DocTableRelation(dimsTable),
+            List.of(e.asSymbol("id"), e.asSymbol("region")),
+            new WhereClause(e.asSymbol("dims.region = 1"))
+        );
+    }
+
+    private PlanStats planStats(long numFacts) {
+        List<Integer> ids = IntStream.range(0, 1000).boxed().toList();
+        List<Integer> regions = IntStream.range(0, 1000).map(x -> x % 100).sorted().boxed().toList();
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(Map.of(
+            factsTable.ident(), new Stats(numFacts, numFacts * 16, Map.of(
+                new ColumnIdent("dim_id"), ColumnStats.fromSortedValues(ids, DataTypes.INTEGER, 0, 1000)
+            )),
+            dimsTable.ident(), new Stats(1000, 1000 * 16, Map.of(
+                new ColumnIdent("id"), ColumnStats.fromSortedValues(ids, DataTypes.INTEGER, 0, 1000),
+                new ColumnIdent("region"), ColumnStats.fromSortedValues(regions, DataTypes.INTEGER, 0, 1000)
+            ))
+        ));
+        return new PlanStats(e.nodeCtx, txnCtx, tableStats);
+    }
+
+    private LogicalPlan apply(HashJoin join, PlanStats planStats) {
+        return new AddHashJoinRuntimeFilter().apply(
+            join,
+            Captures.empty(),
+            planStats,
+            txnCtx,
+            e.nodeCtx,
+            Function.identity()
+        );
+    }
+
+    @Test
+    public void test_larger_side_is_filtered_by_keys_of_selective_smaller_side() throws Exception {
+        var join = new HashJoin(facts, filteredDims, e.asSymbol("facts.dim_id = dims.id"));
+
+        LogicalPlan result = apply(join, planStats(100_000));
+        assertThat(result).hasOperators(
+            "MultiPhase",
+            "  └ HashJoin[(dim_id = id)]",
+            "    ├ Collect[doc.facts | [dim_id, amount] | ((dim_id = ANY((SELECT id FROM (doc.dims)))) " +
+                "OR (array_length((SELECT id FROM (doc.dims)), 1) > 10000))]",
+            "    └ Collect[doc.dims | [id, region] | (region = 1)]",
+            "  └ Limit[10001::bigint;0::bigint]",
+            "    └ Collect[doc.dims | [id] | (region = 1)]"
+        );
+    }
+
+    @Test
+    public void test_filter_matches_all_if_build_side_returns_more_keys_than_estimated() throws Exception {
+        var join = new HashJoin(facts, filteredDims, e.asSymbol("facts.dim_id = dims.id"));
+
+        LogicalPlan result = apply(join, planStats(100_000));
+        SelectSymbol runtimeKeys = result.dependencies().values().iterator().next();
+        Collect probe = (Collect) ((HashJoin) result.sources().get(0)).lhs();
+        Symbol filter = probe.where().queryOrFallback();
+
+        assertThat(bind(filter, runtimeKeys, List.of(1, 2, 3))).isFunction(AnyEqOperator.NAME);
+        List<Object> tooManyKeys = IntStream.rangeClosed(0, (int) AddHashJoinRuntimeFilter.MAX_KEYS).boxed()
+            .map(x -> (Object) x)
+            .toList();
+        assertThat(bind(filter, runtimeKeys, tooManyKeys)).isLiteral(true);
+    }
+
+    private Symbol bind(Symbol filter, SelectSymbol runtimeKeys, List<Object> keys) {
+        var binder = new SubQueryAndParamBinder(Row.EMPTY, new SubQueryResults(Map.of(runtimeKeys, keys)));
+        return EvaluatingNormalizer.functionOnlyNormalizer(e.nodeCtx).normalize(binder.apply(filter), txnCtx);
+    }
+
+    @Test
+    public void test_filter_is_only_added_once() throws Exception {
+        var join = new HashJoin(facts, filteredDims, e.asSymbol("facts.dim_id = dims.id"));
+        var planStats = planStats(100_000);
+
+        LogicalPlan result = apply(join, planStats);
+        HashJoin filteredJoin = (HashJoin) result.sources().get(0);
+        assertThat(apply(filteredJoin, planStats)).isNull();
+    }
+
+    @Test
+    public void test_no_filter_without_filter_on_smaller_side() throws Exception {
+        var join = new HashJoin(facts, dims, e.asSymbol("facts.dim_id = dims.id"));
+        assertThat(apply(join, planStats(100_000))).isNull();
+    }
+
+    @Test
+    public void test_no_filter_without_stats() throws Exception {
+        var join = new HashJoin(facts, filteredDims, e.asSymbol("facts.dim_id = dims.id"));
+        assertThat(apply(join, new PlanStats(e.nodeCtx, txnCtx, new TableStats()))).isNull();
+    }
+
+    @Test
+    public void test_no_filter_if_smaller_side_has_too_many_rows() throws Exception {
+        var join = new HashJoin(
+            facts,
+            new Collect(
+                new DocTableRelation(dimsTable),
+                List.of(e.asSymbol("id"), e.asSymbol("region")),
+                new WhereClause(e.asSymbol("dims.region > 0"))
+            ),
+            e.asSymbol("facts.dim_id = dims.id")
+        );
+        var tableStats = new TableStats();
+        tableStats.updateTableStats(Map.of(
+            factsTable.ident(), new Stats(1_000_000, 16_000_000, Map.of()),
+            dimsTable.ident(), new Stats(500_000, 8_000_000, Map.of())
+        ));
+        assertThat(apply(join, new PlanStats(e.nodeCtx, txnCtx, tableStats))).isNull();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.testing.Asserts.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.Stats;
+import io.crate.statistics.TableStats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
+
+public class CostBasedJoinReorderTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private Collect a;
+    private Collect b;
+    private Collect c;
+    private DocTableInfo aDoc;
+    private DocTableInfo bDoc;
+    private DocTableInfo cDoc;
+    private CoordinatorTxnCtx txnCtx = CoordinatorTxnCtx.systemTransactionContext();
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table a (x int)")
+            .addTable("create table b (y int, z int)")
+            .addTable("create table c (w int)")
+            .build();
+
+        aDoc = e.resolveTableInfo("a");
+        bDoc = e.resolveTableInfo("b");
+        cDoc = e.resolveTableInfo("c");
+
+        a = new Collect(new DocTableRelation(aDoc), List.of(e.asSymbol("x")), WhereClause.MATCH_ALL);
+        b = new Collect(new DocTableRelation(bDoc), List.of(e.asSymbol("y"), e.asSymbol("z")), WhereClause.MATCH_ALL);
+        c = new Collect(new DocTableRelation(cDoc), List.of(e.asSymbol("w")), WhereClause.MATCH_ALL);
+    }
+
+    private PlanStats planStatsWithTableStats() {
+        // a.x and b.y contain only a single value -> a JOIN b results in 1000 * 1000 rows
+        // b.z is unique and c contains a single row -> b JOIN c results in a single row
+        List<Integer> sameValues = Collections.nCopies(1000, 1);
+        List<Integer> uniqueValues = IntStream.range(0, 1000).boxed().toList();
+        var xStats = ColumnStats.fromSortedValues(sameValues, DataTypes.INTEGER, 0, 1000);
+        var yStats = ColumnStats.fromSortedValues(sameValues, DataTypes.INTEGER, 0, 1000);
+        var zStats = ColumnStats.fromSortedValues(uniqueValues, DataTypes.INTEGER, 0, 1000);
+        var wStats = ColumnStats.fromSortedValues(List.of(5), DataTypes.INTEGER, 0, 1);
+
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(Map.of(
+            aDoc.ident(), new Stats(1000, 1000 * 16, Map.of(new ColumnIdent("x"), xStats)),
+            bDoc.ident(), new Stats(1000, 1000 * 32, Map.of(new ColumnIdent("y"), yStats, new ColumnIdent("z"), zStats)),
+            cDoc.ident(), new Stats(1, 16, Map.of(new ColumnIdent("w"), wStats))
+        ));
+        return new PlanStats(e.nodeCtx, txnCtx, tableStats);
+    }
+
+    private LogicalPlan apply(JoinPlan join, PlanStats planStats) {
+        return new CostBasedJoinReorder().apply(
+            join,
+            Captures.empty(),
+            planStats,
+            txnCtx,
+            e.nodeCtx,
+            Function.identity()
+        );
+    }
+
+    @Test
+    public void test_joins_are_reordered_to_avoid_large_intermediate_results() throws Exception {
+        var ab = new JoinPlan(a, b, JoinType.INNER, e.asSymbol("a.x = b.y"));
+        var abc = new JoinPlan(ab, c, JoinType.INNER, e.asSymbol("b.z = c.w"));
+
+        LogicalPlan result = apply(abc, planStatsWithTableStats());
+        assertThat(result).hasOperators(
+            "Join[INNER | (x = y)]",
+            "  ├ Collect[doc.a | [x] | true]",
+            "  └ Join[INNER | (z = w)]",
+            "    ├ Collect[doc.b | [y, z] | true]",
+            "    └ Collect[doc.c | [w] | true]"
+        );
+
+        // The reordered join is already the cheapest one
+        JoinPlan reordered = (JoinPlan) result;
+        assertThat(apply(reordered, planStatsWithTableStats())).isNull();
+    }
+
+    @Test
+    public void test_join_order_is_kept_without_table_stats() throws Exception {
+        var ab = new JoinPlan(a, b, JoinType.INNER, e.asSymbol("a.x = b.y"));
+        var abc = new JoinPlan(ab, c, JoinType.INNER, e.asSymbol("b.z = c.w"));
+
+        PlanStats planStats = new PlanStats(e.nodeCtx, txnCtx, new TableStats());
+        assertThat(apply(abc, planStats)).isNull();
+    }
+
+    @Test
+    public void test_outer_joins_are_not_reordered() throws Exception {
+        var ab = new JoinPlan(a, b, JoinType.LEFT, e.asSymbol("a.x = b.y"));
+        var abc = new JoinPlan(ab, c, JoinType.INNER, e.asSymbol("b.z = c.w"));
+
+        assertThat(apply(abc, planStatsWithTableStats())).isNull();
+    }
+
+    @Test
+    public void test_join_with_condition_on_multiple_relations_is_placed_where_all_relations_are_joined() throws Exception {
+        var ab = new JoinPlan(a, b, JoinType.INNER, e.asSymbol("a.x = b.y"));
+        var abc = new JoinPlan(ab, c, JoinType.INNER, e.asSymbol("b.z = c.w AND a.x + c.w > b.y"));
+
+        LogicalPlan result = apply(abc, planStatsWithTableStats());
+        assertThat(result).hasOperators(
+            "Join[INNER | ((x = y) AND (y < (x + w)))]",
+            "  ├ Collect[doc.a | [x] | true]",
+            "  └ Join[INNER | (z = w)]",
+            "    ├ Collect[doc.b | [y, z] | true]",
+            "    └ Collect[doc.c | [w] | true]"
+        );
+    }
+}
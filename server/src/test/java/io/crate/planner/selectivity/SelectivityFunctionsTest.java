@@ -190,6 +190,48 @@ public class SelectivityFunctionsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(numRows).isEqualTo(2L);
     }
 
+    @Test
+    public void test_equi_join_selectivity_uses_distinct_values_of_bigger_side() throws Exception {
+        var xStats = ColumnStats.fromSortedValues(
+            IntStream.range(0, 100).boxed().toList(), DataTypes.INTEGER, 0, 100);
+        var yStats = ColumnStats.fromSortedValues(
+            IntStream.range(0, 10).map(i -> i * 11).boxed().toList(), DataTypes.INTEGER, 0, 10);
+        assertThat(SelectivityFunctions.equiJoinSelectivity(xStats, yStats)).isEqualTo(0.01);
+        assertThat(SelectivityFunctions.equiJoinSelectivity(yStats, xStats)).isEqualTo(0.01);
+    }
+
+    @Test
+    public void test_equi_join_selectivity_is_0_if_histograms_do_not_overlap() throws Exception {
+        var xStats = ColumnStats.fromSortedValues(
+            IntStream.range(0, 100).boxed().toList(), DataTypes.INTEGER, 0, 100);
+        var yStats = ColumnStats.fromSortedValues(
+            IntStream.range(200, 300).boxed().toList(), DataTypes.INTEGER, 0, 100);
+        assertThat(SelectivityFunctions.equiJoinSelectivity(xStats, yStats)).isEqualTo(0.0);
+    }
+
+    @Test
+    public void test_equi_join_selectivity_is_restricted_to_overlapping_histogram_range() throws Exception {
+        var xStats = ColumnStats.fromSortedValues(
+            IntStream.range(0, 100).boxed().toList(), DataTypes.INTEGER, 0, 100);
+        var yStats = ColumnStats.fromSortedValues(
+            IntStream.range(50, 150).boxed().toList(), DataTypes.INTEGER, 0, 100);
+        double selectivity = SelectivityFunctions.equiJoinSelectivity(xStats, yStats);
+        // Half of the values of each side overlap -> 50 * 50 candidates with 50 distinct values each
+        assertThat(selectivity).isBetween(0.004, 0.006);
+    }
+
+    @Test
+    public void test_column_eq_column_uses_equi_join_selectivity() throws Exception {
+        SqlExpressions expressions = new SqlExpressions(T3.sources(clusterService));
+        Symbol query = expressions.asSymbol("x = y");
+        var xStats = ColumnStats.fromSortedValues(
+            IntStream.range(0, 100).boxed().toList(), DataTypes.INTEGER, 0, 100);
+        var yStats = ColumnStats.fromSortedValues(
+            IntStream.range(200, 300).boxed().toList(), DataTypes.INTEGER, 0, 100);
+        Stats stats = new Stats(100, 32, Map.of(new ColumnIdent("x"), xStats, new ColumnIdent("y"), yStats));
+        assertThat(estimate(stats, query)).isEqualTo(0L);
+    }
+
     @Test
     public void test_comparison_operators_use_mvc_for_sampling() throws Exception {
         ArrayList<Integer> xValues = new ArrayList<>();
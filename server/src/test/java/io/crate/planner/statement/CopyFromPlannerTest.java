@@ -24,8 +24,11 @@ package io.crate.planner.statement;
 import static io.crate.analyze.TableDefinitions.USER_TABLE_DEFINITION;
 import static io.crate.testing.Asserts.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 import org.elasticsearch.common.settings.Settings;
@@ -35,16 +38,21 @@ import org.junit.Test;
 import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.analyze.BoundCopyFrom;
 import io.crate.data.Row;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
 import io.crate.execution.dsl.projection.SourceIndexWriterProjection;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.Reference;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.operators.SubQueryResults;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
+import io.crate.user.User;
 
 public class CopyFromPlannerTest extends CrateDummyClusterServiceUnitTest {
 
@@ -168,4 +176,31 @@ public class CopyFromPlannerTest extends CrateDummyClusterServiceUnitTest {
         plan("copy users from '/path' with (validation = false)");
         assertWarnings("Using (validation = ?) in COPY FROM is no longer supported. Validation is always enforced");
     }
+
+    @Test
+    public void test_copy_from_stdin_is_collected_on_handler() {
+        Collect collect = plan("copy users from 'stdin:foo'");
+        assertThat(collect.collectPhase().nodeIds()).containsExactly(plannerContext.handlerNode());
+    }
+
+    @Test
+    public void test_copy_from_stdin_uri_which_is_not_registered_by_the_session_is_rejected() throws Exception {
+        StdinFileInputFactory stdinFileInputFactory = new StdinFileInputFactory();
+        URI otherClient = stdinFileInputFactory.register(
+            new CoordinatorSessionSettings(User.CRATE_USER),
+            InputStream.nullInputStream()
+        );
+        when(e.dependencyMock.stdinFileInputFactory()).thenReturn(stdinFileInputFactory);
+
+        for (String stmt : List.of("copy users from 'stdin:foo'",
+                                   "copy users from '" + otherClient + "'",
+                                   "copy users from ['/path/to/file', '" + otherClient + "']")) {
+            CopyFromPlan plan = e.plan(stmt);
+            TestingRowConsumer consumer = new TestingRowConsumer();
+            plan.execute(e.dependencyMock, plannerContext, consumer, Row.EMPTY, SubQueryResults.EMPTY);
+            assertThatThrownBy(consumer::getResult)
+                .isExactlyInstanceOf(UnsupportedFeatureException.class)
+                .hasMessage("The `stdin` URI scheme can only be used by COPY FROM STDIN of the PostgreSQL wire protocol");
+        }
+    }
 }
@@ -25,11 +25,15 @@ import static io.crate.testing.Asserts.assertThat;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,19 +42,24 @@ import com.carrotsearch.randomizedtesting.RandomizedTest;
 
 import io.crate.analyze.TableDefinitions;
 import io.crate.data.Row;
+import io.crate.data.testing.TestingRowConsumer;
+import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.doc.DocSysColumns;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Merge;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.operators.SubQueryResults;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
+import io.crate.user.User;
 
 public class CopyToPlannerTest extends CrateDummyClusterServiceUnitTest {
 
@@ -173,4 +182,47 @@ public class CopyToPlannerTest extends CrateDummyClusterServiceUnitTest {
         writerProjection = (WriterProjection) collect.collectPhase().projections().get(0);
         assertThat(writerProjection.withClauseOptions()).isEqualTo(Settings.EMPTY);
     }
+
+    @Test
+    public void test_copy_to_stdout_writes_on_handler() {
+        Merge merge = plan("copy users (name) to directory 'stdout:" + UUIDs.randomBase64UUID() + "'");
+        Collect collect = (Collect) merge.subPlan();
+        assertThat(collect.collectPhase().projections()).isEmpty();
+        assertThat(merge.mergePhase().nodeIds()).containsExactly(e.getPlannerContext(clusterService.state()).handlerNode());
+        assertThat(merge.mergePhase().projections().get(0)).isExactlyInstanceOf(WriterProjection.class);
+    }
+
+    @Test
+    public void test_copy_to_stdout_of_partitioned_table_without_columns_is_not_supported() {
+        assertThatThrownBy(() -> plan("copy parted to directory 'stdout:foo'"))
+            .isExactlyInstanceOf(UnsupportedFeatureException.class)
+            .hasMessage("COPY TO STDOUT of a partitioned table requires to specify the columns or a PARTITION clause");
+    }
+
+    @Test
+    public void test_copy_to_stdout_uri_which_is_not_registered_by_the_session_is_rejected() throws Exception {
+        StdoutFileOutputFactory stdoutFileOutputFactory = new StdoutFileOutputFactory();
+        URI otherClient = stdoutFileOutputFactory.register(
+            new CoordinatorSessionSettings(User.CRATE_USER),
+            OutputStream.nullOutputStream()
+        );
+        when(e.dependencyMock.stdoutFileOutputFactory()).thenReturn(stdoutFileOutputFactory);
+
+        for (String stmt : List.of("copy users (name) to directory 'stdout:foo'",
+                                   "copy users (name) to directory '" + otherClient + "'")) {
+            CopyToPlan plan = e.plan(stmt);
+            TestingRowConsumer consumer = new TestingRowConsumer();
+            plan.execute(
+                e.dependencyMock,
+                e.getPlannerContext(clusterService.state()),
+                consumer,
+                Row.EMPTY,
+                SubQueryResults.EMPTY
+            );
+            assertThatThrownBy(consumer::getResult)
+                .isExactlyInstanceOf(UnsupportedFeatureException.class)
+                .hasMessage("The `stdout` URI scheme can only be used by COPY TO STDOUT of the PostgreSQL wire protocol");
+        }
+    }
 }
+
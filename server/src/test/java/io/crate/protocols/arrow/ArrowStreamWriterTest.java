@@ -0,0 +1,315 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.protocols.arrow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.data.RowN;
+import io.crate.types.DataTypes;
+
+public class ArrowStreamWriterTest extends ESTestCase {
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+
+    /**
+     * Skips the metadata of the next message and returns the buffer positioned at the start of the body
+     */
+    private static ByteBuffer skipMessage(ByteBuffer buffer) {
+        assertThat(buffer.getInt()).isEqualTo(CONTINUATION);
+        int metadataLength = buffer.getInt();
+        assertThat(metadataLength % 8).isEqualTo(0);
+        buffer.position(buffer.position() + metadataLength);
+        return buffer;
+    }
+
+    /**
+     * Reads the metadata of the next message and returns its root table. The buffer is positioned at the start of
+     * the body.
+     */
+    private static FlatTable readMessage(ByteBuffer buffer) {
+        assertThat(buffer.getInt()).isEqualTo(CONTINUATION);
+        int metadataLength = buffer.getInt();
+        ByteBuffer metadata = buffer.slice(buffer.position(), metadataLength).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(buffer.position() + metadataLength);
+        return new FlatTable(metadata, metadata.getInt(0));
+    }
+
+    /**
+     * Reads a table of a flatbuffer. Field accessors return the default value if the field is absent.
+     */
+    private record FlatTable(ByteBuffer bb, int pos) {
+
+        private int fieldPos(int field) {
+            int vtable = pos - bb.getInt(pos);
+            int vtableSize = bb.getShort(vtable);
+            int entry = 4 + field * 2;
+            if (entry >= vtableSize) {
+                return -1;
+            }
+            int offset = bb.getShort(vtable + entry);
+            return offset == 0 ? -1 : pos + offset;
+        }
+
+        byte getByte(int field) {
+            int p = fieldPos(field);
+            return p < 0 ? 0 : bb.get(p);
+        }
+
+        boolean getBoolean(int field) {
+            return getByte(field) != 0;
+        }
+
+        short getShort(int field) {
+            int p = fieldPos(field);
+            return p < 0 ? 0 : bb.getShort(p);
+        }
+
+        int getInt(int field) {
+            int p = fieldPos(field);
+            return p < 0 ? 0 : bb.getInt(p);
+        }
+
+        long getLong(int field) {
+            int p = fieldPos(field);
+            return p < 0 ? 0 : bb.getLong(p);
+        }
+
+        private int indirect(int field) {
+            int p = fieldPos(field);
+            assertThat(p).as("field " + field + " must be present").isGreaterThanOrEqualTo(0);
+            return p + bb.getInt(p);
+        }
+
+        FlatTable getTable(int field) {
+            return new FlatTable(bb, indirect(field));
+        }
+
+        String getString(int field) {
+            int p = indirect(field);
+            byte[] bytes = new byte[bb.getInt(p)];
+            bb.get(p + 4, bytes);
+            assertThat(bb.get(p + 4 + bytes.length)).as("strings are null terminated").isEqualTo((byte) 0);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int vectorLength(int field) {
+            return bb.getInt(indirect(field));
+        }
+
+        FlatTable getTableElement(int field, int idx) {
+            int element = indirect(field) + 4 + idx * 4;
+            return new FlatTable(bb, element + bb.getInt(element));
+        }
+
+        /**
+         * @return the two longs of a struct element like {@code FieldNode} or {@code Buffer}
+         */
+        long[] getStructElement(int field, int idx) {
+            int element = indirect(field) + 4 + idx * 16;
+            assertThat(element % 8).as("structs must be 8 byte aligned").isEqualTo(0);
+            return new long[] { bb.getLong(element), bb.getLong(element + 8) };
+        }
+    }
+
+    private static void assertEndOfStream(ByteBuffer buffer) {
+        assertThat(buffer.getInt()).isEqualTo(CONTINUATION);
+        assertThat(buffer.getInt()).isEqualTo(0);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    public void test_empty_result_consists_of_schema_and_end_of_stream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(out, List.of("x"), List.of(DataTypes.INTEGER), 10);
+        writer.finish();
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        skipMessage(buffer);
+        assertEndOfStream(buffer);
+    }
+
+    @Test
+    public void test_rows_are_written_as_columnar_record_batch() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(
+            out,
+            List.of("x", "name"),
+            List.of(DataTypes.INTEGER, DataTypes.STRING),
+            10
+        );
+        writer.addRow(new RowN(1, "ab"));
+        writer.addRow(new RowN(null, "c"));
+        writer.finish();
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        skipMessage(buffer);
+        skipMessage(buffer);
+
+        // x: validity bitmap, only the first value is set
+        assertThat(buffer.get()).isEqualTo((byte) 0b01);
+        buffer.position(buffer.position() + 7);
+        // x: values, null is written as 0
+        assertThat(buffer.getInt()).isEqualTo(1);
+        assertThat(buffer.getInt()).isEqualTo(0);
+
+        // name: no validity bitmap as there are no nulls, offsets padded to 8 bytes
+        assertThat(buffer.getInt()).isEqualTo(0);
+        assertThat(buffer.getInt()).isEqualTo(2);
+        assertThat(buffer.getInt()).isEqualTo(3);
+        buffer.position(buffer.position() + 4);
+        byte[] data = new byte[8];
+        buffer.get(data);
+        assertThat(new String(data, 0, 3, StandardCharsets.UTF_8)).isEqualTo("abc");
+
+        assertEndOfStream(buffer);
+    }
+
+    @Test
+    public void test_schema_and_record_batch_metadata_can_be_decoded() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(
+            out,
+            List.of("x", "name", "ts"),
+            List.of(DataTypes.INTEGER, DataTypes.STRING, DataTypes.TIMESTAMPZ),
+            10
+        );
+        writer.addRow(new RowN(1, "ab", 1000L));
+        writer.addRow(new RowN(null, "c", null));
+        writer.finish();
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Message: version, header_type, header, bodyLength
+        FlatTable schemaMessage = readMessage(buffer);
+        assertThat(schemaMessage.getShort(0)).isEqualTo((short) 4);
+        assertThat(schemaMessage.getByte(1)).isEqualTo((byte) 1);
+        assertThat(schemaMessage.getLong(3)).isEqualTo(0L);
+
+        // Schema: fields; Field: name, nullable, type_type, type, dictionary, children
+        FlatTable schema = schemaMessage.getTable(2);
+        assertThat(schema.vectorLength(1)).isEqualTo(3);
+
+        FlatTable x = schema.getTableElement(1, 0);
+        assertThat(x.getString(0)).isEqualTo("x");
+        assertThat(x.getBoolean(1)).isTrue();
+        assertThat(x.getByte(2)).isEqualTo((byte) 2);
+        FlatTable intType = x.getTable(3);
+        assertThat(intType.getInt(0)).isEqualTo(32);
+        assertThat(intType.getBoolean(1)).isTrue();
+        assertThat(x.vectorLength(5)).isEqualTo(0);
+
+        FlatTable name = schema.getTableElement(1, 1);
+        assertThat(name.getString(0)).isEqualTo("name");
+        assertThat(name.getBoolean(1)).isTrue();
+        assertThat(name.getByte(2)).isEqualTo((byte) 5);
+        assertThat(name.vectorLength(5)).isEqualTo(0);
+
+        FlatTable ts = schema.getTableElement(1, 2);
+        assertThat(ts.getString(0)).isEqualTo("ts");
+        assertThat(ts.getBoolean(1)).isTrue();
+        assertThat(ts.getByte(2)).isEqualTo((byte) 10);
+        FlatTable timestampType = ts.getTable(3);
+        assertThat(timestampType.getShort(0)).isEqualTo((short) 1);
+        assertThat(timestampType.getString(1)).isEqualTo("UTC");
+
+        // RecordBatch: length, nodes, buffers
+        FlatTable batchMessage = readMessage(buffer);
+        assertThat(batchMessage.getShort(0)).isEqualTo((short) 4);
+        assertThat(batchMessage.getByte(1)).isEqualTo((byte) 3);
+        assertThat(batchMessage.getLong(3)).isEqualTo(64L);
+
+        FlatTable recordBatch = batchMessage.getTable(2);
+        assertThat(recordBatch.getLong(0)).isEqualTo(2L);
+
+        // FieldNode: length, null_count
+        assertThat(recordBatch.vectorLength(1)).isEqualTo(3);
+        assertThat(recordBatch.getStructElement(1, 0)).containsExactly(2L, 1L);
+        assertThat(recordBatch.getStructElement(1, 1)).containsExactly(2L, 0L);
+        assertThat(recordBatch.getStructElement(1, 2)).containsExactly(2L, 1L);
+
+        // Buffer: offset, length
+        assertThat(recordBatch.vectorLength(2)).isEqualTo(7);
+        assertThat(recordBatch.getStructElement(2, 0)).containsExactly(0L, 1L);    // x validity
+        assertThat(recordBatch.getStructElement(2, 1)).containsExactly(8L, 8L);    // x values
+        assertThat(recordBatch.getStructElement(2, 2)).containsExactly(16L, 0L);   // name validity, no nulls
+        assertThat(recordBatch.getStructElement(2, 3)).containsExactly(16L, 12L);  // name offsets
+        assertThat(recordBatch.getStructElement(2, 4)).containsExactly(32L, 3L);   // name data
+        assertThat(recordBatch.getStructElement(2, 5)).containsExactly(40L, 1L);   // ts validity
+        assertThat(recordBatch.getStructElement(2, 6)).containsExactly(48L, 16L);  // ts values
+
+        buffer.position(buffer.position() + 64);
+        assertEndOfStream(buffer);
+    }
+
+    @Test
+    public void test_rows_are_split_into_batches() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(out, List.of("x"), List.of(DataTypes.LONG), 2);
+        for (long i = 0; i < 3; i++) {
+            writer.addRow(new RowN(i));
+        }
+        writer.finish();
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        skipMessage(buffer);
+        skipMessage(buffer);
+        assertThat(buffer.getLong()).isEqualTo(0L);
+        assertThat(buffer.getLong()).isEqualTo(1L);
+        skipMessage(buffer);
+        assertThat(buffer.getLong()).isEqualTo(2L);
+        assertEndOfStream(buffer);
+    }
+
+    @Test
+    public void test_unsupported_types_are_written_as_json() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(
+            out,
+            List.of("xs"),
+            List.of(DataTypes.INTEGER_ARRAY),
+            10
+        );
+        writer.addRow(new RowN(Arrays.asList(1, 2)));
+        writer.finish();
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        skipMessage(buffer);
+        skipMessage(buffer);
+        assertThat(buffer.getInt()).isEqualTo(0);
+        assertThat(buffer.getInt()).isEqualTo(5);
+        byte[] data = new byte[8];
+        buffer.get(data);
+        assertThat(new String(data, 0, 5, StandardCharsets.UTF_8)).isEqualTo("[1,2]");
+        assertEndOfStream(buffer);
+    }
+}
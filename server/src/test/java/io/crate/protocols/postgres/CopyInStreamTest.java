@@ -0,0 +1,70 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.protocols.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class CopyInStreamTest {
+
+    @Test
+    public void test_reads_added_chunks_until_finished() throws Exception {
+        var stream = new CopyInStream(new EmbeddedChannel(), 1024);
+        stream.add("foo\n".getBytes(StandardCharsets.UTF_8));
+        stream.add("bar\n".getBytes(StandardCharsets.UTF_8));
+        stream.finish();
+        assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("foo\nbar\n");
+    }
+
+    @Test
+    public void test_channel_reads_are_paused_while_buffer_is_full() throws Exception {
+        var channel = new EmbeddedChannel();
+        var stream = new CopyInStream(channel, 8);
+        stream.add(new byte[4]);
+        assertThat(channel.config().isAutoRead()).isTrue();
+        stream.add(new byte[4]);
+        assertThat(channel.config().isAutoRead()).isFalse();
+
+        stream.read(new byte[4], 0, 4);
+        assertThat(channel.config().isAutoRead()).isTrue();
+    }
+
+    @Test
+    public void test_read_fails_after_copy_fail() throws Exception {
+        var channel = new EmbeddedChannel();
+        var stream = new CopyInStream(channel, 4);
+        stream.add(new byte[8]);
+        stream.fail("aborted by client");
+        assertThat(channel.config().isAutoRead()).isTrue();
+        assertThatThrownBy(() -> stream.read(new byte[8], 0, 8))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("aborted by client");
+    }
+}
@@ -28,6 +28,7 @@ import org.junit.Test;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.embedded.EmbeddedChannel;
 
 public class DelayableWriteChannelTest {
@@ -41,4 +42,21 @@ public class DelayableWriteChannelTest {
         channel.close();
         assertThat(buffer.refCnt(), is(0));
     }
+
+    @Test
+    public void test_when_writable_completes_once_channel_is_writable_again() throws Exception {
+        var embeddedChannel = new EmbeddedChannel();
+        embeddedChannel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16));
+        var channel = new DelayableWriteChannel(embeddedChannel);
+        assertThat(channel.whenWritable().isDone(), is(true));
+
+        channel.write(Unpooled.buffer().writeZero(32));
+        var whenWritable = channel.whenWritable();
+        assertThat(whenWritable.isDone(), is(false));
+
+        channel.flush();
+        channel.writabilityChanged();
+        assertThat(whenWritable.isDone(), is(true));
+        embeddedChannel.finishAndReleaseAll();
+    }
 }
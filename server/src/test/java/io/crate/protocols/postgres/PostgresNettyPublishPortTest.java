@@ -49,6 +49,8 @@ import org.junit.Test;
 
 import io.crate.action.sql.Sessions;
 import io.crate.auth.AlwaysOKAuthentication;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.metadata.settings.session.SessionSettingRegistry;
 import io.crate.netty.NettyBootstrap;
 import io.crate.protocols.ssl.SslContextProvider;
@@ -112,7 +114,9 @@ public class PostgresNettyPublishPortTest extends ESTestCase {
             nettyBootstrap,
             mock(Netty4Transport.class),
             PageCacheRecycler.NON_RECYCLING_INSTANCE,
-            mock(SslContextProvider.class));
+            mock(SslContextProvider.class),
+            new StdinFileInputFactory(),
+            new StdoutFileOutputFactory());
         try {
             psql.doStart();
         } finally {
@@ -137,7 +141,9 @@ public class PostgresNettyPublishPortTest extends ESTestCase {
             nettyBootstrap,
             mock(Netty4Transport.class),
             PageCacheRecycler.NON_RECYCLING_INSTANCE,
-            mock(SslContextProvider.class));
+            mock(SslContextProvider.class),
+            new StdinFileInputFactory(),
+            new StdoutFileOutputFactory());
         try {
             psql.doStart();
             fail("Should have failed due to custom hostname");
@@ -166,7 +172,9 @@ public class PostgresNettyPublishPortTest extends ESTestCase {
             nettyBootstrap,
             mock(Netty4Transport.class),
             PageCacheRecycler.NON_RECYCLING_INSTANCE,
-            mock(SslContextProvider.class));
+            mock(SslContextProvider.class),
+            new StdinFileInputFactory(),
+            new StdoutFileOutputFactory());
         try {
             psql.doStart();
             fail("Should have failed due to custom hostname");
@@ -196,7 +204,9 @@ public class PostgresNettyPublishPortTest extends ESTestCase {
             nettyBootstrap,
             mock(Netty4Transport.class),
             PageCacheRecycler.NON_RECYCLING_INSTANCE,
-            mock(SslContextProvider.class));
+            mock(SslContextProvider.class),
+            new StdinFileInputFactory(),
+            new StdoutFileOutputFactory());
         try {
             psql.doStart();
             fail("Should have failed due to custom hostname");
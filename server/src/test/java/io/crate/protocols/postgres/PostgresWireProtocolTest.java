@@ -28,11 +28,16 @@ import static org.hamcrest.Matchers.isOneOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -49,6 +54,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.elasticsearch.Version;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.settings.SecureString;
+import org.elasticsearch.common.settings.Settings;
 import org.jetbrains.annotations.Nullable;
 import org.junit.After;
 import org.junit.Before;
@@ -65,11 +71,19 @@ import io.crate.action.sql.Sessions;
 import io.crate.auth.AccessControl;
 import io.crate.auth.AlwaysOKAuthentication;
 import io.crate.auth.AuthenticationMethod;
+import io.crate.data.Row1;
 import io.crate.exceptions.JobKilledException;
+import io.crate.execution.engine.collect.files.StdinFileInputFactory;
+import io.crate.execution.engine.export.FileOutput;
+import io.crate.execution.engine.export.StdoutFileOutputFactory;
 import io.crate.execution.jobs.kill.KillJobsNodeRequest;
 import io.crate.metadata.settings.CoordinatorSessionSettings;
 import io.crate.metadata.settings.session.SessionSettingRegistry;
 import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.Statement;
+import io.crate.sql.tree.StringLiteral;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 import io.crate.types.DataTypes;
@@ -706,6 +720,169 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
         assertThat(channel.isOpen()).isFalse();
     }
 
+    @Test
+    public void test_copy_from_stdin_reads_copy_data_until_copy_done() throws Exception {
+        Session session = mockSessionForCopy();
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        when(session.sync()).thenAnswer(invocation -> result);
+        StdinFileInputFactory stdinFileInputFactory = new StdinFileInputFactory();
+        startProtocolForCopy(session, stdinFileInputFactory, new StdoutFileOutputFactory());
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendQuery(buffer, "COPY users FROM STDIN");
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+        readCopyResponse(channel, 'G');
+
+        buffer = Unpooled.buffer();
+        ClientMessages.sendCopyData(buffer, "{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8));
+        ClientMessages.sendCopyData(buffer, "{\"id\": 2}\n".getBytes(StandardCharsets.UTF_8));
+        ClientMessages.sendCopyDone(buffer);
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+
+        ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+        verify(session).analyze(eq(""), statement.capture(), any(), eq("COPY users FROM STDIN"));
+        URI uri = URI.create(((StringLiteral) ((CopyFrom<?>) statement.getValue()).path()).getValue());
+        try (InputStream stream = stdinFileInputFactory.create(uri, Settings.EMPTY).getStream(uri)) {
+            assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8), is("{\"id\": 1}\n{\"id\": 2}\n"));
+        }
+
+        RowCountReceiver receiver = captureRowCountReceiver(session);
+        receiver.setNextRow(new Row1(2L));
+        receiver.allFinished();
+        result.complete(null);
+
+        readCommandComplete(channel, "COPY 2");
+        readReadyForQueryMessage(channel);
+        assertThat(channel.outboundMessages().size(), is(0));
+        assertThat(stdinFileInputFactory.isRegisteredBy(uri.toString(), session.sessionSettings()), is(false));
+    }
+
+    @Test
+    public void test_copy_fail_aborts_copy_from_stdin_with_error_response() throws Exception {
+        Session session = mockSessionForCopy();
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        when(session.sync()).thenAnswer(invocation -> result);
+        StdinFileInputFactory stdinFileInputFactory = new StdinFileInputFactory();
+        startProtocolForCopy(session, stdinFileInputFactory, new StdoutFileOutputFactory());
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendQuery(buffer, "COPY users FROM STDIN");
+        ClientMessages.sendCopyData(buffer, "{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8));
+        ClientMessages.sendCopyFail(buffer, "aborted by user");
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+        readCopyResponse(channel, 'G');
+
+        ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+        verify(session).analyze(eq(""), statement.capture(), any(), eq("COPY users FROM STDIN"));
+        URI uri = URI.create(((StringLiteral) ((CopyFrom<?>) statement.getValue()).path()).getValue());
+        IOException failure = null;
+        try (InputStream stream = stdinFileInputFactory.create(uri, Settings.EMPTY).getStream(uri)) {
+            stream.readAllBytes();
+        } catch (IOException e) {
+            failure = e;
+        }
+        assertThat(failure).hasMessage("COPY FROM STDIN failed: aborted by user");
+
+        RowCountReceiver receiver = captureRowCountReceiver(session);
+        receiver.fail(failure);
+        result.completeExceptionally(failure);
+
+        assertThat(readErrorResponse(channel)).contains("COPY FROM STDIN failed: aborted by user");
+        readReadyForQueryMessage(channel);
+        assertThat(channel.outboundMessages().size(), is(0));
+    }
+
+    @Test
+    public void test_copy_to_stdout_sends_copy_data_and_copy_done() throws Exception {
+        Session session = mockSessionForCopy();
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        when(session.sync()).thenAnswer(invocation -> result);
+        StdoutFileOutputFactory stdoutFileOutputFactory = new StdoutFileOutputFactory();
+        startProtocolForCopy(session, new StdinFileInputFactory(), stdoutFileOutputFactory);
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendQuery(buffer, "COPY users TO STDOUT");
+        channel.writeInbound(buffer);
+        channel.releaseInbound();
+        readCopyResponse(channel, 'H');
+
+        ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+        verify(session).analyze(eq(""), statement.capture(), any(), eq("COPY users TO STDOUT"));
+        URI uri = URI.create(((StringLiteral) ((CopyTo<?>) statement.getValue()).targetUri()).getValue());
+        FileOutput fileOutput = stdoutFileOutputFactory.create(Settings.EMPTY);
+        try (OutputStream stream = fileOutput.acquireOutputStream(Runnable::run, uri, null)) {
+            stream.write("{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        RowCountReceiver receiver = captureRowCountReceiver(session);
+        receiver.setNextRow(new Row1(1L));
+        receiver.allFinished();
+        result.complete(null);
+
+        ByteBuf copyData = channel.readOutbound();
+        try {
+            // CopyData: 'd' | int32 len | byte[] data
+            assertThat((char) copyData.readByte(), is('d'));
+            int length = copyData.readInt() - 4;
+            assertThat(copyData.readCharSequence(length, StandardCharsets.UTF_8).toString(), is("{\"id\": 1}\n"));
+        } finally {
+            copyData.release();
+        }
+        ByteBuf copyDone = channel.readOutbound();
+        try {
+            byte[] responseBytes = new byte[5];
+            copyDone.readBytes(responseBytes);
+            // CopyDone: 'c' | int32 len
+            assertThat(responseBytes, is(new byte[]{'c', 0, 0, 0, 4}));
+        } finally {
+            copyDone.release();
+        }
+        readCommandComplete(channel, "COPY 1");
+        readReadyForQueryMessage(channel);
+        assertThat(channel.outboundMessages().size(), is(0));
+    }
+
+    private static Session mockSessionForCopy() {
+        Session session = mock(Session.class);
+        var sessionSettings = new CoordinatorSessionSettings(User.CRATE_USER);
+        when(session.sessionSettings()).thenReturn(sessionSettings);
+        when(session.transactionState()).thenReturn(TransactionState.IDLE);
+        return session;
+    }
+
+    private void startProtocolForCopy(Session session,
+                                      StdinFileInputFactory stdinFileInputFactory,
+                                      StdoutFileOutputFactory stdoutFileOutputFactory) {
+        Sessions sqlOperations = mock(Sessions.class);
+        when(sqlOperations.newSession(any(String.class), any(User.class))).thenReturn(session);
+        PostgresWireProtocol ctx =
+            new PostgresWireProtocol(
+                sqlOperations,
+                new SessionSettingRegistry(Set.of()),
+                sessionCtx -> AccessControl.DISABLED,
+                chPipeline -> {},
+                new AlwaysOKAuthentication(() -> List.of(User.CRATE_USER)),
+                null,
+                stdinFileInputFactory,
+                stdoutFileOutputFactory
+            );
+        channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
+        sendStartupMessage(channel);
+        readAuthenticationOK(channel);
+        skipParameterMessages(channel);
+        readKeyData(channel);
+        readReadyForQueryMessage(channel);
+    }
+
+    private static RowCountReceiver captureRowCountReceiver(Session session) {
+        ArgumentCaptor<RowCountReceiver> receiver = ArgumentCaptor.forClass(RowCountReceiver.class);
+        verify(session).execute(eq(""), eq(0), receiver.capture());
+        return receiver.getValue();
+    }
+
     private void submitQueriesThroughSimpleQueryMode(String statements) {
         submitQueriesThroughSimpleQueryMode(statements, null, null);
     }
@@ -824,9 +1001,33 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
         assertThat(responseBytes, is(new byte[]{'Z', 0, 0, 0, 5, 'I'}));
     }
 
+    private static void readCopyResponse(EmbeddedChannel channel, char msgType) {
+        ByteBuf response = channel.readOutbound();
+        byte[] responseBytes = new byte[8];
+        response.readBytes(responseBytes);
+        response.release();
+        // CopyInResponse/CopyOutResponse: 'G'/'H' | int32 len | int8 format | int16 numColumns
+        assertThat(responseBytes, is(new byte[]{(byte) msgType, 0, 0, 0, 7, 0, 0, 0}));
+    }
+
+    private static void readCommandComplete(EmbeddedChannel channel, String commandTag) {
+        ByteBuf response = channel.readOutbound();
+        try {
+            // CommandComplete: 'C' | int32 len | str commandTag
+            assertThat((char) response.readByte(), is('C'));
+            response.readInt();
+            assertThat(PostgresWireProtocol.readCString(response), is(commandTag));
+        } finally {
+            response.release();
+        }
+    }
+
     private static ArrayList<String> readErrorResponse(EmbeddedChannel channel) {
         ByteBuf response = channel.readOutbound();
         ArrayList<String> errorFragments = new ArrayList<>();
+        // ErrorResponse: 'E' | int32 len | { byte1 fieldType | str value } | 0
+        assertThat((char) response.readByte(), is('E'));
+        response.readInt();
         // the byte would actually indicate the field type, but we don't care about that here
         while (response.readByte() != 0) {
             String error = PostgresWireProtocol.readCString(response);
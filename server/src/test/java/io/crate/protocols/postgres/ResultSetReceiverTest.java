@@ -21,6 +21,7 @@
 
 package io.crate.protocols.postgres;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -35,7 +36,9 @@ import io.crate.data.Row1;
 import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
 import io.crate.protocols.postgres.types.PGTypes;
 import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
 
 public class ResultSetReceiverTest {
 
@@ -59,4 +62,35 @@ public class ResultSetReceiverTest {
         }
         verify(channel, times(1)).flush();
     }
+
+    @Test
+    public void test_rows_are_encoded_into_a_single_buffer() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        DelayableWriteChannel delayableWriteChannel = new DelayableWriteChannel(channel);
+        ResultSetReceiver resultSetReceiver = new ResultSetReceiver(
+            "select * from t",
+            delayableWriteChannel,
+            delayableWriteChannel.delayWrites(),
+            TransactionState.IDLE,
+            AccessControl.DISABLED,
+            Collections.singletonList(PGTypes.get(DataTypes.INTEGER)),
+            null
+        );
+        for (int i = 0; i < 3; i++) {
+            resultSetReceiver.setNextRow(new Row1(i));
+        }
+        resultSetReceiver.allFinished();
+
+        ByteBuf rows = channel.readOutbound();
+        try {
+            for (int i = 0; i < 3; i++) {
+                assertThat((char) rows.readByte()).isEqualTo('D');
+                rows.skipBytes(rows.readInt() - 4);
+            }
+            assertThat(rows.readableBytes()).isEqualTo(0);
+        } finally {
+            rows.release();
+            channel.finishAndReleaseAll();
+        }
+    }
 }
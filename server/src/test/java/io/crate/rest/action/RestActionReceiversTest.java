@@ -21,9 +21,11 @@
 
 package io.crate.rest.action;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
@@ -33,6 +35,7 @@ import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Test;
 
+import io.crate.auth.AccessControl;
 import io.crate.breaker.RowAccountingWithEstimators;
 import io.crate.data.Row;
 import io.crate.data.Row1;
@@ -44,6 +47,15 @@ import io.crate.expression.symbol.Symbols;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.RelationName;
 import io.crate.types.DataTypes;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 
 public class RestActionReceiversTest extends ESTestCase {
 
@@ -114,6 +126,70 @@ public class RestActionReceiversTest extends ESTestCase {
         assertXContentBuilder(actualBuilder, builder.build());
     }
 
+    @Test
+    public void test_streaming_result_set_receiver_writes_chunked_response() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        RestStreamingResultSetReceiver receiver = new RestStreamingResultSetReceiver(
+            ctx,
+            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK),
+            false,
+            AccessControl.DISABLED,
+            fields,
+            0L,
+            true
+        );
+        for (Row row : rows) {
+            receiver.setNextRow(row);
+        }
+        receiver.allFinished();
+        assertThat(receiver.completionFuture()).isCompleted();
+        assertThat(receiver.responseStarted()).isTrue();
+
+        assertThat((Object) channel.readOutbound()).isInstanceOf(HttpResponse.class);
+        StringBuilder content = new StringBuilder();
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            HttpContent chunk = (HttpContent) msg;
+            content.append(chunk.content().toString(StandardCharsets.UTF_8));
+            chunk.release();
+            if (chunk instanceof LastHttpContent) {
+                break;
+            }
+        }
+        assertThat(channel.isOpen()).isTrue();
+
+        ResultToXContentBuilder builder = ResultToXContentBuilder.builder(JsonXContent.builder());
+        builder.cols(fields);
+        builder.colTypes(fields);
+        builder.startRows();
+        for (Row row : rows) {
+            builder.addRow(row, 3);
+        }
+        builder.finishRows();
+        builder.rowCount(rows.size());
+        assertEquals(stripDuration(Strings.toString(builder.build())), stripDuration(content.toString()));
+    }
+
+    @Test
+    public void test_streaming_result_set_receiver_failure_before_first_chunk_does_not_write() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        RestStreamingResultSetReceiver receiver = new RestStreamingResultSetReceiver(
+            channel.pipeline().firstContext(),
+            new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK),
+            false,
+            AccessControl.DISABLED,
+            fields,
+            0L,
+            false
+        );
+        receiver.setNextRow(rows.get(0));
+        receiver.fail(new IllegalStateException("dummy"));
+        assertThat(receiver.completionFuture()).isCompletedExceptionally();
+        assertThat(receiver.responseStarted()).isFalse();
+        assertThat((Object) channel.readOutbound()).isNull();
+    }
+
     @Test
     public void testRestBulkRowCountReceiver() throws Exception {
         RestBulkRowCountReceiver.Result[] results = new RestBulkRowCountReceiver.Result[] {
@@ -0,0 +1,97 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.server.xcontent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.junit.Test;
+
+public class BinarySourceTest {
+
+    private static BytesReference write(Map<String, Object> source) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (XContentBuilder builder = BinarySource.builder(out)) {
+            builder.map(source);
+        }
+        return out.bytes();
+    }
+
+    @Test
+    public void test_values_can_be_read_after_writing_them() throws Exception {
+        BytesReference bytes = write(Map.of(
+            "1", 10,
+            "2", 20L,
+            "3", "foo",
+            "4", List.of(1.5, 2.5),
+            "name", Map.of("5", true, "6", 1.5f)
+        ));
+
+        assertThat(BinarySource.isBinary(bytes)).isTrue();
+        assertThat(BinarySource.toMap(bytes)).isEqualTo(Map.of(
+            "1", 10,
+            "2", 20L,
+            "3", "foo",
+            "4", List.of(1.5, 2.5),
+            "name", Map.of("5", true, "6", 1.5f)
+        ));
+    }
+
+    @Test
+    public void test_json_is_not_detected_as_binary_source() throws Exception {
+        assertThat(BinarySource.isBinary(new BytesArray("{\"x\": 1}"))).isFalse();
+    }
+
+    @Test
+    public void test_skip_value_moves_to_next_entry() throws Exception {
+        BytesReference bytes = write(Map.of(
+            "1", Map.of("2", List.of("a", "b"), "3", 30L)
+        ));
+        try (StreamInput in = BinarySource.open(bytes)) {
+            assertThat(in.readByte()).isEqualTo(BinarySource.OBJECT);
+            in.readInt();
+            assertThat(in.readInt()).isEqualTo(1);
+            assertThat(BinarySource.readKey(in)).isEqualTo("1");
+            BinarySource.skipValue(in, in.readByte());
+            assertThat(in.available()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void test_keys_with_leading_zeros_are_written_as_text() throws Exception {
+        BytesReference bytes = write(Map.of("01", 1, "0", 2));
+        assertThat(BinarySource.toMap(bytes)).isEqualTo(Map.of("01", 1, "0", 2));
+    }
+
+    @Test
+    public void test_binary_source_can_be_converted_to_json() throws Exception {
+        BytesReference bytes = write(Map.of("1", List.of(1, 2)));
+        assertThat(BinarySource.toJson(bytes).utf8ToString()).isEqualTo("{\"1\":[1,2]}");
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package org.elasticsearch.index;
+
+import static io.crate.testing.Asserts.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.metadata.ColumnIdent;
+
+public class IndexSortConfigTest extends ESTestCase {
+
+    @Test
+    public void test_parse_sort_columns() {
+        assertThat(IndexSortConfig.parse("")).isEmpty();
+        assertThat(IndexSortConfig.parse("ts DESC,  device ,o.x asc")).containsExactly(
+            new IndexSortConfig.SortColumn("ts", true),
+            new IndexSortConfig.SortColumn("device", false),
+            new IndexSortConfig.SortColumn("o.x", false)
+        );
+        assertThat(IndexSortConfig.parse("o.x").get(0).columnIdent()).isEqualTo(new ColumnIdent("o", "x"));
+    }
+
+    @Test
+    public void test_parse_invalid_sort_columns() {
+        assertThatThrownBy(() -> IndexSortConfig.parse("ts DESC NULLS LAST"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid value for [sort_by]: 'ts DESC NULLS LAST', expected a list of columns with an optional ASC or DESC");
+        assertThatThrownBy(() -> IndexSortConfig.parse("ts, ,x"))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> IndexSortConfig.parse("ts down"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid sort direction for column `ts` in [sort_by]: down");
+    }
+
+    @Test
+    public void test_sort_columns_from_settings() {
+        Settings settings = Settings.builder()
+            .put(IndexSortConfig.INDEX_SORT_BY_SETTING.getKey(), "x DESC")
+            .build();
+        assertThat(IndexSortConfig.sortColumns(settings)).containsExactly(new IndexSortConfig.SortColumn("x", true));
+        assertThat(IndexSortConfig.sortColumns(Settings.EMPTY)).isEmpty();
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.search.QueryCache;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterState;
@@ -48,6 +49,7 @@ import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexService.IndexCreationContext;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexSortConfig;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
 import org.elasticsearch.index.analysis.IndexAnalyzers;
 import org.elasticsearch.index.cache.query.DisabledQueryCache;
@@ -83,13 +85,21 @@ public final class IndexEnv implements AutoCloseable {
         String indexName = table.ident().indexNameOrAlias();
         assert clusterState.metadata().hasIndex(indexName) : "ClusterState must contain the index: " + indexName;
 
+        IndexMetadata indexMetadata = clusterState.metadata().index(indexName);
         Index index = new Index(indexName, UUIDs.randomBase64UUID());
         Settings nodeSettings = Settings.builder()
             .put(IndexMetadata.SETTING_VERSION_CREATED, indexVersion)
             .put("path.home", tempDir.toAbsolutePath())
             .build();
         Environment env = new Environment(nodeSettings, tempDir.resolve("config"));
-        IndexSettings idxSettings = IndexSettingsModule.newIndexSettings(index, nodeSettings);
+        IndexSettings idxSettings = IndexSettingsModule.newIndexSettings(
+            index,
+            Settings.builder()
+                .put(nodeSettings)
+                .put(IndexSortConfig.INDEX_SORT_BY_SETTING.getKey(),
+                     IndexSortConfig.INDEX_SORT_BY_SETTING.get(indexMetadata.getSettings()))
+                .build()
+        );
         AnalysisRegistry analysisRegistry = new AnalysisModule(env, Collections.emptyList()).getAnalysisRegistry();
         IndexAnalyzers indexAnalyzers = analysisRegistry.build(idxSettings);
         MapperRegistry mapperRegistry = new IndicesModule(List.of()).getMapperRegistry();
@@ -100,7 +110,6 @@ public final class IndexEnv implements AutoCloseable {
             NamedXContentRegistry.EMPTY,
             mapperRegistry
         );
-        IndexMetadata indexMetadata = clusterState.metadata().index(indexName);
         mapperService.merge(
             indexMetadata.mapping().source(),
             MapperService.MergeReason.MAPPING_UPDATE
@@ -135,6 +144,10 @@ public final class IndexEnv implements AutoCloseable {
             mapperRegistry
         );
         IndexWriterConfig conf = new IndexWriterConfig(new StandardAnalyzer());
+        Sort indexSort = IndexSortConfig.buildIndexSort(idxSettings.getSettings(), mapperService);
+        if (indexSort != null) {
+            conf.setIndexSort(indexSort);
+        }
         writer = new IndexWriter(new ByteBuffersDirectory(), conf);
         queryShardContext.set(new QueryShardContext(idxSettings, mapperService));
     }
@@ -157,6 +157,7 @@ import io.crate.metadata.view.ViewInfoFactory;
 import io.crate.metadata.view.ViewsMetadata;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
+import io.crate.planner.PlanCache;
 import io.crate.planner.Planner;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.node.ddl.CreateBlobTablePlan;
@@ -422,6 +423,7 @@ public class SQLExecutor {
                         Settings.EMPTY,
                         clusterService,
                         nodeCtx,
+                        schemas,
                         tableStats,
                         null,
                         null,
@@ -807,8 +809,8 @@ public class SQLExecutor {
             jobsLogs,
             clusterService.getSettings(),
             clusterService,
-            tableStats
-
+            tableStats,
+            new PlanCache(0, nodeCtx)
         );
         this.analyzer = analyzer;
         this.planner = planner;